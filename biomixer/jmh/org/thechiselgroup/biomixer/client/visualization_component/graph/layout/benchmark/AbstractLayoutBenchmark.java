@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutGraph;
+
+/**
+ * Common setup of the layout benchmarks: every benchmark runs on a generated
+ * graph of each {@link BenchmarkGraphType} and size.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public abstract class AbstractLayoutBenchmark {
+
+    /**
+     * Fails the benchmark instead of silently measuring a computation that
+     * was aborted.
+     */
+    private static class RethrowingErrorHandler implements ErrorHandler {
+
+        @Override
+        public void handleError(Throwable error) {
+            throw new IllegalStateException(error);
+        }
+
+    }
+
+    private static final long SEED = 20121017L;
+
+    @Param({ "100", "1000", "5000", "20000" })
+    public int nodeCount;
+
+    @Param({ "DAG", "MAPPING" })
+    public BenchmarkGraphType graphType;
+
+    protected TestLayoutGraph graph;
+
+    protected final ErrorHandler errorHandler = new RethrowingErrorHandler();
+
+    @Setup(Level.Trial)
+    public void createGraph() {
+        graph = graphType.createGraph(nodeCount, SEED);
+        setUp();
+    }
+
+    /**
+     * Creates the objects under test once the graph is available.
+     */
+    protected abstract void setUp();
+
+}
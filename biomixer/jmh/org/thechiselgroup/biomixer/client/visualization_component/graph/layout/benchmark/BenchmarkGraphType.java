@@ -0,0 +1,126 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import java.util.Random;
+
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.DefaultBoundsDouble;
+
+/**
+ * Kinds of synthetic graphs the layout benchmarks run on. The graphs are
+ * generated from a fixed seed so that every run lays out the same structure.
+ */
+public enum BenchmarkGraphType {
+
+    /**
+     * A concept hierarchy: every concept has one parent that was created
+     * before it, and about one in ten concepts has a second parent. The result
+     * is a directed acyclic graph with a single root.
+     */
+    DAG {
+        @Override
+        protected void createArcs(TestLayoutGraph graph, TestLayoutNode[] nodes,
+                Random random) {
+            createHierarchy(graph, nodes, 0, nodes.length, random);
+        }
+    },
+
+    /**
+     * Several small ontology hierarchies that are connected by mapping arcs.
+     * A part of the mappings is reciprocal, so the graph contains cycles.
+     */
+    MAPPING {
+        @Override
+        protected void createArcs(TestLayoutGraph graph, TestLayoutNode[] nodes,
+                Random random) {
+            int ontologySize = Math.max(2, nodes.length / ONTOLOGY_COUNT);
+            for (int start = 0; start < nodes.length; start += ontologySize) {
+                createHierarchy(graph, nodes, start,
+                        Math.min(nodes.length, start + ontologySize), random);
+            }
+
+            int mappingCount = nodes.length / 2;
+            for (int i = 0; i < mappingCount; i++) {
+                TestLayoutNode source = nodes[random.nextInt(nodes.length)];
+                TestLayoutNode target = nodes[random.nextInt(nodes.length)];
+                if (source == target) {
+                    continue;
+                }
+                graph.createArc(source, target, 1, true, graph
+                        .getTestLayoutArcTypes()[MAPPING_ARC_TYPE]);
+                if (random.nextInt(RECIPROCAL_MAPPING_RATIO) == 0) {
+                    graph.createArc(target, source, 1, true, graph
+                            .getTestLayoutArcTypes()[MAPPING_ARC_TYPE]);
+                }
+            }
+        }
+    };
+
+    private static final int HIERARCHY_ARC_TYPE = 0;
+
+    private static final int MAPPING_ARC_TYPE = 1;
+
+    private static final int MULTIPLE_PARENT_RATIO = 10;
+
+    private static final int NODE_SIZE = 20;
+
+    private static final int ONTOLOGY_COUNT = 8;
+
+    private static final int RECIPROCAL_MAPPING_RATIO = 4;
+
+    private static void createHierarchy(TestLayoutGraph graph,
+            TestLayoutNode[] nodes, int start, int end, Random random) {
+        for (int i = start + 1; i < end; i++) {
+            TestLayoutNode parent = nodes[start + random.nextInt(i - start)];
+            graph.createArc(nodes[i], parent, 1, true,
+                    graph.getTestLayoutArcTypes()[HIERARCHY_ARC_TYPE]);
+
+            if (i - start > 1 && random.nextInt(MULTIPLE_PARENT_RATIO) == 0) {
+                TestLayoutNode secondParent = nodes[start
+                        + random.nextInt(i - start)];
+                if (secondParent != parent) {
+                    graph.createArc(nodes[i], secondParent, 1, true, graph
+                            .getTestLayoutArcTypes()[HIERARCHY_ARC_TYPE]);
+                }
+            }
+        }
+    }
+
+    protected abstract void createArcs(TestLayoutGraph graph,
+            TestLayoutNode[] nodes, Random random);
+
+    /**
+     * Creates a graph with <code>nodeCount</code> nodes. The size of the graph
+     * bounds grows with the number of nodes so that the node density stays
+     * about the same.
+     */
+    public TestLayoutGraph createGraph(int nodeCount, long seed) {
+        double size = NODE_SIZE * 4 * Math.ceil(Math.sqrt(nodeCount));
+        TestLayoutGraph graph = new TestLayoutGraph(new DefaultBoundsDouble(0,
+                0, size, size), 1, 2);
+
+        TestLayoutNode[] nodes = new TestLayoutNode[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            nodes[i] = graph.createNode(NODE_SIZE, NODE_SIZE, false,
+                    graph.getTestLayoutNodeTypes()[0]);
+        }
+        createArcs(graph, nodes, new Random(seed));
+        return graph;
+    }
+
+}
@@ -0,0 +1,44 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import java.util.List;
+import java.util.Set;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.CycleDetector;
+
+/**
+ * Measures the cycle detection that precedes every tree layout.
+ */
+public class CycleDetectorBenchmark extends AbstractLayoutBenchmark {
+
+    @Benchmark
+    public List<LayoutNode> nodesInCycles() {
+        return new CycleDetector(graph).getNodesInCycles();
+    }
+
+    @Override
+    protected void setUp() {
+    }
+
+    @Benchmark
+    public List<Set<LayoutNode>> stronglyConnectedComponents() {
+        return new CycleDetector(graph).getStronglyConnectedComponents();
+    }
+
+}
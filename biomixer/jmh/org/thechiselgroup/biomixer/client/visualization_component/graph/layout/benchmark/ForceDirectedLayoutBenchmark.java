@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import java.util.Random;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.BoundsDouble;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputation;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BarnesHutNetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceDirectedLayoutAlgorithm;
+
+/**
+ * Measures a fixed number of iterations of the force-directed layout, which is
+ * configured as in the graph view. The nodes are scattered over the graph
+ * before every invocation so that each one starts from the same positions.
+ */
+public class ForceDirectedLayoutBenchmark extends AbstractLayoutBenchmark {
+
+    /**
+     * The frame budget is 0, so each frame computes one iteration.
+     */
+    private static final int ITERATIONS = 10;
+
+    private static final long POSITION_SEED = 42L;
+
+    private ForceDirectedLayoutAlgorithm forceDirectedLayout;
+
+    private final SteppingDelayedExecutor executor = new SteppingDelayedExecutor();
+
+    @Benchmark
+    public LayoutComputation iterations() {
+        LayoutComputation computation = forceDirectedLayout
+                .computeLayout(graph);
+        /* computeLayout already computed the first iteration */
+        int iterations = 1;
+        while (iterations < ITERATIONS && executor.step()) {
+            iterations++;
+        }
+        return computation;
+    }
+
+    @Setup(Level.Invocation)
+    public void scatterNodes() {
+        executor.reset();
+
+        Random random = new Random(POSITION_SEED);
+        BoundsDouble bounds = graph.getBounds();
+        for (LayoutNode node : graph.getAllNodes()) {
+            SizeDouble size = node.getSize();
+            node.setPosition(
+                    bounds.getLeftX() + random.nextDouble()
+                            * (bounds.getWidth() - size.getWidth()),
+                    bounds.getTopY() + random.nextDouble()
+                            * (bounds.getHeight() - size.getHeight()));
+        }
+    }
+
+    @Override
+    protected void setUp() {
+        forceDirectedLayout = new ForceDirectedLayoutAlgorithm(
+                new BoundsAwareAttractionCalculator(graph),
+                new BoundsAwareRepulsionCalculator(graph),
+                BarnesHutNetForceCalculator.DEFAULT_THETA, 0.9,
+                new NodeAnimator(new NullNodeAnimationFactory()), executor,
+                errorHandler);
+    }
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Setup;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputation;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.MultilevelForceDirectedLayoutAlgorithm;
+
+/**
+ * Measures a complete run of the multilevel force-directed layout, from
+ * coarsening the graph until the finest level has converged.
+ */
+public class MultilevelForceDirectedLayoutBenchmark extends
+        AbstractLayoutBenchmark {
+
+    private MultilevelForceDirectedLayoutAlgorithm multilevelLayout;
+
+    private final SteppingDelayedExecutor executor = new SteppingDelayedExecutor();
+
+    @Benchmark
+    public LayoutComputation completeLayout() {
+        LayoutComputation computation = multilevelLayout.computeLayout(graph);
+        while (executor.step()) {
+        }
+        return computation;
+    }
+
+    @Setup(Level.Invocation)
+    public void resetExecutor() {
+        executor.reset();
+    }
+
+    @Override
+    protected void setUp() {
+        multilevelLayout = new MultilevelForceDirectedLayoutAlgorithm(
+                new NodeAnimator(new NullNodeAnimationFactory()), executor,
+                errorHandler);
+    }
+
+}
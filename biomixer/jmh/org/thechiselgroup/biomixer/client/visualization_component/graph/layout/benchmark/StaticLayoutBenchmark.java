@@ -0,0 +1,73 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputation;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.circle.CircleLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.HorizontalTreeLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.LayeredTreeLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.VerticalTreeLayoutAlgorithm;
+
+/**
+ * Measures the layouts that are computed in a single step.
+ */
+public class StaticLayoutBenchmark extends AbstractLayoutBenchmark {
+
+    private CircleLayoutAlgorithm circleLayout;
+
+    private HorizontalTreeLayoutAlgorithm horizontalTreeLayout;
+
+    private LayeredTreeLayoutAlgorithm layeredTreeLayout;
+
+    private VerticalTreeLayoutAlgorithm verticalTreeLayout;
+
+    @Benchmark
+    public LayoutComputation circleLayout() {
+        return circleLayout.computeLayout(graph);
+    }
+
+    @Benchmark
+    public LayoutComputation horizontalTreeLayout() {
+        return horizontalTreeLayout.computeLayout(graph);
+    }
+
+    @Benchmark
+    public LayoutComputation layeredTreeLayout() {
+        return layeredTreeLayout.computeLayout(graph);
+    }
+
+    @Override
+    protected void setUp() {
+        NodeAnimator nodeAnimator = new NodeAnimator(
+                new NullNodeAnimationFactory());
+        circleLayout = new CircleLayoutAlgorithm(errorHandler, nodeAnimator);
+        horizontalTreeLayout = new HorizontalTreeLayoutAlgorithm(true,
+                errorHandler, nodeAnimator);
+        layeredTreeLayout = new LayeredTreeLayoutAlgorithm(false,
+                errorHandler, nodeAnimator);
+        verticalTreeLayout = new VerticalTreeLayoutAlgorithm(true,
+                errorHandler, nodeAnimator);
+    }
+
+    @Benchmark
+    public LayoutComputation verticalTreeLayout() {
+        return verticalTreeLayout.computeLayout(graph);
+    }
+
+}
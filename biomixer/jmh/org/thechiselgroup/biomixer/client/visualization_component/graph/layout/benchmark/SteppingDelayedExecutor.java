@@ -0,0 +1,64 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.benchmark;
+
+import java.util.LinkedList;
+
+import org.thechiselgroup.biomixer.client.core.util.executor.DelayedExecutor;
+
+/**
+ * Queues the runnables of a continuous layout computation instead of running
+ * them after a delay, so that a benchmark can step through a fixed number of
+ * frames.
+ */
+public class SteppingDelayedExecutor implements DelayedExecutor {
+
+    private final LinkedList<Runnable> queue = new LinkedList<Runnable>();
+
+    @Override
+    public void execute(Runnable command) {
+        queue.add(command);
+    }
+
+    public boolean isEmpty() {
+        return queue.isEmpty();
+    }
+
+    /**
+     * Discards the queued runnables.
+     */
+    public void reset() {
+        queue.clear();
+    }
+
+    @Override
+    public void setDelay(int delay) {
+    }
+
+    /**
+     * Runs the runnable that was queued first.
+     * 
+     * @return <code>false</code> if there was nothing to run
+     */
+    public boolean step() {
+        if (queue.isEmpty()) {
+            return false;
+        }
+        queue.removeFirst().run();
+        return true;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.util.json;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonCursor;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonPath;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonTreeCursor;
+
+/**
+ * Compares the streaming selection of the {@link JacksonJsonParser} with
+ * parsing the whole tree and selecting from it, on mapping responses of
+ * different sizes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class JsonSelectionBenchmark {
+
+    private static final JsonPath MAPPINGS_PATH = JsonPath
+            .compile("success.data[0].page.contents.mappings.mapping[*]");
+
+    @Param({ "1000", "20000" })
+    public int mappingCount;
+
+    private String json;
+
+    private final JacksonJsonParser parser = new JacksonJsonParser();
+
+    @Setup(Level.Trial)
+    public void createMappingResponse() {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"success\":{\"accessedResource\":\"/mappings\","
+                + "\"data\":[{\"page\":{\"pageNum\":1,\"contents\":"
+                + "{\"mappings\":{\"mapping\":[");
+        for (int i = 0; i < mappingCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"mapping-").append(i)
+                    .append("\",\"source\":[{\"fullId\":\"source-").append(i)
+                    .append("\"}],\"target\":[{\"fullId\":\"target-")
+                    .append(i).append("\"}],\"comment\":[1,2,{\"a\":[]}]}");
+        }
+        json.append("]}}}}]}}");
+        this.json = json.toString();
+    }
+
+    private int readIds(JsonCursor cursor) {
+        int idLength = 0;
+        while (cursor.next()) {
+            idLength += parser.asString(parser.get(cursor.current(), "id"))
+                    .length();
+        }
+        return idLength;
+    }
+
+    @Benchmark
+    public int streamingSelection() {
+        return readIds(parser.select(json, MAPPINGS_PATH));
+    }
+
+    @Benchmark
+    public int treeSelection() {
+        return readIds(new JsonTreeCursor(parser, parser.parse(json),
+                MAPPINGS_PATH));
+    }
+
+}
@@ -0,0 +1,108 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.workspace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.thechiselgroup.biomixer.client.core.persistence.Memento;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * Compares the {@link MementoSerialization} encoding with Java serialization
+ * of the {@link Memento}s that were stored before, on graph view states with
+ * different numbers of nodes. Each benchmark writes and reads the state.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MementoSerializationBenchmark {
+
+    @Param({ "100", "5000" })
+    public int nodeCount;
+
+    private Memento state;
+
+    @Setup(Level.Trial)
+    public void createGraphState() {
+        Memento nodeLocations = new Memento();
+        for (int i = 0; i < nodeCount; i++) {
+            Memento node = new Memento();
+            node.setValue("x", i * 3);
+            node.setValue("y", i * 7);
+            nodeLocations.addChild("http://purl.bioontology.org/ontology/"
+                    + i, node);
+        }
+
+        Memento arcType = new Memento();
+        arcType.setValue("visible", true);
+        arcType.setValue("arcColor", "#AFC6E5");
+        arcType.setValue("arcThickness", 1);
+
+        Memento arcTypes = new Memento();
+        arcTypes.addChild("mapping", arcType);
+
+        state = new Memento("graph");
+        state.addChild("nodeLocations", nodeLocations);
+        state.addChild("arcTypes", arcTypes);
+    }
+
+    @Benchmark
+    public Memento deflatedEncoding() throws SerializationException {
+        return MementoSerialization.fromBytes(MementoSerialization.toBytes(
+                state, true));
+    }
+
+    @Benchmark
+    public Memento encoding() throws SerializationException {
+        return MementoSerialization.fromBytes(MementoSerialization.toBytes(
+                state, false));
+    }
+
+    @Benchmark
+    public Object javaSerialization() throws IOException,
+            ClassNotFoundException {
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(state);
+        out.close();
+
+        return new ObjectInputStream(new ByteArrayInputStream(
+                bytes.toByteArray())).readObject();
+    }
+
+}
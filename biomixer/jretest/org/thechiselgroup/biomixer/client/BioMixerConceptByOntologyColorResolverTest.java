@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+
+import java.util.LinkedList;
+
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.core.persistence.Memento;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoEncoding;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoInput;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoOutput;
+import org.thechiselgroup.biomixer.client.core.ui.Color;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.managed.SingleSlotDependentVisualItemResolverFactory;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+public class BioMixerConceptByOntologyColorResolverTest {
+
+    /**
+     * Keeps the encoded values in memory. Like GWT-RPC for types that no
+     * service signature references, it cannot write objects.
+     */
+    private static class ValueQueue implements MementoInput, MementoOutput {
+
+        private final LinkedList<Object> values = new LinkedList<Object>();
+
+        @Override
+        public boolean readBoolean() {
+            return (Boolean) values.removeFirst();
+        }
+
+        @Override
+        public byte readByte() {
+            return (Byte) values.removeFirst();
+        }
+
+        @Override
+        public double readDouble() {
+            return (Double) values.removeFirst();
+        }
+
+        @Override
+        public int readInt() {
+            return (Integer) values.removeFirst();
+        }
+
+        @Override
+        public long readLong() {
+            return (Long) values.removeFirst();
+        }
+
+        @Override
+        public Object readObject() {
+            return values.removeFirst();
+        }
+
+        @Override
+        public String readString() {
+            return (String) values.removeFirst();
+        }
+
+        @Override
+        public void writeBoolean(boolean value) {
+            values.add(value);
+        }
+
+        @Override
+        public void writeByte(byte value) {
+            values.add(value);
+        }
+
+        @Override
+        public void writeDouble(double value) {
+            values.add(value);
+        }
+
+        @Override
+        public void writeInt(int value) {
+            values.add(value);
+        }
+
+        @Override
+        public void writeLong(long value) {
+            values.add(value);
+        }
+
+        @Override
+        public void writeObject(Object value) throws SerializationException {
+            throw new SerializationException("Type '"
+                    + value.getClass().getName()
+                    + "' was not included in the set of types which can be"
+                    + " serialized");
+        }
+
+        @Override
+        public void writeString(String value) {
+            values.add(value);
+        }
+
+    }
+
+    @Test
+    public void savedColorsAreRestoredAfterEncoding()
+            throws SerializationException {
+
+        BioMixerConceptByOntologyColorResolver.Persistence persistence = new BioMixerConceptByOntologyColorResolver.Persistence(
+                mock(SingleSlotDependentVisualItemResolverFactory.class));
+        Color color = BioMixerConceptByOntologyColorResolver
+                .getColor("colorResolverTestOntology");
+
+        Memento memento = persistence.save(null);
+        ValueQueue queue = new ValueQueue();
+        MementoEncoding.write(memento, queue);
+        Memento result = MementoEncoding.read(queue);
+        persistence.restore(result);
+
+        assertEquals(memento.toString(), result.toString());
+        assertEquals(color, result.getValue("colorResolverTestOntology"));
+        assertEquals(color, BioMixerConceptByOntologyColorResolver
+                .getColor("colorResolverTestOntology"));
+    }
+
+}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.animation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class BatchedAnimationRunnerTest {
+
+    /**
+     * Frame clock that only advances when the test calls
+     * {@link #advanceTo(long)}.
+     */
+    private static class TestBatchedAnimationRunner extends
+            BatchedAnimationRunner {
+
+        private long currentTime = 0;
+
+        private int scheduleCount = 0;
+
+        public void advanceTo(long time) {
+            currentTime = time;
+            onFrame();
+        }
+
+        @Override
+        protected void cancelFrames() {
+        }
+
+        @Override
+        protected long getCurrentTimeMillis() {
+            return currentTime;
+        }
+
+        @Override
+        protected void scheduleFrames() {
+            scheduleCount++;
+        }
+
+    }
+
+    private static class TestMovable implements Movable {
+
+        private double x;
+
+        private double y;
+
+        public TestMovable(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+        @Override
+        public double getX() {
+            return x;
+        }
+
+        @Override
+        public double getY() {
+            return y;
+        }
+
+        @Override
+        public void setPosition(double x, double y) {
+            this.x = x;
+            this.y = y;
+        }
+
+    }
+
+    private double delta = 0.1;
+
+    private TestBatchedAnimationRunner underTest;
+
+    private void assertNodeLocation(Movable node, double expectedX,
+            double expectedY) {
+        assertEquals(expectedX, node.getX(), delta);
+        assertEquals(expectedY, node.getY(), delta);
+    }
+
+    @Test
+    public void animatablesShareTheNodeClock() {
+        final double[] lastProgress = new double[1];
+        Movable node = createNodeAt(0, 0);
+        underTest.animateTo(node, 100, 0, 100);
+        underTest.run(new Animatable() {
+            @Override
+            public void update(double progress) {
+                lastProgress[0] = progress;
+            }
+        }, 200);
+
+        underTest.advanceTo(50);
+
+        assertEquals(1, underTest.scheduleCount);
+        assertEquals(0.25, lastProgress[0], 0.001);
+        assertNodeLocation(node, 50, 0);
+    }
+
+    @Test
+    public void clockStopsWhenAllAnimationsAreFinished() {
+        Movable node = createNodeAt(0, 0);
+        underTest.animateTo(node, 100, 100, 100);
+        assertTrue(underTest.isClockRunning());
+
+        underTest.advanceTo(100);
+
+        assertNodeLocation(node, 100, 100);
+        assertEquals(0, underTest.getNumberOfRunningAnimations());
+        assertFalse(underTest.isClockRunning());
+    }
+
+    private Movable createNodeAt(double x, double y) {
+        return new TestMovable(x, y);
+    }
+
+    @Test
+    public void finishedNodeDoesNotAffectOtherNodes() {
+        Movable node1 = createNodeAt(0, 0);
+        Movable node2 = createNodeAt(0, 0);
+        Movable node3 = createNodeAt(0, 0);
+        underTest.animateTo(node1, 100, 0, 50);
+        underTest.animateTo(node2, 0, 100, 100);
+        underTest.animateTo(node3, 100, 100, 200);
+
+        underTest.advanceTo(50);
+        underTest.advanceTo(100);
+
+        assertNodeLocation(node1, 100, 0);
+        assertNodeLocation(node2, 0, 100);
+        assertNodeLocation(node3, 50, 50);
+        assertEquals(1, underTest.getNumberOfRunningAnimations());
+    }
+
+    @Test
+    public void nodesAreInterpolatedOnFrame() {
+        Movable node1 = createNodeAt(10, 10);
+        Movable node2 = createNodeAt(0, 0);
+        underTest.animateTo(node1, 30, 30, 100);
+        underTest.animateTo(node2, -40, 20, 100);
+
+        underTest.advanceTo(50);
+
+        assertNodeLocation(node1, 20, 20);
+        assertNodeLocation(node2, -20, 10);
+        assertEquals(1, underTest.scheduleCount);
+    }
+
+    @Test
+    public void retargetingContinuesFromCurrentPosition() {
+        Movable node = createNodeAt(0, 0);
+        underTest.animateTo(node, 100, 0, 100);
+        underTest.advanceTo(50);
+
+        underTest.animateTo(node, 50, 100, 100);
+        underTest.advanceTo(100);
+
+        assertNodeLocation(node, 50, 50);
+        assertEquals(1, underTest.getNumberOfRunningAnimations());
+        assertEquals(1, underTest.scheduleCount);
+    }
+
+    @Before
+    public void setUp() {
+        underTest = new TestBatchedAnimationRunner();
+    }
+
+    @Test
+    public void zeroDurationMovesNodeImmediately() {
+        Movable node = createNodeAt(0, 0);
+
+        underTest.animateTo(node, 20, 30, 0);
+
+        assertNodeLocation(node, 20, 30);
+        assertFalse(underTest.isClockRunning());
+    }
+
+}
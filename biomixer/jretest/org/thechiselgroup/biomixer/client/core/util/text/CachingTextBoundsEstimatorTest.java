@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.text;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CachingTextBoundsEstimatorTest {
+
+    private static final String TEXT = "Concept";
+
+    private TextBoundsEstimator delegate;
+
+    private CachingTextBoundsEstimator underTest;
+
+    @Test
+    public void cacheIsBoundedToCapacity() {
+        underTest = new CachingTextBoundsEstimator(delegate, 2);
+        underTest.setUp();
+        underTest.getWidth("a");
+        underTest.getWidth("b");
+        underTest.getWidth("c");
+        underTest.tearDown();
+
+        assertEquals(2, underTest.getCachedWidthCount());
+    }
+
+    @Test
+    public void delegateIsNotSetUpOnCacheHit() {
+        measure(TEXT);
+        measure(TEXT);
+
+        verify(delegate, times(1)).setUp();
+        verify(delegate, times(1)).tearDown();
+    }
+
+    @Test
+    public void differentFontIsMeasuredAgain() {
+        measure(TEXT);
+        underTest.setUp();
+        underTest.configureFontWeight("bold");
+        underTest.getWidth(TEXT);
+        underTest.tearDown();
+
+        verify(delegate, times(2)).getWidth(TEXT);
+    }
+
+    @Test
+    public void lineHeightIsMeasuredOncePerFont() {
+        measure("a");
+        measure("b");
+
+        verify(delegate, times(1)).getHeight("a");
+        verify(delegate, never()).getHeight("b");
+    }
+
+    private void measure(String text) {
+        underTest.setUp();
+        try {
+            underTest.configureFontSize("12px");
+            underTest.configureFontWeight("normal");
+            assertEquals(text.length() * 10, underTest.getSize(text)
+                    .getWidth());
+            assertEquals(20, underTest.getSize(text).getHeight());
+        } finally {
+            underTest.tearDown();
+        }
+    }
+
+    @Test
+    public void nestedSetUpKeepsDelegateSetUp() {
+        underTest.setUp();
+        measure("a");
+        measure("b");
+        verify(delegate, never()).tearDown();
+        underTest.tearDown();
+
+        verify(delegate, times(1)).setUp();
+        verify(delegate, times(1)).tearDown();
+    }
+
+    @Before
+    public void setUp() {
+        delegate = spy(new TestTextBoundsEstimator(10, 20));
+        underTest = new CachingTextBoundsEstimator(delegate);
+    }
+
+}
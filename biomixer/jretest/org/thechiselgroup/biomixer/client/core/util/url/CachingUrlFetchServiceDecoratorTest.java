@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class CachingUrlFetchServiceDecoratorTest {
+
+    private static class TestCachingUrlFetchServiceDecorator extends
+            CachingUrlFetchServiceDecorator {
+
+        private long currentTime = 0;
+
+        public TestCachingUrlFetchServiceDecorator(UrlFetchService delegate,
+                UrlFetchCachePolicy policy) {
+            super(delegate, policy);
+        }
+
+        @Override
+        protected long getCurrentTimeMillis() {
+            return currentTime;
+        }
+
+    }
+
+    private static final String RESPONSE = "response";
+
+    private static final String URL_1 = "url1";
+
+    private static final String URL_2 = "url2";
+
+    @Mock
+    private UrlFetchService delegate;
+
+    @Mock
+    private UrlFetchCachePolicy policy;
+
+    private TestCachingUrlFetchServiceDecorator underTest;
+
+    @SuppressWarnings("unchecked")
+    private AsyncCallback<String> captureDelegateCallback(String url) {
+        ArgumentCaptor<AsyncCallback> captor = ArgumentCaptor
+                .forClass(AsyncCallback.class);
+        verify(delegate, times(1)).fetchURL(eq(url), captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void cachedResponseIsReturnedWithoutFetching() {
+        underTest.fetchURL(URL_1, mock(AsyncCallback.class));
+        captureDelegateCallback(URL_1).onSuccess(RESPONSE);
+
+        AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.fetchURL(URL_1, callback);
+
+        verify(callback, times(1)).onSuccess(RESPONSE);
+        verify(delegate, times(1)).fetchURL(anyString(),
+                any(AsyncCallback.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void concurrentRequestsShareOneFetch() {
+        AsyncCallback<String> callback1 = mock(AsyncCallback.class);
+        AsyncCallback<String> callback2 = mock(AsyncCallback.class);
+
+        underTest.fetchURL(URL_1, callback1);
+        underTest.fetchURL(URL_1, callback2);
+        assertEquals(1, underTest.getPendingRequestCount());
+
+        captureDelegateCallback(URL_1).onSuccess(RESPONSE);
+
+        verify(callback1, times(1)).onSuccess(RESPONSE);
+        verify(callback2, times(1)).onSuccess(RESPONSE);
+        assertEquals(0, underTest.getPendingRequestCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void expiredResponseIsFetchedAgain() {
+        when(policy.getTimeToLive(URL_1)).thenReturn(100l);
+
+        underTest.fetchURL(URL_1, mock(AsyncCallback.class));
+        captureDelegateCallback(URL_1).onSuccess(RESPONSE);
+
+        underTest.currentTime = 100;
+        underTest.fetchURL(URL_1, mock(AsyncCallback.class));
+
+        verify(delegate, times(2)).fetchURL(eq(URL_1),
+                any(AsyncCallback.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void failureIsPassedToAllWaitingCallbacksAndNotCached() {
+        AsyncCallback<String> callback1 = mock(AsyncCallback.class);
+        AsyncCallback<String> callback2 = mock(AsyncCallback.class);
+        Throwable error = new RuntimeException();
+
+        underTest.fetchURL(URL_1, callback1);
+        underTest.fetchURL(URL_1, callback2);
+        captureDelegateCallback(URL_1).onFailure(error);
+
+        verify(callback1, times(1)).onFailure(error);
+        verify(callback2, times(1)).onFailure(error);
+        assertEquals(0, underTest.getCacheSize());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void leastRecentlyUsedResponseIsEvicted() {
+        underTest.setCapacity(1);
+
+        underTest.fetchURL(URL_1, mock(AsyncCallback.class));
+        captureDelegateCallback(URL_1).onSuccess(RESPONSE);
+        underTest.fetchURL(URL_2, mock(AsyncCallback.class));
+        captureDelegateCallback(URL_2).onSuccess(RESPONSE);
+
+        assertEquals(1, underTest.getCacheSize());
+
+        underTest.fetchURL(URL_1, mock(AsyncCallback.class));
+        verify(delegate, times(2)).fetchURL(eq(URL_1),
+                any(AsyncCallback.class));
+    }
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        when(policy.getTimeToLive(anyString())).thenReturn(
+                UrlFetchCachePolicy.NEVER_EXPIRE);
+
+        underTest = new TestCachingUrlFetchServiceDecorator(delegate, policy);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void uncacheableResponseIsNotCached() {
+        when(policy.getTimeToLive(URL_1)).thenReturn(
+                UrlFetchCachePolicy.DO_NOT_CACHE);
+
+        underTest.fetchURL(URL_1, mock(AsyncCallback.class));
+        captureDelegateCallback(URL_1).onSuccess(RESPONSE);
+
+        assertEquals(0, underTest.getCacheSize());
+    }
+
+}
@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class SchedulingUrlFetchServiceDecoratorTest {
+
+    /**
+     * Records fetched URLs and their callbacks, completes nothing by itself.
+     */
+    private static class RecordingUrlFetchService implements UrlFetchService {
+
+        private final List<AsyncCallback<String>> callbacks = new ArrayList<AsyncCallback<String>>();
+
+        private final List<String> urls = new ArrayList<String>();
+
+        private boolean respondImmediately = false;
+
+        @Override
+        public void fetchURL(String url, AsyncCallback<String> callback) {
+            urls.add(url);
+            if (respondImmediately) {
+                callback.onSuccess(url);
+            } else {
+                callbacks.add(callback);
+            }
+        }
+
+    }
+
+    private static final Object OWNER = "owner";
+
+    private RecordingUrlFetchService delegate;
+
+    private SchedulingUrlFetchServiceDecorator underTest;
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void cachedUrlIsFetchedWhileAllSlotsAreTaken() {
+        useCachingDelegate();
+        underTest.fetchURL("cached", mock(AsyncCallback.class));
+        delegate.callbacks.get(0).onSuccess("result");
+        fillAllSlots();
+        underTest.fetchURL("z", mock(AsyncCallback.class));
+
+        AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.fetchURL("cached", callback);
+
+        verify(callback, times(1)).onSuccess("result");
+        assertEquals(1, underTest.getQueueDepth());
+        assertEquals(0, underTest.getLocalRequestCount());
+        assertEquals(list("cached", "x", "y"), delegate.urls);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void callbackRunsInContextOfRequest() {
+        underTest.runWithPriority(UrlFetchPriority.BACKGROUND, OWNER,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        underTest.fetchURL("a", new AsyncCallback<String>() {
+                            @Override
+                            public void onFailure(Throwable caught) {
+                            }
+
+                            @Override
+                            public void onSuccess(String result) {
+                                underTest.fetchURL("chained",
+                                        mock(AsyncCallback.class));
+                            }
+                        });
+                    }
+                });
+
+        delegate.callbacks.get(0).onSuccess("result");
+        underTest.fetchURL("c", mock(AsyncCallback.class));
+        underTest.cancel(OWNER);
+
+        assertEquals(list("a", "chained", "c"), delegate.urls);
+        assertEquals(1, underTest.getCancelledRequestCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void cancelDropsQueuedRequestsOfOwner() {
+        fillAllSlots();
+
+        underTest.runWithPriority(UrlFetchPriority.NORMAL, OWNER,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        underTest.fetchURL("owned", mock(AsyncCallback.class));
+                    }
+                });
+        underTest.fetchURL("other", mock(AsyncCallback.class));
+
+        underTest.cancel(OWNER);
+        delegate.callbacks.get(0).onSuccess("result");
+
+        assertEquals("other", delegate.urls.get(2));
+        assertEquals(0, underTest.getQueueDepth());
+        assertEquals(1, underTest.getCancelledRequestCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void cancelFailsCallbackOfQueuedRequest() {
+        fillAllSlots();
+
+        final AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.runWithPriority(UrlFetchPriority.NORMAL, OWNER,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        underTest.fetchURL("owned", callback);
+                    }
+                });
+
+        underTest.cancel(OWNER);
+
+        verify(callback, times(1)).onFailure(
+                any(UrlFetchCancelledException.class));
+        verify(callback, never()).onSuccess(any(String.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void cancelFailsCallbackOfRunningRequest() {
+        final AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.runWithPriority(UrlFetchPriority.NORMAL, OWNER,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        underTest.fetchURL("a", callback);
+                    }
+                });
+
+        underTest.cancel(OWNER);
+        verify(callback, times(1)).onFailure(
+                any(UrlFetchCancelledException.class));
+
+        delegate.callbacks.get(0).onSuccess("result");
+
+        verify(callback, times(1)).onFailure(any(Throwable.class));
+        verify(callback, never()).onSuccess(any(String.class));
+        assertEquals(0, underTest.getRunningRequestCount());
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void duplicateOfRunningRequestDoesNotTakeSlot() {
+        useCachingDelegate();
+        fillAllSlots();
+
+        AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.fetchURL("x", callback);
+        assertEquals(0, underTest.getQueueDepth());
+        assertEquals(1, underTest.getLocalRequestCount());
+
+        delegate.callbacks.get(0).onSuccess("result");
+
+        verify(callback, times(1)).onSuccess("result");
+        assertEquals(0, underTest.getLocalRequestCount());
+        assertEquals(list("x", "y"), delegate.urls);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fillAllSlots() {
+        underTest.setMaxConcurrentRequests(2);
+        underTest.fetchURL("x", mock(AsyncCallback.class));
+        underTest.fetchURL("y", mock(AsyncCallback.class));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetchWithPriority(final String url,
+            UrlFetchPriority priority) {
+
+        underTest.runWithPriority(priority, null, new Runnable() {
+            @Override
+            public void run() {
+                underTest.fetchURL(url, mock(AsyncCallback.class));
+            }
+        });
+    }
+
+    @Test
+    public void higherPriorityRequestsAreDispatchedFirst() {
+        fillAllSlots();
+
+        fetchWithPriority("background", UrlFetchPriority.BACKGROUND);
+        fetchWithPriority("normal", UrlFetchPriority.NORMAL);
+        fetchWithPriority("interactive", UrlFetchPriority.INTERACTIVE);
+
+        assertEquals(3, underTest.getQueueDepth());
+        assertEquals(1, underTest.getQueueDepth(UrlFetchPriority.BACKGROUND));
+
+        delegate.callbacks.get(0).onSuccess("result");
+        delegate.callbacks.get(1).onSuccess("result");
+        delegate.callbacks.get(2).onSuccess("result");
+
+        assertEquals(list("x", "y", "interactive", "normal", "background"),
+                delegate.urls);
+        assertEquals(3, underTest.getMaxQueueDepth());
+    }
+
+    private List<String> list(String... values) {
+        List<String> list = new ArrayList<String>();
+        for (String value : values) {
+            list.add(value);
+        }
+        return list;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void requestsAboveLimitAreQueued() {
+        fillAllSlots();
+        underTest.fetchURL("z", mock(AsyncCallback.class));
+
+        assertEquals(2, underTest.getRunningRequestCount());
+        assertEquals(1, underTest.getQueueDepth());
+        assertEquals(list("x", "y"), delegate.urls);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void sharedRequestCompletesAfterOtherOwnerCancelled() {
+        useCachingDelegate();
+        underTest.runWithPriority(UrlFetchPriority.NORMAL, OWNER,
+                new Runnable() {
+                    @Override
+                    public void run() {
+                        underTest.fetchURL("a", mock(AsyncCallback.class));
+                    }
+                });
+        AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.fetchURL("a", callback);
+
+        underTest.cancel(OWNER);
+        delegate.callbacks.get(0).onSuccess("result");
+
+        verify(callback, never()).onFailure(any(Throwable.class));
+        verify(callback, times(1)).onSuccess("result");
+        assertEquals(1, underTest.getCancelledRequestCount());
+    }
+
+    @Before
+    public void setUp() {
+        delegate = new RecordingUrlFetchService();
+        underTest = new SchedulingUrlFetchServiceDecorator(delegate);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void synchronouslyCompletedRequestsReleaseTheirSlot() {
+        delegate.respondImmediately = true;
+        underTest.setMaxConcurrentRequests(1);
+
+        AsyncCallback<String> callback = mock(AsyncCallback.class);
+        underTest.fetchURL("a", callback);
+        underTest.fetchURL("b", callback);
+
+        verify(callback, times(1)).onSuccess("a");
+        verify(callback, times(1)).onSuccess("b");
+        assertEquals(0, underTest.getRunningRequestCount());
+    }
+
+    private void useCachingDelegate() {
+        UrlFetchCachePolicy policy = mock(UrlFetchCachePolicy.class);
+        when(policy.getTimeToLive(any(String.class))).thenReturn(
+                UrlFetchCachePolicy.NEVER_EXPIRE);
+        underTest = new SchedulingUrlFetchServiceDecorator(
+                new CachingUrlFetchServiceDecorator(delegate, policy));
+    }
+
+}
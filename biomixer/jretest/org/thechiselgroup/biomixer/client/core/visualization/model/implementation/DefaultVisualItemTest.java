@@ -17,10 +17,17 @@ package org.thechiselgroup.biomixer.client.core.visualization.model.implementati
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertThat;
+import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.thechiselgroup.biomixer.client.core.resources.ResourceSetTestUtils.NUMBER_PROPERTY_1;
+import static org.thechiselgroup.biomixer.client.core.resources.ResourceSetTestUtils.createResource;
 import static org.thechiselgroup.biomixer.client.core.resources.ResourceSetTestUtils.createResources;
+import static org.thechiselgroup.biomixer.client.core.resources.ResourceSetTestUtils.toResourceSet;
 import static org.thechiselgroup.biomixer.shared.core.test.matchers.collections.CollectionMatchers.containsExactly;
 
 import org.junit.Before;
@@ -32,12 +39,17 @@ import org.thechiselgroup.biomixer.client.core.resources.Resource;
 import org.thechiselgroup.biomixer.client.core.resources.ResourceSet;
 import org.thechiselgroup.biomixer.client.core.util.DataType;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollections;
+import org.thechiselgroup.biomixer.client.core.util.math.MaxCalculation;
+import org.thechiselgroup.biomixer.client.core.util.math.SumCalculation;
 import org.thechiselgroup.biomixer.client.core.visualization.model.Slot;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem.Status;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem.Subset;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemInteractionHandler;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolver;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolverContext;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.CalculationResolver;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.SubsetDependantVisualItemValueResolver;
 
 public class DefaultVisualItemTest {
 
@@ -345,6 +357,85 @@ public class DefaultVisualItemTest {
         assertEquals(3d, underTest.getValue(numberSlot));
     }
 
+    @Test
+    public void getSlotValueClearCacheOnChangeOfDependantSubset() {
+        resources.addAll(createResources(1, 2, 3, 4));
+        SubsetDependantVisualItemValueResolver subsetResolver = mock(
+                SubsetDependantVisualItemValueResolver.class);
+        when(resolverContext.getResolver(numberSlot)).thenReturn(
+                subsetResolver);
+        when(subsetResolver.isDependantOn(Subset.HIGHLIGHTED)).thenReturn(
+                true);
+        when(subsetResolver.resolve(underTest, resolverContext)).thenReturn(
+                2d, 3d);
+
+        underTest.getValue(numberSlot); // cache value
+        underTest.updateSubset(Subset.HIGHLIGHTED, createResources(1),
+                LightweightCollections.<Resource> emptyCollection());
+
+        assertEquals(3d, underTest.getValue(numberSlot));
+    }
+
+    @Test
+    public void getSlotValueKeepCacheOnChangeOfIndependentSubset() {
+        resources.addAll(createResources(1, 2, 3, 4));
+        SubsetDependantVisualItemValueResolver subsetResolver = mock(
+                SubsetDependantVisualItemValueResolver.class);
+        when(resolverContext.getResolver(numberSlot)).thenReturn(
+                subsetResolver);
+        when(subsetResolver.isDependantOn(Subset.HIGHLIGHTED)).thenReturn(
+                false);
+        when(subsetResolver.resolve(underTest, resolverContext)).thenReturn(
+                2d, 3d);
+
+        underTest.getValue(numberSlot); // cache value
+        underTest.updateSubset(Subset.HIGHLIGHTED, createResources(1),
+                LightweightCollections.<Resource> emptyCollection());
+
+        assertEquals(2d, underTest.getValue(numberSlot));
+    }
+
+    @Test
+    public void getSlotValueRecalculatedAfterRemovingMaximum() {
+        resources.addAll(toResourceSet(createNumberResource(1, 1d),
+                createNumberResource(2, 5d)));
+        CalculationResolver calculationResolver = spy(new CalculationResolver(
+                NUMBER_PROPERTY_1, new MaxCalculation()));
+        when(resolverContext.getResolver(numberSlot)).thenReturn(
+                calculationResolver);
+
+        assertEquals(5d, underTest.getValue(numberSlot));
+        resources.remove(createNumberResource(2, 5d));
+
+        assertEquals(1d, underTest.getValue(numberSlot));
+        verify(calculationResolver, times(2)).createIncrementalValue(
+                underTest, resolverContext);
+    }
+
+    @Test
+    public void getSlotValueUpdatedIncrementallyOnResourceSetChange() {
+        resources.addAll(toResourceSet(createNumberResource(1, 1d),
+                createNumberResource(2, 2d)));
+        CalculationResolver calculationResolver = spy(new CalculationResolver(
+                NUMBER_PROPERTY_1, new SumCalculation()));
+        when(resolverContext.getResolver(numberSlot)).thenReturn(
+                calculationResolver);
+
+        assertEquals(3d, underTest.getValue(numberSlot));
+        resources.add(createNumberResource(3, 4d));
+        resources.remove(createNumberResource(1, 1d));
+
+        assertEquals(6d, underTest.getValue(numberSlot));
+        verify(calculationResolver, never()).resolve(any(VisualItem.class),
+                any(VisualItemValueResolverContext.class), any(Subset.class));
+    }
+
+    private Resource createNumberResource(int index, double value) {
+        Resource resource = createResource(index);
+        resource.putValue(NUMBER_PROPERTY_1, value);
+        return resource;
+    }
+
     @Test
     public void highlightStatusAfterHighlightedSubsetIsRemoved() {
         resources.addAll(createResources(1, 2, 3, 4));
@@ -15,12 +15,17 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.graph;
 
+import static org.hamcrest.CoreMatchers.instanceOf;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
 import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.argThat;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -51,10 +56,12 @@ import org.thechiselgroup.biomixer.client.core.resources.ResourceSet;
 import org.thechiselgroup.biomixer.client.core.resources.ResourceSetTestUtils;
 import org.thechiselgroup.biomixer.client.core.resources.UriList;
 import org.thechiselgroup.biomixer.client.core.test.mockito.MockitoGWTBridge;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
 import org.thechiselgroup.biomixer.client.core.util.collections.CollectionUtils;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
 import org.thechiselgroup.biomixer.client.services.mapping.MappingServiceAsync;
 import org.thechiselgroup.biomixer.client.services.term.TermServiceAsync;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.CallbackException;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.GraphNodeExpansionCallback;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.ResourceNeighbourhood;
 import org.thechiselgroup.biomixer.shared.core.test.matchers.collections.CollectionMatchers;
@@ -114,7 +121,6 @@ public class ConceptMappingNeighbourhoodExpanderTest {
                 .addAutomaticResource(targetResource);
     }
 
-    @SuppressWarnings({ "rawtypes", "unchecked" })
     @Test
     public void addLoadedResourcesToAutomaticResources() {
         visualItemResources.add(concept);
@@ -134,28 +140,14 @@ public class ConceptMappingNeighbourhoodExpanderTest {
         when(resourceManager.add(targetResource)).thenReturn(
                 addedTargetResource);
 
-        ArgumentCaptor<AsyncCallback> sourceCaptor = ArgumentCaptor
-                .forClass(AsyncCallback.class);
-        doNothing().when(termService).getBasicInformation(
-                eq(Concept.getOntologyId(sourceResource)),
-                eq(Concept.getConceptId(sourceResource)),
-                sourceCaptor.capture());
-
-        ArgumentCaptor<AsyncCallback> targetCaptor = ArgumentCaptor
-                .forClass(AsyncCallback.class);
-        doNothing().when(termService).getBasicInformation(
-                eq(Concept.getOntologyId(targetResource)),
-                eq(Concept.getConceptId(targetResource)),
-                targetCaptor.capture());
-
         expandUnderTestWithMappings(concept.getUri(), mappings,
                 new HashMap<String, Serializable>());
 
-        AsyncCallback<Resource> sourceCallback = sourceCaptor.getValue();
-        sourceCallback.onSuccess(sourceResource);
-
-        AsyncCallback<Resource> targetCallback = targetCaptor.getValue();
-        targetCallback.onSuccess(targetResource);
+        BatchCallback<Resource> callback = captureBasicInformationCallback(
+                targetResource.getUri(), sourceResource.getUri());
+        callback.onSuccess(sourceResource.getUri(), sourceResource);
+        callback.onSuccess(targetResource.getUri(), targetResource);
+        callback.onBatchComplete();
 
         verify(expansionCallback, times(1)).addAutomaticResource(
                 addedSourceResource);
@@ -167,7 +159,6 @@ public class ConceptMappingNeighbourhoodExpanderTest {
                 outgoingMapping);
     }
 
-    @SuppressWarnings({ "unchecked", "rawtypes" })
     @Test
     public void addLoadedResourcesToManager() {
         visualItemResources.add(concept);
@@ -176,28 +167,14 @@ public class ConceptMappingNeighbourhoodExpanderTest {
         mappings.add(outgoingMapping);
         mappings.add(incomingMapping);
 
-        ArgumentCaptor<AsyncCallback> sourceCaptor = ArgumentCaptor
-                .forClass(AsyncCallback.class);
-        doNothing().when(termService).getBasicInformation(
-                eq(Concept.getOntologyId(sourceResource)),
-                eq(Concept.getConceptId(sourceResource)),
-                sourceCaptor.capture());
-
-        ArgumentCaptor<AsyncCallback> targetCaptor = ArgumentCaptor
-                .forClass(AsyncCallback.class);
-        doNothing().when(termService).getBasicInformation(
-                eq(Concept.getOntologyId(targetResource)),
-                eq(Concept.getConceptId(targetResource)),
-                targetCaptor.capture());
-
         expandUnderTestWithMappings(concept.getUri(), mappings,
                 new HashMap<String, Serializable>());
 
-        AsyncCallback<Resource> sourceCallback = sourceCaptor.getValue();
-        sourceCallback.onSuccess(sourceResource);
-
-        AsyncCallback<Resource> targetCallback = targetCaptor.getValue();
-        targetCallback.onSuccess(targetResource);
+        BatchCallback<Resource> callback = captureBasicInformationCallback(
+                targetResource.getUri(), sourceResource.getUri());
+        callback.onSuccess(sourceResource.getUri(), sourceResource);
+        callback.onSuccess(targetResource.getUri(), targetResource);
+        callback.onBatchComplete();
 
         verify(resourceManager, times(1)).add(sourceResource);
         verify(resourceManager, times(1)).add(targetResource);
@@ -261,6 +238,32 @@ public class ConceptMappingNeighbourhoodExpanderTest {
                         addedIncomingMapping, addedOutgoingMapping)));
     }
 
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private BatchCallback<Resource> captureBasicInformationCallback(
+            String... conceptUris) {
+
+        ArgumentCaptor<BatchCallback> captor = ArgumentCaptor
+                .forClass(BatchCallback.class);
+        verify(termService, times(1)).getBasicInformation(
+                (Iterable<String>) argThat(containsExactly(conceptUris)),
+                captor.capture());
+        return captor.getValue();
+    }
+
+    @SuppressWarnings({ "rawtypes", "unchecked" })
+    private List<String> captureBasicInformationUris() {
+        ArgumentCaptor<Iterable> captor = ArgumentCaptor
+                .forClass(Iterable.class);
+        verify(termService, times(1)).getBasicInformation(captor.capture(),
+                any(BatchCallback.class));
+
+        List<String> conceptUris = new ArrayList<String>();
+        for (String conceptUri : (Iterable<String>) captor.getValue()) {
+            conceptUris.add(conceptUri);
+        }
+        return conceptUris;
+    }
+
     @SuppressWarnings("unchecked")
     public void correctIdsPassedIntoMappingService() {
         visualItemResources.add(concept);
@@ -304,6 +307,34 @@ public class ConceptMappingNeighbourhoodExpanderTest {
                 any(String.class), eq(true), any(AsyncCallback.class));
     }
 
+    @Test
+    public void exceptionWhileAddingLoadedResourceIsPassedToErrorHandler() {
+        ErrorHandler errorHandler = mock(ErrorHandler.class);
+        underTest = new ConceptMappingNeighbourhoodExpander(mappingService,
+                errorHandler, resourceManager, termService);
+        visualItemResources.add(concept);
+
+        RuntimeException exception = new RuntimeException();
+        when(resourceManager.add(targetResource)).thenThrow(exception);
+
+        List<Resource> mappings = new ArrayList<Resource>();
+        mappings.add(outgoingMapping);
+
+        expandUnderTestWithMappings(concept.getUri(), mappings,
+                new HashMap<String, Serializable>());
+
+        BatchCallback<Resource> callback = captureBasicInformationCallback(
+                targetResource.getUri());
+        callback.onSuccess(targetResource.getUri(), targetResource);
+        callback.onBatchComplete();
+
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor
+                .forClass(Throwable.class);
+        verify(errorHandler, times(1)).handleError(captor.capture());
+        assertThat(captor.getValue(), instanceOf(CallbackException.class));
+        assertSame(exception, captor.getValue().getCause());
+    }
+
     @SuppressWarnings({ "rawtypes", "unchecked" })
     private void expandUnderTestWithMappings(String conceptUri,
             List<Resource> mappings, Map<String, Serializable> partialProperties) {
@@ -337,13 +368,70 @@ public class ConceptMappingNeighbourhoodExpanderTest {
                 CollectionMatchers.containsExactly(incomingMapping.getUri()));
     }
 
+    @Test
+    public void loadFailureIsPassedToErrorHandler() {
+        ErrorHandler errorHandler = mock(ErrorHandler.class);
+        underTest = new ConceptMappingNeighbourhoodExpander(mappingService,
+                errorHandler, resourceManager, termService);
+        visualItemResources.add(concept);
+
+        List<Resource> mappings = new ArrayList<Resource>();
+        mappings.add(outgoingMapping);
+        mappings.add(incomingMapping);
+
+        expandUnderTestWithMappings(concept.getUri(), mappings,
+                new HashMap<String, Serializable>());
+
+        Exception failure = new Exception();
+        BatchCallback<Resource> callback = captureBasicInformationCallback(
+                targetResource.getUri(), sourceResource.getUri());
+        callback.onFailure(targetResource.getUri(), failure);
+        callback.onSuccess(sourceResource.getUri(), sourceResource);
+        callback.onBatchComplete();
+
+        ArgumentCaptor<Throwable> captor = ArgumentCaptor
+                .forClass(Throwable.class);
+        verify(errorHandler, times(1)).handleError(captor.capture());
+        assertThat(captor.getValue(), instanceOf(CallbackException.class));
+        assertSame(failure, captor.getValue().getCause());
+        verify(expansionCallback, times(1)).addAutomaticResource(
+                incomingMapping);
+        verify(expansionCallback, never()).addAutomaticResource(
+                outgoingMapping);
+    }
+
+    @Test
+    public void loadMappedConceptOnlyOnce() {
+        visualItemResources.add(concept);
+
+        Resource secondOutgoingMapping = Mapping.createMappingResource(
+                "mapping3", concept.getUri(), targetResource.getUri());
+
+        List<Resource> mappings = new ArrayList<Resource>();
+        mappings.add(outgoingMapping);
+        mappings.add(secondOutgoingMapping);
+
+        expandUnderTestWithMappings(concept.getUri(), mappings,
+                new HashMap<String, Serializable>());
+
+        BatchCallback<Resource> callback = captureBasicInformationCallback(
+                targetResource.getUri());
+        callback.onSuccess(targetResource.getUri(), targetResource);
+        callback.onBatchComplete();
+
+        verify(resourceManager, times(1)).add(targetResource);
+        verify(expansionCallback, times(1)).addAutomaticResource(
+                outgoingMapping);
+        verify(expansionCallback, times(1)).addAutomaticResource(
+                secondOutgoingMapping);
+    }
+
     @Test
     public void loadUncontainedConcepts() {
         testLoadConcepts(1, Concept.toConceptURI("ontologyId2", "conceptId2"),
                 null);
     }
 
-    @SuppressWarnings("unchecked")
     @Test
     public void loadUncontainedSourceConceptWithoutMappingServiceCall() {
         visualItemResources.add(concept);
@@ -362,13 +450,10 @@ public class ConceptMappingNeighbourhoodExpanderTest {
 
         underTest.expand(visualItem, expansionCallback);
 
-        verify(termService, times(1)).getBasicInformation(
-                eq(Concept.getOntologyId(sourceResource.getUri())),
-                eq(Concept.getConceptId(sourceResource.getUri())),
-                any(AsyncCallback.class));
+        assertTrue(captureBasicInformationUris().contains(
+                sourceResource.getUri()));
     }
 
-    @SuppressWarnings("unchecked")
     @Test
     public void loadUncontainedTargetConceptWithoutMappingServiceCall() {
         visualItemResources.add(concept);
@@ -387,10 +472,8 @@ public class ConceptMappingNeighbourhoodExpanderTest {
 
         underTest.expand(visualItem, expansionCallback);
 
-        verify(termService, times(1)).getBasicInformation(
-                eq(Concept.getOntologyId(targetResource.getUri())),
-                eq(Concept.getConceptId(targetResource.getUri())),
-                any(AsyncCallback.class));
+        assertTrue(captureBasicInformationUris().contains(
+                targetResource.getUri()));
     }
 
     @Test
@@ -494,11 +577,12 @@ public class ConceptMappingNeighbourhoodExpanderTest {
         expandUnderTestWithMappings(concept1Uri, mappings,
                 new HashMap<String, Serializable>());
 
-        verify(termService, times(expectedResourceManagerCalls))
-                .getBasicInformation(
-                        eq(Concept.getOntologyId(addedResourceUri)),
-                        eq(Concept.getConceptId(addedResourceUri)),
-                        any(AsyncCallback.class));
+        if (expectedResourceManagerCalls == 0) {
+            verify(termService, never()).getBasicInformation(
+                    any(Iterable.class), any(BatchCallback.class));
+        } else {
+            captureBasicInformationCallback(addedResourceUri);
+        }
     }
 
     @Test
@@ -0,0 +1,65 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.services;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlBuilderFactory;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchCachePolicy;
+
+public class NcboUrlFetchCachePolicyTest {
+
+    private NcboUrlFetchCachePolicy underTest;
+
+    private UrlBuilderFactory urlBuilderFactory;
+
+    @Test
+    public void ontologyNamesNeverExpire() {
+        String url = urlBuilderFactory.createUrlBuilder()
+                .path("/bioportal/virtual/ontology/1078").toString();
+
+        assertEquals(UrlFetchCachePolicy.NEVER_EXPIRE,
+                underTest.getTimeToLive(url));
+    }
+
+    @Test
+    public void searchResultsAreNotCached() {
+        String url = urlBuilderFactory.createUrlBuilder()
+                .path("/bioportal/search/").parameter("query", "heart")
+                .toString();
+
+        assertEquals(UrlFetchCachePolicy.DO_NOT_CACHE,
+                underTest.getTimeToLive(url));
+    }
+
+    @Before
+    public void setUp() {
+        urlBuilderFactory = new NcboJsonpRestUrlBuilderFactory();
+        underTest = new NcboUrlFetchCachePolicy();
+    }
+
+    @Test
+    public void unknownPathsAreNotCached() {
+        String url = urlBuilderFactory.createUrlBuilder().path("/unknown")
+                .toString();
+
+        assertEquals(UrlFetchCachePolicy.DO_NOT_CACHE,
+                underTest.getTimeToLive(url));
+    }
+
+}
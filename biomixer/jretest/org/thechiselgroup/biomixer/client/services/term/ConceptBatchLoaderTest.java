@@ -0,0 +1,178 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.services.term;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.thechiselgroup.biomixer.client.Concept;
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchCancelledException;
+import org.thechiselgroup.biomixer.client.services.ontology.OntologyNameServiceAsync;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+public class ConceptBatchLoaderTest {
+
+    private class RecordingBatchCallback implements BatchCallback<Resource> {
+
+        private int completedCount = 0;
+
+        private List<String> failed = new ArrayList<String>();
+
+        private List<String> succeeded = new ArrayList<String>();
+
+        @Override
+        public void onBatchComplete() {
+            completedCount++;
+        }
+
+        @Override
+        public void onFailure(String key, Throwable caught) {
+            failed.add(key);
+        }
+
+        @Override
+        public void onSuccess(String key, Resource result) {
+            assertEquals(key, result.getUri());
+            succeeded.add(key);
+        }
+
+    }
+
+    private static final String CONCEPT_1 = Concept.toConceptURI("1", "a");
+
+    private static final String CONCEPT_2 = Concept.toConceptURI("1", "b");
+
+    private static final String CONCEPT_3 = Concept.toConceptURI("2", "c");
+
+    private RecordingBatchCallback callback;
+
+    private List<AsyncCallback<Resource>> conceptCallbacks;
+
+    private List<String> loadedConcepts;
+
+    @Mock
+    private OntologyNameServiceAsync ontologyNameService;
+
+    private ConceptBatchLoader underTest;
+
+    @SuppressWarnings({ "unchecked", "rawtypes" })
+    private AsyncCallback<String> captureNameCallback(String ontologyId) {
+        ArgumentCaptor<AsyncCallback> captor = ArgumentCaptor
+                .forClass(AsyncCallback.class);
+        verify(ontologyNameService, times(1)).getOntologyName(eq(ontologyId),
+                captor.capture());
+        return captor.getValue();
+    }
+
+    @Test
+    public void cancelledConceptsComplete() {
+        underTest.load(Arrays.asList(CONCEPT_1, CONCEPT_2), callback);
+        captureNameCallback("1").onSuccess("name");
+
+        conceptCallbacks.get(0).onSuccess(new Resource(CONCEPT_1));
+        conceptCallbacks.get(1).onFailure(
+                new UrlFetchCancelledException("url"));
+
+        assertEquals(1, callback.completedCount);
+        assertEquals(Arrays.asList(CONCEPT_2), callback.failed);
+    }
+
+    @Test
+    public void completesAfterLastConcept() {
+        underTest.load(Arrays.asList(CONCEPT_1, CONCEPT_2), callback);
+        captureNameCallback("1").onSuccess("name");
+
+        conceptCallbacks.get(0).onSuccess(new Resource(CONCEPT_1));
+        assertEquals(0, callback.completedCount);
+
+        conceptCallbacks.get(1).onFailure(new RuntimeException());
+        assertEquals(1, callback.completedCount);
+        assertEquals(Arrays.asList(CONCEPT_1), callback.succeeded);
+        assertEquals(Arrays.asList(CONCEPT_2), callback.failed);
+    }
+
+    @Test
+    public void duplicateConceptsAreLoadedOnce() {
+        underTest.load(Arrays.asList(CONCEPT_1, CONCEPT_1), callback);
+        captureNameCallback("1").onSuccess("name");
+
+        assertEquals(Arrays.asList("1/a"), loadedConcepts);
+    }
+
+    @Test
+    public void emptyBatchCompletesImmediately() {
+        underTest.load(new ArrayList<String>(), callback);
+
+        assertEquals(1, callback.completedCount);
+    }
+
+    @Test
+    public void failedNameLookupFailsAllConceptsOfOntology() {
+        underTest.load(Arrays.asList(CONCEPT_1, CONCEPT_2, CONCEPT_3),
+                callback);
+        captureNameCallback("1").onFailure(new RuntimeException());
+
+        assertEquals(Arrays.asList(CONCEPT_1, CONCEPT_2), callback.failed);
+        assertEquals(0, callback.completedCount);
+    }
+
+    @Test
+    public void ontologyNameIsLookedUpOncePerOntology() {
+        underTest.load(Arrays.asList(CONCEPT_1, CONCEPT_2, CONCEPT_3),
+                callback);
+
+        captureNameCallback("1").onSuccess("name 1");
+        captureNameCallback("2").onSuccess("name 2");
+
+        assertEquals(Arrays.asList("1/a", "1/b", "2/c"), loadedConcepts);
+    }
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        callback = new RecordingBatchCallback();
+        conceptCallbacks = new ArrayList<AsyncCallback<Resource>>();
+        loadedConcepts = new ArrayList<String>();
+
+        underTest = new ConceptBatchLoader(ontologyNameService) {
+            @Override
+            protected void loadConcept(String ontologyId,
+                    String conceptFullId, String ontologyName,
+                    AsyncCallback<Resource> callback) {
+
+                loadedConcepts.add(ontologyId + "/" + conceptFullId);
+                conceptCallbacks.add(callback);
+            }
+        };
+    }
+
+}
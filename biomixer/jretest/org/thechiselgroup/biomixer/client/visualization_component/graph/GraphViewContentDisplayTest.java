@@ -48,6 +48,7 @@ import org.thechiselgroup.biomixer.client.core.util.collections.Delta;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollection;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollections;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightList;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchScheduler;
 import org.thechiselgroup.biomixer.client.core.visualization.model.Slot;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemContainer;
@@ -95,6 +96,9 @@ public class GraphViewContentDisplayTest {
     @Mock
     private ResourceManager resourceManager;
 
+    @Mock
+    private UrlFetchScheduler urlFetchScheduler;
+
     private Point sourceLocation;
 
     private Point targetLocation;
@@ -307,7 +311,8 @@ public class GraphViewContentDisplayTest {
 
     private void init() {
         underTest = new Graph(graphDisplay, commandManager, resourceManager,
-                resourceCategorizer, arcStyleProvider, registry, errorHandler);
+                resourceCategorizer, arcStyleProvider, registry, errorHandler,
+                urlFetchScheduler);
         underTest.init(visualItemContainer, callback);
     }
 
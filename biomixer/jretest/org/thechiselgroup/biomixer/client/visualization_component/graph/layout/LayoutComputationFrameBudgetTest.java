@@ -0,0 +1,192 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
+
+public class LayoutComputationFrameBudgetTest extends AbstractLayoutGraphTest {
+
+    /**
+     * Computation with a fake clock. Each iteration takes
+     * <code>iterationCost</code> milliseconds, and can optionally be split
+     * into two slices that yield if the frame budget is used up.
+     */
+    private class TestLayoutComputation extends AbstractLayoutComputation {
+
+        private long currentTime = 0;
+
+        private int remainingIterations;
+
+        private final int iterationCost;
+
+        private final boolean sliced;
+
+        private boolean inProgress = false;
+
+        public TestLayoutComputation(LayoutGraph graph, int iterations,
+                int iterationCost, boolean sliced) {
+            super(graph, executor, mock(ErrorHandler.class), new NodeAnimator(
+                    new NullNodeAnimationFactory()));
+            this.remainingIterations = iterations;
+            this.iterationCost = iterationCost;
+            this.sliced = sliced;
+        }
+
+        @Override
+        protected boolean computeIteration() throws RuntimeException {
+            if (sliced && !inProgress) {
+                currentTime += iterationCost / 2;
+                if (isFrameBudgetExhausted()) {
+                    inProgress = true;
+                    return true;
+                }
+                currentTime += iterationCost - iterationCost / 2;
+            } else if (sliced) {
+                currentTime += iterationCost - iterationCost / 2;
+                inProgress = false;
+            } else {
+                currentTime += iterationCost;
+            }
+            remainingIterations--;
+            return remainingIterations > 0;
+        }
+
+        @Override
+        protected long getCurrentTimeMillis() {
+            return currentTime;
+        }
+
+        @Override
+        protected boolean isIterationInProgress() {
+            return inProgress;
+        }
+
+    }
+
+    private List<Runnable> scheduledFrames;
+
+    private List<Integer> iterationsPerFrame;
+
+    private Executor executor;
+
+    private TestLayoutComputation createComputation(int iterations,
+            int iterationCost, int frameBudget, boolean sliced) {
+        TestLayoutComputation computation = new TestLayoutComputation(
+                graph, iterations, iterationCost, sliced);
+        computation.setFrameBudget(frameBudget);
+        computation
+                .addProgressHandler(new LayoutComputationProgressHandler() {
+                    @Override
+                    public void onLayoutComputationProgress(
+                            LayoutComputationProgressEvent e) {
+                        iterationsPerFrame.add(e.getIterationsInFrame());
+                    }
+                });
+        return computation;
+    }
+
+    @Test
+    public void iterationsAreSplitAcrossFramesWhenBudgetIsUsedUp() {
+        TestLayoutComputation computation = createComputation(10, 4, 10,
+                false);
+
+        runAllFrames(computation);
+
+        assertEquals(list(3, 3, 3, 1), iterationsPerFrame);
+        assertEquals(10, computation.getTotalIterations());
+    }
+
+    private List<Integer> list(Integer... values) {
+        List<Integer> result = new ArrayList<Integer>();
+        for (Integer value : values) {
+            result.add(value);
+        }
+        return result;
+    }
+
+    @Test
+    public void noFrameBudgetComputesOneIterationPerFrame() {
+        TestLayoutComputation computation = createComputation(3, 100, 0,
+                false);
+
+        runAllFrames(computation);
+
+        assertEquals(list(1, 1, 1), iterationsPerFrame);
+        assertEquals(3, computation.getTotalIterations());
+    }
+
+    private void runAllFrames(TestLayoutComputation computation) {
+        computation.run();
+        while (!scheduledFrames.isEmpty()) {
+            scheduledFrames.remove(0).run();
+        }
+    }
+
+    @Test
+    public void slicedIterationResumesInNextFrame() {
+        TestLayoutComputation computation = createComputation(2, 8, 3, true);
+
+        runAllFrames(computation);
+
+        /*
+         * Each frame only has room for half an iteration, so every iteration
+         * is completed in the frame after the one it was started in.
+         */
+        assertEquals(list(0, 1, 0, 1), iterationsPerFrame);
+        assertEquals(2, computation.getTotalIterations());
+        assertFalse(computation.isRunning());
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 100, 100);
+        scheduledFrames = new ArrayList<Runnable>();
+        iterationsPerFrame = new ArrayList<Integer>();
+        executor = new Executor() {
+            @Override
+            public void execute(Runnable command) {
+                scheduledFrames.add(command);
+            }
+        };
+    }
+
+    @Test
+    public void smallComputationFinishesInSingleFrame() {
+        TestLayoutComputation computation = createComputation(5, 1, 10,
+                false);
+
+        computation.run();
+
+        assertTrue(scheduledFrames.isEmpty());
+        assertEquals(list(5), iterationsPerFrame);
+        assertFalse(computation.isRunning());
+    }
+
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class LayoutGraphSnapshotTest extends AbstractLayoutGraphTest {
+
+    @Test
+    public void adjacencyIsIndexedByOrdinals() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(3);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[2], nodes[1]);
+
+        LayoutGraphSnapshot snapshot = graph.getSnapshot();
+
+        assertEquals(3, snapshot.getNodeCount());
+        assertEquals(2, snapshot.getOrdinal(nodes[2]));
+        assertEquals(1, snapshot.getOutgoingArcCount(0));
+        assertEquals(0, snapshot.getIncomingArcCount(0));
+        assertEquals(2, snapshot.getIncomingArcCount(1));
+        assertEquals(1, snapshot.getArcTarget(snapshot.getOutgoingArc(2, 0)));
+        assertEquals(0, snapshot.getArcSource(snapshot.getIncomingArc(1, 0)));
+        assertEquals(2, snapshot.getArcSource(snapshot.getIncomingArc(1, 1)));
+        assertTrue(snapshot.isDirected(0));
+    }
+
+    @Test
+    public void arcTypeMasksContainTypesOfConnectedArcs() {
+        createGraph(0, 0, 400, 400, 1, 2);
+        TestLayoutNode[] nodes = createNodes(3);
+        createArc(0, nodes[0], nodes[1]);
+        createArc(1, nodes[1], nodes[2]);
+
+        LayoutGraphSnapshot snapshot = graph.getSnapshot();
+
+        assertEquals(1, snapshot.getArcTypeMask(0));
+        assertEquals(3, snapshot.getArcTypeMask(1));
+        assertEquals(2, snapshot.getArcTypeMask(2));
+        assertEquals(1, snapshot.getArcType(1));
+    }
+
+    @Test
+    public void nodeStatesAreReadOnRequest() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(1);
+        nodes[0].setPosition(100, 50);
+
+        LayoutGraphSnapshot snapshot = graph.getSnapshot();
+        nodes[0].setPosition(200, 50);
+        nodes[0].setAnchored(true);
+
+        assertEquals(105, snapshot.getCentreX(0), 0.0001);
+        assertFalse(snapshot.isAnchored(0));
+
+        snapshot.readNodeStates();
+
+        assertEquals(205, snapshot.getCentreX(0), 0.0001);
+        assertEquals(55, snapshot.getCentreY(0), 0.0001);
+        assertTrue(snapshot.isAnchored(0));
+    }
+
+    @Test
+    public void snapshotIsReplacedWhenContentChanges() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(2);
+
+        LayoutGraphSnapshot snapshot = graph.getSnapshot();
+        assertSame(snapshot, graph.getSnapshot());
+
+        createArc(nodes[0], nodes[1]);
+        LayoutGraphSnapshot changedSnapshot = graph.getSnapshot();
+
+        assertNotSame(snapshot, changedSnapshot);
+        assertTrue(changedSnapshot.getVersion() > snapshot.getVersion());
+        assertEquals(0, snapshot.getArcCount());
+        assertEquals(1, changedSnapshot.getArcCount());
+    }
+
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class SpatialNodeIndexTest extends AbstractLayoutGraphTest {
+
+    private SpatialNodeIndex underTest;
+
+    private TestLayoutNode[] nodes;
+
+    @Test
+    public void boundsAreRecomputedWhenBorderNodeMovesInwards() {
+        nodes[0].setPosition(10, 10);
+        nodes[1].setPosition(300, 200);
+        nodes[2].setPosition(100, 100);
+
+        assertEquals(10, underTest.getLeftX(), 0.0001);
+        assertEquals(310, underTest.getRightX(), 0.0001);
+
+        nodes[1].setPosition(150, 150);
+
+        assertEquals(160, underTest.getRightX(), 0.0001);
+        assertEquals(160, underTest.getBottomY(), 0.0001);
+    }
+
+    @Test
+    public void graphNodeBoundsFollowMovedNodes() {
+        nodes[0].setPosition(10, 20);
+        nodes[1].setPosition(50, 60);
+        nodes[2].setPosition(30, 40);
+
+        BoundsDouble bounds = graph.getNodeBounds();
+        assertEquals(10, bounds.getLeftX(), 0.0001);
+        assertEquals(50, bounds.getWidth(), 0.0001);
+
+        nodes[1].setPosition(200, 60);
+
+        assertEquals(200, graph.getNodeBounds().getWidth(), 0.0001);
+        assertEquals(210, graph.getMaxNodeX(), 0.0001);
+        assertEquals(70, graph.getMaxNodeY(), 0.0001);
+    }
+
+    @Test
+    public void nodeIsFoundAtItsNewPositionAfterMoving() {
+        nodes[0].setPosition(10, 10);
+        nodes[0].setPosition(500, 500);
+
+        assertTrue(underTest.getNodesAt(15, 15).isEmpty());
+        assertEquals(1, underTest.getNodesAt(505, 505).size());
+        assertTrue(underTest.getNodesAt(505, 505).contains(nodes[0]));
+    }
+
+    @Test
+    public void nodesAddedToGraphAreIndexed() {
+        nodes[0].setPosition(10, 10);
+        TestLayoutNode addedNode = createNodes(1)[0];
+        addedNode.setPosition(20, 20);
+
+        List<LayoutNode> found = graph.getSpatialIndex().getNodesAt(22, 22);
+
+        assertEquals(1, found.size());
+        assertTrue(found.contains(addedNode));
+    }
+
+    @Test
+    public void nodesIntersectingAreaAreReportedOnce() {
+        TestLayoutNode largeNode = graph.createNode(250, 250, false,
+                graph.getTestLayoutNodeTypes()[0]);
+        largeNode.setPosition(50, 50);
+        nodes[0].setPosition(120, 120);
+        nodes[1].setPosition(400, 400);
+
+        List<LayoutNode> found = graph.getSpatialIndex().getNodesIntersecting(
+                0, 0, 300, 300);
+
+        assertEquals(2, found.size());
+        assertTrue(found.contains(largeNode));
+        assertTrue(found.contains(nodes[0]));
+    }
+
+    @Test
+    public void nodesWithoutPositionAreIgnored() {
+        nodes[0].setPosition(10, 10);
+
+        assertEquals(3, underTest.getNodeCount());
+        assertEquals(1, underTest.getNodesIntersecting(-1000, -1000, 2000,
+                2000).size());
+        assertEquals(20, underTest.getRightX(), 0.0001);
+    }
+
+    @Test
+    public void removedNodeIsNotFound() {
+        nodes[0].setPosition(10, 10);
+        nodes[1].setPosition(10, 10);
+
+        underTest.remove(nodes[1]);
+        nodes[1].setPosition(12, 12);
+
+        List<LayoutNode> found = underTest.getNodesAt(15, 15);
+        assertEquals(1, found.size());
+        assertTrue(found.contains(nodes[0]));
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 400, 400);
+        nodes = createNodes(3);
+        underTest = new SpatialNodeIndex();
+        for (TestLayoutNode node : nodes) {
+            underTest.add(node);
+        }
+    }
+
+}
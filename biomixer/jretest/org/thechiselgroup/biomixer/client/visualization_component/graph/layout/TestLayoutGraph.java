@@ -61,6 +61,8 @@ public class TestLayoutGraph extends AbstractLayoutGraph {
         if (!arcTypes.contains(type)) {
             arcTypes.add(type);
         }
+        fireLayoutGraphContentChangedEvent(new LayoutGraphContentChangedEvent(
+                this));
         return arc;
     }
 
@@ -72,6 +74,8 @@ public class TestLayoutGraph extends AbstractLayoutGraph {
         if (!nodeTypes.contains(type)) {
             nodeTypes.add(type);
         }
+        fireLayoutGraphContentChangedEvent(new LayoutGraphContentChangedEvent(
+                this));
         return node;
     }
 
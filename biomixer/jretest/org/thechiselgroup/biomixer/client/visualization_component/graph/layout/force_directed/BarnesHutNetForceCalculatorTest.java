@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BarnesHutNetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.CompositeForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceSimulationState;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.NetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.PairwiseNetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.Vector2D;
+
+/**
+ * Validates the Barnes-Hut approximation against the exact pairwise
+ * calculation of the net forces.
+ */
+public class BarnesHutNetForceCalculatorTest extends AbstractLayoutGraphTest {
+
+    private BoundsAwareAttractionCalculator attractionCalculator;
+
+    private BoundsAwareRepulsionCalculator repulsionCalculator;
+
+    private NetForceCalculator exactCalculator;
+
+    private void assertExactForcesForAllNodes(double theta) {
+        ForceSimulationState expected = calculateNetForces(exactCalculator);
+        ForceSimulationState actual = calculateBarnesHutForces(theta);
+        for (int i = 0; i < expected.getNodeCount(); i++) {
+            assertEquals(expected.getForceX(i), actual.getForceX(i), 1e-6);
+            assertEquals(expected.getForceY(i), actual.getForceY(i), 1e-6);
+        }
+    }
+
+    private ForceSimulationState calculateBarnesHutForces(double theta) {
+        return calculateNetForces(new BarnesHutNetForceCalculator(
+                attractionCalculator, repulsionCalculator, theta));
+    }
+
+    private ForceSimulationState calculateNetForces(
+            NetForceCalculator calculator) {
+        ForceSimulationState state = new ForceSimulationState(graph);
+        state.update();
+        calculator.calculateNetForces(state);
+        return state;
+    }
+
+    private TestLayoutNode[] createRandomGraph(int numberOfNodes,
+            int numberOfArcs) {
+        Random random = new Random(42);
+        TestLayoutNode[] nodes = createNodes(numberOfNodes);
+        for (TestLayoutNode node : nodes) {
+            node.setPosition(random.nextDouble() * 990,
+                    random.nextDouble() * 990);
+        }
+        for (int i = 0; i < numberOfArcs; i++) {
+            createArc(nodes[random.nextInt(numberOfNodes)],
+                    nodes[random.nextInt(numberOfNodes)]);
+        }
+        return nodes;
+    }
+
+    @Test
+    public void approximationIsCloseToExactResult() {
+        createRandomGraph(500, 600);
+        ForceSimulationState expected = calculateNetForces(exactCalculator);
+        ForceSimulationState actual = calculateBarnesHutForces(
+                BarnesHutNetForceCalculator.DEFAULT_THETA);
+
+        /*
+         * Net forces close to zero are the result of large forces cancelling
+         * each other out, so the error is compared to the largest exact net
+         * force rather than to the force on each node.
+         */
+        double tolerance = 0.02 * getMaxNetForce(expected);
+        for (int i = 0; i < expected.getNodeCount(); i++) {
+            double error = new Vector2D(actual.getForceX(i)
+                    - expected.getForceX(i), actual.getForceY(i)
+                    - expected.getForceY(i)).getMagnitude();
+            assertTrue("error " + error + " exceeds " + tolerance,
+                    error <= tolerance);
+        }
+    }
+
+    @Test
+    public void coincidentNodesMatchExactResult() {
+        TestLayoutNode[] nodes = createNodes(4);
+        nodes[0].setPosition(100, 100);
+        nodes[1].setPosition(100, 100);
+        nodes[2].setPosition(100, 100);
+        nodes[3].setPosition(500, 300);
+        createArc(nodes[0], nodes[3]);
+
+        assertExactForcesForAllNodes(0);
+        assertExactForcesForAllNodes(BarnesHutNetForceCalculator.DEFAULT_THETA);
+    }
+
+    @Test
+    public void duplicateArcsAttractOnce() {
+        TestLayoutNode[] nodes = createNodes(2);
+        nodes[0].setPosition(100, 100);
+        nodes[1].setPosition(400, 300);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[0]);
+
+        assertExactForcesForAllNodes(0);
+    }
+
+    private double getMaxNetForce(ForceSimulationState state) {
+        double maxMagnitude = 0;
+        for (int i = 0; i < state.getNodeCount(); i++) {
+            maxMagnitude = Math.max(maxMagnitude,
+                    new Vector2D(state.getForceX(i), state.getForceY(i))
+                            .getMagnitude());
+        }
+        return maxMagnitude;
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 1000, 1000);
+        attractionCalculator = new BoundsAwareAttractionCalculator(graph);
+        repulsionCalculator = new BoundsAwareRepulsionCalculator(graph);
+        exactCalculator = new PairwiseNetForceCalculator(
+                new CompositeForceCalculator(attractionCalculator,
+                        repulsionCalculator));
+    }
+
+    @Test
+    public void singleNodeHasNoForce() {
+        createNodes(1)[0].setPosition(10, 10);
+
+        assertExactForcesForAllNodes(0);
+    }
+
+    @Test
+    public void thetaZeroMatchesExactResult() {
+        createRandomGraph(200, 250);
+
+        assertExactForcesForAllNodes(0);
+    }
+
+}
@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.animation.BatchedAnimationRunner;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.core.util.executor.DirectExecutor;
+import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputationProgressEvent;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputationProgressHandler;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BarnesHutNetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceDirectedLayoutComputation;
+
+public class ForceDirectedLayoutFrameBudgetTest extends
+        AbstractLayoutGraphTest {
+
+    /**
+     * Animation runner whose clock only advances between the layout frames,
+     * like the timer-driven runner in the browser.
+     */
+    private static class DeferredAnimationRunner extends
+            BatchedAnimationRunner {
+
+        private long currentTime = 0;
+
+        public void advanceBy(long milliseconds) {
+            currentTime += milliseconds;
+            onFrame();
+        }
+
+        @Override
+        protected void cancelFrames() {
+        }
+
+        @Override
+        protected long getCurrentTimeMillis() {
+            return currentTime;
+        }
+
+        @Override
+        protected void scheduleFrames() {
+        }
+
+    }
+
+    private static final int ANIMATION_DURATION = 100;
+
+    private static final int FRAME_DELAY = 16;
+
+    @Mock
+    private ErrorHandler errorHandler;
+
+    private TestLayoutNode[] nodes;
+
+    private double[][] initialPositions;
+
+    private ForceDirectedLayoutComputation createComputation(
+            NodeAnimator nodeAnimator, Executor executor) {
+        return new ForceDirectedLayoutComputation(
+                new BarnesHutNetForceCalculator(
+                        new BoundsAwareAttractionCalculator(graph),
+                        new BoundsAwareRepulsionCalculator(graph),
+                        BarnesHutNetForceCalculator.DEFAULT_THETA), 0.9,
+                graph, executor, errorHandler, nodeAnimator,
+                ANIMATION_DURATION) {
+
+            /*
+             * Every call takes a millisecond, so several iterations fit into
+             * a frame.
+             */
+            private long currentTime = 0;
+
+            @Override
+            protected long getCurrentTimeMillis() {
+                return currentTime++;
+            }
+        };
+    }
+
+    private double[][] getPositions() {
+        double[][] positions = new double[nodes.length][];
+        for (int i = 0; i < nodes.length; i++) {
+            positions[i] = new double[] { nodes[i].getX(), nodes[i].getY() };
+        }
+        return positions;
+    }
+
+    private void resetPositions() {
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setPosition(initialPositions[i][0],
+                    initialPositions[i][1]);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 600, 600);
+        nodes = createNodes(40);
+        for (int i = 0; i < nodes.length; i++) {
+            nodes[i].setPosition(280 + (i % 8) * 5, 280 + (i / 8) * 5);
+            if (i > 0) {
+                createArc(nodes[i / 2], nodes[i]);
+            }
+        }
+        initialPositions = getPositions();
+    }
+
+    @Test
+    public void severalIterationsPerFrameMatchUnbudgetedLayout() {
+        ForceDirectedLayoutComputation unbudgeted = createComputation(
+                new NodeAnimator(new NullNodeAnimationFactory()),
+                new DirectExecutor());
+        unbudgeted.run();
+        assertFalse(unbudgeted.isRunning());
+        double[][] expectedPositions = getPositions();
+
+        resetPositions();
+        final List<Runnable> scheduledFrames = new ArrayList<Runnable>();
+        DeferredAnimationRunner animationRunner = new DeferredAnimationRunner();
+        ForceDirectedLayoutComputation budgeted = createComputation(
+                new NodeAnimator(animationRunner), new Executor() {
+                    @Override
+                    public void execute(Runnable command) {
+                        scheduledFrames.add(command);
+                    }
+                });
+        budgeted.setFrameBudget(10);
+        final int[] maxIterationsInFrame = new int[1];
+        budgeted.addProgressHandler(new LayoutComputationProgressHandler() {
+            @Override
+            public void onLayoutComputationProgress(
+                    LayoutComputationProgressEvent e) {
+                maxIterationsInFrame[0] = Math.max(maxIterationsInFrame[0],
+                        e.getIterationsInFrame());
+            }
+        });
+
+        budgeted.run();
+        while (!scheduledFrames.isEmpty()) {
+            animationRunner.advanceBy(FRAME_DELAY);
+            scheduledFrames.remove(0).run();
+        }
+        animationRunner.advanceBy(ANIMATION_DURATION);
+
+        assertTrue(maxIterationsInFrame[0] > 1);
+        assertEquals(unbudgeted.getTotalIterations(),
+                budgeted.getTotalIterations());
+        for (int i = 0; i < nodes.length; i++) {
+            assertEquals(expectedPositions[i][0], nodes[i].getX(), 0.0001);
+            assertEquals(expectedPositions[i][1], nodes[i].getY(), 0.0001);
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceSimulationState;
+
+public class ForceSimulationStateTest extends AbstractLayoutGraphTest {
+
+    private ForceSimulationState underTest;
+
+    @Test
+    public void addedNodesAreReportedOnce() {
+        createNodes(2);
+        underTest.update();
+        assertEquals(2, underTest.getAddedNodeCount());
+
+        TestLayoutNode[] added = createNodes(1);
+        underTest.update();
+        assertEquals(1, underTest.getAddedNodeCount());
+        assertEquals(added[0], underTest.getNode(underTest.getAddedNode(0)));
+
+        underTest.update();
+        assertEquals(0, underTest.getAddedNodeCount());
+    }
+
+    @Test
+    public void centresAreTakenFromNodes() {
+        TestLayoutNode[] nodes = createNodes(1);
+        nodes[0].setPosition(100, 50);
+        underTest.update();
+
+        assertEquals(105, underTest.getCentreX(0), 0.0001);
+        assertEquals(55, underTest.getCentreY(0), 0.0001);
+    }
+
+    @Test
+    public void dampeningIsKeptWhenNodesAreAdded() {
+        TestLayoutNode[] nodes = createNodes(2);
+        underTest.update();
+        underTest.increaseDampening(0.5);
+
+        createNodes(1);
+        underTest.update();
+
+        assertEquals(3, underTest.getNodeCount());
+        assertEquals(nodes[0], underTest.getNode(0));
+        assertEquals(0.5, underTest.getDampening(0), 0.0001);
+        assertEquals(0.5, underTest.getDampening(1), 0.0001);
+        assertEquals(1.0, underTest.getDampening(2), 0.0001);
+    }
+
+    @Test
+    public void duplicateArcsResultInSingleNeighbour() {
+        TestLayoutNode[] nodes = createNodes(3);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[2]);
+        underTest.update();
+
+        assertEquals(1, underTest.getNeighbourCount(0));
+        assertEquals(1, underTest.getNeighbour(0, 0));
+        assertEquals(1, underTest.getNeighbourCount(1));
+        assertEquals(0, underTest.getNeighbourCount(2));
+        assertTrue(underTest.areConnected(0, 1));
+        assertTrue(underTest.areConnected(1, 0));
+        assertFalse(underTest.areConnected(0, 2));
+        assertFalse(underTest.areConnected(2, 2));
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 400, 400);
+        underTest = new ForceSimulationState(graph);
+    }
+
+}
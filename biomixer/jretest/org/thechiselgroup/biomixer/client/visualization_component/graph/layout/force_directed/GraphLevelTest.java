@@ -0,0 +1,106 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.GraphLevel;
+
+public class GraphLevelTest extends AbstractLayoutGraphTest {
+
+    private int getTotalWeight(GraphLevel level) {
+        int totalWeight = 0;
+        for (int v = 0; v < level.getVertexCount(); v++) {
+            totalWeight += level.getWeight(v);
+        }
+        return totalWeight;
+    }
+
+    @Test
+    public void anchoredNodesAreNotMerged() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(4);
+        nodes[1].setAnchored(true);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[2]);
+        createArc(nodes[2], nodes[3]);
+
+        GraphLevel finest = GraphLevel.createFinestLevel(graph.getSnapshot());
+        GraphLevel coarse = finest.coarsen(new Random(0));
+
+        int anchoredVertex = finest.getCoarseVertex(1);
+        assertEquals(1, coarse.getWeight(anchoredVertex));
+        assertEquals(1, coarse.getAnchoredNode(anchoredVertex));
+        assertEquals(finest.getCoarseVertex(2), finest.getCoarseVertex(3));
+    }
+
+    @Test
+    public void coarseningKeepsTheTotalWeight() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(20);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i], nodes[(i - 1) / 3]);
+        }
+
+        GraphLevel level = GraphLevel.createFinestLevel(graph.getSnapshot());
+        Random random = new Random(0);
+        while (level.getVertexCount() > 1) {
+            GraphLevel coarse = level.coarsen(random);
+            assertTrue(coarse.getVertexCount() < level.getVertexCount());
+            assertEquals(nodes.length, getTotalWeight(coarse));
+            level = coarse;
+        }
+    }
+
+    @Test
+    public void finestLevelContainsDistinctNeighbours() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(3);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[1], nodes[2]);
+        createArc(nodes[2], nodes[2]);
+
+        GraphLevel level = GraphLevel.createFinestLevel(graph.getSnapshot());
+
+        assertEquals(1, level.getNeighbourCount(0));
+        assertEquals(2, level.getNeighbourCount(1));
+        assertEquals(1, level.getNeighbourCount(2));
+    }
+
+    @Test
+    public void starIsMergedIntoSingleVertex() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(6);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i], nodes[0]);
+        }
+
+        GraphLevel coarse = GraphLevel.createFinestLevel(graph.getSnapshot())
+                .coarsen(new Random(0));
+
+        assertEquals(1, coarse.getVertexCount());
+        assertEquals(6, coarse.getWeight(0));
+        assertEquals(0, coarse.getNeighbourCount(0));
+    }
+
+}
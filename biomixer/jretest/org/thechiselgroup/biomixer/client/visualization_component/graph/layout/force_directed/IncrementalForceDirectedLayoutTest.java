@@ -0,0 +1,189 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.core.util.executor.DirectExecutor;
+import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BarnesHutNetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceDirectedLayoutComputation;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceSimulationState;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.NetForceCalculator;
+
+public class IncrementalForceDirectedLayoutTest extends AbstractLayoutGraphTest {
+
+    @Mock
+    private ErrorHandler errorHandler;
+
+    private ForceDirectedLayoutComputation underTest;
+
+    private TestLayoutNode[] nodes;
+
+    private void assertNodeAt(double x, double y, LayoutNode node) {
+        assertEquals(x, node.getX(), 0.0001);
+        assertEquals(y, node.getY(), 0.0001);
+    }
+
+    private ForceDirectedLayoutComputation createComputation(
+            NetForceCalculator netForceCalculator, Executor executor) {
+        return new ForceDirectedLayoutComputation(netForceCalculator, 0.9,
+                graph, executor, errorHandler, new NodeAnimator(
+                        new NullNodeAnimationFactory()), 1);
+    }
+
+    private double getDistanceBetween(LayoutNode node1,
+            LayoutNode node2) {
+        double dx = node1.getX() - node2.getX();
+        double dy = node1.getY() - node2.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    @Test
+    public void addedNodeIsPlacedNearItsNeighbour() {
+        TestLayoutNode addedNode = createNodes(1)[0];
+        addedNode.setPosition(195, 195);
+        createArc(nodes[0], addedNode);
+
+        underTest.restart();
+
+        assertFalse(underTest.isRunning());
+        double optimalEdgeLength = Math.sqrt(400 * 400 / 5) / 2;
+        double distance = getDistanceBetween(nodes[0], addedNode);
+        assertTrue(distance < 2 * optimalEdgeLength);
+    }
+
+    @Test
+    public void nodesOutsideOfRegionDoNotMove() {
+        double[][] positions = new double[nodes.length][];
+        for (int i = 0; i < nodes.length; i++) {
+            positions[i] = new double[] { nodes[i].getX(), nodes[i].getY() };
+        }
+
+        TestLayoutNode addedNode = createNodes(1)[0];
+        addedNode.setPosition(195, 195);
+        createArc(nodes[1], addedNode);
+
+        underTest.restart();
+
+        assertFalse(underTest.isRunning());
+        /*
+         * nodes[1] is a neighbour of the added node and part of the region
+         */
+        for (int i : new int[] { 0, 2, 3 }) {
+            assertNodeAt(positions[i][0], positions[i][1], nodes[i]);
+        }
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 400, 400);
+        nodes = createNodes(4);
+        nodes[0].setPosition(100, 100);
+        nodes[1].setPosition(300, 100);
+        nodes[2].setPosition(300, 300);
+        nodes[3].setPosition(100, 300);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[2]);
+        createArc(nodes[2], nodes[3]);
+
+        underTest = createComputation(new BarnesHutNetForceCalculator(
+                new BoundsAwareAttractionCalculator(graph),
+                new BoundsAwareRepulsionCalculator(graph),
+                BarnesHutNetForceCalculator.DEFAULT_THETA),
+                new DirectExecutor());
+        underTest.setIncremental(true);
+        underTest.run();
+        assertFalse(underTest.isRunning());
+    }
+
+    @Test
+    public void restartDiscardsInterruptedIteration() {
+        createNodes(40);
+        NetForceCalculator netForceCalculator = mock(NetForceCalculator.class);
+        underTest = new ForceDirectedLayoutComputation(netForceCalculator, 0.9,
+                graph, mock(Executor.class), errorHandler, new NodeAnimator(
+                        new NullNodeAnimationFactory()), 1) {
+            private long currentTime = 0;
+
+            @Override
+            protected long getCurrentTimeMillis() {
+                return currentTime++;
+            }
+        };
+        underTest.setFrameBudget(1);
+
+        underTest.run();
+        underTest.stop();
+        underTest.run();
+        assertFalse(underTest.isRunning());
+        underTest.restart();
+
+        verify(netForceCalculator, times(2)).prepare(
+                any(ForceSimulationState.class));
+        verify(netForceCalculator, times(2)).calculateNetForces(
+                any(ForceSimulationState.class), eq(0), eq(32));
+    }
+
+    @Test
+    public void withoutIncrementalModeAddedNodesAreNotSeeded() {
+        underTest = createComputation(mock(NetForceCalculator.class),
+                new DirectExecutor());
+        underTest.run();
+
+        TestLayoutNode addedNode = createNodes(1)[0];
+        addedNode.setPosition(195, 195);
+        createArc(nodes[0], addedNode);
+
+        underTest.restart();
+
+        assertNodeAt(195, 195, addedNode);
+    }
+
+    @Test
+    public void withoutIncrementalModeAllNodesMove() {
+        underTest.setIncremental(false);
+        double x = nodes[3].getX();
+        double y = nodes[3].getY();
+
+        TestLayoutNode addedNode = createNodes(1)[0];
+        addedNode.setPosition(195, 195);
+        createArc(nodes[1], addedNode);
+
+        underTest.restart();
+
+        assertTrue(nodes[3].getX() != x || nodes[3].getY() != y);
+    }
+
+}
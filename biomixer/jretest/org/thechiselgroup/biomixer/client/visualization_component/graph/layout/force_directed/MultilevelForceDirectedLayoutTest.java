@@ -0,0 +1,148 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.core.util.executor.DirectExecutor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.MultilevelForceDirectedLayoutComputation;
+
+public class MultilevelForceDirectedLayoutTest extends AbstractLayoutGraphTest {
+
+    @Mock
+    private ErrorHandler errorHandler;
+
+    private void assertNodesWithinBounds(TestLayoutNode[] nodes) {
+        for (TestLayoutNode node : nodes) {
+            assertTrue(node.getX() >= 0);
+            assertTrue(node.getY() >= 0);
+            assertTrue(node.getX() + node.getSize().getWidth() <= 400);
+            assertTrue(node.getY() + node.getSize().getHeight() <= 400);
+        }
+    }
+
+    private TestLayoutNode[] createNodesAtOrigin(int numberOfNodes) {
+        TestLayoutNode[] nodes = createNodes(numberOfNodes);
+        for (TestLayoutNode node : nodes) {
+            node.setPosition(0, 0);
+        }
+        return nodes;
+    }
+
+    private double getDistanceBetween(LayoutNode node1, LayoutNode node2) {
+        double dx = node1.getX() - node2.getX();
+        double dy = node1.getY() - node2.getY();
+        return Math.sqrt(dx * dx + dy * dy);
+    }
+
+    private void runLayout() {
+        MultilevelForceDirectedLayoutComputation computation = new MultilevelForceDirectedLayoutComputation(
+                graph, new DirectExecutor(), errorHandler, new NodeAnimator(
+                        new NullNodeAnimationFactory()), 1);
+        computation.run();
+        assertFalse(computation.isRunning());
+    }
+
+    @Test
+    public void anchoredNodeDoesNotMove() {
+        TestLayoutNode[] nodes = createNodesAtOrigin(10);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i], nodes[i - 1]);
+        }
+        nodes[4].setPosition(50, 60);
+        nodes[4].setAnchored(true);
+
+        runLayout();
+
+        assertEquals(50, nodes[4].getX(), 0.0001);
+        assertEquals(60, nodes[4].getY(), 0.0001);
+        assertNodesWithinBounds(nodes);
+    }
+
+    @Test
+    public void connectedNodesArePlacedCloserThanClusters() {
+        /* two cliques of 6 nodes that are joined by a single arc */
+        TestLayoutNode[] nodes = createNodesAtOrigin(12);
+        for (int cluster = 0; cluster < 2; cluster++) {
+            for (int i = 0; i < 6; i++) {
+                for (int j = i + 1; j < 6; j++) {
+                    createArc(nodes[cluster * 6 + i], nodes[cluster * 6 + j]);
+                }
+            }
+        }
+        createArc(nodes[0], nodes[6]);
+
+        runLayout();
+
+        double withinClusters = 0;
+        double betweenClusters = 0;
+        for (int i = 1; i < 6; i++) {
+            withinClusters += getDistanceBetween(nodes[i], nodes[(i % 5) + 1])
+                    + getDistanceBetween(nodes[6 + i], nodes[6 + (i % 5) + 1]);
+            betweenClusters += getDistanceBetween(nodes[i], nodes[6 + i]) * 2;
+        }
+        assertTrue(withinClusters < betweenClusters);
+        assertNodesWithinBounds(nodes);
+    }
+
+    @Test
+    public void emptyGraph() {
+        runLayout();
+    }
+
+    @Test
+    public void largeTreeIsLaidOutWithinBounds() {
+        TestLayoutNode[] nodes = createNodesAtOrigin(300);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i], nodes[(i - 1) / 3]);
+        }
+
+        runLayout();
+
+        assertNodesWithinBounds(nodes);
+    }
+
+    @Test
+    public void nodesAreSpreadOut() {
+        TestLayoutNode[] nodes = createNodesAtOrigin(5);
+
+        runLayout();
+
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = i + 1; j < nodes.length; j++) {
+                assertTrue(getDistanceBetween(nodes[i], nodes[j]) > 10);
+            }
+        }
+        assertNodesWithinBounds(nodes);
+    }
+
+    @Before
+    public void setUp() {
+        createGraph(0, 0, 400, 400);
+    }
+
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.force_directed;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.CompositeForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ElectronRepulsionForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceSimulationState;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.PairwiseNetForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.SpringAttractionForceCalculator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.Vector2D;
+
+/**
+ * Checks that the array based force calculation produces the same net forces
+ * as summing up the vectors returned by
+ * {@link ForceCalculator#getForce(LayoutNode, LayoutNode)}.
+ */
+public class PairwiseNetForceCalculatorTest extends AbstractLayoutGraphTest {
+
+    private void assertMatchesVectorCalculation(ForceCalculator calculator) {
+        ForceSimulationState state = new ForceSimulationState(graph);
+        state.update();
+        new PairwiseNetForceCalculator(calculator).calculateNetForces(state);
+
+        for (int i = 0; i < state.getNodeCount(); i++) {
+            LayoutNode currentNode = state.getNode(i);
+            Vector2D expected = new Vector2D(0, 0);
+            if (!currentNode.isAnchored()) {
+                for (LayoutNode otherNode : graph.getAllNodes()) {
+                    if (otherNode != currentNode) {
+                        expected.add(calculator.getForce(currentNode,
+                                otherNode));
+                    }
+                }
+            }
+            assertEquals(expected.getXComponent(), state.getForceX(i), 1e-6);
+            assertEquals(expected.getYComponent(), state.getForceY(i), 1e-6);
+        }
+    }
+
+    @Test
+    public void boundsAwareForces() {
+        createRandomGraph();
+        assertMatchesVectorCalculation(new CompositeForceCalculator(
+                new BoundsAwareAttractionCalculator(graph),
+                new BoundsAwareRepulsionCalculator(graph)));
+    }
+
+    private void createRandomGraph() {
+        createGraph(0, 0, 800, 600);
+        Random random = new Random(7);
+        TestLayoutNode[] nodes = createNodes(60);
+        for (TestLayoutNode node : nodes) {
+            node.setPosition(random.nextInt(790), random.nextInt(590));
+        }
+        /*
+         * coincident nodes, duplicate arcs and an anchored node
+         */
+        nodes[1].setPosition(nodes[0].getX(), nodes[0].getY());
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[0]);
+        nodes[2].setAnchored(true);
+        for (int i = 0; i < 80; i++) {
+            createArc(nodes[random.nextInt(nodes.length)],
+                    nodes[random.nextInt(nodes.length)]);
+        }
+    }
+
+    @Test
+    public void springAndElectronForces() {
+        createRandomGraph();
+        assertMatchesVectorCalculation(new CompositeForceCalculator(
+                new SpringAttractionForceCalculator(0.5),
+                new ElectronRepulsionForceCalculator(1000)));
+    }
+
+}
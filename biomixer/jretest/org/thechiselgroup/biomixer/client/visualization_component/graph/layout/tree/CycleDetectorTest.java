@@ -17,6 +17,7 @@ package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.
 
 import static org.hamcrest.CoreMatchers.equalTo;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertThat;
 import static org.junit.Assert.assertTrue;
 import static org.thechiselgroup.biomixer.shared.core.test.matchers.collections.CollectionMatchers.containsExactly;
@@ -37,10 +38,68 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.i
  */
 public class CycleDetectorTest extends AbstractLayoutGraphTest {
 
+    private static final int LARGE_GRAPH_SIZE = 50000;
+
+    @Test
+    public void addedArcClosesCycle() {
+        createDefaultGraph();
+        LayoutNode[] nodes = createNodes(3);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[2]);
+
+        CycleDetector cycleDetector = new CycleDetector(graph);
+        assertFalse(cycleDetector.hasCycles());
+
+        createArc(nodes[2], nodes[0]);
+        assertTrue(cycleDetector.hasCycles());
+        assertThat(cycleDetector.getNodesInCycles(),
+                containsExactly(nodes[0], nodes[1], nodes[2]));
+    }
+
     private void createDefaultGraph() {
         createGraph(0, 0, 400, 400);
     }
 
+    @Test
+    public void deepChainWithoutCycles() {
+        createDefaultGraph();
+        LayoutNode[] nodes = createNodes(LARGE_GRAPH_SIZE);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i], nodes[i - 1]);
+        }
+
+        CycleDetector cycleDetector = new CycleDetector(graph);
+        assertThat(cycleDetector.getStronglyConnectedComponents().size(),
+                equalTo(LARGE_GRAPH_SIZE));
+        assertFalse(cycleDetector.hasCycles());
+    }
+
+    @Test
+    public void deepCycle() {
+        createDefaultGraph();
+        LayoutNode[] nodes = createNodes(LARGE_GRAPH_SIZE);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i - 1], nodes[i]);
+        }
+        createArc(nodes[nodes.length - 1], nodes[0]);
+
+        CycleDetector cycleDetector = new CycleDetector(graph);
+        assertThat(cycleDetector.getNumberOfCycles(), equalTo(1));
+        assertThat(cycleDetector.getNodesInCycles().size(),
+                equalTo(LARGE_GRAPH_SIZE));
+    }
+
+    @Test
+    public void resultIsCachedWhileGraphIsUnchanged() {
+        createDefaultGraph();
+        LayoutNode[] nodes = createNodes(2);
+        createArc(nodes[0], nodes[1]);
+
+        CycleDetector cycleDetector = new CycleDetector(graph);
+        assertSame(cycleDetector.getStronglyConnectedComponents(),
+                cycleDetector.getStronglyConnectedComponents());
+    }
+
     @Test
     public void nineNodesThreeStronglyConnectedComponents() {
         createDefaultGraph();
@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutGraphTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.DirectedAcyclicGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.DirectedAcyclicGraphBuilder;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.DirectedAcyclicGraphNode;
+
+/**
+ * Compares the {@link DirectedAcyclicGraphBuilder} with the
+ * {@link PairwiseDirectedAcyclicGraphBuilder} on generated hierarchies. The
+ * expected depths are computed with the original recursive distance
+ * computation of {@link DirectedAcyclicGraph}.
+ * <p>
+ * The hierarchies have at most two roots per connected component, because the
+ * pairwise builder does not group roots that only share descendants via a
+ * third root. A node never has a parent that is also an ancestor of its other
+ * parent, because the original distance computation returned 1 for such a
+ * direct child (see
+ * {@link DirectedAcyclicGraphBuilderTest#childAlsoReachableViaLongerPathDepthTest()}
+ * ).
+ * </p>
+ */
+public class DirectedAcyclicGraphBuilderEquivalenceTest extends
+        AbstractLayoutGraphTest {
+
+    private static final int NUMBER_OF_SEEDS = 10;
+
+    private DirectedAcyclicGraphBuilder underTest;
+
+    private PairwiseDirectedAcyclicGraphBuilder reference;
+
+    /**
+     * The original <code>DirectedAcyclicGraphNode.getMaxDistance</code>,
+     * including its shortcut for direct children.
+     */
+    private static int getOriginalMaxDistance(DirectedAcyclicGraphNode node,
+            DirectedAcyclicGraphNode targetNode) {
+        if (targetNode.equals(node)) {
+            return 0;
+        }
+
+        if (node.getChildren().contains(targetNode)) {
+            return 1;
+        }
+
+        int maxDistance = -1;
+        for (DirectedAcyclicGraphNode child : node.getChildren()) {
+            int childDistance = getOriginalMaxDistance(child, targetNode);
+
+            if (childDistance > maxDistance) {
+                maxDistance = childDistance;
+            }
+        }
+
+        return maxDistance >= 0 ? maxDistance + 1 : -1;
+    }
+
+    private void assertEquivalent() {
+        List<List<DirectedAcyclicGraphNode>> expected = reference
+                .getRootGroups(graph);
+        List<DirectedAcyclicGraph> actual = underTest
+                .getDirectedAcyclicGraphs(graph);
+
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquivalent(expected.get(i), actual.get(i));
+        }
+    }
+
+    private void assertEquivalent(List<DirectedAcyclicGraphNode> expectedRoots,
+            DirectedAcyclicGraph actual) {
+        Set<DirectedAcyclicGraphNode> expectedNodes = getAllNodes(expectedRoots);
+
+        assertEquals(getLayoutNodes(expectedRoots),
+                getLayoutNodes(actual.getRoots()));
+        assertEquals(getLayoutNodeSet(expectedNodes),
+                getLayoutNodeSet(actual.getAllNodes()));
+        assertEquals(expectedNodes.size(), actual.getNumberOfNodes());
+
+        int longestPath = 0;
+        for (DirectedAcyclicGraphNode root : expectedRoots) {
+            longestPath = Math.max(longestPath,
+                    root.getMaxLengthToEndOfPath() + 1);
+        }
+        assertEquals(longestPath, actual.getNumberOfNodesOnLongestPath());
+
+        for (int distance = 0; distance < longestPath; distance++) {
+            assertEquals(
+                    getNodesAtMaxDistance(expectedRoots, expectedNodes,
+                            distance),
+                    getLayoutNodeSet(actual
+                            .getNodesAtDistanceFromRoot(distance)));
+        }
+
+        for (DirectedAcyclicGraphNode dagNode : expectedNodes) {
+            assertTrue(actual.containsLayoutNode(dagNode.getLayoutNode()));
+        }
+    }
+
+    private void createHierarchies(long seed, int numberOfHierarchies,
+            int nodesPerHierarchy, boolean secondRoots, boolean anchoredLeaves) {
+        createGraph(0, 0, 400, 400);
+        Random random = new Random(seed);
+
+        for (int i = 0; i < numberOfHierarchies; i++) {
+            TestLayoutNode[] nodes = createNodes(1 + random
+                    .nextInt(nodesPerHierarchy));
+            boolean[] hasChildren = new boolean[nodes.length];
+            List<Set<Integer>> ancestors = new ArrayList<Set<Integer>>();
+            ancestors.add(new HashSet<Integer>());
+            for (int j = 1; j < nodes.length; j++) {
+                int parent = random.nextInt(j);
+                createArc(nodes[j], nodes[parent]);
+                hasChildren[parent] = true;
+
+                Set<Integer> ancestorsOfNode = new HashSet<Integer>(
+                        ancestors.get(parent));
+                ancestorsOfNode.add(parent);
+
+                int secondParent = random.nextInt(j);
+                if (random.nextInt(10) == 0
+                        && !ancestorsOfNode.contains(secondParent)
+                        && !ancestors.get(secondParent).contains(parent)) {
+                    createArc(nodes[j], nodes[secondParent]);
+                    hasChildren[secondParent] = true;
+                    ancestorsOfNode.addAll(ancestors.get(secondParent));
+                    ancestorsOfNode.add(secondParent);
+                }
+                ancestors.add(ancestorsOfNode);
+            }
+
+            if (secondRoots && nodes.length > 1 && random.nextBoolean()) {
+                TestLayoutNode secondRoot = createNodes(1)[0];
+                createArc(nodes[1 + random.nextInt(nodes.length - 1)],
+                        secondRoot);
+            }
+
+            if (anchoredLeaves) {
+                for (int j = 0; j < nodes.length; j++) {
+                    if (!hasChildren[j] && random.nextInt(4) == 0) {
+                        nodes[j].setAnchored(true);
+                    }
+                }
+            }
+
+            /* undirected arcs are ignored by both builders */
+            if (nodes.length > 1) {
+                graph.createArc(nodes[random.nextInt(nodes.length)],
+                        nodes[random.nextInt(nodes.length)], 2, false,
+                        graph.getTestLayoutArcTypes()[0]);
+            }
+        }
+    }
+
+    @Test
+    public void forests() {
+        for (int seed = 0; seed < NUMBER_OF_SEEDS; seed++) {
+            createHierarchies(seed, 20, 15, false, false);
+            assertEquivalent();
+        }
+    }
+
+    @Test
+    public void forestsWithAnchoredLeaves() {
+        for (int seed = 0; seed < NUMBER_OF_SEEDS; seed++) {
+            createHierarchies(seed, 20, 15, true, true);
+            assertEquivalent();
+        }
+    }
+
+    @Test
+    public void forestsWithSecondRoots() {
+        for (int seed = 0; seed < NUMBER_OF_SEEDS; seed++) {
+            createHierarchies(seed, 20, 15, true, false);
+            assertEquivalent();
+        }
+    }
+
+    /**
+     * The original <code>DirectedAcyclicGraph.getAllNodes</code>.
+     */
+    private Set<DirectedAcyclicGraphNode> getAllNodes(
+            List<DirectedAcyclicGraphNode> roots) {
+        Set<DirectedAcyclicGraphNode> allNodes = new HashSet<DirectedAcyclicGraphNode>();
+        for (DirectedAcyclicGraphNode root : roots) {
+            allNodes.add(root);
+            allNodes.addAll(root.getDescendants());
+        }
+        return allNodes;
+    }
+
+    private List<LayoutNode> getLayoutNodes(
+            Collection<DirectedAcyclicGraphNode> dagNodes) {
+        List<LayoutNode> layoutNodes = new ArrayList<LayoutNode>();
+        for (DirectedAcyclicGraphNode dagNode : dagNodes) {
+            layoutNodes.add(dagNode.getLayoutNode());
+        }
+        return layoutNodes;
+    }
+
+    private Set<LayoutNode> getLayoutNodeSet(
+            Collection<DirectedAcyclicGraphNode> dagNodes) {
+        return new HashSet<LayoutNode>(getLayoutNodes(dagNodes));
+    }
+
+    private Set<LayoutNode> getNodesAtMaxDistance(
+            List<DirectedAcyclicGraphNode> roots,
+            Set<DirectedAcyclicGraphNode> allNodes, int distance) {
+        Set<LayoutNode> result = new HashSet<LayoutNode>();
+        for (DirectedAcyclicGraphNode dagNode : allNodes) {
+            int maxDistance = 0;
+            for (DirectedAcyclicGraphNode root : roots) {
+                maxDistance = Math.max(maxDistance,
+                        getOriginalMaxDistance(root, dagNode));
+            }
+            if (maxDistance == distance) {
+                result.add(dagNode.getLayoutNode());
+            }
+        }
+        return result;
+    }
+
+    @Before
+    public void setUp() {
+        underTest = new DirectedAcyclicGraphBuilder();
+        reference = new PairwiseDirectedAcyclicGraphBuilder();
+    }
+
+}
@@ -37,6 +37,30 @@ public class DirectedAcyclicGraphBuilderTest extends AbstractLayoutGraphTest {
 
     private DirectedAcyclicGraphBuilder underTest;
 
+    /**
+     * The child is placed at its longest distance from the root. Placing it
+     * at distance 1 would leave distance 2 empty although the longest path
+     * has 3 nodes.
+     */
+    @Test
+    public void childAlsoReachableViaLongerPathDepthTest() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(3);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[1]);
+        createArc(nodes[2], nodes[0]);
+
+        List<DirectedAcyclicGraph> dags = underTest
+                .getDirectedAcyclicGraphs(graph);
+        assertThat(dags.size(), equalTo(1));
+
+        DirectedAcyclicGraph dag = dags.get(0);
+        assertThat(dag.getNumberOfNodesOnLongestPath(), equalTo(3));
+        assertThat(getNodesAtDistance(dag, 0), containsExactly(nodes[0]));
+        assertThat(getNodesAtDistance(dag, 1), containsExactly(nodes[1]));
+        assertThat(getNodesAtDistance(dag, 2), containsExactly(nodes[2]));
+    }
+
     @Ignore("TODO handle cycles")
     @Test
     public void cyclicGraph() {
@@ -356,6 +380,26 @@ public class DirectedAcyclicGraphBuilderTest extends AbstractLayoutGraphTest {
         assertThat(dag.getNumberOfNodes(), equalTo(1));
     }
 
+    @Test
+    public void threeRootsChainedBySharedDescendants() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(5);
+        createArc(nodes[3], nodes[0]);
+        createArc(nodes[3], nodes[1]);
+        createArc(nodes[4], nodes[1]);
+        createArc(nodes[4], nodes[2]);
+
+        List<DirectedAcyclicGraph> dags = underTest
+                .getDirectedAcyclicGraphs(graph);
+        assertThat(dags.size(), equalTo(1));
+
+        DirectedAcyclicGraph dag = dags.get(0);
+        assertThat(dag.getRoots().size(), equalTo(3));
+        assertThat(dag.getNumberOfNodes(), equalTo(5));
+        assertThat(getNodesAtDistance(dag, 1),
+                containsExactly(nodes[3], nodes[4]));
+    }
+
     @Test
     public void twoParentsDifferentLengthPathsDepthTest() {
         createGraph(0, 0, 400, 400);
@@ -66,6 +66,21 @@ public class DirectedAcyclicGraphNodeTest extends AbstractLayoutGraphTest {
         assertThat(dagNodes0.getMaxDistance(dagNodes1), equalTo(1));
     }
 
+    @Test
+    public void getMaxDistanceToChildAlsoReachableViaLongerPath() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(3);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[1]);
+        createArc(nodes[2], nodes[0]);
+
+        DirectedAcyclicGraph dag = getDag(graph);
+        DirectedAcyclicGraphNode dagNode0 = getDagNode(nodes[0], dag);
+        DirectedAcyclicGraphNode dagNode2 = getDagNode(nodes[2], dag);
+
+        assertThat(dagNode0.getMaxDistance(dagNode2), equalTo(2));
+    }
+
     @Test
     public void getMaxDistanceToCurrentNode() {
         createGraph(0, 0, 400, 400);
@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.tree;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.AbstractLayoutAlgorithmTest;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputation;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.TestLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.LayeredTreeLayoutAlgorithm;
+
+public class LayeredTreeLayoutAlgorithmTest extends
+        AbstractLayoutAlgorithmTest {
+
+    private static final double delta = 0.0001;
+
+    private void assertLeftOf(LayoutNode left, LayoutNode right) {
+        assertTrue(getCentreX(left) < getCentreX(right));
+    }
+
+    @Override
+    protected void assertComputationRunningState(LayoutComputation computation) {
+        assertFalse(computation.isRunning());
+    }
+
+    private void assertNoOverlap(LayoutNode... nodes) {
+        for (int i = 0; i < nodes.length; i++) {
+            for (int j = i + 1; j < nodes.length; j++) {
+                assertTrue(Math.abs(getCentreX(nodes[i])
+                        - getCentreX(nodes[j])) >= nodes[i].getSize()
+                        .getWidth());
+            }
+        }
+    }
+
+    private void assertOrderPreserved(boolean leftToRight, LayoutNode left,
+            LayoutNode right) {
+        assertEquals(leftToRight, getCentreX(left) < getCentreX(right));
+    }
+
+    @Test
+    public void childIsCentredBelowSingleParent() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(2);
+        createArc(nodes[1], nodes[0]);
+
+        computeLayout(graph);
+
+        assertEquals(getCentreX(nodes[0]), getCentreX(nodes[1]), delta);
+        assertTrue(getCentreY(nodes[0]) < getCentreY(nodes[1]));
+    }
+
+    @Test
+    public void cyclicGraphIsPlacedOnSeparateLayers() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(3);
+        createArc(nodes[0], nodes[1]);
+        createArc(nodes[1], nodes[2]);
+        createArc(nodes[2], nodes[0]);
+
+        computeLayout(graph);
+
+        double y0 = getCentreY(nodes[0]);
+        double y1 = getCentreY(nodes[1]);
+        double y2 = getCentreY(nodes[2]);
+        assertTrue(y0 != y1 && y1 != y2 && y0 != y2);
+        assertFalse(nodes[0].isAnchored() || nodes[1].isAnchored()
+                || nodes[2].isAnchored());
+    }
+
+    @Test
+    public void horizontalLayoutPlacesRootsOnTheLeft() {
+        underTest = new LayeredTreeLayoutAlgorithm(true, errorHandler,
+                nodeAnimator);
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(3);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[1]);
+
+        computeLayout(graph);
+
+        assertLeftOf(nodes[0], nodes[1]);
+        assertLeftOf(nodes[1], nodes[2]);
+        assertNodesHaveCentreY(getCentreY(nodes[0]), nodes[1], nodes[2]);
+    }
+
+    @Test
+    public void longArcDoesNotMoveNodesOffTheirLayer() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(4);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[1]);
+        createArc(nodes[3], nodes[2]);
+        createArc(nodes[3], nodes[0]);
+
+        computeLayout(graph);
+
+        assertTrue(getCentreY(nodes[0]) < getCentreY(nodes[1]));
+        assertTrue(getCentreY(nodes[1]) < getCentreY(nodes[2]));
+        assertTrue(getCentreY(nodes[2]) < getCentreY(nodes[3]));
+    }
+
+    @Test
+    public void nodesAreLayeredByLongestPathFromRoot() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(6);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[0]);
+        createArc(nodes[3], nodes[1]);
+        createArc(nodes[4], nodes[1]);
+        createArc(nodes[5], nodes[2]);
+
+        computeLayout(graph);
+
+        assertNodesHaveCentreY(getCentreY(nodes[1]), nodes[2]);
+        assertNodesHaveCentreY(getCentreY(nodes[3]), nodes[4], nodes[5]);
+        assertTrue(getCentreY(nodes[0]) < getCentreY(nodes[1]));
+        assertTrue(getCentreY(nodes[1]) < getCentreY(nodes[3]));
+        assertNoOverlap(nodes[3], nodes[4], nodes[5]);
+    }
+
+    @Test
+    public void restartKeepsOrderOfUnchangedLayers() {
+        createGraph(0, 0, 400, 400);
+        TestLayoutNode[] nodes = createNodes(5);
+        for (int i = 1; i < nodes.length; i++) {
+            createArc(nodes[i], nodes[0]);
+        }
+        initNodePositions();
+        LayoutComputation computation = underTest.computeLayout(graph);
+
+        boolean[][] leftToRight = new boolean[nodes.length][nodes.length];
+        for (int i = 1; i < nodes.length; i++) {
+            for (int j = 1; j < nodes.length; j++) {
+                leftToRight[i][j] = getCentreX(nodes[i]) < getCentreX(nodes[j]);
+            }
+        }
+
+        LayoutNode added = graph.createNode(10, 10, false,
+                graph.getTestLayoutNodeTypes()[0]);
+        added.setPosition(0, 0);
+        createArc(added, nodes[3]);
+        computation.restart();
+
+        for (int i = 1; i < nodes.length; i++) {
+            for (int j = 1; j < nodes.length; j++) {
+                assertOrderPreserved(leftToRight[i][j], nodes[i], nodes[j]);
+            }
+        }
+        assertTrue(getCentreY(nodes[3]) < getCentreY(added));
+        assertEquals(getCentreX(nodes[3]), getCentreX(added), delta);
+    }
+
+    @Test
+    public void subtreesDoNotCross() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(9);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[2], nodes[0]);
+        createArc(nodes[3], nodes[0]);
+        createArc(nodes[4], nodes[1]);
+        createArc(nodes[5], nodes[2]);
+        createArc(nodes[6], nodes[3]);
+        createArc(nodes[7], nodes[1]);
+        createArc(nodes[8], nodes[2]);
+
+        computeLayout(graph);
+
+        LayoutNode[][] children = { { nodes[4], nodes[7] },
+                { nodes[5], nodes[8] }, { nodes[6] } };
+        LayoutNode[] parents = { nodes[1], nodes[2], nodes[3] };
+        for (int i = 0; i < parents.length; i++) {
+            for (int j = 0; j < parents.length; j++) {
+                if (getCentreX(parents[i]) < getCentreX(parents[j])) {
+                    for (LayoutNode left : children[i]) {
+                        for (LayoutNode right : children[j]) {
+                            assertLeftOf(left, right);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void separateTreesDoNotOverlap() {
+        createGraph(0, 0, 400, 400);
+        LayoutNode[] nodes = createNodes(4);
+        createArc(nodes[1], nodes[0]);
+        createArc(nodes[3], nodes[2]);
+
+        computeLayout(graph);
+
+        assertNodesHaveCentreY(getCentreY(nodes[0]), nodes[2]);
+        assertNoOverlap(nodes[0], nodes[2]);
+        assertEquals(getCentreX(nodes[0]), getCentreX(nodes[1]), delta);
+        assertEquals(getCentreX(nodes[2]), getCentreX(nodes[3]), delta);
+    }
+
+    @Before
+    public void setUp() {
+        underTest = new LayeredTreeLayoutAlgorithm(false, errorHandler,
+                nodeAnimator);
+    }
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.svg_widget;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.LevelOfDetailPolicy;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.SvgGraphRenderer;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.nodes.BoxedTextSvgNodeRenderer;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.Node;
+import org.thechiselgroup.biomixer.shared.svg.Svg;
+import org.thechiselgroup.biomixer.shared.svg.SvgElement;
+
+public class GraphSvgDisplayLevelOfDetailTest extends
+        AbstractGraphSvgDisplayTest {
+
+    private static final String A2 = "a2";
+
+    private SvgGraphRenderer renderer;
+
+    private SvgElement getChild(SvgElement parent, String id) {
+        for (int i = 0; i < parent.getChildCount(); i++) {
+            SvgElement child = parent.getChild(i);
+            if (id.equals(child.getAttributeAsString(Svg.ID))) {
+                return child;
+            }
+        }
+        throw new IllegalArgumentException(id);
+    }
+
+    private SvgElement getGroup(String id) {
+        return getChild(underTest.asSvg(), id);
+    }
+
+    private SvgElement getNodeElement(Node node) {
+        return getChild(getGroup("nodeGroup"), node.getId());
+    }
+
+    @Test
+    public void hoveredNodeIsDetailed() {
+        Node node = addNode(N1, LABEL1, TYPE1);
+        addNode(N2, LABEL2, TYPE1);
+        addNode(N3, LABEL1, TYPE1);
+        RenderedNode renderedNode = renderer.getRenderedNode(node);
+        assertFalse(renderedNode.isDetailed());
+
+        renderer.setFullDetail(renderedNode, true);
+
+        assertTrue(renderedNode.isDetailed());
+        assertThat(getNodeElement(node).getChildCount(), equalTo(2));
+    }
+
+    @Test
+    public void nodesAreCompactAboveThreshold() {
+        Node node = addNode(N1, LABEL1, TYPE1);
+        addNode(N2, LABEL2, TYPE1);
+        assertTrue(renderer.getRenderedNode(node).isDetailed());
+
+        addNode(N3, LABEL1, TYPE1);
+
+        assertTrue(renderer.isDetailReduced());
+        RenderedNode renderedNode = renderer.getRenderedNode(node);
+        assertFalse(renderedNode.isDetailed());
+        assertThat(renderedNode.getSize().getWidth(),
+                equalTo(BoxedTextSvgNodeRenderer.COMPACT_SIZE));
+        SvgElement nodeElement = getNodeElement(node);
+        assertThat(nodeElement.getChildCount(), equalTo(1));
+        assertThat(nodeElement.getChild(0).getAttributeAsString(Svg.WIDTH),
+                equalTo("12.0"));
+    }
+
+    @Test
+    public void parallelArcsAreBundled() {
+        addNode(N1, LABEL1, TYPE1);
+        addNode(N2, LABEL2, TYPE1);
+        addNode(N3, LABEL1, TYPE1);
+        addArc(A1, N1, N2, TYPE1, true);
+        addArc(A2, N2, N1, TYPE1, true);
+
+        SvgElement arcGroup = getGroup("arcGroup");
+        assertThat(arcGroup.getChildCount(), equalTo(1));
+        // arc line without arrow head
+        assertThat(arcGroup.getChild(0).getChildCount(), equalTo(1));
+    }
+
+    @Test
+    public void removingNodesRestoresDetail() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        addNode(N2, LABEL2, TYPE1);
+        Node node3 = addNode(N3, LABEL1, TYPE1);
+        addArc(A1, N1, N2, TYPE1, true);
+        addArc(A2, N2, N1, TYPE1, true);
+
+        underTest.removeNode(node3);
+
+        assertFalse(renderer.isDetailReduced());
+        assertTrue(renderer.getRenderedNode(node1).isDetailed());
+        SvgElement arcGroup = getGroup("arcGroup");
+        assertThat(arcGroup.getChildCount(), equalTo(2));
+        assertThat(arcGroup.getChild(0).getChildCount(), equalTo(2));
+        assertThat(arcGroup.getChild(1).getChildCount(), equalTo(2));
+    }
+
+    @Before
+    public void setUpLevelOfDetail() {
+        renderer = underTest.getSvgGraphRenderer();
+        renderer.setLevelOfDetailPolicy(new LevelOfDetailPolicy(2));
+    }
+
+}
@@ -0,0 +1,226 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.svg_widget;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.core.geometry.Point;
+import org.thechiselgroup.biomixer.client.core.ui.Colors;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeIndex;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.SvgGraphRenderer;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.Arc;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.ArcSettings;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.Node;
+import org.thechiselgroup.biomixer.shared.svg.Svg;
+import org.thechiselgroup.biomixer.shared.svg.SvgElement;
+
+public class GraphSvgDisplayVirtualizationTest extends
+        AbstractGraphSvgDisplayTest {
+
+    private static final String A2 = "a2";
+
+    private static final String N4 = "n4";
+
+    private SvgGraphRenderer renderer;
+
+    private SvgElement getGroup(String id) {
+        SvgElement root = underTest.asSvg();
+        for (int i = 0; i < root.getChildCount(); i++) {
+            SvgElement child = root.getChild(i);
+            if (id.equals(child.getAttributeAsString(Svg.ID))) {
+                return child;
+            }
+        }
+        throw new IllegalArgumentException(id);
+    }
+
+    private boolean isRendered(Arc arc) {
+        return renderer.isRendered(renderer.getRenderedArc(arc));
+    }
+
+    private boolean isRendered(Node node) {
+        return renderer.isRendered(renderer.getRenderedNode(node));
+    }
+
+    @Test
+    public void arcBetweenOffScreenNodesIsNotRendered() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        Node node2 = addNode(N2, LABEL2, TYPE1);
+        Node node3 = addNode(N3, LABEL1, TYPE1);
+        underTest.setLocation(node2, new Point(1000, 1000));
+        underTest.setLocation(node3, new Point(1200, 1000));
+        Arc visibleArc = addArc(A1, N1, N2, TYPE1, true);
+        Arc hiddenArc = addArc(A2, N2, N3, TYPE1, true);
+
+        assertTrue(isRendered(node1));
+        assertTrue(isRendered(visibleArc));
+        assertFalse(isRendered(hiddenArc));
+        assertThat(getGroup("arcGroup").getChildCount(), equalTo(1));
+    }
+
+    @Test
+    public void disablingVirtualizationRendersEverything() {
+        Node node = addNode(N1, LABEL1, TYPE1);
+        underTest.setLocation(node, new Point(1000, 1000));
+        assertFalse(isRendered(node));
+
+        renderer.setVirtualized(false);
+
+        assertTrue(isRendered(node));
+        assertThat(getGroup("nodeGroup").getChildCount(), equalTo(1));
+    }
+
+    @Test
+    public void longArcCrossingViewportIsRenderedAfterScrolling() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        Node node2 = addNode(N2, LABEL2, TYPE1);
+        underTest.setLocation(node1, new Point(1000, 100));
+        underTest.setLocation(node2, new Point(3000, 100));
+        Arc arc = addArc(A1, N1, N2, TYPE1, true);
+        assertFalse(isRendered(arc));
+
+        renderer.setViewport(1800, 0, 400, 300);
+
+        assertTrue(isRendered(arc));
+        assertFalse(isRendered(node1));
+        assertFalse(isRendered(node2));
+    }
+
+    @Test
+    public void nodeMovedIntoViewportIsRendered() {
+        Node node = addNode(N1, LABEL1, TYPE1);
+        underTest.setLocation(node, new Point(1000, 1000));
+        underTest.setLocation(node, new Point(50, 50));
+
+        assertTrue(isRendered(node));
+        assertThat(getGroup("nodeGroup").getChildCount(), equalTo(1));
+    }
+
+    @Test
+    public void nodeMovedOutOfViewportIsNotRendered() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        Node node2 = addNode(N2, LABEL2, TYPE1);
+        underTest.setLocation(node1, new Point(10, 10));
+        underTest.setLocation(node2, new Point(1000, 1000));
+
+        assertTrue(isRendered(node1));
+        assertFalse(isRendered(node2));
+        assertThat(getGroup("nodeGroup").getChildCount(), equalTo(1));
+    }
+
+    @Test
+    public void nodesNearViewportAreRenderedAfterScrolling() {
+        Node node = addNode(N1, LABEL1, TYPE1);
+        underTest.setLocation(node, new Point(1000, 1000));
+
+        renderer.setViewport(800, 800, 400, 300);
+
+        assertTrue(isRendered(node));
+    }
+
+    @Test
+    public void nodesOutsideViewportAreDetachedAfterScrolling() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        Node node2 = addNode(N2, LABEL2, TYPE1);
+        underTest.setLocation(node1, new Point(10, 10));
+        underTest.setLocation(node2, new Point(5000, 5000));
+        Arc arc = addArc(A1, N1, N2, TYPE1, true);
+
+        renderer.setViewport(4900, 4900, 400, 300);
+
+        assertFalse(isRendered(node1));
+        assertTrue(isRendered(node2));
+        assertTrue(isRendered(arc));
+        assertThat(getGroup("nodeGroup").getChildCount(), equalTo(1));
+    }
+
+    @Test
+    public void releasedArcElementsAreReused() {
+        addNode(N1, LABEL1, TYPE1);
+        addNode(N2, LABEL2, TYPE1);
+        Node node3 = addNode(N3, LABEL1, TYPE1);
+        Node node4 = addNode(N4, LABEL2, TYPE1);
+        Arc arc = addArc(A1, N3, N4, TYPE1, true);
+        SvgElement arcElement = getGroup("arcGroup").getChild(0);
+
+        underTest.setLocation(node3, new Point(1000, 1000));
+        underTest.setLocation(node4, new Point(1200, 1000));
+        assertFalse(isRendered(arc));
+
+        addArc(A2, N1, N2, TYPE1, true);
+        SvgElement reusedElement = getGroup("arcGroup").getChild(0);
+        assertThat(reusedElement, sameInstance(arcElement));
+        assertThat(reusedElement.getAttributeAsString(Svg.ID), equalTo(A2));
+    }
+
+    @Test
+    public void restoredArcKeepsStyle() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        Node node2 = addNode(N2, LABEL2, TYPE1);
+        Arc arc = addArc(A1, N1, N2, TYPE1, true);
+        underTest.setArcStyle(arc, ArcSettings.ARC_COLOR, Colors.ORANGE);
+
+        underTest.setLocation(node1, new Point(1000, 1000));
+        underTest.setLocation(node2, new Point(1200, 1000));
+        assertFalse(isRendered(arc));
+
+        renderer.setViewport(900, 900, 400, 300);
+        assertTrue(isRendered(arc));
+        SvgElement arcLine = getGroup("arcGroup").getChild(0).getChild(0);
+        assertThat(arcLine.getAttributeAsString(Svg.STROKE),
+                equalTo(Colors.ORANGE));
+    }
+
+    @Test
+    public void scrollingOnlyLooksAtIndexedAndAttachedNodes() {
+        Node node1 = addNode(N1, LABEL1, TYPE1);
+        Node node2 = addNode(N2, LABEL2, TYPE1);
+        underTest.setLocation(node1, new Point(1000, 1000));
+        underTest.setLocation(node2, new Point(1100, 1000));
+        final RenderedNode indexedNode = renderer.getRenderedNode(node1);
+        renderer.setNodeIndex(new RenderedNodeIndex() {
+            @Override
+            public List<RenderedNode> getNodesIntersecting(double leftX,
+                    double topY, double width, double height) {
+                return Collections.singletonList(indexedNode);
+            }
+        });
+
+        renderer.setViewport(900, 900, 400, 300);
+
+        assertTrue(isRendered(node1));
+        assertFalse(isRendered(node2));
+    }
+
+    @Before
+    public void setUpViewport() {
+        renderer = underTest.getSvgGraphRenderer();
+        renderer.setVirtualized(true);
+        renderer.setViewportMargin(0);
+        renderer.setViewport(0, 0, 400, 300);
+    }
+
+}
@@ -16,13 +16,13 @@
 package org.thechiselgroup.biomixer.client.visualization_component.graph.svg_widget;
 
 import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
-import org.thechiselgroup.biomixer.client.core.util.animation.NodeAnimationFactory;
 import org.thechiselgroup.biomixer.client.core.util.animation.NullNodeAnimationFactory;
 import org.thechiselgroup.biomixer.client.core.util.animation.TestAnimationRunner;
 import org.thechiselgroup.biomixer.client.core.util.executor.DelayedExecutor;
 import org.thechiselgroup.biomixer.client.core.util.executor.TestDelayedExecutor;
 import org.thechiselgroup.biomixer.client.core.util.text.TestTextBoundsEstimator;
 import org.thechiselgroup.biomixer.client.core.util.text.TextBoundsEstimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.SvgGraphRenderer;
 import org.thechiselgroup.biomixer.shared.svg.SvgElement;
 import org.thechiselgroup.biomixer.shared.svg.SvgElementFactory;
@@ -62,8 +62,12 @@ public class TestGraphSvgDisplay extends GraphDisplayController {
     }
 
     @Override
-    protected NodeAnimationFactory getNodeAnimationFactory() {
-        return new NullNodeAnimationFactory();
+    protected NodeAnimator createNodeAnimator() {
+        return new NodeAnimator(new NullNodeAnimationFactory());
+    }
+
+    public SvgGraphRenderer getSvgGraphRenderer() {
+        return (SvgGraphRenderer) graphRenderer;
     }
 
     public TestAnimationRunner getTestAnimationRunner() {
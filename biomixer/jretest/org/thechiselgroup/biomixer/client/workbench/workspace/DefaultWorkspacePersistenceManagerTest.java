@@ -55,6 +55,9 @@ import org.thechiselgroup.biomixer.client.dnd.windows.WindowContent;
 import org.thechiselgroup.biomixer.client.dnd.windows.WindowContentProducer;
 import org.thechiselgroup.biomixer.client.dnd.windows.WindowPanel;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspaceVersionConflictException;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspacePersistenceServiceAsync;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspaceSharingServiceAsync;
 
@@ -122,14 +125,24 @@ public class DefaultWorkspacePersistenceManagerTest {
                 .forClass(AsyncCallback.class);
         verify(persistenceService, times(1)).saveWorkspace(
                 any(WorkspaceDTO.class), argument.capture());
-        AsyncCallback<Long> callback = argument.getValue();
+        AsyncCallback<WorkspaceVersionDTO> callback = argument.getValue();
 
         Long value = new Long(15);
-        callback.onSuccess(value);
+        callback.onSuccess(new WorkspaceVersionDTO(value, 1));
 
         verify(workspace).setSavingState(WorkspaceSavingState.SAVED);
     }
 
+    @SuppressWarnings("unchecked")
+    private void acknowledgeSnapshot(Long id, long version) {
+        ArgumentCaptor<AsyncCallback> argument = ArgumentCaptor
+                .forClass(AsyncCallback.class);
+        verify(persistenceService, times(1)).saveWorkspace(
+                any(WorkspaceDTO.class), argument.capture());
+        ((AsyncCallback<WorkspaceVersionDTO>) argument.getValue())
+                .onSuccess(new WorkspaceVersionDTO(id, version));
+    }
+
     private Workspace doLoad(WorkspaceDTO dto) {
         return underTest.loadWorkspace(dto);
     }
@@ -145,6 +158,28 @@ public class DefaultWorkspacePersistenceManagerTest {
         return argument.getValue();
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void failedDeltaSaveIsFollowedBySnapshot() {
+        underTest.saveWorkspace(saveCallback);
+        acknowledgeSnapshot(new Long(15), 1);
+
+        underTest.saveWorkspace(saveCallback);
+        ArgumentCaptor<AsyncCallback> argument = ArgumentCaptor
+                .forClass(AsyncCallback.class);
+        verify(persistenceService, times(1)).saveWorkspaceDelta(
+                any(WorkspaceDeltaDTO.class), argument.capture());
+        argument.getValue().onFailure(
+                new WorkspaceVersionConflictException("conflict"));
+
+        underTest.saveWorkspace(saveCallback);
+
+        verify(persistenceService, times(2)).saveWorkspace(
+                any(WorkspaceDTO.class), any(AsyncCallback.class));
+        verify(persistenceService, times(1)).saveWorkspaceDelta(
+                any(WorkspaceDeltaDTO.class), any(AsyncCallback.class));
+    }
+
     @Test
     public void saveAndRestoreUnmodifiableSet() {
         // use string buffer so its modifiable
@@ -192,6 +227,25 @@ public class DefaultWorkspacePersistenceManagerTest {
                         .getDelegate()));
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void saveDeltaAfterAcknowledgedSnapshot() {
+        underTest.saveWorkspace(saveCallback);
+        acknowledgeSnapshot(new Long(15), 1);
+
+        underTest.saveWorkspace(saveCallback);
+
+        ArgumentCaptor<WorkspaceDeltaDTO> argument = ArgumentCaptor
+                .forClass(WorkspaceDeltaDTO.class);
+        verify(persistenceService, times(1)).saveWorkspaceDelta(
+                argument.capture(), any(AsyncCallback.class));
+        assertEquals(new Long(15), argument.getValue().getWorkspaceId());
+        assertEquals(1, argument.getValue().getBaseVersion());
+        assertEquals(1, argument.getValue().getWindowCount());
+        verify(persistenceService, times(1)).saveWorkspace(
+                any(WorkspaceDTO.class), any(AsyncCallback.class));
+    }
+
     @Test
     public void saveWindow() {
         WorkspaceDTO resultDTO = doSave();
@@ -223,6 +277,30 @@ public class DefaultWorkspacePersistenceManagerTest {
         when(desktop.getWindows()).thenReturn(windows);
     }
 
+    @SuppressWarnings("unchecked")
+    @Test
+    public void snapshotAfterConflictIsBasedOnAcknowledgedVersion() {
+        underTest.saveWorkspace(saveCallback);
+        acknowledgeSnapshot(new Long(15), 3);
+
+        underTest.saveWorkspace(saveCallback);
+        ArgumentCaptor<AsyncCallback> argument = ArgumentCaptor
+                .forClass(AsyncCallback.class);
+        verify(persistenceService, times(1)).saveWorkspaceDelta(
+                any(WorkspaceDeltaDTO.class), argument.capture());
+        argument.getValue().onFailure(
+                new WorkspaceVersionConflictException("conflict"));
+
+        underTest.saveWorkspace(saveCallback);
+
+        ArgumentCaptor<WorkspaceDTO> dtoArgument = ArgumentCaptor
+                .forClass(WorkspaceDTO.class);
+        verify(persistenceService, times(2)).saveWorkspace(
+                dtoArgument.capture(), any(AsyncCallback.class));
+        assertEquals(new Long(15), dtoArgument.getValue().getId());
+        assertEquals(3, dtoArgument.getValue().getVersion());
+    }
+
     @After
     public void tearDown() {
         MockitoGWTBridge.tearDown();
@@ -236,10 +314,10 @@ public class DefaultWorkspacePersistenceManagerTest {
                 .forClass(AsyncCallback.class);
         verify(persistenceService, times(1)).saveWorkspace(
                 any(WorkspaceDTO.class), argument.capture());
-        AsyncCallback<Long> callback = argument.getValue();
+        AsyncCallback<WorkspaceVersionDTO> callback = argument.getValue();
 
         Long value = new Long(15);
-        callback.onSuccess(value);
+        callback.onSuccess(new WorkspaceVersionDTO(value, 1));
 
         assertEquals(value, workspace.getId());
         assertEquals(false, workspace.isNew());
@@ -19,7 +19,9 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspacePersistenceServiceAsync;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
@@ -41,12 +43,25 @@ public class TestWorkspacePersistenceServiceAsync implements
             AsyncCallback<List<WorkspacePreviewDTO>> callback) {
     }
 
+    @Override
+    public void loadWorkspacePreviews(int offset, int limit,
+            AsyncCallback<List<WorkspacePreviewDTO>> callback) {
+    }
+
     @Override
     public void saveWorkspace(WorkspaceDTO workspace,
-            AsyncCallback<Long> callback) {
+            AsyncCallback<WorkspaceVersionDTO> callback) {
 
         dtos.add(workspace);
-        callback.onSuccess((long) (dtos.size() - 1));
+        callback.onSuccess(new WorkspaceVersionDTO((long) (dtos.size() - 1),
+                1));
+    }
+
+    @Override
+    public void saveWorkspaceDelta(WorkspaceDeltaDTO delta,
+            AsyncCallback<Long> callback) {
+
+        callback.onFailure(new UnsupportedOperationException());
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,232 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.workbench.workspace;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.thechiselgroup.biomixer.client.core.resources.ResourceSetTestUtils.createResource;
+
+import java.util.Arrays;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.core.persistence.Memento;
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ResourceSetDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WindowDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
+
+public class WorkspaceSaveTrackerTest {
+
+    private static final Long ID = new Long(7);
+
+    private WorkspaceSaveTracker underTest;
+
+    private void acknowledgeSnapshot(WorkspaceDTO dto, long version) {
+        underTest.acknowledgeSnapshot(ID, underTest.captureState(dto),
+                version);
+    }
+
+    private WorkspaceDeltaDTO createDelta(WorkspaceDTO dto) {
+        return underTest.createDelta(dto, underTest.captureState(dto));
+    }
+
+    private ResourceSetDTO createResourceSetDTO(int id, String... uris) {
+        ResourceSetDTO dto = new ResourceSetDTO();
+        dto.setId(id);
+        dto.setResourceIds(Arrays.asList(uris));
+        return dto;
+    }
+
+    private WindowDTO createWindowDTO(int x) {
+        Memento node = new Memento();
+        node.setValue("x", x);
+        node.setValue("y", 5);
+        Memento nodes = new Memento();
+        nodes.addChild("a", node);
+        Memento viewState = new Memento("graph");
+        viewState.addChild("nodes", nodes);
+
+        WindowDTO dto = new WindowDTO();
+        dto.setContentType("graph");
+        dto.setX(x);
+        dto.setViewState(viewState);
+        return dto;
+    }
+
+    private WorkspaceDTO createWorkspaceDTO(Resource[] resources,
+            ResourceSetDTO... resourceSets) {
+
+        WorkspaceDTO dto = new WorkspaceDTO(ID, "workspace");
+        dto.setResources(resources);
+        dto.setResourceSets(resourceSets);
+        dto.setWindows(new WindowDTO[] { new WindowDTO() });
+        return dto;
+    }
+
+    @Test
+    public void deltaContainsAddedAndModifiedResources() {
+        Resource unchanged = createResource(1);
+        Resource modified = createResource(2);
+        acknowledgeSnapshot(createWorkspaceDTO(new Resource[] { unchanged,
+                modified }), 3);
+
+        modified.putValue("label", "changed");
+        Resource added = createResource(3);
+        WorkspaceDeltaDTO delta = createDelta(createWorkspaceDTO(new Resource[] {
+                unchanged, modified, added }));
+
+        assertArrayEquals(new Resource[] { modified, added },
+                delta.getChangedResources());
+        assertEquals(0, delta.getRemovedResourceUris().length);
+        assertEquals(3, delta.getBaseVersion());
+        assertEquals(ID, delta.getWorkspaceId());
+    }
+
+    @Test
+    public void deltaContainsChangedWindows() {
+        WorkspaceDTO dto = createWorkspaceDTO(new Resource[0]);
+        dto.setWindows(new WindowDTO[] { createWindowDTO(10),
+                createWindowDTO(20), createWindowDTO(30) });
+        acknowledgeSnapshot(dto, 1);
+
+        WindowDTO changed = createWindowDTO(20);
+        changed.getViewState().getChild("nodes").getChild("a")
+                .setValue("x", 21);
+        WindowDTO added = createWindowDTO(40);
+        dto = createWorkspaceDTO(new Resource[0]);
+        dto.setWindows(new WindowDTO[] { createWindowDTO(10), changed,
+                createWindowDTO(30), added });
+        WorkspaceDeltaDTO delta = createDelta(dto);
+
+        assertArrayEquals(new WindowDTO[] { changed, added },
+                delta.getChangedWindows());
+        assertArrayEquals(new int[] { 1, 3 }, delta.getChangedWindowIndices());
+        assertEquals(4, delta.getWindowCount());
+    }
+
+    @Test
+    public void deltaContainsReaddedResource() {
+        acknowledgeSnapshot(
+                createWorkspaceDTO(new Resource[] { createResource(1) }), 1);
+
+        Resource readded = createResource(1);
+        WorkspaceDeltaDTO delta = createDelta(createWorkspaceDTO(new Resource[] { readded }));
+
+        assertArrayEquals(new Resource[] { readded },
+                delta.getChangedResources());
+    }
+
+    @Test
+    public void deltaContainsChangedResourceSets() {
+        acknowledgeSnapshot(
+                createWorkspaceDTO(new Resource[0],
+                        createResourceSetDTO(0, "a"),
+                        createResourceSetDTO(1, "b"),
+                        createResourceSetDTO(2, "c")), 1);
+
+        ResourceSetDTO changed = createResourceSetDTO(1, "b", "d");
+        WorkspaceDeltaDTO delta = createDelta(createWorkspaceDTO(
+                new Resource[0], createResourceSetDTO(0, "a"), changed));
+
+        assertArrayEquals(new ResourceSetDTO[] { changed },
+                delta.getChangedResourceSets());
+        assertEquals(2, delta.getResourceSetCount());
+    }
+
+    @Test
+    public void deltaContainsRemovedResources() {
+        Resource resource = createResource(1);
+        Resource removed = createResource(2);
+        acknowledgeSnapshot(createWorkspaceDTO(new Resource[] { resource,
+                removed }), 1);
+
+        WorkspaceDeltaDTO delta = createDelta(createWorkspaceDTO(new Resource[] { resource }));
+
+        assertEquals(0, delta.getChangedResources().length);
+        assertArrayEquals(new String[] { removed.getUri() },
+                delta.getRemovedResourceUris());
+    }
+
+    @Test
+    public void deltaContainsRemovedWindows() {
+        WorkspaceDTO dto = createWorkspaceDTO(new Resource[0]);
+        dto.setWindows(new WindowDTO[] { createWindowDTO(10),
+                createWindowDTO(20) });
+        acknowledgeSnapshot(dto, 1);
+
+        dto = createWorkspaceDTO(new Resource[0]);
+        dto.setWindows(new WindowDTO[] { createWindowDTO(10) });
+        WorkspaceDeltaDTO delta = createDelta(dto);
+
+        assertEquals(0, delta.getChangedWindows().length);
+        assertEquals(1, delta.getWindowCount());
+    }
+
+    @Test
+    public void deltaIsBasedOnLastAcknowledgedDelta() {
+        Resource resource = createResource(1);
+        acknowledgeSnapshot(createWorkspaceDTO(new Resource[] { resource }), 1);
+
+        resource.putValue("label", "changed");
+        WorkspaceDTO dto = createWorkspaceDTO(new Resource[] { resource });
+        underTest.acknowledgeDelta(underTest.captureState(dto), 2);
+
+        WorkspaceDeltaDTO delta = createDelta(createWorkspaceDTO(new Resource[] { resource }));
+
+        assertEquals(2, delta.getBaseVersion());
+        assertEquals(0, delta.getChangedResources().length);
+    }
+
+    @Test
+    public void snapshotRequiredAfterInterval() {
+        WorkspaceDTO dto = createWorkspaceDTO(new Resource[0]);
+        acknowledgeSnapshot(dto, 1);
+
+        for (int i = 0; i < WorkspaceSaveTracker.SNAPSHOT_INTERVAL; i++) {
+            assertTrue(underTest.isDeltaPossible(ID));
+            underTest.acknowledgeDelta(underTest.captureState(dto), i + 2);
+        }
+
+        assertFalse(underTest.isDeltaPossible(ID));
+    }
+
+    @Test
+    public void snapshotRequiredAfterInvalidation() {
+        acknowledgeSnapshot(createWorkspaceDTO(new Resource[0]), 1);
+
+        underTest.invalidate();
+
+        assertFalse(underTest.isDeltaPossible(ID));
+    }
+
+    @Test
+    public void snapshotRequiredForOtherWorkspace() {
+        acknowledgeSnapshot(createWorkspaceDTO(new Resource[0]), 1);
+
+        assertFalse(underTest.isDeltaPossible(null));
+        assertFalse(underTest.isDeltaPossible(new Long(8)));
+    }
+
+    @Before
+    public void setUp() {
+        underTest = new WorkspaceSaveTracker();
+    }
+
+}
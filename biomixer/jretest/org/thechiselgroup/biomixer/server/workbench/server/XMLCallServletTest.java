@@ -0,0 +1,99 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.server;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayInputStream;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.server.workbench.server.XMLCallServlet.RecordAnalyzer;
+import org.thechiselgroup.biomixer.server.workbench.urlfetch.DocumentFetchService;
+import org.w3c.dom.Node;
+
+public class XMLCallServletTest {
+
+    private static class StreamingTestServlet extends XMLCallServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        public StreamingTestServlet(DocumentFetchService documentFetchService) {
+            this.documentFetchService = documentFetchService;
+
+            setupStreamingExtraction(new RecordAnalyzer() {
+                @Override
+                public Resource analyzeRecord(Map<String, String> fields,
+                        String label) {
+
+                    Resource resource = new Resource(fields.get("@id"));
+                    resource.putValue("name", fields.get("name"));
+                    resource.putValue("label", label);
+                    return resource;
+                }
+            }, "concept", "@id", "name");
+        }
+
+        @Override
+        protected Resource analyzeNode(Node node, String label) {
+            throw new AssertionError("DOM path used");
+        }
+
+    }
+
+    private static final String URL = "http://localhost/concepts";
+
+    @Mock
+    private DocumentFetchService documentFetchService;
+
+    private StreamingTestServlet underTest;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        underTest = new StreamingTestServlet(documentFetchService);
+    }
+
+    @Test
+    public void streamedRecordsArePassedToRecordAnalyzer() throws Exception {
+        when(documentFetchService.fetchStream(URL)).thenReturn(
+                new ByteArrayInputStream(("<list>"
+                        + "<concept id=\"test:1\"><name>a</name></concept>"
+                        + "<concept id=\"test:2\"><name>b</name></concept>"
+                        + "</list>").getBytes("UTF-8")));
+
+        Set<Resource> resources = underTest.analyzeXML(URL, "label");
+
+        assertEquals(2, resources.size());
+        for (Resource resource : resources) {
+            assertEquals(resource.getUri().equals("test:1") ? "a" : "b",
+                    resource.getValue("name"));
+            assertEquals("label", resource.getValue("label"));
+        }
+        verify(documentFetchService, never()).fetchXML(any(String.class));
+    }
+
+}
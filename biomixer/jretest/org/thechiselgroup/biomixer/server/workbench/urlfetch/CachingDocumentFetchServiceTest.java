@@ -0,0 +1,419 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.urlfetch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.invocation.InvocationOnMock;
+import org.mockito.stubbing.Answer;
+import org.w3c.dom.Document;
+
+import com.google.appengine.api.urlfetch.HTTPHeader;
+import com.google.appengine.api.urlfetch.HTTPRequest;
+import com.google.appengine.api.urlfetch.HTTPResponse;
+import com.google.appengine.api.urlfetch.URLFetchService;
+
+public class CachingDocumentFetchServiceTest {
+
+    private static class InMemoryDocumentCache implements
+            PersistentDocumentCache {
+
+        private Map<String, HttpCacheEntry> entries = new HashMap<String, HttpCacheEntry>();
+
+        private boolean failing = false;
+
+        private int storeCount = 0;
+
+        private int updateCount = 0;
+
+        @Override
+        public synchronized HttpCacheEntry load(String url) {
+            return entries.get(url);
+        }
+
+        @Override
+        public synchronized void store(HttpCacheEntry entry) {
+            if (failing) {
+                throw new RuntimeException("datastore unavailable");
+            }
+            storeCount++;
+            entries.put(entry.getUrl(), entry);
+        }
+
+        @Override
+        public synchronized void updateExpiry(HttpCacheEntry entry) {
+            if (failing) {
+                throw new RuntimeException("datastore unavailable");
+            }
+            updateCount++;
+            HttpCacheEntry stored = entries.get(entry.getUrl());
+            entries.put(entry.getUrl(), new HttpCacheEntry(entry.getUrl(),
+                    stored.getContent(), entry.getEtag(),
+                    entry.getLastModified(), entry.getExpiryTime()));
+        }
+
+    }
+
+    /**
+     * Answers {@link URLFetchService#fetch(HTTPRequest)} with queued responses
+     * in order and records the requests it receives. Fails with an
+     * {@link IOException} if no response is queued.
+     */
+    private static class FetchResponder implements Answer<HTTPResponse> {
+
+        private CountDownLatch fetchStarted;
+
+        private CountDownLatch releaseFetch;
+
+        private final List<HTTPRequest> requests = Collections
+                .synchronizedList(new ArrayList<HTTPRequest>());
+
+        private final LinkedList<HTTPResponse> responses = new LinkedList<HTTPResponse>();
+
+        @Override
+        public HTTPResponse answer(InvocationOnMock invocation)
+                throws IOException {
+
+            HTTPRequest request = (HTTPRequest) invocation.getArguments()[0];
+            requests.add(request);
+
+            if (fetchStarted != null) {
+                fetchStarted.countDown();
+                try {
+                    releaseFetch.await();
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+            }
+
+            synchronized (responses) {
+                if (responses.isEmpty()) {
+                    throw new IOException("service unavailable");
+                }
+                return responses.removeFirst();
+            }
+        }
+
+        public String getRequestHeader(int index, String name) {
+            for (HTTPHeader header : requests.get(index).getHeaders()) {
+                if (header.getName().equals(name)) {
+                    return header.getValue();
+                }
+            }
+            return null;
+        }
+
+        public void respond(int code, String content, HTTPHeader... headers) {
+            HTTPResponse response = mock(HTTPResponse.class);
+            when(response.getResponseCode()).thenReturn(code);
+            when(response.getContent()).thenReturn(
+                    content == null ? null : content.getBytes());
+            List<HTTPHeader> headerList = new ArrayList<HTTPHeader>();
+            Collections.addAll(headerList, headers);
+            when(response.getHeaders()).thenReturn(headerList);
+
+            synchronized (responses) {
+                responses.add(response);
+            }
+        }
+
+    }
+
+    private static class TestCachingDocumentFetchService extends
+            CachingDocumentFetchService {
+
+        private long currentTime = 0;
+
+        public TestCachingDocumentFetchService(URLFetchService fetchService,
+                PersistentDocumentCache persistentCache, int memoryCapacity) {
+
+            super(fetchService, persistentCache, DocumentBuilderFactory
+                    .newInstance(), memoryCapacity, TIME_TO_LIVE);
+        }
+
+        @Override
+        protected long getCurrentTimeMillis() {
+            return currentTime;
+        }
+
+    }
+
+    private static final long TIME_TO_LIVE = 1000;
+
+    private static final String URL_1 = "http://localhost/terms/1";
+
+    private static final String URL_2 = "http://localhost/terms/2";
+
+    private InMemoryDocumentCache persistentCache;
+
+    private FetchResponder responder;
+
+    @Mock
+    private URLFetchService urlFetchService;
+
+    private TestCachingDocumentFetchService underTest;
+
+    private String content(Document document) {
+        return document.getDocumentElement().getTextContent();
+    }
+
+    @Test
+    public void changedContentReplacesExpiredEntry() throws Exception {
+        responder.respond(200, "<a>1</a>");
+        responder.respond(200, "<a>2</a>");
+
+        underTest.fetchXML(URL_1);
+        underTest.currentTime = TIME_TO_LIVE;
+
+        assertEquals("2", content(underTest.fetchXML(URL_1)));
+        assertEquals("<a>2</a>",
+                new String(persistentCache.load(URL_1).getContent()));
+    }
+
+    @Test
+    public void concurrentMissesShareOneFetch() throws Exception {
+        responder.fetchStarted = new CountDownLatch(1);
+        responder.releaseFetch = new CountDownLatch(1);
+        responder.respond(200, "<a>1</a>");
+
+        final Document[] results = new Document[2];
+        Thread first = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    results[0] = underTest.fetchXML(URL_1);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+        Thread second = new Thread() {
+            @Override
+            public void run() {
+                try {
+                    results[1] = underTest.fetchXML(URL_1);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            }
+        };
+
+        first.start();
+        responder.fetchStarted.await();
+        second.start();
+        while (second.getState() != Thread.State.WAITING) {
+            Thread.sleep(1);
+        }
+        responder.releaseFetch.countDown();
+        first.join();
+        second.join();
+
+        assertEquals(1, responder.requests.size());
+        assertEquals("1", content(results[0]));
+        assertEquals("1", content(results[1]));
+        assertNotSame(results[0], results[1]);
+    }
+
+    @Test
+    public void expiredEntryIsRevalidatedWithValidators() throws Exception {
+        responder.respond(200, "<a>1</a>", new HTTPHeader("ETag",
+                "\"v1\""), new HTTPHeader("Last-Modified",
+                "Mon, 01 Oct 2012 10:00:00 GMT"));
+        responder.respond(304, null);
+
+        underTest.fetchXML(URL_1);
+        underTest.currentTime = TIME_TO_LIVE;
+        Document document = underTest.fetchXML(URL_1);
+
+        assertEquals("1", content(document));
+        assertEquals(2, responder.requests.size());
+        assertEquals("\"v1\"",
+                responder.getRequestHeader(1, "If-None-Match"));
+        assertEquals("Mon, 01 Oct 2012 10:00:00 GMT",
+                responder.getRequestHeader(1, "If-Modified-Since"));
+        assertEquals(2 * TIME_TO_LIVE, persistentCache.load(URL_1)
+                .getExpiryTime());
+    }
+
+    @Test
+    public void failingPersistentCacheDoesNotFailFetch() throws Exception {
+        persistentCache.failing = true;
+        responder.respond(200, "<a>1</a>");
+
+        assertEquals("1", content(underTest.fetchXML(URL_1)));
+        assertEquals(1, underTest.getMemoryCacheSize());
+    }
+
+    @Test
+    public void failingPersistentCacheDoesNotFailRevalidation()
+            throws Exception {
+        responder.respond(200, "<a>1</a>", new HTTPHeader("ETag", "\"v1\""));
+        responder.respond(304, null);
+
+        underTest.fetchXML(URL_1);
+        underTest.currentTime = TIME_TO_LIVE;
+        persistentCache.failing = true;
+
+        assertEquals("1", content(underTest.fetchXML(URL_1)));
+        assertEquals(2, responder.requests.size());
+    }
+
+    @Test
+    public void fetchedDocumentIsStoredInPersistentCache() throws Exception {
+        responder.respond(200, "<a>1</a>",
+                new HTTPHeader("etag", "\"v1\""));
+
+        underTest.fetchXML(URL_1);
+
+        HttpCacheEntry entry = persistentCache.load(URL_1);
+        assertEquals("<a>1</a>", new String(entry.getContent()));
+        assertEquals("\"v1\"", entry.getEtag());
+        assertNull(entry.getLastModified());
+        assertEquals(TIME_TO_LIVE, entry.getExpiryTime());
+    }
+
+    @Test
+    public void freshEntryIsServedFromMemory() throws Exception {
+        responder.respond(200, "<a>1</a>");
+
+        underTest.fetchXML(URL_1);
+        underTest.currentTime = TIME_TO_LIVE - 1;
+        Document document = underTest.fetchXML(URL_1);
+
+        assertEquals("1", content(document));
+        assertEquals(1, responder.requests.size());
+    }
+
+    @Test
+    public void freshPersistentEntryIsUsedOnMemoryMiss() throws Exception {
+        persistentCache.store(new HttpCacheEntry(URL_1, "<a>1</a>".getBytes(),
+                null, null, TIME_TO_LIVE));
+
+        assertEquals("1", content(underTest.fetchXML(URL_1)));
+        assertEquals(0, responder.requests.size());
+        assertEquals(1, underTest.getMemoryCacheSize());
+    }
+
+    @Test
+    public void leastRecentlyUsedDocumentIsEvicted() throws Exception {
+        underTest = new TestCachingDocumentFetchService(urlFetchService,
+                persistentCache, 1);
+        responder.respond(200, "<a>1</a>");
+        responder.respond(200, "<a>2</a>");
+
+        underTest.fetchXML(URL_1);
+        underTest.fetchXML(URL_2);
+
+        assertEquals(1, underTest.getMemoryCacheSize());
+
+        /* evicted document is reloaded from the persistent cache */
+        assertEquals("1", content(underTest.fetchXML(URL_1)));
+        assertEquals(2, responder.requests.size());
+    }
+
+    @Test
+    public void revalidationOnlyUpdatesExpiryAndValidators()
+            throws Exception {
+        responder.respond(200, "<a>1</a>", new HTTPHeader("ETag", "\"v1\""));
+        responder.respond(304, null, new HTTPHeader("ETag", "\"v2\""));
+
+        underTest.fetchXML(URL_1);
+        underTest.currentTime = TIME_TO_LIVE;
+        underTest.fetchXML(URL_1);
+
+        assertEquals(1, persistentCache.storeCount);
+        assertEquals(1, persistentCache.updateCount);
+        HttpCacheEntry entry = persistentCache.load(URL_1);
+        assertEquals("\"v2\"", entry.getEtag());
+        assertEquals(2 * TIME_TO_LIVE, entry.getExpiryTime());
+        assertEquals("<a>1</a>", new String(entry.getContent()));
+    }
+
+    @Test
+    public void returnedDocumentsAreCopies() throws Exception {
+        responder.respond(200, "<a>1</a>");
+
+        Document document = underTest.fetchXML(URL_1);
+        document.getDocumentElement().setTextContent("changed");
+
+        assertEquals("1", content(underTest.fetchXML(URL_1)));
+    }
+
+    @Before
+    public void setUp() throws IOException {
+        MockitoAnnotations.initMocks(this);
+
+        responder = new FetchResponder();
+        when(urlFetchService.fetch(any(HTTPRequest.class))).thenAnswer(
+                responder);
+
+        persistentCache = new InMemoryDocumentCache();
+        underTest = new TestCachingDocumentFetchService(urlFetchService,
+                persistentCache, 10);
+    }
+
+    @Test
+    public void staleEntryIsServedWhenFetchFails() throws Exception {
+        persistentCache.store(new HttpCacheEntry(URL_1, "<a>1</a>".getBytes(),
+                null, null, 0));
+
+        assertEquals("1", content(underTest.fetchXML(URL_1)));
+        assertEquals(1, responder.requests.size());
+    }
+
+    @Test(expected = IOException.class)
+    public void unsuccessfulStatusIsNotCached() throws Exception {
+        responder.respond(500, "<error/>");
+
+        try {
+            underTest.fetchXML(URL_1);
+        } finally {
+            assertNull(persistentCache.load(URL_1));
+            assertEquals(0, underTest.getMemoryCacheSize());
+        }
+    }
+
+    @Test
+    public void urlPrefixTimeToLiveOverridesDefault() throws Exception {
+        underTest.setTimeToLive("http://localhost/", 5000);
+        underTest.setTimeToLive("http://localhost/terms/", 10);
+
+        assertEquals(10, underTest.getTimeToLive(URL_1));
+        assertEquals(5000, underTest.getTimeToLive("http://localhost/x"));
+        assertEquals(TIME_TO_LIVE, underTest.getTimeToLive("http://other/"));
+    }
+
+}
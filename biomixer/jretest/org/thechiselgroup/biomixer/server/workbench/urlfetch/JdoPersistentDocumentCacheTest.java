@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.urlfetch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Query;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import com.google.appengine.api.datastore.Blob;
+
+public class JdoPersistentDocumentCacheTest {
+
+    private static final int OVERSIZED_LENGTH = JdoPersistentDocumentCache.MAX_CONTENT_LENGTH + 1;
+
+    private static final String URL = "http://localhost/terms/1";
+
+    @Mock
+    private PersistenceManager manager;
+
+    @Mock
+    private PersistenceManagerFactory pmf;
+
+    @Mock
+    private Query query;
+
+    private List<PersistentHttpResult> results;
+
+    private JdoPersistentDocumentCache underTest;
+
+    private PersistentHttpResult addStoredResult(String content) {
+        PersistentHttpResult result = new PersistentHttpResult();
+        result.setUrl(URL);
+        result.setEtag("\"v1\"");
+        result.setExpiryDate(new Date(1000));
+        result.setResult(new Blob(content.getBytes()));
+        results.add(result);
+        return result;
+    }
+
+    @Test
+    public void oversizedContentIsNotStored() {
+        byte[] content = new byte[OVERSIZED_LENGTH];
+
+        underTest.store(new HttpCacheEntry(URL, content, null, null, 1000));
+
+        verify(manager, never()).makePersistent(any());
+        verify(manager).close();
+    }
+
+    @Test
+    public void oversizedContentRemovesOutdatedEntry() {
+        PersistentHttpResult result = addStoredResult("<a>1</a>");
+        byte[] content = new byte[OVERSIZED_LENGTH];
+
+        underTest.store(new HttpCacheEntry(URL, content, null, null, 2000));
+
+        verify(manager).deletePersistent(result);
+        verify(manager, never()).makePersistent(any());
+    }
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.initMocks(this);
+
+        results = new ArrayList<PersistentHttpResult>();
+
+        when(pmf.getPersistenceManager()).thenReturn(manager);
+        when(manager.newQuery(PersistentHttpResult.class, "url == urlParam"))
+                .thenReturn(query);
+        when(query.execute(anyString())).thenReturn(results);
+
+        underTest = new JdoPersistentDocumentCache(pmf);
+    }
+
+    @Test
+    public void updateExpiryKeepsStoredContent() {
+        PersistentHttpResult result = addStoredResult("<a>1</a>");
+        Blob content = result.getResult();
+
+        underTest.updateExpiry(new HttpCacheEntry(URL, "<a>1</a>".getBytes(),
+                "\"v2\"", null, 2000));
+
+        assertSame(content, result.getResult());
+        assertEquals("\"v2\"", result.getEtag());
+        assertEquals(2000, result.getExpiryDate().getTime());
+        verify(manager).close();
+    }
+
+    @Test
+    public void updateExpiryWithoutStoredEntryDoesNothing() {
+        underTest.updateExpiry(new HttpCacheEntry(URL, "<a>1</a>".getBytes(),
+                null, null, 2000));
+
+        verify(manager, never()).makePersistent(any());
+        verify(manager).close();
+    }
+
+}
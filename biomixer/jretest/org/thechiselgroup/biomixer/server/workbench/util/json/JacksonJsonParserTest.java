@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.util.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonCursor;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonPath;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonTreeCursor;
+
+public class JacksonJsonParserTest {
+
+    private static final JsonPath MAPPINGS_PATH = JsonPath
+            .compile("success.data[0].page.contents.mappings.mapping[*]");
+
+    private JacksonJsonParser underTest;
+
+    private String createMappingResponse(int mappingCount) {
+        StringBuilder json = new StringBuilder();
+        json.append("{\"success\":{\"accessedResource\":\"/mappings\","
+                + "\"data\":[{\"page\":{\"pageNum\":1,\"contents\":"
+                + "{\"mappings\":{\"mapping\":[");
+        for (int i = 0; i < mappingCount; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"id\":\"mapping-").append(i)
+                    .append("\",\"source\":[{\"fullId\":\"source-").append(i)
+                    .append("\"}],\"target\":[{\"fullId\":\"target-")
+                    .append(i).append("\"}],\"comment\":[1,2,{\"a\":[]}]}");
+        }
+        json.append("]}}}}]}}");
+        return json.toString();
+    }
+
+    private List<String> readIds(JsonCursor cursor) {
+        List<String> ids = new ArrayList<String>();
+        while (cursor.next()) {
+            ids.add(underTest.asString(underTest.get(cursor.current(), "id")));
+        }
+        return ids;
+    }
+
+    private List<String> select(String json, String path) {
+        List<String> values = new ArrayList<String>();
+        JsonCursor cursor = underTest.select(json, JsonPath.compile(path));
+        while (cursor.next()) {
+            values.add(cursor.current().toString());
+        }
+        return values;
+    }
+
+    @Test
+    public void emptyPathSelectsRoot() {
+        assertEquals(1, select("{\"a\":1}", "").size());
+    }
+
+    @Test
+    public void indexSelectsSingleElement() {
+        List<String> values = select("{\"a\":[1,[2,3],4]}", "a[1][0]");
+
+        assertEquals(1, values.size());
+        assertEquals("2", values.get(0));
+    }
+
+    @Test
+    public void mismatchingStructureSelectsNothing() {
+        assertTrue(select("{\"a\":{\"b\":1}}", "a[*]").isEmpty());
+        assertTrue(select("{\"a\":[{\"b\":1}]}", "a.b").isEmpty());
+        assertTrue(select("{\"a\":1}", "b").isEmpty());
+        assertTrue(select("[]", "[0]").isEmpty());
+    }
+
+    @Test
+    public void nestedWildcards() {
+        List<String> values = select(
+                "{\"a\":[{\"b\":[1,2]},{\"c\":0},{\"b\":[3]}]}", "a[*].b[*]");
+
+        assertEquals(3, values.size());
+        assertEquals("1", values.get(0));
+        assertEquals("2", values.get(1));
+        assertEquals("3", values.get(2));
+    }
+
+    @Test
+    public void nextReturnsFalseAfterEnd() {
+        JsonCursor cursor = underTest.select("{\"a\":[1]}",
+                JsonPath.compile("a[*]"));
+
+        assertTrue(cursor.next());
+        assertFalse(cursor.next());
+        assertFalse(cursor.next());
+    }
+
+    @Before
+    public void setUp() {
+        underTest = new JacksonJsonParser();
+    }
+
+    @Test
+    public void streamingAndTreeSelectionReturnSameRecords() {
+        String json = createMappingResponse(1000);
+
+        List<String> streamed = readIds(underTest.select(json, MAPPINGS_PATH));
+        List<String> tree = readIds(new JsonTreeCursor(underTest,
+                underTest.parse(json), MAPPINGS_PATH));
+
+        assertEquals(1000, streamed.size());
+        assertEquals(tree, streamed);
+        assertEquals("mapping-999", streamed.get(999));
+    }
+
+}
@@ -0,0 +1,100 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.util.xml;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Test;
+import org.thechiselgroup.biomixer.server.workbench.util.xml.StreamingRecordExtractor.RecordHandler;
+
+public class StreamingRecordExtractorTest {
+
+    private List<Map<String, String>> extract(String xml, String recordPath,
+            String... fieldPaths) throws Exception {
+
+        final List<Map<String, String>> records = new ArrayList<Map<String, String>>();
+        new StreamingRecordExtractor(recordPath, fieldPaths).extract(
+                new ByteArrayInputStream(xml.getBytes("UTF-8")),
+                new RecordHandler() {
+                    @Override
+                    public void onRecord(Map<String, String> fields) {
+                        records.add(fields);
+                    }
+                });
+        return records;
+    }
+
+    @Test
+    public void attributeFields() throws Exception {
+        List<Map<String, String>> records = extract(
+                "<list><item id=\"1\"><ref href=\"a\"/></item></list>",
+                "item", "@id", "ref/@href");
+
+        assertEquals(1, records.size());
+        assertEquals("1", records.get(0).get("@id"));
+        assertEquals("a", records.get(0).get("ref/@href"));
+    }
+
+    @Test
+    public void elementFields() throws Exception {
+        List<Map<String, String>> records = extract(
+                "<list><item><name>a</name><info><label>x</label></info></item>"
+                        + "<item><name>b</name></item></list>", "item",
+                "name", "info/label");
+
+        assertEquals(2, records.size());
+        assertEquals("a", records.get(0).get("name"));
+        assertEquals("x", records.get(0).get("info/label"));
+        assertEquals("b", records.get(1).get("name"));
+    }
+
+    @Test
+    public void firstMatchingElementIsUsed() throws Exception {
+        List<Map<String, String>> records = extract(
+                "<list><item><name>a</name><name>b</name></item></list>",
+                "item", "name");
+
+        assertEquals("a", records.get(0).get("name"));
+    }
+
+    @Test
+    public void missingFieldIsNotContained() throws Exception {
+        List<Map<String, String>> records = extract(
+                "<list><item><name>a</name></item></list>", "item", "name",
+                "label", "@id");
+
+        assertFalse(records.get(0).containsKey("label"));
+        assertFalse(records.get(0).containsKey("@id"));
+    }
+
+    @Test
+    public void recordPathMatchesAtAnyDepth() throws Exception {
+        List<Map<String, String>> records = extract(
+                "<a><list><item><name>x</name></item></list>"
+                        + "<other><item><name>y</name></item></other></a>",
+                "list/item", "name");
+
+        assertEquals(1, records.size());
+        assertEquals("x", records.get(0).get("name"));
+    }
+
+}
@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.workspace;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.util.Date;
+
+import org.junit.Test;
+import org.thechiselgroup.biomixer.client.core.persistence.Memento;
+import org.thechiselgroup.biomixer.client.core.ui.Color;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+public class MementoSerializationTest {
+
+    private static Memento createGraphState(int nodeCount) {
+        Memento nodeLocations = new Memento();
+        for (int i = 0; i < nodeCount; i++) {
+            Memento node = new Memento();
+            node.setValue("x", i * 3);
+            node.setValue("y", i * 7);
+            nodeLocations.addChild("http://purl.bioontology.org/ontology/"
+                    + i, node);
+        }
+
+        Memento arcType = new Memento();
+        arcType.setValue("visible", true);
+        arcType.setValue("arcColor", "#AFC6E5");
+        arcType.setValue("arcThickness", 1);
+
+        Memento arcTypes = new Memento();
+        arcTypes.addChild("mapping", arcType);
+
+        Memento state = new Memento("graph");
+        state.addChild("nodeLocations", nodeLocations);
+        state.addChild("arcTypes", arcTypes);
+        return state;
+    }
+
+    private static byte[] toJavaSerialized(Memento memento)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        ObjectOutputStream out = new ObjectOutputStream(bytes);
+        out.writeObject(memento);
+        out.close();
+        return bytes.toByteArray();
+    }
+
+    private void assertRoundTrip(Memento memento, boolean deflate)
+            throws SerializationException {
+
+        Memento result = MementoSerialization.fromBytes(MementoSerialization
+                .toBytes(memento, deflate));
+
+        assertEquals(memento.toString(), result.toString());
+    }
+
+    @Test
+    public void deflatedRoundTrip() throws SerializationException {
+        assertRoundTrip(createGraphState(100), true);
+    }
+
+    @Test
+    public void encodingIsSmallerThanJavaSerialization() throws Exception {
+        Memento state = createGraphState(1000);
+
+        int javaSize = toJavaSerialized(state).length;
+
+        int encodedSize = MementoSerialization.toBytes(state, false).length;
+        int deflatedSize = MementoSerialization.toBytes(state, true).length;
+
+        assertTrue(encodedSize < javaSize);
+        assertTrue(deflatedSize < javaSize / 5);
+    }
+
+    @Test
+    public void keysAreSharedBetweenDecodedChildren()
+            throws SerializationException {
+
+        Memento result = MementoSerialization.fromBytes(MementoSerialization
+                .toBytes(createGraphState(10), false));
+
+        Memento nodeLocations = result.getChild("nodeLocations");
+        Memento first = nodeLocations.getChild(nodeLocations.getChildren()
+                .firstKey());
+        Memento last = nodeLocations.getChild(nodeLocations.getChildren()
+                .lastKey());
+        assertSame(first.getValues().firstKey(), last.getValues().firstKey());
+    }
+
+    @Test
+    public void readJavaSerializedMemento() throws Exception {
+        Memento state = createGraphState(10);
+
+        Memento result = MementoSerialization
+                .fromBytes(toJavaSerialized(state));
+
+        assertEquals(state.toString(), result.toString());
+    }
+
+    @Test
+    public void roundTripWithAllValueTypes() throws SerializationException {
+        Memento child = new Memento("child");
+        child.setValue("null", null);
+        child.setValue("comment", "a comment");
+
+        Memento memento = new Memento();
+        memento.setValue("integer", 5);
+        memento.setValue("long", 5000000000L);
+        memento.setValue("double", 0.25);
+        memento.setValue("boolean", false);
+        memento.setValue("date", new Date(1318000000000L));
+        memento.setValue("color", new Color(10, 20, 30, 0.5));
+        memento.setValue("object", new StringBuilder("sb").toString()
+                .toCharArray());
+        memento.addChild("child", child);
+        memento.addChild("empty", new Memento());
+        memento.addChild("missing", null);
+
+        Memento result = MementoSerialization.fromBytes(MementoSerialization
+                .toBytes(memento, false));
+
+        assertEquals(5, result.getValue("integer"));
+        assertEquals(5000000000L, result.getValue("long"));
+        assertEquals(0.25, result.getValue("double"));
+        assertEquals(false, result.getValue("boolean"));
+        assertEquals(new Date(1318000000000L), result.getValue("date"));
+        assertEquals(new Color(10, 20, 30, 0.5), result.getValue("color"));
+        assertEquals("sb", new String((char[]) result.getValue("object")));
+        assertEquals(child.toString(), result.getChild("child").toString());
+        assertEquals(new Memento().toString(), result.getChild("empty")
+                .toString());
+        assertTrue(result.getChildren().containsKey("missing"));
+    }
+
+    @Test
+    public void roundTripWithColumnarChildren() throws SerializationException {
+        assertRoundTrip(createGraphState(100), false);
+    }
+
+    @Test(expected = SerializationException.class)
+    public void unknownFormat() throws SerializationException {
+        MementoSerialization.fromBytes(new byte[] { 1, 2, 3 });
+    }
+
+}
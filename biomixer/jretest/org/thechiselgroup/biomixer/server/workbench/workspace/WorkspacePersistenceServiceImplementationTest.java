@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.server.workbench.workspace;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.mockito.Matchers.any;
 import static org.mockito.Mockito.verify;
@@ -26,6 +27,7 @@ import java.util.List;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Transaction;
 
 import org.junit.Before;
 import org.junit.Test;
@@ -37,8 +39,11 @@ import org.thechiselgroup.biomixer.client.core.util.ServiceException;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ResourceSetDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WindowDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspacePersistenceService;
+import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspaceVersionConflictException;
 import org.thechiselgroup.biomixer.shared.core.test.AdvancedAsserts;
 
 public class WorkspacePersistenceServiceImplementationTest {
@@ -60,8 +65,40 @@ public class WorkspacePersistenceServiceImplementationTest {
 
     private WorkspacePersistenceService service;
 
+    @Mock
+    private Transaction transaction;
+
     private WorkspaceDTO[] workspaceDTOs;
 
+    private WorkspaceDeltaDTO createDelta(long baseVersion) {
+        WorkspaceDeltaDTO delta = new WorkspaceDeltaDTO();
+        delta.setWorkspaceId(ID);
+        delta.setBaseVersion(baseVersion);
+        delta.setName(NAME);
+        delta.setChangedWindows(new WindowDTO[0]);
+        delta.setChangedWindowIndices(new int[0]);
+        delta.setChangedResources(new Resource[0]);
+        delta.setRemovedResourceUris(new String[0]);
+        delta.setChangedResourceSets(new ResourceSetDTO[0]);
+        return delta;
+    }
+
+    private WorkspaceDTO createExistingWorkspaceDTO(long version) {
+        WorkspaceDTO dto = new WorkspaceDTO(ID, "bb");
+        dto.setVersion(version);
+        dto.setWindows(new WindowDTO[] { new WindowDTO() });
+        dto.setResources(new Resource[0]);
+        dto.setResourceSets(new ResourceSetDTO[0]);
+        return dto;
+    }
+
+    private ResourceSetDTO createResourceSetDTO(int id, String label) {
+        ResourceSetDTO dto = new ResourceSetDTO();
+        dto.setId(id);
+        dto.setLabel(label);
+        return dto;
+    }
+
     @Test
     public void getAllWorkspaces() throws ServiceException {
         PersistentWorkspacePermission permission = new PersistentWorkspacePermission();
@@ -79,9 +116,87 @@ public class WorkspacePersistenceServiceImplementationTest {
         List<WorkspacePreviewDTO> expected = new ArrayList<WorkspacePreviewDTO>();
         expected.add(new WorkspacePreviewDTO(ID, NAME));
         AdvancedAsserts.assertSortedEquals(expected, result);
+        assertEquals(ID, permission.getWorkspaceId());
+        assertEquals(NAME, permission.getWorkspaceName());
+    }
+
+    @Test
+    public void getWorkspacePreviewPageFromDenormalizedPermissions()
+            throws ServiceException {
+        PersistentWorkspacePermission permission = new PersistentWorkspacePermission();
+        permission.setWorkspaceId(ID);
+        permission.setWorkspaceName(NAME);
+
+        Collection<PersistentWorkspacePermission> permissions = new ArrayList<PersistentWorkspacePermission>();
+        permissions.add(permission);
+        when(
+                securityManager.getWorkspacePermissionsForCurrentUser(manager,
+                        10, 5)).thenReturn(permissions);
+
+        List<WorkspacePreviewDTO> result = service.loadWorkspacePreviews(10, 5);
+
+        List<WorkspacePreviewDTO> expected = new ArrayList<WorkspacePreviewDTO>();
+        expected.add(new WorkspacePreviewDTO(ID, NAME));
+        AdvancedAsserts.assertSortedEquals(expected, result);
+    }
+
+    @Test
+    public void saveDelta() throws ServiceException {
+        Resource removed = new Resource("test:1");
+        Resource changed = new Resource("test:2");
+        Resource added = new Resource("test:3");
+        persistentWorkspace.setVersion(3);
+        persistentWorkspace.setResources(new Resource[] { removed,
+                new Resource("test:2") });
+        persistentWorkspace.setResourceSets(new ResourceSetDTO[] {
+                createResourceSetDTO(0, "a"), createResourceSetDTO(1, "b") });
+        WindowDTO unchangedWindow = new WindowDTO();
+        persistentWorkspace.setWindows(new WindowDTO[] { unchangedWindow,
+                new WindowDTO(), new WindowDTO() });
+        when(manager.getObjectById(PersistentWorkspace.class, ID)).thenReturn(
+                persistentWorkspace);
+
+        ResourceSetDTO changedSet = createResourceSetDTO(0, "c");
+        WorkspaceDeltaDTO delta = createDelta(3);
+        delta.setRemovedResourceUris(new String[] { removed.getUri() });
+        delta.setChangedResources(new Resource[] { changed, added });
+        delta.setChangedResourceSets(new ResourceSetDTO[] { changedSet });
+        delta.setResourceSetCount(1);
+        WindowDTO changedWindow = new WindowDTO();
+        delta.setChangedWindows(new WindowDTO[] { changedWindow });
+        delta.setChangedWindowIndices(new int[] { 1 });
+        delta.setWindowCount(2);
+
+        long result = service.saveWorkspaceDelta(delta);
+
+        assertEquals(4, result);
+        assertEquals(4, persistentWorkspace.getVersion());
+        assertArrayEquals(new Resource[] { changed, added },
+                persistentWorkspace.getResources());
+        assertEquals(true, persistentWorkspace.getResources()[0] == changed);
+        assertArrayEquals(new ResourceSetDTO[] { changedSet },
+                persistentWorkspace.getResourceSets());
+        assertArrayEquals(new WindowDTO[] { unchangedWindow, changedWindow },
+                persistentWorkspace.getWindows());
+        verify(transaction).commit();
+        verify(manager).close();
     }
 
-    // TODO test DTO update
+    @Test(expected = WorkspaceVersionConflictException.class)
+    public void saveDeltaWithOutdatedBaseVersion() throws ServiceException {
+        persistentWorkspace.setVersion(4);
+        when(manager.getObjectById(PersistentWorkspace.class, ID)).thenReturn(
+                persistentWorkspace);
+        when(transaction.isActive()).thenReturn(true);
+
+        try {
+            service.saveWorkspaceDelta(createDelta(3));
+        } finally {
+            verify(transaction).rollback();
+            verify(manager).close();
+            assertEquals(4, persistentWorkspace.getVersion());
+        }
+    }
 
     @Test
     public void saveNewWorkspaceDTO() throws ServiceException {
@@ -94,12 +209,50 @@ public class WorkspacePersistenceServiceImplementationTest {
         when(manager.makePersistent(Matchers.any())).thenReturn(
                 persistentWorkspace);
 
-        Long result = service.saveWorkspace(workspaceDTOs[0]);
+        WorkspaceVersionDTO result = service.saveWorkspace(workspaceDTOs[0]);
 
         verify(pmf).getPersistenceManager();
         verify(manager).makePersistent(any(PersistentWorkspace.class));
         verify(manager).close();
-        assertEquals(ID, result);
+        assertEquals(ID, result.getId());
+        assertEquals(1, result.getVersion());
+    }
+
+    @Test
+    public void saveWorkspaceDTO() throws ServiceException {
+        persistentWorkspace.setVersion(3);
+        when(manager.getObjectById(PersistentWorkspace.class, ID)).thenReturn(
+                persistentWorkspace);
+
+        WorkspaceDTO dto = createExistingWorkspaceDTO(3);
+        WorkspaceVersionDTO result = service.saveWorkspace(dto);
+
+        assertEquals(ID, result.getId());
+        assertEquals(4, result.getVersion());
+        assertEquals("bb", persistentWorkspace.getName());
+        assertArrayEquals(dto.getWindows(), persistentWorkspace.getWindows());
+        verify(transaction).begin();
+        verify(transaction).commit();
+        verify(manager).close();
+    }
+
+    @Test(expected = WorkspaceVersionConflictException.class)
+    public void saveWorkspaceDTOWithOutdatedVersion() throws ServiceException {
+        persistentWorkspace.setVersion(4);
+        persistentWorkspace.setWindows(new WindowDTO[0]);
+        when(manager.getObjectById(PersistentWorkspace.class, ID)).thenReturn(
+                persistentWorkspace);
+        when(transaction.isActive()).thenReturn(true);
+
+        try {
+            service.saveWorkspace(createExistingWorkspaceDTO(3));
+        } finally {
+            verify(transaction).rollback();
+            verify(manager).close();
+            assertEquals(4, persistentWorkspace.getVersion());
+            assertEquals(NAME, persistentWorkspace.getName());
+            assertEquals(0, persistentWorkspace.getWindows().length);
+        }
     }
 
     @Before
@@ -117,5 +270,6 @@ public class WorkspacePersistenceServiceImplementationTest {
         persistentWorkspace.setName(NAME);
 
         when(pmf.getPersistenceManager()).thenReturn(manager);
+        when(manager.currentTransaction()).thenReturn(transaction);
     }
 }
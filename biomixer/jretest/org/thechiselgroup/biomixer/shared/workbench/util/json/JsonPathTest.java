@@ -0,0 +1,66 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.shared.workbench.util.json;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class JsonPathTest {
+
+    @Test
+    public void compileMixedSegments() {
+        JsonPath path = JsonPath.compile("a.b[0][*].c");
+
+        assertEquals(5, path.getSegmentCount());
+        assertTrue(path.matchesProperty(0, "a"));
+        assertTrue(path.matchesProperty(1, "b"));
+        assertTrue(path.matchesIndex(2, 0));
+        assertFalse(path.matchesIndex(2, 1));
+        assertNull(path.getProperty(2));
+        assertTrue(path.matchesIndex(3, 7));
+        assertTrue(path.matchesProperty(4, "c"));
+        assertFalse(path.matchesProperty(4, "a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void emptyPropertyName() {
+        JsonPath.compile("a..b");
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidIndex() {
+        JsonPath.compile("a[-1]");
+    }
+
+    @Test
+    public void leadingIndex() {
+        JsonPath path = JsonPath.compile("[1].a");
+
+        assertEquals(2, path.getSegmentCount());
+        assertFalse(path.isPropertySegment(0));
+        assertTrue(path.matchesProperty(1, "a"));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unclosedIndex() {
+        JsonPath.compile("a[1");
+    }
+
+}
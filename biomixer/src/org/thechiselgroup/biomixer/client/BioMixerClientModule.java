@@ -19,7 +19,11 @@ import org.thechiselgroup.biomixer.client.core.label.CategoryLabelProvider;
 import org.thechiselgroup.biomixer.client.core.persistence.PersistableRestorationServiceProvider;
 import org.thechiselgroup.biomixer.client.core.resources.ui.DetailsWidgetHelper;
 import org.thechiselgroup.biomixer.client.core.util.date.GwtDateTimeFormatFactory;
+import org.thechiselgroup.biomixer.client.core.util.url.CachingUrlFetchServiceDecorator;
+import org.thechiselgroup.biomixer.client.core.util.url.SchedulingUrlFetchServiceDecorator;
 import org.thechiselgroup.biomixer.client.core.util.url.UrlBuilderFactory;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchCachePolicy;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchScheduler;
 import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchService;
 import org.thechiselgroup.biomixer.client.core.visualization.model.initialization.ViewContentDisplaysConfiguration;
 import org.thechiselgroup.biomixer.client.core.visualization.model.managed.VisualItemValueResolverFactoryProvider;
@@ -30,6 +34,7 @@ import org.thechiselgroup.biomixer.client.dnd.windows.WindowContentProducer;
 import org.thechiselgroup.biomixer.client.embeds.BioMixerEmbedInitializer;
 import org.thechiselgroup.biomixer.client.graph.BioMixerArcTypeProvider;
 import org.thechiselgroup.biomixer.client.services.NcboJsonpRestUrlBuilderFactory;
+import org.thechiselgroup.biomixer.client.services.NcboUrlFetchCachePolicy;
 import org.thechiselgroup.biomixer.client.services.hierarchy.HierarchyPathServiceAsync;
 import org.thechiselgroup.biomixer.client.services.hierarchy.HierarchyPathServiceAsyncClientImplementation;
 import org.thechiselgroup.biomixer.client.services.mapping.MappingServiceAsync;
@@ -114,8 +119,16 @@ public class BioMixerClientModule extends ChooselWorkbenchClientModule {
     protected void bindUrlFetchService() {
         bind(UrlFetchService.class).annotatedWith(Names.named("delegate"))
                 .to(JsonpUrlFetchService.class).in(Singleton.class);
-        bind(UrlFetchService.class).to(JsonpUrlFetchService.class).in(
+        bind(UrlFetchCachePolicy.class).to(NcboUrlFetchCachePolicy.class).in(
                 Singleton.class);
+        bind(UrlFetchService.class).annotatedWith(Names.named("scheduled"))
+                .to(CachingUrlFetchServiceDecorator.class).in(Singleton.class);
+
+        bind(SchedulingUrlFetchServiceDecorator.class).in(Singleton.class);
+        bind(UrlFetchScheduler.class).to(
+                SchedulingUrlFetchServiceDecorator.class);
+        bind(UrlFetchService.class)
+                .to(SchedulingUrlFetchServiceDecorator.class);
     }
 
     @Override
@@ -15,8 +15,14 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.core.error_handling;
 
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchCancelledException;
+
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
+/**
+ * Passes failures and exceptions thrown while handling the result to the
+ * {@link ErrorHandler}. Cancelled URL fetches are not errors and are ignored.
+ */
 public class ErrorHandlingAsyncCallback<T> implements AsyncCallback<T> {
 
     protected final ErrorHandler errorHandler;
@@ -28,6 +34,9 @@ public class ErrorHandlingAsyncCallback<T> implements AsyncCallback<T> {
 
     @Override
     public final void onFailure(Throwable caught) {
+        if (caught instanceof UrlFetchCancelledException) {
+            return;
+        }
         errorHandler.handleError(wrapException(caught));
     }
 
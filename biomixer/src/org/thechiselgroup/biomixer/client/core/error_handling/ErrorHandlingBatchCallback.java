@@ -0,0 +1,78 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.error_handling;
+
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchCancelledException;
+
+/**
+ * {@link BatchCallback} counterpart of {@link ErrorHandlingAsyncCallback}:
+ * failures of single keys and exceptions thrown while handling their results
+ * are passed to the {@link ErrorHandler}. Keys whose URL fetch was cancelled
+ * are ignored.
+ */
+public class ErrorHandlingBatchCallback<T> implements BatchCallback<T> {
+
+    protected final ErrorHandler errorHandler;
+
+    public ErrorHandlingBatchCallback(ErrorHandler errorHandler) {
+        assert errorHandler != null;
+        this.errorHandler = errorHandler;
+    }
+
+    /**
+     * Hook method. Override to implement behavior that should be executed
+     * after all keys have either succeeded or failed.
+     */
+    @Override
+    public void onBatchComplete() {
+    }
+
+    @Override
+    public final void onFailure(String key, Throwable caught) {
+        if (caught instanceof UrlFetchCancelledException) {
+            return;
+        }
+        errorHandler.handleError(wrapException(key, caught));
+    }
+
+    @Override
+    public final void onSuccess(String key, T result) {
+        try {
+            runOnSuccess(key, result);
+        } catch (Exception e) {
+            onFailure(key, e);
+        }
+    }
+
+    /**
+     * Hook method. Override to implement behavior that should be executed when
+     * the request for a single key succeeds. Exceptions are handled by
+     * {@link #onFailure(String, Throwable)}.
+     */
+    protected void runOnSuccess(String key, T result) throws Exception {
+    }
+
+    /**
+     * Hook method. Override to log custom exceptions in
+     * {@link #onFailure(String, Throwable)}, e.g. to provide custom error
+     * messages.
+     */
+    protected Throwable wrapException(String key, Throwable caught) {
+        return caught;
+    }
+
+}
@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.persistence;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+
+import org.thechiselgroup.biomixer.client.core.ui.Color;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * Compact encoding of {@link Memento} trees, used for GWT-RPC (see
+ * {@link Memento_CustomFieldSerializer}) and for persisting view states.
+ * 
+ * <ul>
+ * <li>Keys, factory ids and string values are written once into a dictionary
+ * and referenced by index. Decoded mementos share the dictionary strings.</li>
+ * <li>Integer, long, double, boolean, date and {@link Color} values are
+ * written as primitives. Other values fall back to
+ * {@link MementoOutput#writeObject(Object)}.</li>
+ * <li>Children that are plain value holders with identical schemas (e.g. the
+ * node locations saved by the graph) are written column by column, so the
+ * schema is stored only once.</li>
+ * </ul>
+ */
+public final class MementoEncoding {
+
+    public static final int FORMAT_VERSION = 1;
+
+    private static final byte CHILDREN_AS_ROWS = 0;
+
+    private static final byte CHILDREN_AS_COLUMNS = 1;
+
+    /**
+     * Minimum number of children with identical schemas before they are
+     * written as columns.
+     */
+    private static final int MIN_COLUMN_CHILD_COUNT = 4;
+
+    private static final int NO_STRING = -1;
+
+    private static final int NULL_MEMENTO = -2;
+
+    private static final byte TYPE_NULL = 0;
+
+    private static final byte TYPE_INTEGER = 1;
+
+    private static final byte TYPE_LONG = 2;
+
+    private static final byte TYPE_DOUBLE = 3;
+
+    private static final byte TYPE_BOOLEAN = 4;
+
+    private static final byte TYPE_STRING = 5;
+
+    private static final byte TYPE_DATE = 6;
+
+    private static final byte TYPE_OBJECT = 7;
+
+    private static final byte TYPE_COLOR = 8;
+
+    private static void addString(String string,
+            Map<String, Integer> dictionary, List<String> strings) {
+
+        if (string != null && !dictionary.containsKey(string)) {
+            dictionary.put(string, strings.size());
+            strings.add(string);
+        }
+    }
+
+    private static void collectStrings(Memento memento,
+            Map<String, Integer> dictionary, List<String> strings) {
+
+        if (memento == null) {
+            return;
+        }
+
+        addString(memento.getFactoryId(), dictionary, strings);
+        for (Entry<String, Serializable> entry : memento.getValues()
+                .entrySet()) {
+            addString(entry.getKey(), dictionary, strings);
+            if (entry.getValue() instanceof String) {
+                addString((String) entry.getValue(), dictionary, strings);
+            }
+        }
+        for (Entry<String, Memento> entry : memento.getChildren().entrySet()) {
+            addString(entry.getKey(), dictionary, strings);
+            collectStrings(entry.getValue(), dictionary, strings);
+        }
+    }
+
+    private static String getString(int index, String[] dictionary)
+            throws SerializationException {
+
+        if (index == NO_STRING) {
+            return null;
+        }
+        if (index < 0 || index >= dictionary.length) {
+            throw new SerializationException("Invalid dictionary index: "
+                    + index);
+        }
+        return dictionary[index];
+    }
+
+    private static byte getType(Serializable value) {
+        if (value == null) {
+            return TYPE_NULL;
+        }
+        if (value instanceof Integer) {
+            return TYPE_INTEGER;
+        }
+        if (value instanceof Long) {
+            return TYPE_LONG;
+        }
+        if (value instanceof Double) {
+            return TYPE_DOUBLE;
+        }
+        if (value instanceof Boolean) {
+            return TYPE_BOOLEAN;
+        }
+        if (value instanceof String) {
+            return TYPE_STRING;
+        }
+        /* subclasses such as java.sql.Timestamp would lose their type */
+        if (value.getClass() == Date.class) {
+            return TYPE_DATE;
+        }
+        if (value.getClass() == Color.class) {
+            return TYPE_COLOR;
+        }
+        return TYPE_OBJECT;
+    }
+
+    private static boolean hasColumnSchema(
+            SortedMap<String, Serializable> values,
+            SortedMap<String, Serializable> schema) {
+
+        if (values.size() != schema.size()) {
+            return false;
+        }
+
+        Iterator<Entry<String, Serializable>> columns = schema.entrySet()
+                .iterator();
+        for (Entry<String, Serializable> entry : values.entrySet()) {
+            Entry<String, Serializable> column = columns.next();
+            byte type = getType(entry.getValue());
+
+            if (type == TYPE_NULL || type == TYPE_OBJECT
+                    || type != getType(column.getValue())
+                    || !entry.getKey().equals(column.getKey())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean hasCommonColumnSchema(
+            Collection<Memento> children) {
+        if (children.size() < MIN_COLUMN_CHILD_COUNT) {
+            return false;
+        }
+
+        Memento first = null;
+        for (Memento child : children) {
+            if (child == null || child.getFactoryId() != null
+                    || !child.getChildren().isEmpty()) {
+                return false;
+            }
+            if (first == null) {
+                first = child;
+            }
+            if (!hasColumnSchema(child.getValues(), first.getValues())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(String string,
+            Map<String, Integer> dictionary) {
+        return string == null ? NO_STRING : dictionary.get(string);
+    }
+
+    public static Memento read(MementoInput in) throws SerializationException {
+        assert in != null;
+
+        int version = in.readInt();
+        if (version != FORMAT_VERSION) {
+            throw new SerializationException(
+                    "Unsupported memento format version: " + version);
+        }
+
+        String[] dictionary = new String[in.readInt()];
+        for (int i = 0; i < dictionary.length; i++) {
+            dictionary[i] = in.readString();
+        }
+
+        return readMemento(dictionary, in);
+    }
+
+    private static Color readColor(MementoInput in)
+            throws SerializationException {
+
+        int red = in.readInt();
+        int green = in.readInt();
+        int blue = in.readInt();
+        return new Color(red, green, blue, in.readDouble());
+    }
+
+    private static void readColumns(Memento parent, int childCount,
+            String[] dictionary, MementoInput in)
+            throws SerializationException {
+
+        String[] columnKeys = new String[in.readInt()];
+        byte[] columnTypes = new byte[columnKeys.length];
+        for (int i = 0; i < columnKeys.length; i++) {
+            columnKeys[i] = getString(in.readInt(), dictionary);
+            columnTypes[i] = in.readByte();
+        }
+
+        Memento[] children = new Memento[childCount];
+        for (int i = 0; i < childCount; i++) {
+            children[i] = new Memento();
+            parent.addChild(getString(in.readInt(), dictionary), children[i]);
+        }
+
+        for (int i = 0; i < columnKeys.length; i++) {
+            for (Memento child : children) {
+                child.setValue(columnKeys[i],
+                        readValue(columnTypes[i], dictionary, in));
+            }
+        }
+    }
+
+    private static Memento readMemento(String[] dictionary, MementoInput in)
+            throws SerializationException {
+
+        int factoryIdIndex = in.readInt();
+        if (factoryIdIndex == NULL_MEMENTO) {
+            return null;
+        }
+
+        Memento memento = new Memento(getString(factoryIdIndex, dictionary));
+
+        int valueCount = in.readInt();
+        for (int i = 0; i < valueCount; i++) {
+            String key = getString(in.readInt(), dictionary);
+            memento.setValue(key, readValue(in.readByte(), dictionary, in));
+        }
+
+        int childCount = in.readInt();
+        if (childCount == 0) {
+            return memento;
+        }
+
+        byte layout = in.readByte();
+        if (layout == CHILDREN_AS_COLUMNS) {
+            readColumns(memento, childCount, dictionary, in);
+        } else if (layout == CHILDREN_AS_ROWS) {
+            for (int i = 0; i < childCount; i++) {
+                String key = getString(in.readInt(), dictionary);
+                memento.addChild(key, readMemento(dictionary, in));
+            }
+        } else {
+            throw new SerializationException("Unknown child layout: "
+                    + layout);
+        }
+
+        return memento;
+    }
+
+    private static Serializable readValue(byte type, String[] dictionary,
+            MementoInput in) throws SerializationException {
+
+        switch (type) {
+        case TYPE_NULL:
+            return null;
+        case TYPE_INTEGER:
+            return in.readInt();
+        case TYPE_LONG:
+            return in.readLong();
+        case TYPE_DOUBLE:
+            return in.readDouble();
+        case TYPE_BOOLEAN:
+            return in.readBoolean();
+        case TYPE_STRING:
+            return getString(in.readInt(), dictionary);
+        case TYPE_DATE:
+            return new Date(in.readLong());
+        case TYPE_COLOR:
+            return readColor(in);
+        case TYPE_OBJECT:
+            return (Serializable) in.readObject();
+        default:
+            throw new SerializationException("Unknown value type: " + type);
+        }
+    }
+
+    public static void write(Memento memento, MementoOutput out)
+            throws SerializationException {
+
+        assert out != null;
+
+        Map<String, Integer> dictionary = new HashMap<String, Integer>();
+        List<String> strings = new ArrayList<String>();
+        collectStrings(memento, dictionary, strings);
+
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(strings.size());
+        for (String string : strings) {
+            out.writeString(string);
+        }
+
+        writeMemento(memento, dictionary, out);
+    }
+
+    private static void writeColumns(SortedMap<String, Memento> children,
+            Map<String, Integer> dictionary, MementoOutput out)
+            throws SerializationException {
+
+        SortedMap<String, Serializable> schema = children.get(
+                children.firstKey()).getValues();
+
+        out.writeInt(schema.size());
+        for (Entry<String, Serializable> column : schema.entrySet()) {
+            out.writeInt(indexOf(column.getKey(), dictionary));
+            out.writeByte(getType(column.getValue()));
+        }
+
+        for (String key : children.keySet()) {
+            out.writeInt(indexOf(key, dictionary));
+        }
+
+        for (Entry<String, Serializable> column : schema.entrySet()) {
+            byte type = getType(column.getValue());
+            for (Memento child : children.values()) {
+                writeValue(type, child.getValue(column.getKey()), dictionary,
+                        out);
+            }
+        }
+    }
+
+    private static void writeMemento(Memento memento,
+            Map<String, Integer> dictionary, MementoOutput out)
+            throws SerializationException {
+
+        if (memento == null) {
+            out.writeInt(NULL_MEMENTO);
+            return;
+        }
+
+        out.writeInt(indexOf(memento.getFactoryId(), dictionary));
+
+        SortedMap<String, Serializable> values = memento.getValues();
+        out.writeInt(values.size());
+        for (Entry<String, Serializable> entry : values.entrySet()) {
+            byte type = getType(entry.getValue());
+            out.writeInt(indexOf(entry.getKey(), dictionary));
+            out.writeByte(type);
+            writeValue(type, entry.getValue(), dictionary, out);
+        }
+
+        SortedMap<String, Memento> children = memento.getChildren();
+        out.writeInt(children.size());
+        if (children.isEmpty()) {
+            return;
+        }
+
+        if (hasCommonColumnSchema(children.values())) {
+            out.writeByte(CHILDREN_AS_COLUMNS);
+            writeColumns(children, dictionary, out);
+        } else {
+            out.writeByte(CHILDREN_AS_ROWS);
+            for (Entry<String, Memento> entry : children.entrySet()) {
+                out.writeInt(indexOf(entry.getKey(), dictionary));
+                writeMemento(entry.getValue(), dictionary, out);
+            }
+        }
+    }
+
+    private static void writeValue(byte type, Serializable value,
+            Map<String, Integer> dictionary, MementoOutput out)
+            throws SerializationException {
+
+        switch (type) {
+        case TYPE_NULL:
+            break;
+        case TYPE_INTEGER:
+            out.writeInt(((Integer) value).intValue());
+            break;
+        case TYPE_LONG:
+            out.writeLong(((Long) value).longValue());
+            break;
+        case TYPE_DOUBLE:
+            out.writeDouble(((Double) value).doubleValue());
+            break;
+        case TYPE_BOOLEAN:
+            out.writeBoolean(((Boolean) value).booleanValue());
+            break;
+        case TYPE_STRING:
+            out.writeInt(indexOf((String) value, dictionary));
+            break;
+        case TYPE_DATE:
+            out.writeLong(((Date) value).getTime());
+            break;
+        case TYPE_COLOR:
+            Color color = (Color) value;
+            out.writeInt(color.getRed());
+            out.writeInt(color.getGreen());
+            out.writeInt(color.getBlue());
+            out.writeDouble(color.getAlpha());
+            break;
+        default:
+            out.writeObject(value);
+        }
+    }
+
+    private MementoEncoding() {
+    }
+
+}
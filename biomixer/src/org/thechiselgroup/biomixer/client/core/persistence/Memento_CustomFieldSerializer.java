@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.persistence;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+import com.google.gwt.user.client.rpc.SerializationStreamReader;
+import com.google.gwt.user.client.rpc.SerializationStreamWriter;
+
+/**
+ * GWT-RPC serializer that transfers {@link Memento} trees in the compact
+ * {@link MementoEncoding} instead of as generic maps of boxed values.
+ * 
+ * INFO: Values that are not encoded as primitives (see
+ * {@link MementoEncoding}) are written as objects and must be serializable by
+ * GWT-RPC through other service signatures.
+ */
+public final class Memento_CustomFieldSerializer {
+
+    private static class RpcInput implements MementoInput {
+
+        private final SerializationStreamReader reader;
+
+        public RpcInput(SerializationStreamReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean readBoolean() throws SerializationException {
+            return reader.readBoolean();
+        }
+
+        @Override
+        public byte readByte() throws SerializationException {
+            return reader.readByte();
+        }
+
+        @Override
+        public double readDouble() throws SerializationException {
+            return reader.readDouble();
+        }
+
+        @Override
+        public int readInt() throws SerializationException {
+            return reader.readInt();
+        }
+
+        @Override
+        public long readLong() throws SerializationException {
+            return reader.readLong();
+        }
+
+        @Override
+        public Object readObject() throws SerializationException {
+            return reader.readObject();
+        }
+
+        @Override
+        public String readString() throws SerializationException {
+            return reader.readString();
+        }
+
+    }
+
+    private static class RpcOutput implements MementoOutput {
+
+        private final SerializationStreamWriter writer;
+
+        public RpcOutput(SerializationStreamWriter writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void writeBoolean(boolean value) throws SerializationException {
+            writer.writeBoolean(value);
+        }
+
+        @Override
+        public void writeByte(byte value) throws SerializationException {
+            writer.writeByte(value);
+        }
+
+        @Override
+        public void writeDouble(double value) throws SerializationException {
+            writer.writeDouble(value);
+        }
+
+        @Override
+        public void writeInt(int value) throws SerializationException {
+            writer.writeInt(value);
+        }
+
+        @Override
+        public void writeLong(long value) throws SerializationException {
+            writer.writeLong(value);
+        }
+
+        @Override
+        public void writeObject(Object value) throws SerializationException {
+            writer.writeObject(value);
+        }
+
+        @Override
+        public void writeString(String value) throws SerializationException {
+            writer.writeString(value);
+        }
+
+    }
+
+    public static void deserialize(SerializationStreamReader reader,
+            Memento instance) throws SerializationException {
+        /* the whole tree is read in instantiate */
+    }
+
+    public static Memento instantiate(SerializationStreamReader reader)
+            throws SerializationException {
+        return MementoEncoding.read(new RpcInput(reader));
+    }
+
+    public static void serialize(SerializationStreamWriter writer,
+            Memento instance) throws SerializationException {
+        MementoEncoding.write(instance, new RpcOutput(writer));
+    }
+
+    private Memento_CustomFieldSerializer() {
+    }
+
+}
@@ -35,6 +35,12 @@ public class Resource implements Serializable {
         return uri.substring(0, splitIndex);
     }
 
+    /*
+     * incremented on each property change, used to detect resources that
+     * changed since the workspace was last saved. Not serialized.
+     */
+    private transient int modificationCount = 0;
+
     // TODO find ways to use better map implementation
     // (CollectionFactory.createStringMap)
     private HashMap<String, Serializable> properties = new HashMap<String, Serializable>();
@@ -102,6 +108,10 @@ public class Resource implements Serializable {
         return uri.equals(other.uri);
     }
 
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
     public HashMap<String, Serializable> getProperties() {
         return properties;
     }
@@ -140,6 +150,7 @@ public class Resource implements Serializable {
 
     public void putValue(String key, Serializable value) {
         properties.put(key, value);
+        modificationCount++;
     }
 
     public void putValueAsUriList(String key, String uri) {
@@ -0,0 +1,259 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.animation;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link AnimationRunner} that drives all running animations from a single
+ * shared frame clock instead of starting a separate animation per call. The
+ * movements of {@link Movable}s are kept in parallel arrays and interpolated in
+ * one pass per frame. Moving a movable that is already being animated
+ * retargets its existing entry (starting from its current position) instead of
+ * creating a new animation.
+ * 
+ * @see GwtBatchedAnimationRunner
+ */
+public abstract class BatchedAnimationRunner implements AnimationRunner {
+
+    private static class RunningAnimation {
+
+        private final Animatable animatable;
+
+        private final long startTime;
+
+        private final int duration;
+
+        public RunningAnimation(Animatable animatable, long startTime,
+                int duration) {
+            this.animatable = animatable;
+            this.startTime = startTime;
+            this.duration = duration;
+        }
+
+    }
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private final List<RunningAnimation> animations = new ArrayList<RunningAnimation>();
+
+    private boolean clockRunning = false;
+
+    private int[] durations = new int[INITIAL_CAPACITY];
+
+    private int movableCount = 0;
+
+    private Movable[] movables = new Movable[INITIAL_CAPACITY];
+
+    /*
+     * Index of each animated movable in the arrays.
+     */
+    private final Map<Movable, Integer> movableSlots = new HashMap<Movable, Integer>();
+
+    private long[] startTimes = new long[INITIAL_CAPACITY];
+
+    private double[] startX = new double[INITIAL_CAPACITY];
+
+    private double[] startY = new double[INITIAL_CAPACITY];
+
+    private double[] targetX = new double[INITIAL_CAPACITY];
+
+    private double[] targetY = new double[INITIAL_CAPACITY];
+
+    /**
+     * Moves <code>movable</code> to the destination over
+     * <code>duration</code> milliseconds. If it is already being animated, its
+     * animation is retargeted.
+     */
+    public void animateTo(Movable movable, double x, double y, int duration) {
+
+        if (duration <= 0) {
+            cancel(movable);
+            movable.setPosition(x, y);
+            return;
+        }
+
+        Integer slot = movableSlots.get(movable);
+        int i;
+        if (slot == null) {
+            ensureCapacity(movableCount + 1);
+            i = movableCount++;
+            movables[i] = movable;
+            movableSlots.put(movable, i);
+        } else {
+            i = slot;
+        }
+
+        startX[i] = movable.getX();
+        startY[i] = movable.getY();
+        targetX[i] = x;
+        targetY[i] = y;
+        startTimes[i] = getCurrentTimeMillis();
+        durations[i] = duration;
+
+        startClock();
+    }
+
+    /**
+     * Stops the animation of <code>movable</code>. It holds at its current
+     * position.
+     */
+    public void cancel(Movable movable) {
+        Integer slot = movableSlots.get(movable);
+        if (slot != null) {
+            removeMovable(slot);
+        }
+    }
+
+    /**
+     * Stops requesting frames from the clock.
+     */
+    protected abstract void cancelFrames();
+
+    private void ensureCapacity(int capacity) {
+        if (capacity <= movables.length) {
+            return;
+        }
+
+        int newCapacity = Math.max(capacity, movables.length * 2);
+
+        Movable[] newMovables = new Movable[newCapacity];
+        System.arraycopy(movables, 0, newMovables, 0, movableCount);
+        movables = newMovables;
+
+        int[] newDurations = new int[newCapacity];
+        System.arraycopy(durations, 0, newDurations, 0, movableCount);
+        durations = newDurations;
+
+        long[] newStartTimes = new long[newCapacity];
+        System.arraycopy(startTimes, 0, newStartTimes, 0, movableCount);
+        startTimes = newStartTimes;
+
+        startX = grow(startX, newCapacity);
+        startY = grow(startY, newCapacity);
+        targetX = grow(targetX, newCapacity);
+        targetY = grow(targetY, newCapacity);
+    }
+
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    /**
+     * @return number of movables and other animatables that are currently being
+     *         animated
+     */
+    public int getNumberOfRunningAnimations() {
+        return movableCount + animations.size();
+    }
+
+    private double getProgress(long now, long startTime, int duration) {
+        return Math.min(1d, (double) (now - startTime) / duration);
+    }
+
+    private double[] grow(double[] values, int newCapacity) {
+        double[] newValues = new double[newCapacity];
+        System.arraycopy(values, 0, newValues, 0, movableCount);
+        return newValues;
+    }
+
+    public boolean isClockRunning() {
+        return clockRunning;
+    }
+
+    /**
+     * Advances all running animations to the current time. Called by the
+     * clock once per frame.
+     */
+    protected void onFrame() {
+        long now = getCurrentTimeMillis();
+
+        int i = 0;
+        while (i < movableCount) {
+            double progress = getProgress(now, startTimes[i], durations[i]);
+            movables[i].setPosition(
+                    Interpolations.interpolate(progress, startX[i], targetX[i]),
+                    Interpolations.interpolate(progress, startY[i], targetY[i]));
+            if (progress >= 1d) {
+                /* the last movable is moved into this slot */
+                removeMovable(i);
+            } else {
+                i++;
+            }
+        }
+
+        for (int j = animations.size() - 1; j >= 0; j--) {
+            RunningAnimation animation = animations.get(j);
+            double progress = getProgress(now, animation.startTime,
+                    animation.duration);
+            animation.animatable.update(progress);
+            if (progress >= 1d) {
+                animations.remove(j);
+            }
+        }
+
+        if (getNumberOfRunningAnimations() == 0) {
+            clockRunning = false;
+            cancelFrames();
+        }
+    }
+
+    private void removeMovable(int slot) {
+        movableSlots.remove(movables[slot]);
+
+        int last = --movableCount;
+        if (slot != last) {
+            movables[slot] = movables[last];
+            durations[slot] = durations[last];
+            startTimes[slot] = startTimes[last];
+            startX[slot] = startX[last];
+            startY[slot] = startY[last];
+            targetX[slot] = targetX[last];
+            targetY[slot] = targetY[last];
+            movableSlots.put(movables[slot], slot);
+        }
+        movables[last] = null;
+    }
+
+    @Override
+    public void run(Animatable animation, int duration) {
+        if (duration <= 0) {
+            animation.update(1d);
+            return;
+        }
+
+        animations.add(new RunningAnimation(animation, getCurrentTimeMillis(),
+                duration));
+        startClock();
+    }
+
+    /**
+     * Starts calling {@link #onFrame()} regularly until
+     * {@link #cancelFrames()} is called.
+     */
+    protected abstract void scheduleFrames();
+
+    private void startClock() {
+        if (!clockRunning) {
+            clockRunning = true;
+            scheduleFrames();
+        }
+    }
+
+}
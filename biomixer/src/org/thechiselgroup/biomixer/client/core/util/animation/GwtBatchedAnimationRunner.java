@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.animation;
+
+import com.google.gwt.user.client.Timer;
+
+/**
+ * {@link BatchedAnimationRunner} that uses a single GWT {@link Timer} as the
+ * frame clock. This class cannot be used in JRE tests due to JSNI code.
+ */
+public class GwtBatchedAnimationRunner extends BatchedAnimationRunner {
+
+    /**
+     * Delay between two frames in milliseconds (about 60 frames per second).
+     */
+    public static final int FRAME_DELAY = 16;
+
+    private final Timer timer = new Timer() {
+        @Override
+        public void run() {
+            onFrame();
+        }
+    };
+
+    @Override
+    protected void cancelFrames() {
+        timer.cancel();
+    }
+
+    @Override
+    protected void scheduleFrames() {
+        timer.scheduleRepeating(FRAME_DELAY);
+    }
+
+}
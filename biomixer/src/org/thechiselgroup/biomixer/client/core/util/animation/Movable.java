@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.animation;
+
+/**
+ * Object whose position can be animated by a {@link BatchedAnimationRunner}.
+ */
+public interface Movable {
+
+    /**
+     * @return current x position of the left side
+     */
+    double getX();
+
+    /**
+     * @return current y position of the top side
+     */
+    double getY();
+
+    void setPosition(double x, double y);
+
+}
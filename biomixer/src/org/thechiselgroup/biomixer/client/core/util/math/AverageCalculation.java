@@ -20,7 +20,7 @@ package org.thechiselgroup.biomixer.client.core.util.math;
  * 
  * @author Lars Grammel
  */
-public class AverageCalculation implements Calculation {
+public class AverageCalculation implements IncrementalCalculation {
 
     /**
      * @return average value of values
@@ -36,11 +36,26 @@ public class AverageCalculation implements Calculation {
         return SumCalculation.sum(values) / values.length();
     }
 
+    @Override
+    public double calculate(NumberAggregate aggregate) {
+        // same as average(NumberArray) for empty arrays
+        if (aggregate.getCount() == 0) {
+            return 0;
+        }
+
+        return aggregate.getSum() / aggregate.getCount();
+    }
+
     @Override
     public double calculate(NumberArray values) {
         return average(values);
     }
 
+    @Override
+    public boolean canCalculate(NumberAggregate aggregate) {
+        return true;
+    }
+
     @Override
     public String getDescription() {
         return "Average";
@@ -0,0 +1,33 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.math;
+
+/**
+ * {@link Calculation} that can also be calculated from a
+ * {@link NumberAggregate}, so its result can be kept up to date without
+ * iterating over all values again.
+ */
+public interface IncrementalCalculation extends Calculation {
+
+    double calculate(NumberAggregate aggregate);
+
+    /**
+     * @return {@code false} if the aggregate lacks the information required
+     *         by this calculation, e.g. because the minimum was removed.
+     */
+    boolean canCalculate(NumberAggregate aggregate);
+
+}
@@ -15,13 +15,23 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.core.util.math;
 
-public class MaxCalculation implements Calculation {
+public class MaxCalculation implements IncrementalCalculation {
+
+    @Override
+    public double calculate(NumberAggregate aggregate) {
+        return aggregate.getMax();
+    }
 
     @Override
     public double calculate(NumberArray values) {
         return values.max();
     }
 
+    @Override
+    public boolean canCalculate(NumberAggregate aggregate) {
+        return aggregate.getCount() > 0 && aggregate.isExtremaValid();
+    }
+
     @Override
     public String getDescription() {
         return "Maximum";
@@ -15,13 +15,23 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.core.util.math;
 
-public class MinCalculation implements Calculation {
+public class MinCalculation implements IncrementalCalculation {
+
+    @Override
+    public double calculate(NumberAggregate aggregate) {
+        return aggregate.getMin();
+    }
 
     @Override
     public double calculate(NumberArray values) {
         return values.min();
     }
 
+    @Override
+    public boolean canCalculate(NumberAggregate aggregate) {
+        return aggregate.getCount() > 0 && aggregate.isExtremaValid();
+    }
+
     @Override
     public String getDescription() {
         return "Minimum";
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.math;
+
+/**
+ * Count, sum, minimum and maximum of a multiset of numbers, updated as numbers
+ * are added and removed. After removing the current minimum or maximum, the
+ * extrema are unknown until {@link #reset()} is called and the numbers are
+ * added again.
+ */
+public class NumberAggregate {
+
+    private int count = 0;
+
+    private boolean extremaValid = true;
+
+    private double max = Double.NEGATIVE_INFINITY;
+
+    private double min = Double.POSITIVE_INFINITY;
+
+    private double sum = 0;
+
+    public void add(double value) {
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    public int getCount() {
+        return count;
+    }
+
+    public double getMax() {
+        assert extremaValid;
+        return max;
+    }
+
+    public double getMin() {
+        assert extremaValid;
+        return min;
+    }
+
+    public double getSum() {
+        return sum;
+    }
+
+    public boolean isExtremaValid() {
+        return extremaValid;
+    }
+
+    public void remove(double value) {
+        assert count > 0;
+
+        count--;
+        sum -= value;
+        if (count == 0) {
+            reset();
+        } else if (value <= min || value >= max) {
+            extremaValid = false;
+        }
+    }
+
+    public void reset() {
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+        extremaValid = true;
+    }
+
+}
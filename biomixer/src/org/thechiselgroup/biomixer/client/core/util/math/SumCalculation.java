@@ -15,7 +15,7 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.core.util.math;
 
-public class SumCalculation implements Calculation {
+public class SumCalculation implements IncrementalCalculation {
 
     public static double sum(NumberArray values) {
         assert values != null;
@@ -28,11 +28,21 @@ public class SumCalculation implements Calculation {
         return sum;
     }
 
+    @Override
+    public double calculate(NumberAggregate aggregate) {
+        return aggregate.getSum();
+    }
+
     @Override
     public double calculate(NumberArray values) {
         return sum(values);
     }
 
+    @Override
+    public boolean canCalculate(NumberAggregate aggregate) {
+        return true;
+    }
+
     @Override
     public String getDescription() {
         return "Sum";
@@ -0,0 +1,203 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.text;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.thechiselgroup.biomixer.client.core.geometry.DefaultSizeInt;
+import org.thechiselgroup.biomixer.client.core.geometry.SizeInt;
+import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
+
+/**
+ * Remembers text widths per font and text in a size-bounded LRU cache, and
+ * the line height per font. The delegate is only set up (and attached to the
+ * DOM) when a measurement is missing from the cache.
+ * <p>
+ * Calls to {@link #setUp()} and {@link #tearDown()} can be nested. The
+ * delegate stays set up until the outermost {@link #tearDown()}, so a whole
+ * label layout is measured in a single pass.
+ * </p>
+ * <p>
+ * The line height is assumed to depend on the font only, which holds for
+ * single line text.
+ * </p>
+ */
+public class CachingTextBoundsEstimator implements TextBoundsEstimator {
+
+    public static final int DEFAULT_CAPACITY = 5000;
+
+    private final int capacity;
+
+    private final TextBoundsEstimator delegate;
+
+    private boolean delegateSetUp = false;
+
+    /*
+     * font key the delegate is currently configured with, null if it has not
+     * been configured since it was set up
+     */
+    private String delegateFontKey;
+
+    private String fontFamily;
+
+    private String fontKey;
+
+    private String fontSize;
+
+    private String fontStyle;
+
+    private String fontWeight;
+
+    private final Map<String, Integer> lineHeights = CollectionFactory
+            .createStringMap();
+
+    private int setUpDepth = 0;
+
+    private final Map<String, Integer> widths = new LinkedHashMap<String, Integer>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    public CachingTextBoundsEstimator(TextBoundsEstimator delegate) {
+        this(delegate, DEFAULT_CAPACITY);
+    }
+
+    public CachingTextBoundsEstimator(TextBoundsEstimator delegate,
+            int capacity) {
+        assert delegate != null;
+        assert capacity > 0;
+
+        this.delegate = delegate;
+        this.capacity = capacity;
+    }
+
+    @Override
+    public void configureFontFamily(String fontFamily) {
+        this.fontFamily = fontFamily;
+        fontKey = null;
+    }
+
+    @Override
+    public void configureFontSize(String fontSize) {
+        this.fontSize = fontSize;
+        fontKey = null;
+    }
+
+    @Override
+    public void configureFontStyle(String fontStyle) {
+        this.fontStyle = fontStyle;
+        fontKey = null;
+    }
+
+    @Override
+    public void configureFontWeight(String fontWeight) {
+        this.fontWeight = fontWeight;
+        fontKey = null;
+    }
+
+    public int getCachedWidthCount() {
+        return widths.size();
+    }
+
+    private String getFontKey() {
+        if (fontKey == null) {
+            fontKey = fontStyle + "\n" + fontWeight + "\n" + fontSize + "\n"
+                    + fontFamily;
+        }
+        return fontKey;
+    }
+
+    @Override
+    public int getHeight(String text) {
+        assert text != null;
+
+        // empty text has no height, it gets its own entry
+        String key = text.length() == 0 ? getFontKey() + "\n" : getFontKey();
+        Integer height = lineHeights.get(key);
+        if (height == null) {
+            prepareDelegate();
+            height = delegate.getHeight(text);
+            lineHeights.put(key, height);
+        }
+        return height;
+    }
+
+    @Override
+    public SizeInt getSize(String text) {
+        return new DefaultSizeInt(getWidth(text), getHeight(text));
+    }
+
+    @Override
+    public int getWidth(String text) {
+        assert text != null;
+
+        String key = getFontKey() + "\n" + text;
+        Integer width = widths.get(key);
+        if (width == null) {
+            prepareDelegate();
+            width = delegate.getWidth(text);
+            widths.put(key, width);
+        }
+        return width;
+    }
+
+    private void prepareDelegate() {
+        assert setUpDepth > 0 : "setUp() must be called before measuring";
+
+        if (!delegateSetUp) {
+            delegate.setUp();
+            delegateSetUp = true;
+            delegateFontKey = null;
+        }
+
+        if (!getFontKey().equals(delegateFontKey)) {
+            if (fontStyle != null) {
+                delegate.configureFontStyle(fontStyle);
+            }
+            if (fontWeight != null) {
+                delegate.configureFontWeight(fontWeight);
+            }
+            if (fontSize != null) {
+                delegate.configureFontSize(fontSize);
+            }
+            if (fontFamily != null) {
+                delegate.configureFontFamily(fontFamily);
+            }
+            delegateFontKey = getFontKey();
+        }
+    }
+
+    @Override
+    public void setUp() {
+        setUpDepth++;
+    }
+
+    @Override
+    public void tearDown() {
+        assert setUpDepth > 0;
+
+        setUpDepth--;
+        if (setUpDepth == 0 && delegateSetUp) {
+            delegate.tearDown();
+            delegateSetUp = false;
+        }
+    }
+
+}
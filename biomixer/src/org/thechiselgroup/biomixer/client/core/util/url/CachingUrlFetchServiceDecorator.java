@@ -0,0 +1,167 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Keeps successful responses in a size-bounded LRU cache and lets concurrent
+ * requests for the same URL share a single request to the delegate. How long
+ * responses stay valid is decided by the {@link UrlFetchCachePolicy}.
+ */
+public class CachingUrlFetchServiceDecorator implements LocalUrlFetchService {
+
+    private static class CachedResponse {
+
+        private final long expiryTime;
+
+        private final String response;
+
+        public CachedResponse(String response, long expiryTime) {
+            this.response = response;
+            this.expiryTime = expiryTime;
+        }
+
+    }
+
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private final Map<String, CachedResponse> cache = new LinkedHashMap<String, CachedResponse>(
+            16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(
+                Map.Entry<String, CachedResponse> eldest) {
+            return size() > capacity;
+        }
+    };
+
+    private int capacity = DEFAULT_CAPACITY;
+
+    private UrlFetchService delegate;
+
+    private final Map<String, List<AsyncCallback<String>>> pendingCallbacks = CollectionFactory
+            .createStringMap();
+
+    private UrlFetchCachePolicy policy;
+
+    @Inject
+    public CachingUrlFetchServiceDecorator(
+            @Named("delegate") UrlFetchService delegate,
+            UrlFetchCachePolicy policy) {
+
+        assert delegate != null;
+        assert policy != null;
+
+        this.delegate = delegate;
+        this.policy = policy;
+    }
+
+    private long computeExpiryTime(long timeToLive) {
+        if (timeToLive == UrlFetchCachePolicy.NEVER_EXPIRE) {
+            return Long.MAX_VALUE;
+        }
+        return getCurrentTimeMillis() + timeToLive;
+    }
+
+    @Override
+    public void fetchURL(final String url, AsyncCallback<String> callback) {
+        assert url != null;
+        assert callback != null;
+
+        CachedResponse cachedResponse = cache.get(url);
+        if (cachedResponse != null) {
+            if (getCurrentTimeMillis() < cachedResponse.expiryTime) {
+                callback.onSuccess(cachedResponse.response);
+                return;
+            }
+            cache.remove(url);
+        }
+
+        List<AsyncCallback<String>> callbacks = pendingCallbacks.get(url);
+        if (callbacks != null) {
+            callbacks.add(callback);
+            return;
+        }
+
+        callbacks = new ArrayList<AsyncCallback<String>>();
+        callbacks.add(callback);
+        pendingCallbacks.put(url, callbacks);
+
+        delegate.fetchURL(url, new AsyncCallback<String>() {
+            @Override
+            public void onFailure(Throwable caught) {
+                for (AsyncCallback<String> callback : pendingCallbacks
+                        .remove(url)) {
+                    callback.onFailure(caught);
+                }
+            }
+
+            @Override
+            public void onSuccess(String result) {
+                long timeToLive = policy.getTimeToLive(url);
+                if (timeToLive != UrlFetchCachePolicy.DO_NOT_CACHE) {
+                    cache.put(url, new CachedResponse(result,
+                            computeExpiryTime(timeToLive)));
+                }
+                for (AsyncCallback<String> callback : pendingCallbacks
+                        .remove(url)) {
+                    callback.onSuccess(result);
+                }
+            }
+        });
+    }
+
+    public int getCacheSize() {
+        return cache.size();
+    }
+
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    public int getPendingRequestCount() {
+        return pendingCallbacks.size();
+    }
+
+    @Override
+    public boolean isFetchedLocally(String url) {
+        CachedResponse cachedResponse = cache.get(url);
+        if (cachedResponse != null
+                && getCurrentTimeMillis() < cachedResponse.expiryTime) {
+            return true;
+        }
+        return pendingCallbacks.containsKey(url);
+    }
+
+    public void setCapacity(int capacity) {
+        assert capacity > 0;
+
+        this.capacity = capacity;
+        while (cache.size() > capacity) {
+            cache.remove(cache.keySet().iterator().next());
+        }
+    }
+
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+/**
+ * {@link UrlFetchService} that can complete some fetches without sending a new
+ * request, e.g. from a cache.
+ */
+public interface LocalUrlFetchService extends UrlFetchService {
+
+    /**
+     * @return <code>true</code> if a fetch of <code>url</code> would not send
+     *         a new request, because the response is available or already
+     *         being fetched
+     */
+    boolean isFetchedLocally(String url);
+
+}
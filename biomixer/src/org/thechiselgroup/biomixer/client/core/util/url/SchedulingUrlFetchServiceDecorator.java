@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+import com.google.inject.Inject;
+import com.google.inject.name.Named;
+
+/**
+ * Limits the number of concurrently running URL fetches and queues the
+ * remaining ones by {@link UrlFetchPriority} (first in, first out within each
+ * priority class). The callbacks of cancelled requests fail with an
+ * {@link UrlFetchCancelledException}. If the delegate is a
+ * {@link LocalUrlFetchService}, fetches it completes without a new request
+ * (e.g. cache hits) are passed on right away and do not take up a slot.
+ */
+public class SchedulingUrlFetchServiceDecorator implements UrlFetchService,
+        UrlFetchScheduler {
+
+    private class Request implements AsyncCallback<String> {
+
+        private final AsyncCallback<String> callback;
+
+        private boolean cancelled = false;
+
+        private final Object owner;
+
+        private final UrlFetchPriority priority;
+
+        private final String url;
+
+        public Request(String url, AsyncCallback<String> callback,
+                UrlFetchPriority priority, Object owner) {
+
+            this.url = url;
+            this.callback = callback;
+            this.priority = priority;
+            this.owner = owner;
+        }
+
+        private void cancel() {
+            runWithPriority(priority, owner, new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(new UrlFetchCancelledException(url));
+                }
+            });
+        }
+
+        private boolean isOwnedBy(Object owner) {
+            return this.owner != null && this.owner.equals(owner);
+        }
+
+        @Override
+        public void onFailure(final Throwable caught) {
+            onRequestCompleted(this, new Runnable() {
+                @Override
+                public void run() {
+                    callback.onFailure(caught);
+                }
+            });
+        }
+
+        @Override
+        public void onSuccess(final String result) {
+            onRequestCompleted(this, new Runnable() {
+                @Override
+                public void run() {
+                    callback.onSuccess(result);
+                }
+            });
+        }
+
+    }
+
+    /**
+     * Browsers open about six connections per host.
+     */
+    public static final int DEFAULT_MAX_CONCURRENT_REQUESTS = 6;
+
+    private int cancelledRequestCount = 0;
+
+    private Object currentOwner = null;
+
+    private UrlFetchPriority currentPriority = UrlFetchPriority.NORMAL;
+
+    private UrlFetchService delegate;
+
+    private boolean dispatching = false;
+
+    /*
+     * null if the delegate sends a request for every fetch
+     */
+    private final LocalUrlFetchService localDelegate;
+
+    private final List<Request> localRequests = new ArrayList<Request>();
+
+    private int maxConcurrentRequests = DEFAULT_MAX_CONCURRENT_REQUESTS;
+
+    private int maxQueueDepth = 0;
+
+    private final List<LinkedList<Request>> queues = new ArrayList<LinkedList<Request>>();
+
+    private final List<Request> runningRequests = new ArrayList<Request>();
+
+    @Inject
+    public SchedulingUrlFetchServiceDecorator(
+            @Named("scheduled") UrlFetchService delegate) {
+
+        assert delegate != null;
+
+        this.delegate = delegate;
+        if (delegate instanceof LocalUrlFetchService) {
+            this.localDelegate = (LocalUrlFetchService) delegate;
+        } else {
+            this.localDelegate = null;
+        }
+        for (int i = 0; i < UrlFetchPriority.values().length; i++) {
+            queues.add(new LinkedList<Request>());
+        }
+    }
+
+    /**
+     * Queued requests of <code>owner</code> are dropped. Running requests keep
+     * their connection until the delegate completes them, but their result is
+     * ignored. The callbacks of both fail with an
+     * {@link UrlFetchCancelledException} before this method returns.
+     */
+    @Override
+    public void cancel(Object owner) {
+        assert owner != null;
+
+        List<Request> cancelledRequests = new ArrayList<Request>();
+        for (LinkedList<Request> queue : queues) {
+            for (Iterator<Request> it = queue.iterator(); it.hasNext();) {
+                Request request = it.next();
+                if (request.isOwnedBy(owner)) {
+                    it.remove();
+                    cancelledRequests.add(request);
+                }
+            }
+        }
+        for (Request request : runningRequests) {
+            if (!request.cancelled && request.isOwnedBy(owner)) {
+                request.cancelled = true;
+                cancelledRequests.add(request);
+            }
+        }
+        for (Request request : localRequests) {
+            if (!request.cancelled && request.isOwnedBy(owner)) {
+                request.cancelled = true;
+                cancelledRequests.add(request);
+            }
+        }
+
+        /*
+         * the callbacks are called after the bookkeeping, because they can
+         * issue or cancel other requests
+         */
+        cancelledRequestCount += cancelledRequests.size();
+        for (Request request : cancelledRequests) {
+            request.cancel();
+        }
+    }
+
+    private void dispatchQueuedRequests() {
+        if (dispatching) {
+            /*
+             * a synchronously completed request, the outer loop continues
+             * dispatching
+             */
+            return;
+        }
+
+        dispatching = true;
+        try {
+            Request request;
+            while (runningRequests.size() < maxConcurrentRequests
+                    && (request = pollNextRequest()) != null) {
+                runningRequests.add(request);
+                delegate.fetchURL(request.url, request);
+            }
+        } finally {
+            dispatching = false;
+        }
+    }
+
+    @Override
+    public void fetchURL(String url, AsyncCallback<String> callback) {
+        assert url != null;
+        assert callback != null;
+
+        Request request = new Request(url, callback, currentPriority,
+                currentOwner);
+        if (localDelegate != null && localDelegate.isFetchedLocally(url)) {
+            localRequests.add(request);
+            localDelegate.fetchURL(url, request);
+            return;
+        }
+
+        queues.get(currentPriority.ordinal()).add(request);
+        maxQueueDepth = Math.max(maxQueueDepth, getQueueDepth());
+
+        dispatchQueuedRequests();
+    }
+
+    public int getCancelledRequestCount() {
+        return cancelledRequestCount;
+    }
+
+    /**
+     * @return number of fetches that the delegate completes without a new
+     *         request and that are not completed yet
+     */
+    public int getLocalRequestCount() {
+        return localRequests.size();
+    }
+
+    public int getMaxQueueDepth() {
+        return maxQueueDepth;
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (LinkedList<Request> queue : queues) {
+            depth += queue.size();
+        }
+        return depth;
+    }
+
+    public int getQueueDepth(UrlFetchPriority priority) {
+        return queues.get(priority.ordinal()).size();
+    }
+
+    public int getRunningRequestCount() {
+        return runningRequests.size();
+    }
+
+    private void onRequestCompleted(Request request, Runnable callbackCall) {
+        boolean wasRunning = runningRequests.remove(request)
+                || localRequests.remove(request);
+        assert wasRunning;
+
+        if (!request.cancelled) {
+            runWithPriority(request.priority, request.owner, callbackCall);
+        }
+
+        dispatchQueuedRequests();
+    }
+
+    private Request pollNextRequest() {
+        for (LinkedList<Request> queue : queues) {
+            if (!queue.isEmpty()) {
+                return queue.removeFirst();
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public void runWithPriority(UrlFetchPriority priority, Object owner,
+            Runnable runnable) {
+
+        assert priority != null;
+        assert runnable != null;
+
+        UrlFetchPriority previousPriority = currentPriority;
+        Object previousOwner = currentOwner;
+
+        currentPriority = priority;
+        currentOwner = owner;
+        try {
+            runnable.run();
+        } finally {
+            currentPriority = previousPriority;
+            currentOwner = previousOwner;
+        }
+    }
+
+    public void setMaxConcurrentRequests(int maxConcurrentRequests) {
+        assert maxConcurrentRequests > 0;
+
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        dispatchQueuedRequests();
+    }
+
+}
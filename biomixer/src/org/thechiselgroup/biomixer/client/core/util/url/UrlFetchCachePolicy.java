@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+/**
+ * Decides for how long the response for a URL can be served from the cache of
+ * a {@link CachingUrlFetchServiceDecorator}.
+ */
+public interface UrlFetchCachePolicy {
+
+    long DO_NOT_CACHE = 0;
+
+    long NEVER_EXPIRE = Long.MAX_VALUE;
+
+    /**
+     * @return time in milliseconds for which the response may be reused,
+     *         {@link #DO_NOT_CACHE} or {@link #NEVER_EXPIRE}
+     */
+    long getTimeToLive(String url);
+
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+/**
+ * Passed to the callback of a URL fetch that was cancelled (see
+ * {@link UrlFetchScheduler#cancel(Object)}).
+ */
+public class UrlFetchCancelledException extends Exception {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String url;
+
+    public UrlFetchCancelledException(String url) {
+        super("fetching '" + url + "' was cancelled");
+        this.url = url;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+/**
+ * Priority classes of URL fetches, from highest to lowest.
+ */
+public enum UrlFetchPriority {
+
+    /**
+     * Requests the user is waiting for, e.g. explicit node expansion.
+     */
+    INTERACTIVE,
+
+    NORMAL,
+
+    /**
+     * Requests issued automatically, e.g. loading the neighbourhood of newly
+     * added nodes.
+     */
+    BACKGROUND
+
+}
@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.util.url;
+
+/**
+ * Controls the priority and ownership of URL fetches issued by a piece of
+ * code, so that they can be ordered and cancelled.
+ */
+public interface UrlFetchScheduler {
+
+    /**
+     * Cancels all requests issued on behalf of <code>owner</code>. Queued
+     * requests are dropped, results of running requests are ignored. The
+     * callbacks of all cancelled requests fail with an
+     * {@link UrlFetchCancelledException}.
+     */
+    void cancel(Object owner);
+
+    /**
+     * Runs <code>runnable</code>. URL fetches issued while it runs, and while
+     * the callbacks of those fetches run, get the given priority and owner.
+     */
+    void runWithPriority(UrlFetchPriority priority, Object owner,
+            Runnable runnable);
+
+}
@@ -15,8 +15,11 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.core.visualization.model.implementation;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Map.Entry;
 
 import org.thechiselgroup.biomixer.client.core.resources.DefaultResourceSet;
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
@@ -34,13 +37,21 @@ import org.thechiselgroup.biomixer.client.core.visualization.model.SlotMappingRe
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemInteraction;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemInteractionHandler;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolver;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolverContext;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.IncrementalVisualItemValue;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.IncrementalVisualItemValueResolver;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.SubsetDependantVisualItemValueResolver;
 
 /**
  * Default implementation of {@link VisualItem}.
  * <p>
  * <b>PERFORMANCE NOTE</b>: Provides caching for calculated slot values and for
- * highlighting and selection status.
+ * highlighting and selection status. Cached slot values are only cleared when
+ * a subset they depend on changes (see
+ * {@link SubsetDependantVisualItemValueResolver}), and values of
+ * {@link IncrementalVisualItemValueResolver}s are updated instead of being
+ * resolved again when resources are added or removed.
  * </p>
  * 
  * @author Lars Grammel
@@ -57,10 +68,54 @@ public class DefaultVisualItem implements Disposable, VisualItem {
 
         @Override
         public void onResourceSetChanged(ResourceSetChangedEvent event) {
-            valueCache.clear();
+            updateValueCache(event.getAddedResources(),
+                    event.getRemovedResources());
         }
     }
 
+    private static final class CachedValue {
+
+        private final VisualItemValueResolver resolver;
+
+        private final IncrementalVisualItemValue incrementalValue;
+
+        private Object value;
+
+        public CachedValue(VisualItemValueResolver resolver, Object value,
+                IncrementalVisualItemValue incrementalValue) {
+
+            this.resolver = resolver;
+            this.value = value;
+            this.incrementalValue = incrementalValue;
+        }
+
+        public boolean isDependantOn(Subset subset) {
+            if (!(resolver instanceof SubsetDependantVisualItemValueResolver)) {
+                return true;
+            }
+
+            return ((SubsetDependantVisualItemValueResolver) resolver)
+                    .isDependantOn(subset);
+        }
+
+        /**
+         * @return {@code false} if the value has to be resolved again
+         */
+        public boolean update(LightweightCollection<Resource> addedResources,
+                LightweightCollection<Resource> removedResources) {
+
+            if (incrementalValue == null
+                    || !incrementalValue.update(addedResources,
+                            removedResources)) {
+                return false;
+            }
+
+            value = incrementalValue.getValue();
+            return true;
+        }
+
+    }
+
     private final class SubsetContainer {
 
         private ResourceSet resources = new DefaultResourceSet();
@@ -123,11 +178,11 @@ public class DefaultVisualItem implements Disposable, VisualItem {
 
     /**
      * PERFORMANCE: Cache for the resolved slot values of ALL subset. Maps the
-     * slot id to the value.
+     * slot id to the value and the resolver that calculated it.
      * 
      * @see #clearValueCache(Slot)
      */
-    private Map<String, Object> valueCache = CollectionFactory
+    private Map<String, CachedValue> valueCache = CollectionFactory
             .createStringMap();
 
     private final VisualItemInteractionHandler interactionHandler;
@@ -248,15 +303,26 @@ public class DefaultVisualItem implements Disposable, VisualItem {
         assert slot != null : "slot must not be null";
 
         String slotId = slot.getId();
-        if (valueCache.containsKey(slotId)) {
-            return (T) valueCache.get(slotId);
+        CachedValue cachedValue = valueCache.get(slotId);
+        if (cachedValue != null) {
+            return (T) cachedValue.value;
         }
 
         try {
-            Object value = valueResolverContext.getResolver(slot).resolve(this,
-                    valueResolverContext);
+            VisualItemValueResolver resolver = valueResolverContext
+                    .getResolver(slot);
+
+            IncrementalVisualItemValue incrementalValue = null;
+            if (resolver instanceof IncrementalVisualItemValueResolver) {
+                incrementalValue = ((IncrementalVisualItemValueResolver) resolver)
+                        .createIncrementalValue(this, valueResolverContext);
+            }
+
+            Object value = incrementalValue != null ? incrementalValue
+                    .getValue() : resolver.resolve(this, valueResolverContext);
 
-            valueCache.put(slotId, value);
+            valueCache.put(slotId, new CachedValue(resolver, value,
+                    incrementalValue));
 
             return (T) value;
         } catch (NoResolverForSlotException ex) {
@@ -306,9 +372,33 @@ public class DefaultVisualItem implements Disposable, VisualItem {
         assert addedSubsetResources != null;
         assert removedSubsetResources != null;
 
-        valueCache.clear();
+        List<String> invalidSlotIds = new ArrayList<String>();
+        for (Entry<String, CachedValue> entry : valueCache.entrySet()) {
+            if (entry.getValue().isDependantOn(subset)) {
+                invalidSlotIds.add(entry.getKey());
+            }
+        }
+        for (String slotId : invalidSlotIds) {
+            valueCache.remove(slotId);
+        }
+
         getSubsetContainer(subset).update(addedSubsetResources,
                 removedSubsetResources);
     }
 
+    private void updateValueCache(
+            LightweightCollection<Resource> addedResources,
+            LightweightCollection<Resource> removedResources) {
+
+        List<String> invalidSlotIds = new ArrayList<String>();
+        for (Entry<String, CachedValue> entry : valueCache.entrySet()) {
+            if (!entry.getValue().update(addedResources, removedResources)) {
+                invalidSlotIds.add(entry.getKey());
+            }
+        }
+        for (String slotId : invalidSlotIds) {
+            valueCache.remove(slotId);
+        }
+    }
+
 }
\ No newline at end of file
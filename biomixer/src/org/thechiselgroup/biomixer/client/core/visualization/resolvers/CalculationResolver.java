@@ -18,14 +18,62 @@ package org.thechiselgroup.biomixer.client.core.visualization.resolvers;
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollection;
 import org.thechiselgroup.biomixer.client.core.util.math.Calculation;
+import org.thechiselgroup.biomixer.client.core.util.math.IncrementalCalculation;
 import org.thechiselgroup.biomixer.client.core.util.math.MathUtils;
+import org.thechiselgroup.biomixer.client.core.util.math.NumberAggregate;
 import org.thechiselgroup.biomixer.client.core.util.math.NumberArray;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem.Subset;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolverContext;
 
 public class CalculationResolver extends SubsetVisualItemValueResolver
-        implements PropertyDependantVisualItemValueResolver {
+        implements PropertyDependantVisualItemValueResolver,
+        IncrementalVisualItemValueResolver {
+
+    /**
+     * Keeps the calculation result up to date using a {@link NumberAggregate}
+     * of the property values.
+     */
+    private class IncrementalCalculationValue implements
+            IncrementalVisualItemValue {
+
+        private final NumberAggregate aggregate = new NumberAggregate();
+
+        private final IncrementalCalculation calculation;
+
+        public IncrementalCalculationValue(IncrementalCalculation calculation,
+                LightweightCollection<Resource> resources) {
+
+            this.calculation = calculation;
+            for (Resource resource : resources) {
+                aggregate.add(getNumber(resource));
+            }
+        }
+
+        public boolean canCalculate() {
+            return calculation.canCalculate(aggregate);
+        }
+
+        @Override
+        public Double getValue() {
+            return calculation.calculate(aggregate);
+        }
+
+        @Override
+        public boolean update(LightweightCollection<Resource> addedResources,
+                LightweightCollection<Resource> removedResources) {
+
+            for (Resource resource : removedResources) {
+                aggregate.remove(getNumber(resource));
+            }
+            for (Resource resource : addedResources) {
+                aggregate.add(getNumber(resource));
+            }
+
+            return canCalculate();
+        }
+
+    }
 
     private final String property;
 
@@ -73,10 +121,36 @@ public class CalculationResolver extends SubsetVisualItemValueResolver
         return true;
     }
 
+    /**
+     * Only calculations on all resources are updated incrementally, because
+     * the other subsets change with every highlighting and selection.
+     */
+    @Override
+    public IncrementalVisualItemValue createIncrementalValue(
+            VisualItem visualItem, VisualItemValueResolverContext context) {
+
+        if (!Subset.ALL.equals(getSubset())
+                || !(calculation instanceof IncrementalCalculation)) {
+            return null;
+        }
+
+        IncrementalCalculationValue value = new IncrementalCalculationValue(
+                (IncrementalCalculation) calculation,
+                visualItem.getResources());
+
+        return value.canCalculate() ? value : null;
+    }
+
     public Calculation getCalculation() {
         return calculation;
     }
 
+    // TODO, what happens if this is null, should that be possible,
+    // should it not show those resources
+    private double getNumber(Resource resource) {
+        return (Double) resource.getValue(property);
+    }
+
     @Override
     public String getProperty() {
         return property;
@@ -93,9 +167,7 @@ public class CalculationResolver extends SubsetVisualItemValueResolver
         NumberArray numberArray = MathUtils.createNumberArray();
 
         for (Resource resource : resources) {
-            // TODO, what happens if this is null, should that be possible,
-            // should it not show those resources
-            numberArray.push((Double) resource.getValue(property));
+            numberArray.push(getNumber(resource));
         }
 
         return numberArray;
@@ -17,10 +17,12 @@ package org.thechiselgroup.biomixer.client.core.visualization.resolvers;
 
 import org.thechiselgroup.biomixer.client.core.util.DataType;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem.Subset;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolverContext;
 
 // TODO expose data type
-public class FixedValueResolver extends AbstractBasicVisualItemValueResolver {
+public class FixedValueResolver extends AbstractBasicVisualItemValueResolver
+        implements SubsetDependantVisualItemValueResolver {
 
     private final Object value;
 
@@ -41,6 +43,11 @@ public class FixedValueResolver extends AbstractBasicVisualItemValueResolver {
         return true;
     }
 
+    @Override
+    public boolean isDependantOn(Subset subset) {
+        return false;
+    }
+
     @Override
     public Object resolve(VisualItem visualItem,
             VisualItemValueResolverContext context) {
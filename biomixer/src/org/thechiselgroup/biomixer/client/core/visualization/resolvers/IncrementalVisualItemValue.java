@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.visualization.resolvers;
+
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollection;
+
+/**
+ * Resolved value of a {@link IncrementalVisualItemValueResolver} that is kept
+ * up to date as the resources of the visual item change.
+ */
+public interface IncrementalVisualItemValue {
+
+    Object getValue();
+
+    /**
+     * Updates the value after resources were added to or removed from the
+     * visual item.
+     * 
+     * @return {@code false} if the value could not be updated and needs to be
+     *         resolved again
+     */
+    boolean update(LightweightCollection<Resource> addedResources,
+            LightweightCollection<Resource> removedResources);
+
+}
@@ -0,0 +1,37 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.visualization.resolvers;
+
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolver;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolverContext;
+
+/**
+ * {@link VisualItemValueResolver} whose value can be updated from the
+ * resources that are added to or removed from a {@link VisualItem}, instead of
+ * being resolved from all its resources again.
+ */
+public interface IncrementalVisualItemValueResolver extends
+        VisualItemValueResolver {
+
+    /**
+     * @return the value for {@code visualItem}, or {@code null} if it cannot
+     *         be updated incrementally
+     */
+    IncrementalVisualItemValue createIncrementalValue(VisualItem visualItem,
+            VisualItemValueResolverContext context);
+
+}
@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.core.visualization.resolvers;
+
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem.Subset;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolver;
+
+/**
+ * {@link VisualItemValueResolver} that declares which {@link Subset}s of a
+ * {@link VisualItem} its values depend on. Values resolved by other resolvers
+ * are assumed to depend on all subsets.
+ */
+public interface SubsetDependantVisualItemValueResolver extends
+        VisualItemValueResolver {
+
+    /**
+     * @return {@code true} if the resolved value can change when the resources
+     *         in the {@code subset} change
+     */
+    boolean isDependantOn(Subset subset);
+
+}
@@ -29,7 +29,8 @@ import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemVal
  * @author Lars Grammel
  */
 public abstract class SubsetVisualItemValueResolver extends
-        AbstractBasicVisualItemValueResolver {
+        AbstractBasicVisualItemValueResolver implements
+        SubsetDependantVisualItemValueResolver {
 
     private final Subset subset;
 
@@ -38,6 +39,15 @@ public abstract class SubsetVisualItemValueResolver extends
         this.subset = subset;
     }
 
+    public Subset getSubset() {
+        return subset;
+    }
+
+    @Override
+    public boolean isDependantOn(Subset subset) {
+        return this.subset.equals(subset);
+    }
+
     @Override
     public final Object resolve(VisualItem visualItem,
             VisualItemValueResolverContext context) {
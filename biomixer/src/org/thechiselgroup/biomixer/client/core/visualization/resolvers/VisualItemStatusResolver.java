@@ -24,7 +24,8 @@ import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemVal
 import org.thechiselgroup.biomixer.client.core.visualization.model.predicates.VisualItemPredicate;
 
 public class VisualItemStatusResolver extends
-        AbstractBasicVisualItemValueResolver {
+        AbstractBasicVisualItemValueResolver implements
+        SubsetDependantVisualItemValueResolver {
 
     public static class StatusRule implements VisualItemPredicate {
 
@@ -84,6 +85,17 @@ public class VisualItemStatusResolver extends
         return true;
     }
 
+    @Override
+    public boolean isDependantOn(Subset subset) {
+        for (StatusRule rule : rules) {
+            if (rule.subset.equals(subset)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     @Override
     public Object resolve(VisualItem visualItem,
             VisualItemValueResolverContext context) {
@@ -18,12 +18,22 @@ package org.thechiselgroup.biomixer.client.core.visualization.resolvers.managed;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollection;
 import org.thechiselgroup.biomixer.client.core.visualization.model.Slot;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem.Subset;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolver;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItemValueResolverContext;
 import org.thechiselgroup.biomixer.client.core.visualization.model.managed.ManagedVisualItemValueResolver;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.IncrementalVisualItemValue;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.IncrementalVisualItemValueResolver;
+import org.thechiselgroup.biomixer.client.core.visualization.resolvers.SubsetDependantVisualItemValueResolver;
 
+/*
+ * Implements the optional resolver interfaces so that their information is
+ * not hidden by the decorator. Delegates that do not implement them are
+ * treated as depending on all subsets and not being incremental.
+ */
 public class ManagedVisualItemValueResolverDecorator implements
-        ManagedVisualItemValueResolver {
+        ManagedVisualItemValueResolver, SubsetDependantVisualItemValueResolver,
+        IncrementalVisualItemValueResolver {
 
     protected VisualItemValueResolver delegate;
 
@@ -42,6 +52,18 @@ public class ManagedVisualItemValueResolverDecorator implements
         return delegate.canResolve(visualItem, context);
     }
 
+    @Override
+    public IncrementalVisualItemValue createIncrementalValue(
+            VisualItem visualItem, VisualItemValueResolverContext context) {
+
+        if (!(delegate instanceof IncrementalVisualItemValueResolver)) {
+            return null;
+        }
+
+        return ((IncrementalVisualItemValueResolver) delegate)
+                .createIncrementalValue(visualItem, context);
+    }
+
     public VisualItemValueResolver getDelegate() {
         return delegate;
     }
@@ -56,6 +78,16 @@ public class ManagedVisualItemValueResolverDecorator implements
         return delegate.getTargetSlots();
     }
 
+    @Override
+    public boolean isDependantOn(Subset subset) {
+        if (!(delegate instanceof SubsetDependantVisualItemValueResolver)) {
+            return true;
+        }
+
+        return ((SubsetDependantVisualItemValueResolver) delegate)
+                .isDependantOn(subset);
+    }
+
     @Override
     public Object resolve(VisualItem visualItem,
             VisualItemValueResolverContext context) {
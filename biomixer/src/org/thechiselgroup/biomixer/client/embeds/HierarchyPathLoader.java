@@ -15,6 +15,8 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.embeds;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 import org.thechiselgroup.biomixer.client.Concept;
@@ -79,31 +81,36 @@ public class HierarchyPathLoader {
                                     Set<String> shortIdsInHierarchy)
                                     throws Exception {
 
-                                for (String shortId : shortIdsInHierarchy) {
-                                    loadConcept(virtualOntologyId, shortId,
-                                            graphView);
-                                }
+                                loadConcepts(virtualOntologyId,
+                                        shortIdsInHierarchy, graphView);
                             }
 
                         });
     }
 
-    private void loadConcept(final String virtualOntologyId,
-            final String conceptShortId, final View graphView) {
+    private void loadConcepts(final String virtualOntologyId,
+            Set<String> conceptShortIds, final View graphView) {
 
-        conceptNeighbourhoodService.getResourceWithRelations(virtualOntologyId,
-                conceptShortId,
-                new TimeoutErrorHandlingAsyncCallback<Resource>(errorHandler) {
+        List<String> conceptUris = new ArrayList<String>();
+        for (String conceptShortId : conceptShortIds) {
+            conceptUris.add(Concept.toConceptURI(virtualOntologyId,
+                    conceptShortId));
+        }
+
+        conceptNeighbourhoodService.getResourcesWithRelations(conceptUris,
+                new TimeoutErrorHandlingBatchCallback<Resource>(errorHandler) {
 
                     @Override
-                    protected String getMessage(Throwable caught) {
+                    protected String getMessage(String conceptUri,
+                            Throwable caught) {
                         return "Could not retrieve full term information for "
-                                + conceptShortId + " ontology "
-                                + virtualOntologyId;
+                                + Concept.getConceptId(conceptUri)
+                                + " ontology " + virtualOntologyId;
                     }
 
                     @Override
-                    protected void runOnSuccess(Resource resource) {
+                    protected void runOnSuccess(String conceptUri,
+                            Resource resource) {
                         graphView.getResourceModel().getAutomaticResourceSet()
                                 .add(resource);
                     }
@@ -15,6 +15,9 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.embeds;
 
+import java.util.LinkedHashSet;
+import java.util.Set;
+
 import org.thechiselgroup.biomixer.client.Concept;
 import org.thechiselgroup.biomixer.client.Mapping;
 import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
@@ -39,23 +42,21 @@ public class MappingNeighbourhoodLoader extends AbstractTermGraphEmbedLoader {
             TimeoutErrorHandlingAsyncCallback<ResourceNeighbourhood> {
 
         private class BasicTermInfoCallback extends
-                TimeoutErrorHandlingAsyncCallback<Resource> {
-
-            private final String otherConceptId;
+                TimeoutErrorHandlingBatchCallback<Resource> {
 
-            private BasicTermInfoCallback(ErrorHandler errorHandler,
-                    String otherConceptId) {
+            private BasicTermInfoCallback(ErrorHandler errorHandler) {
                 super(errorHandler);
-                this.otherConceptId = otherConceptId;
             }
 
             @Override
-            protected String getMessage(Throwable caught) {
-                return "Could not get basic information for " + otherConceptId;
+            protected String getMessage(String otherUri, Throwable caught) {
+                return "Could not get basic information for "
+                        + Concept.getConceptId(otherUri);
             }
 
             @Override
-            protected void runOnSuccess(Resource result) throws Exception {
+            protected void runOnSuccess(String otherUri, Resource result)
+                    throws Exception {
                 hideLoadingBar();
 
                 resourceSet.add(result);
@@ -94,22 +95,19 @@ public class MappingNeighbourhoodLoader extends AbstractTermGraphEmbedLoader {
             targetResource.applyPartialProperties(mappingNeighbourhood
                     .getPartialProperties());
 
+            /* one batch instead of one request per mapping */
+            Set<String> otherUris = new LinkedHashSet<String>();
             for (Resource mappingResource : mappingNeighbourhood.getResources()) {
                 String sourceUri = Mapping.getSource(mappingResource);
                 String targetUri = Mapping.getTarget(mappingResource);
 
-                final String otherUri = targetResource.getUri().equals(
-                        sourceUri) ? targetUri : sourceUri;
-
-                final String otherOntologyId = Concept.getOntologyId(otherUri);
-                final String otherConceptId = Concept.getConceptId(otherUri);
-
-                termService.getBasicInformation(otherOntologyId,
-                        otherConceptId, new BasicTermInfoCallback(errorHandler,
-                                otherConceptId));
-
+                otherUris.add(targetResource.getUri().equals(sourceUri) ?
+                        targetUri : sourceUri);
             }
 
+            termService.getBasicInformation(otherUris,
+                    new BasicTermInfoCallback(errorHandler));
+
         }
     }
 
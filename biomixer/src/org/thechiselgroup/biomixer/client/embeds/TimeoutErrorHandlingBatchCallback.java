@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.embeds;
+
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandlingBatchCallback;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.CallbackException;
+
+public abstract class TimeoutErrorHandlingBatchCallback<T> extends
+        ErrorHandlingBatchCallback<T> {
+
+    public TimeoutErrorHandlingBatchCallback(ErrorHandler errorHandler) {
+        super(errorHandler);
+    }
+
+    protected abstract String getMessage(String key, Throwable caught);
+
+    @Override
+    protected final Throwable wrapException(String key, Throwable caught) {
+        return new CallbackException(getMessage(key, caught), caught);
+    }
+}
@@ -15,16 +15,19 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.graph;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 import org.thechiselgroup.biomixer.client.Concept;
 import org.thechiselgroup.biomixer.client.Mapping;
 import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
 import org.thechiselgroup.biomixer.client.core.resources.ResourceManager;
+import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollections;
 import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
-import org.thechiselgroup.biomixer.client.embeds.TimeoutErrorHandlingAsyncCallback;
+import org.thechiselgroup.biomixer.client.embeds.TimeoutErrorHandlingBatchCallback;
 import org.thechiselgroup.biomixer.client.services.mapping.MappingServiceAsync;
 import org.thechiselgroup.biomixer.client.services.term.TermServiceAsync;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.GraphNodeExpansionCallback;
@@ -52,8 +55,10 @@ public class ConceptMappingNeighbourhoodExpander extends
             List<Resource> mappings) {
 
         final String conceptUri = concept.getUri();
+        final Map<String, List<Resource>> mappingsByOtherUri = CollectionFactory
+                .createStringMap();
 
-        for (final Resource mapping : mappings) {
+        for (Resource mapping : mappings) {
             String sourceUri = Mapping.getSource(mapping);
             String targetUri = Mapping.getTarget(mapping);
 
@@ -72,25 +77,36 @@ public class ConceptMappingNeighbourhoodExpander extends
                 continue;
             }
 
-            termService.getBasicInformation(Concept.getOntologyId(otherUri),
-                    Concept.getConceptId(otherUri),
-                    new TimeoutErrorHandlingAsyncCallback<Resource>(
+            if (!mappingsByOtherUri.containsKey(otherUri)) {
+                mappingsByOtherUri.put(otherUri, new ArrayList<Resource>());
+            }
+            mappingsByOtherUri.get(otherUri).add(mapping);
+        }
+
+        /* one batch instead of one request per mapping */
+        if (!mappingsByOtherUri.isEmpty()) {
+            termService.getBasicInformation(mappingsByOtherUri.keySet(),
+                    new TimeoutErrorHandlingBatchCallback<Resource>(
                             errorHandler) {
 
                         @Override
-                        protected String getMessage(Throwable caught) {
+                        protected String getMessage(String otherUri,
+                                Throwable caught) {
                             return "Could not get basic information for \""
                                     + concept.getValue(Concept.LABEL) + "\" "
                                     + getOntologyInfoForErrorMessage(concept);
                         }
 
                         @Override
-                        protected void runOnSuccess(Resource result)
-                                throws Exception {
+                        protected void runOnSuccess(String otherUri,
+                                Resource result) throws Exception {
 
                             Resource addedResource = resourceManager
                                     .add(result);
-                            graph.addAutomaticResource(mapping);
+                            for (Resource mapping : mappingsByOtherUri
+                                    .get(otherUri)) {
+                                graph.addAutomaticResource(mapping);
+                            }
                             graph.addAutomaticResource(addedResource);
                         }
                     });
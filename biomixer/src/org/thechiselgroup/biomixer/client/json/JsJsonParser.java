@@ -15,13 +15,20 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.json;
 
-import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonParser;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonCursor;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonPath;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonStreamingParser;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonTreeCursor;
 
 import com.google.gwt.json.client.JSONObject;
 import com.google.gwt.json.client.JSONParser;
 import com.google.gwt.json.client.JSONValue;
 
-public class JsJsonParser implements JsonParser {
+/**
+ * Browsers have no streaming JSON parser, so {@link #select(String, JsonPath)}
+ * parses the whole document and walks the resulting tree.
+ */
+public class JsJsonParser implements JsonStreamingParser {
 
     @Override
     public int asInt(Object jsonValue) {
@@ -86,4 +93,9 @@ public class JsJsonParser implements JsonParser {
         return JSONParser.parseStrict(json);
     }
 
+    @Override
+    public JsonCursor select(String json, JsonPath path) {
+        return new JsonTreeCursor(this, parse(json), path);
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,81 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.services;
+
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.thechiselgroup.biomixer.client.core.util.UriUtils;
+import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchCachePolicy;
+
+/**
+ * Cache policy for the NCBO JSONP REST services. The REST path is encoded in
+ * the "path" parameter of the request URL (see
+ * {@link NcboJsonpRestUrlBuilderFactory}), so the time-to-live is looked up by
+ * the longest matching REST path prefix.
+ */
+public class NcboUrlFetchCachePolicy implements UrlFetchCachePolicy {
+
+    private static final String PATH_PARAMETER = "path";
+
+    private static final long TEN_MINUTES = 10 * 60 * 1000;
+
+    private final Map<String, Long> timeToLiveByPathPrefix = CollectionFactory
+            .createStringMap();
+
+    public NcboUrlFetchCachePolicy() {
+        /*
+         * ontology names, versions and term counts as well as terms and their
+         * neighbourhoods do not change during a session
+         */
+        setTimeToLive("/virtual/ontology/", NEVER_EXPIRE);
+        setTimeToLive("/virtual/rootpath/", NEVER_EXPIRE);
+
+        setTimeToLive("/virtual/mappings/concepts/", TEN_MINUTES);
+        setTimeToLive("/obs/ontologies", TEN_MINUTES);
+
+        /* search results change as ontologies are updated */
+        setTimeToLive("/search/", DO_NOT_CACHE);
+    }
+
+    @Override
+    public long getTimeToLive(String url) {
+        long timeToLive = DO_NOT_CACHE;
+        int matchLength = -1;
+        for (Entry<String, Long> entry : timeToLiveByPathPrefix.entrySet()) {
+            String prefix = entry.getKey();
+            if (prefix.length() > matchLength && url.contains(prefix)) {
+                timeToLive = entry.getValue();
+                matchLength = prefix.length();
+            }
+        }
+        return timeToLive;
+    }
+
+    /**
+     * Sets the time-to-live for all requests whose REST path starts with
+     * <code>pathPrefix</code> (without the leading "/bioportal").
+     */
+    public void setTimeToLive(String pathPrefix, long timeToLive) {
+        assert pathPrefix != null;
+        assert timeToLive >= 0;
+
+        timeToLiveByPathPrefix.put(PATH_PARAMETER + "="
+                + UriUtils.encodeURIComponent(pathPrefix), timeToLive);
+    }
+
+}
@@ -25,7 +25,9 @@ import org.thechiselgroup.biomixer.client.core.resources.Resource;
 import org.thechiselgroup.biomixer.client.services.AbstractJsonResultParser;
 import org.thechiselgroup.biomixer.shared.core.util.date.DateTimeFormat;
 import org.thechiselgroup.biomixer.shared.core.util.date.DateTimeFormatFactory;
-import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonParser;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonCursor;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonPath;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonStreamingParser;
 
 import com.google.inject.Inject;
 
@@ -35,12 +37,18 @@ public class MappingResponseJsonParser extends AbstractJsonResultParser {
 
     private static final String DATE_PATTERN = "yyyy-MM-dd HH:mm:ss.S z";
 
+    private static final JsonPath MAPPINGS_PATH = JsonPath
+            .compile("success.data[0].page.contents.mappings.mapping[*]");
+
     private final DateTimeFormat dateFormat;
 
+    private final JsonStreamingParser jsonParser;
+
     @Inject
-    public MappingResponseJsonParser(JsonParser jsonParser,
+    public MappingResponseJsonParser(JsonStreamingParser jsonParser,
             DateTimeFormatFactory dateTimeFormatFactory) {
         super(jsonParser);
+        this.jsonParser = jsonParser;
         this.dateFormat = dateTimeFormatFactory
                 .createDateTimeFormat(DATE_PATTERN);
     }
@@ -86,16 +94,9 @@ public class MappingResponseJsonParser extends AbstractJsonResultParser {
     public List<Resource> parseMapping(String json) {
         List<Resource> result = new ArrayList<Resource>();
 
-        Object mappings = get(
-                get(get(get(get(get(get(parse(json), "success"), "data"), 0),
-                        "page"), "contents"), "mappings"), "mapping");
-
-        if (mappings == null) {
-            return result;
-        }
-
-        for (int i = 0; i < length(mappings); i++) {
-            result.add(parseMapping(get(mappings, i)));
+        JsonCursor mappings = jsonParser.select(json, MAPPINGS_PATH);
+        while (mappings.next()) {
+            result.add(parseMapping(mappings.current()));
         }
 
         return result;
@@ -0,0 +1,171 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.services.term;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.thechiselgroup.biomixer.client.Concept;
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
+import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
+import org.thechiselgroup.biomixer.client.services.ontology.OntologyNameServiceAsync;
+
+import com.google.gwt.user.client.rpc.AsyncCallback;
+
+/**
+ * Loads many concepts by URI. The term services only accept a single concept
+ * per request, so the batch is reduced to one ontology name lookup per
+ * ontology plus one request per distinct concept, and results are passed on
+ * as they arrive.
+ */
+abstract class ConceptBatchLoader {
+
+    private class BatchState {
+
+        private final BatchCallback<Resource> callback;
+
+        private int pendingCount;
+
+        public BatchState(BatchCallback<Resource> callback, int pendingCount) {
+            this.callback = callback;
+            this.pendingCount = pendingCount;
+        }
+
+        private void conceptDone() {
+            assert pendingCount > 0;
+
+            pendingCount--;
+            if (pendingCount == 0) {
+                callback.onBatchComplete();
+            }
+        }
+
+        public void onFailure(String conceptUri, Throwable caught) {
+            try {
+                callback.onFailure(conceptUri, caught);
+            } finally {
+                conceptDone();
+            }
+        }
+
+        public void onSuccess(String conceptUri, Resource result) {
+            try {
+                callback.onSuccess(conceptUri, result);
+            } finally {
+                conceptDone();
+            }
+        }
+
+    }
+
+    private final OntologyNameServiceAsync ontologyNameService;
+
+    public ConceptBatchLoader(OntologyNameServiceAsync ontologyNameService) {
+        assert ontologyNameService != null;
+        this.ontologyNameService = ontologyNameService;
+    }
+
+    private Map<String, Set<String>> groupByOntology(
+            Iterable<String> conceptUris) {
+
+        Map<String, Set<String>> conceptUrisByOntologyId = CollectionFactory
+                .createStringMap();
+        for (String conceptUri : conceptUris) {
+            String ontologyId = Concept.getOntologyId(conceptUri);
+            if (!conceptUrisByOntologyId.containsKey(ontologyId)) {
+                conceptUrisByOntologyId.put(ontologyId,
+                        new LinkedHashSet<String>());
+            }
+            conceptUrisByOntologyId.get(ontologyId).add(conceptUri);
+        }
+        return conceptUrisByOntologyId;
+    }
+
+    public void load(Iterable<String> conceptUris,
+            BatchCallback<Resource> callback) {
+
+        assert conceptUris != null;
+        assert callback != null;
+
+        Map<String, Set<String>> conceptUrisByOntologyId = groupByOntology(conceptUris);
+
+        int conceptCount = 0;
+        for (Set<String> uris : conceptUrisByOntologyId.values()) {
+            conceptCount += uris.size();
+        }
+
+        if (conceptCount == 0) {
+            callback.onBatchComplete();
+            return;
+        }
+
+        BatchState batch = new BatchState(callback, conceptCount);
+        for (Entry<String, Set<String>> entry : conceptUrisByOntologyId
+                .entrySet()) {
+            loadOntology(entry.getKey(), entry.getValue(), batch);
+        }
+    }
+
+    private void loadBatchedConcept(final String conceptUri,
+            String ontologyName, final BatchState batch) {
+
+        loadConcept(Concept.getOntologyId(conceptUri),
+                Concept.getConceptId(conceptUri), ontologyName,
+                new AsyncCallback<Resource>() {
+                    @Override
+                    public void onFailure(Throwable caught) {
+                        batch.onFailure(conceptUri, caught);
+                    }
+
+                    @Override
+                    public void onSuccess(Resource result) {
+                        batch.onSuccess(conceptUri, result);
+                    }
+                });
+    }
+
+    /**
+     * Loads a single concept of an ontology whose name is already known.
+     */
+    protected abstract void loadConcept(String ontologyId,
+            String conceptFullId, String ontologyName,
+            AsyncCallback<Resource> callback);
+
+    private void loadOntology(final String ontologyId,
+            final Set<String> conceptUris, final BatchState batch) {
+
+        ontologyNameService.getOntologyName(ontologyId,
+                new AsyncCallback<String>() {
+                    @Override
+                    public void onFailure(Throwable caught) {
+                        for (String conceptUri : conceptUris) {
+                            batch.onFailure(conceptUri, caught);
+                        }
+                    }
+
+                    @Override
+                    public void onSuccess(String ontologyName) {
+                        for (String conceptUri : conceptUris) {
+                            loadBatchedConcept(conceptUri, ontologyName, batch);
+                        }
+                    }
+                });
+    }
+
+}
@@ -16,6 +16,7 @@
 package org.thechiselgroup.biomixer.client.services.term;
 
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.ResourceNeighbourhood;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
@@ -38,4 +39,11 @@ public interface ConceptNeighbourhoodServiceAsync {
     void getResourceWithRelations(String ontologyId, String conceptId,
             AsyncCallback<Resource> callback);
 
+    /**
+     * Gets several concepts with their relations. The results are passed on as
+     * they arrive, keyed by concept URI.
+     */
+    void getResourcesWithRelations(Iterable<String> conceptUris,
+            BatchCallback<Resource> callback);
+
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ package org.thechiselgroup.biomixer.client.services.term;
 import org.thechiselgroup.biomixer.client.Concept;
 import org.thechiselgroup.biomixer.client.core.error_handling.AsyncCallbackErrorHandler;
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
 import org.thechiselgroup.biomixer.client.core.util.transform.Transformer;
 import org.thechiselgroup.biomixer.client.core.util.url.UrlBuilderFactory;
 import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchService;
@@ -37,6 +38,8 @@ import com.google.inject.Inject;
 public class ConceptNeighbourhoodServiceAsyncClientImplementation extends
         AbstractWebResourceService implements ConceptNeighbourhoodServiceAsync {
 
+    private final ConceptBatchLoader batchLoader;
+
     private final FullTermResponseJsonParser responseParser;
 
     private OntologyNameServiceAsync ontologyNameService;
@@ -55,6 +58,16 @@ public class ConceptNeighbourhoodServiceAsyncClientImplementation extends
 
         this.responseParser = responseParser;
         this.ontologyNameService = ontologyNameService;
+        this.batchLoader = new ConceptBatchLoader(ontologyNameService) {
+            @Override
+            protected void loadConcept(String ontologyId,
+                    String conceptFullId, String ontologyName,
+                    AsyncCallback<Resource> callback) {
+
+                fetchUrl(callback, buildUrl(conceptFullId, ontologyId),
+                        createResourceTransformer(ontologyId, ontologyName));
+            }
+        };
     }
 
     private String buildUrl(String fullConceptId, String ontologyId) {
@@ -63,6 +76,20 @@ public class ConceptNeighbourhoodServiceAsyncClientImplementation extends
                 .uriParameter("conceptid", fullConceptId).toString();
     }
 
+    private Transformer<String, Resource> createResourceTransformer(
+            final String ontologyId, final String ontologyName) {
+
+        return new Transformer<String, Resource>() {
+            @Override
+            public Resource transform(String responseText) throws Exception {
+                Resource resource = responseParser.parseResource(ontologyId,
+                        responseText);
+                resource.putValue(Concept.CONCEPT_ONTOLOGY_NAME, ontologyName);
+                return resource;
+            }
+        };
+    }
+
     @Override
     public void getNeighbourhood(final String ontologyId,
             final String conceptId,
@@ -133,25 +160,19 @@ public class ConceptNeighbourhoodServiceAsyncClientImplementation extends
                     }
 
                     @Override
-                    public void runOnSuccess(final String ontologyName) {
-                        fetchUrl(callback, url,
-                                new Transformer<String, Resource>() {
-                                    @Override
-                                    public Resource transform(
-                                            String responseText)
-                                            throws Exception {
-                                        Resource resource = responseParser
-                                                .parseResource(ontologyId,
-                                                        responseText);
-                                        resource.putValue(
-                                                Concept.CONCEPT_ONTOLOGY_NAME,
-                                                ontologyName);
-                                        return resource;
-                                    }
-                                });
+                    public void runOnSuccess(String ontologyName) {
+                        fetchUrl(callback, url, createResourceTransformer(
+                                ontologyId, ontologyName));
                     }
 
                 });
     }
 
+    @Override
+    public void getResourcesWithRelations(Iterable<String> conceptUris,
+            BatchCallback<Resource> callback) {
+
+        batchLoader.load(conceptUris, callback);
+    }
+
 }
\ No newline at end of file
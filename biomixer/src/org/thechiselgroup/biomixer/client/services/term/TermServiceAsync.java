@@ -16,6 +16,7 @@
 package org.thechiselgroup.biomixer.client.services.term;
 
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
@@ -28,4 +29,11 @@ public interface TermServiceAsync {
     void getBasicInformation(String ontologyId, String conceptFullId,
             AsyncCallback<Resource> callback);
 
+    /**
+     * Gets basic information about several concepts (no relationships). The
+     * results are passed on as they arrive, keyed by concept URI.
+     */
+    void getBasicInformation(Iterable<String> conceptUris,
+            BatchCallback<Resource> callback);
+
 }
\ No newline at end of file
@@ -18,6 +18,7 @@ package org.thechiselgroup.biomixer.client.services.term;
 import org.thechiselgroup.biomixer.client.Concept;
 import org.thechiselgroup.biomixer.client.core.error_handling.AsyncCallbackErrorHandler;
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.core.util.callbacks.BatchCallback;
 import org.thechiselgroup.biomixer.client.core.util.transform.Transformer;
 import org.thechiselgroup.biomixer.client.core.util.url.UrlBuilderFactory;
 import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchService;
@@ -31,6 +32,8 @@ import com.google.inject.Inject;
 public class TermServiceImplementation extends AbstractWebResourceService
         implements TermServiceAsync {
 
+    private final ConceptBatchLoader batchLoader;
+
     private final TermWithoutRelationshipsJsonParser responseParser;
 
     private OntologyNameServiceAsync ontologyNameService;
@@ -45,6 +48,16 @@ public class TermServiceImplementation extends AbstractWebResourceService
 
         this.responseParser = responseParser;
         this.ontologyNameService = ontologyNameService;
+        this.batchLoader = new ConceptBatchLoader(ontologyNameService) {
+            @Override
+            protected void loadConcept(String ontologyId,
+                    String conceptFullId, String ontologyName,
+                    AsyncCallback<Resource> callback) {
+
+                fetchUrl(callback, buildUrl(ontologyId, conceptFullId),
+                        createTransformer(ontologyId, ontologyName));
+            }
+        };
     }
 
     protected String buildUrl(String ontologyId, String conceptFullId) {
@@ -54,6 +67,27 @@ public class TermServiceImplementation extends AbstractWebResourceService
                 .uriParameter("conceptid", conceptFullId).toString();
     }
 
+    private Transformer<String, Resource> createTransformer(
+            final String ontologyId, final String ontologyName) {
+
+        return new Transformer<String, Resource>() {
+            @Override
+            public Resource transform(String value) throws Exception {
+                Resource resource = responseParser.parseConcept(ontologyId,
+                        value);
+                resource.putValue(Concept.CONCEPT_ONTOLOGY_NAME, ontologyName);
+                return resource;
+            }
+        };
+    }
+
+    @Override
+    public void getBasicInformation(Iterable<String> conceptUris,
+            BatchCallback<Resource> callback) {
+
+        batchLoader.load(conceptUris, callback);
+    }
+
     @Override
     public void getBasicInformation(final String ontologyId,
             String conceptFullId, final AsyncCallback<Resource> callback) {
@@ -75,20 +109,9 @@ public class TermServiceImplementation extends AbstractWebResourceService
                     }
 
                     @Override
-                    public void runOnSuccess(final String ontologyName) {
+                    public void runOnSuccess(String ontologyName) {
                         fetchUrl(callback, url,
-                                new Transformer<String, Resource>() {
-                                    @Override
-                                    public Resource transform(String value)
-                                            throws Exception {
-                                        Resource resource = responseParser
-                                                .parseConcept(ontologyId, value);
-                                        resource.putValue(
-                                                Concept.CONCEPT_ONTOLOGY_NAME,
-                                                ontologyName);
-                                        return resource;
-                                    }
-                                });
+                                createTransformer(ontologyId, ontologyName));
                     }
 
                 });
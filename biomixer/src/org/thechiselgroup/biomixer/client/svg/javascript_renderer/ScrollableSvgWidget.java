@@ -18,6 +18,9 @@ package org.thechiselgroup.biomixer.client.svg.javascript_renderer;
 import com.google.gwt.dom.client.Style;
 import com.google.gwt.dom.client.Style.Overflow;
 import com.google.gwt.dom.client.Style.Unit;
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
+import com.google.gwt.event.shared.HandlerRegistration;
 import com.google.gwt.user.client.DOM;
 import com.google.gwt.user.client.Element;
 import com.google.gwt.user.client.ui.Widget;
@@ -66,6 +69,10 @@ public class ScrollableSvgWidget extends Widget {
         checkIfScrollbarsNeeded();
     }
 
+    public HandlerRegistration addScrollHandler(ScrollHandler handler) {
+        return addDomHandler(handler, ScrollEvent.getType());
+    }
+
     public void checkIfScrollbarsNeeded() {
         if (getDisplayableHeight() < scrollableHeight
                 || getDisplayableWidth() < scrollableWidth) {
@@ -80,7 +87,7 @@ public class ScrollableSvgWidget extends Widget {
      * @return the height available for display. Excess content height should be
      *         accessible through scrolling.
      */
-    private int getDisplayableHeight() {
+    public int getDisplayableHeight() {
         return outerWrapper.getOffsetHeight();
     }
 
@@ -89,7 +96,7 @@ public class ScrollableSvgWidget extends Widget {
      * @return the width available for display. Excess content width should be
      *         accessible through scrolling.
      */
-    private int getDisplayableWidth() {
+    public int getDisplayableWidth() {
         return outerWrapper.getOffsetWidth();
     }
 
@@ -97,6 +104,24 @@ public class ScrollableSvgWidget extends Widget {
         return innerWrapper;
     }
 
+    /**
+     * 
+     * @return the horizontal offset of the visible area within the scrollable
+     *         content.
+     */
+    public int getScrollLeft() {
+        return outerWrapper.getScrollLeft();
+    }
+
+    /**
+     * 
+     * @return the vertical offset of the visible area within the scrollable
+     *         content.
+     */
+    public int getScrollTop() {
+        return outerWrapper.getScrollTop();
+    }
+
     /**
      * Updates the height of the inner wrapping div around the SVG document.
      * 
@@ -42,6 +42,7 @@ import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactor
 import org.thechiselgroup.biomixer.client.core.util.collections.Delta;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightCollection;
 import org.thechiselgroup.biomixer.client.core.util.executor.GwtDelayedExecutor;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchScheduler;
 import org.thechiselgroup.biomixer.client.core.visualization.model.AbstractViewContentDisplay;
 import org.thechiselgroup.biomixer.client.core.visualization.model.Slot;
 import org.thechiselgroup.biomixer.client.core.visualization.model.ViewContentDisplayCallback;
@@ -53,11 +54,13 @@ import org.thechiselgroup.biomixer.client.core.visualization.model.extensions.Re
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.circle.CircleLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BarnesHutNetForceCalculator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
-import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.CompositeForceCalculator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceDirectedLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.MultilevelForceDirectedLayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.HorizontalTreeLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.LayeredTreeLayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree.VerticalTreeLayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.svg_widget.GraphDisplayController;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.GraphDisplay;
@@ -102,6 +105,7 @@ public class Graph extends AbstractViewContentDisplay implements
 
         public DefaultDisplay(int width, int height, ErrorHandler errorHandler) {
             super(width, height, errorHandler);
+            setVirtualized(true);
         }
 
     }
@@ -235,6 +239,8 @@ public class Graph extends AbstractViewContentDisplay implements
 
     private final ResourceManager resourceManager;
 
+    private final UrlFetchScheduler urlFetchScheduler;
+
     private final UnionResourceSet nodeResources = new UnionResourceSet(
             new DefaultResourceSet());
 
@@ -316,7 +322,7 @@ public class Graph extends AbstractViewContentDisplay implements
             ResourceManager resourceManager,
             ResourceCategorizer resourceCategorizer,
             ArcTypeProvider arcStyleProvider, GraphExpansionRegistry registry,
-            ErrorHandler errorHandler) {
+            ErrorHandler errorHandler, UrlFetchScheduler urlFetchScheduler) {
 
         assert display != null;
         assert commandManager != null;
@@ -325,6 +331,7 @@ public class Graph extends AbstractViewContentDisplay implements
         assert arcStyleProvider != null;
         assert registry != null;
         assert errorHandler != null;
+        assert urlFetchScheduler != null;
 
         this.arcStyleProvider = arcStyleProvider;
         this.resourceCategorizer = resourceCategorizer;
@@ -336,6 +343,7 @@ public class Graph extends AbstractViewContentDisplay implements
         this.commandManager = commandManager;
         this.resourceManager = resourceManager;
         this.registry = registry;
+        this.urlFetchScheduler = urlFetchScheduler;
 
         /*
          * we init the arc type containers early so they are available for UI
@@ -520,13 +528,28 @@ public class Graph extends AbstractViewContentDisplay implements
         actions.add(new GraphLayoutAction(GraphLayouts.VERTICAL_TREE_LAYOUT,
                 new VerticalTreeLayoutAlgorithm(true, errorHandler,
                         nodeAnimator)));
+        actions.add(new GraphLayoutAction(GraphLayouts.LAYERED_TREE_LAYOUT,
+                new LayeredTreeLayoutAlgorithm(false, errorHandler,
+                        nodeAnimator)));
+        ForceDirectedLayoutAlgorithm forceDirectedLayout = new ForceDirectedLayoutAlgorithm(
+                new BoundsAwareAttractionCalculator(
+                        graphDisplay.getLayoutGraph()),
+                new BoundsAwareRepulsionCalculator(
+                        graphDisplay.getLayoutGraph()),
+                BarnesHutNetForceCalculator.DEFAULT_THETA, 0.9, nodeAnimator,
+                new GwtDelayedExecutor(), errorHandler);
+        forceDirectedLayout
+                .setFrameBudget(ForceDirectedLayoutAlgorithm.DEFAULT_FRAME_BUDGET);
+        forceDirectedLayout.setIncremental(true);
         actions.add(new GraphLayoutAction(GraphLayouts.FORCE_DIRECTED_LAYOUT,
-                new ForceDirectedLayoutAlgorithm(new CompositeForceCalculator(
-                        new BoundsAwareAttractionCalculator(graphDisplay
-                                .getLayoutGraph()),
-                        new BoundsAwareRepulsionCalculator(graphDisplay
-                                .getLayoutGraph())), 0.9, nodeAnimator,
-                        new GwtDelayedExecutor(), errorHandler)));
+                forceDirectedLayout));
+        MultilevelForceDirectedLayoutAlgorithm multilevelForceDirectedLayout = new MultilevelForceDirectedLayoutAlgorithm(
+                nodeAnimator, new GwtDelayedExecutor(), errorHandler);
+        multilevelForceDirectedLayout
+                .setFrameBudget(ForceDirectedLayoutAlgorithm.DEFAULT_FRAME_BUDGET);
+        actions.add(new GraphLayoutAction(
+                GraphLayouts.MULTILEVEL_FORCE_DIRECTED_LAYOUT,
+                multilevelForceDirectedLayout));
 
         VerticalPanel layoutPanel = new VerticalPanel();
         for (final ViewContentDisplayAction action : actions) {
@@ -635,6 +658,9 @@ public class Graph extends AbstractViewContentDisplay implements
             arcItemContainer.removeVisualItem(visualItem);
         }
         graphDisplay.removeNode(getNode(visualItem));
+
+        /* neighbourhood requests for removed nodes are no longer needed */
+        urlFetchScheduler.cancel(visualItem);
     }
 
     @Override
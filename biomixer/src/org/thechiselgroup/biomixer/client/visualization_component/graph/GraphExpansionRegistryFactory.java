@@ -5,6 +5,8 @@ import org.thechiselgroup.biomixer.client.Mapping;
 import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
 import org.thechiselgroup.biomixer.client.core.resources.ResourceManager;
 import org.thechiselgroup.biomixer.client.core.ui.dialog.DialogManager;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchPriority;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchScheduler;
 import org.thechiselgroup.biomixer.client.graph.AutomaticConceptExpander;
 import org.thechiselgroup.biomixer.client.graph.ConceptConceptNeighbourhoodExpander;
 import org.thechiselgroup.biomixer.client.graph.ConceptConceptNeighbourhoodLoader;
@@ -36,24 +38,34 @@ public class GraphExpansionRegistryFactory {
     @Inject
     private TermServiceAsync termService;
 
+    @Inject
+    private UrlFetchScheduler urlFetchScheduler;
+
+    private GraphNodeExpander background(GraphNodeExpander expander) {
+        return new PrioritizedGraphNodeExpander(expander,
+                UrlFetchPriority.BACKGROUND, urlFetchScheduler);
+    }
+
     public GraphExpansionRegistry createRegistry(ErrorHandler errorHandler) {
         DefaultGraphExpansionRegistry registry = new DefaultGraphExpansionRegistry();
 
         registry.putAutomaticExpander(Concept.RESOURCE_URI_PREFIX,
-                new AutomaticConceptExpander(
+                background(new AutomaticConceptExpander(
                         new ConceptMappingNeighbourhoodLoader(mappingService,
                                 resourceManager, errorHandler),
                         new ConceptConceptNeighbourhoodLoader(errorHandler,
-                                resourceManager, conceptNeighbourhoodService)));
+                                resourceManager,
+                                conceptNeighbourhoodService))));
 
         registry.putNodeMenuEntry(Concept.RESOURCE_URI_PREFIX, "Concepts",
-                new ConceptConceptNeighbourhoodExpander(errorHandler,
-                        resourceManager, conceptNeighbourhoodService,
-                        dialogManager));
+                interactive(new ConceptConceptNeighbourhoodExpander(
+                        errorHandler, resourceManager,
+                        conceptNeighbourhoodService, dialogManager)));
 
         registry.putNodeMenuEntry(Concept.RESOURCE_URI_PREFIX, "Mappings",
-                new ConceptMappingNeighbourhoodExpander(mappingService,
-                        errorHandler, resourceManager, termService));
+                interactive(new ConceptMappingNeighbourhoodExpander(
+                        mappingService, errorHandler, resourceManager,
+                        termService)));
 
         registry.putNodeMenuEntry(Mapping.RESOURCE_URI_PREFIX, "Concepts",
                 new MappingExpander(resourceManager));
@@ -61,4 +73,9 @@ public class GraphExpansionRegistryFactory {
         return registry;
     }
 
+    private GraphNodeExpander interactive(GraphNodeExpander expander) {
+        return new PrioritizedGraphNodeExpander(expander,
+                UrlFetchPriority.INTERACTIVE, urlFetchScheduler);
+    }
+
 }
\ No newline at end of file
@@ -19,6 +19,7 @@ import org.thechiselgroup.biomixer.client.core.command.CommandManager;
 import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
 import org.thechiselgroup.biomixer.client.core.resources.ResourceCategorizer;
 import org.thechiselgroup.biomixer.client.core.resources.ResourceManager;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchScheduler;
 import org.thechiselgroup.biomixer.client.core.visualization.model.ViewContentDisplay;
 import org.thechiselgroup.biomixer.client.core.visualization.model.initialization.ViewContentDisplayFactory;
 
@@ -42,6 +43,9 @@ public class GraphViewContentDisplayFactory implements
     @Inject
     private GraphExpansionRegistryFactory registryFactory;
 
+    @Inject
+    private UrlFetchScheduler urlFetchScheduler;
+
     @Inject
     public GraphViewContentDisplayFactory() {
     }
@@ -53,7 +57,7 @@ public class GraphViewContentDisplayFactory implements
 
         return new Graph(new Graph.DefaultDisplay(errorHandler),
                 commandManager, resourceManager, resourceCategorizer,
-                arcStyleProvider, registry, errorHandler);
+                arcStyleProvider, registry, errorHandler, urlFetchScheduler);
     }
 
     @Override
@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph;
+
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchPriority;
+import org.thechiselgroup.biomixer.client.core.util.url.UrlFetchScheduler;
+import org.thechiselgroup.biomixer.client.core.visualization.model.VisualItem;
+
+/**
+ * Runs another expander so that the URL fetches it issues get a fixed priority
+ * and are owned by the expanded visual item (see {@link UrlFetchScheduler}).
+ */
+public class PrioritizedGraphNodeExpander implements GraphNodeExpander {
+
+    private final GraphNodeExpander delegate;
+
+    private final UrlFetchPriority priority;
+
+    private final UrlFetchScheduler scheduler;
+
+    public PrioritizedGraphNodeExpander(GraphNodeExpander delegate,
+            UrlFetchPriority priority, UrlFetchScheduler scheduler) {
+
+        assert delegate != null;
+        assert priority != null;
+        assert scheduler != null;
+
+        this.delegate = delegate;
+        this.priority = priority;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public void expand(final VisualItem visualItem,
+            final GraphNodeExpansionCallback expansionCallback) {
+
+        scheduler.runWithPriority(priority, visualItem, new Runnable() {
+            @Override
+            public void run() {
+                delegate.expand(visualItem, expansionCallback);
+            }
+        });
+    }
+
+}
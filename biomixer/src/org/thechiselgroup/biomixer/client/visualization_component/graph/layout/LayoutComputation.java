@@ -32,6 +32,16 @@ public interface LayoutComputation {
      */
     HandlerRegistration addEventHandler(LayoutComputationFinishedHandler handler);
 
+    /**
+     * Adds an event handler that is notified after each frame in which the
+     * computation made progress.
+     * 
+     * @return handler registration that can be used to de-register the event
+     *         handler.
+     */
+    HandlerRegistration addProgressHandler(
+            LayoutComputationProgressHandler handler);
+
     /**
      * @return <code>true</code> when the layout algorithm is still calculating
      *         the layout (e.g. if it is a continuous layout algorithm such as
@@ -0,0 +1,72 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
+
+import java.util.EventObject;
+
+/**
+ * Fired by a {@link LayoutComputation} after each frame in which it computed
+ * (parts of) iterations. A frame is a single callback from the executor that
+ * drives the computation.
+ */
+public class LayoutComputationProgressEvent extends EventObject {
+
+    private static final long serialVersionUID = 1L;
+
+    private final int iterationsInFrame;
+
+    private final long frameDurationInMillis;
+
+    private final int totalIterations;
+
+    public LayoutComputationProgressEvent(LayoutComputation computation,
+            int iterationsInFrame, int totalIterations,
+            long frameDurationInMillis) {
+
+        super(computation);
+
+        this.iterationsInFrame = iterationsInFrame;
+        this.totalIterations = totalIterations;
+        this.frameDurationInMillis = frameDurationInMillis;
+    }
+
+    public LayoutComputation getComputation() {
+        return (LayoutComputation) source;
+    }
+
+    /**
+     * @return time spent computing during the frame
+     */
+    public long getFrameDurationInMillis() {
+        return frameDurationInMillis;
+    }
+
+    /**
+     * @return number of iterations that were completed during the frame. Can
+     *         be 0 if the frame ran out of time in the middle of an iteration.
+     */
+    public int getIterationsInFrame() {
+        return iterationsInFrame;
+    }
+
+    /**
+     * @return number of iterations completed since the computation was started
+     */
+    public int getTotalIterations() {
+        return totalIterations;
+    }
+
+}
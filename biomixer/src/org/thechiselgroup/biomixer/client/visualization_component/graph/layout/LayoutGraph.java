@@ -74,6 +74,22 @@ public interface LayoutGraph {
      */
     List<LayoutNodeType> getNodeTypes();
 
+    /**
+     * The same snapshot is returned until the content of the graph changes,
+     * so layout computations can share it.
+     * 
+     * @return an indexed snapshot of the nodes and arcs of this graph
+     */
+    LayoutGraphSnapshot getSnapshot();
+
+    /**
+     * The index follows the movements of the nodes and is updated when nodes
+     * are added or removed.
+     * 
+     * @return a spatial index over the bounds of the nodes of this graph
+     */
+    SpatialNodeIndex getSpatialIndex();
+
     /**
      * 
      * @return all nodes on the graph which have not been anchored.
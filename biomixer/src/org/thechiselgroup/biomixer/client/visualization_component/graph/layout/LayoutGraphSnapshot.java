@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
+
+/**
+ * <p>
+ * Indexed view of the nodes and arcs of a {@link LayoutGraph}. Nodes and arcs
+ * are numbered by their position in {@link LayoutGraph#getAllNodes()} and
+ * {@link LayoutGraph#getAllArcs()}, and the incoming and outgoing arcs of
+ * each node are stored in compressed sparse row format, so that layout
+ * algorithms can work on <code>int</code> ordinals and primitive arrays
+ * instead of building their own maps.
+ * </p>
+ * <p>
+ * The structure is immutable: a graph hands out the same snapshot (see
+ * {@link LayoutGraph#getSnapshot()}) until its content changes, which is
+ * detected by comparing {@link #getVersion()} or the snapshot instances.
+ * Node positions and anchoring change without content changes, so they are
+ * captured when the snapshot is created and refreshed with
+ * {@link #readNodeStates()}.
+ * </p>
+ */
+public class LayoutGraphSnapshot {
+
+    private static boolean isBitSet(int[] bits, int bit) {
+        return (bits[bit >> 5] & (1 << (bit & 31))) != 0;
+    }
+
+    private static void setBit(int[] bits, int bit, boolean value) {
+        if (value) {
+            bits[bit >> 5] |= 1 << (bit & 31);
+        } else {
+            bits[bit >> 5] &= ~(1 << (bit & 31));
+        }
+    }
+
+    private final int version;
+
+    private final LayoutNode[] nodes;
+
+    private final LayoutArc[] arcs;
+
+    private final Map<LayoutNode, Integer> ordinals;
+
+    /*
+     * Ordinals of the source and target node of each arc, -1 if the node is
+     * not on the graph.
+     */
+    private final int[] arcSources;
+
+    private final int[] arcTargets;
+
+    /*
+     * Index of the type of each arc in LayoutGraph.getArcTypes().
+     */
+    private final int[] arcTypes;
+
+    private final int[] directedArcs;
+
+    /*
+     * The outgoing arcs of node i are outgoingArcs[outgoingOffsets[i]] to
+     * outgoingArcs[outgoingOffsets[i + 1] - 1], the same for the incoming arcs.
+     */
+    private final int[] outgoingOffsets;
+
+    private final int[] outgoingArcs;
+
+    private final int[] incomingOffsets;
+
+    private final int[] incomingArcs;
+
+    /*
+     * Bit t is set if the node has an arc of type t (types from 31 on share the
+     * last bit).
+     */
+    private final int[] arcTypeMasks;
+
+    private final int[] anchoredNodes;
+
+    private final double[] centreX;
+
+    private final double[] centreY;
+
+    public LayoutGraphSnapshot(LayoutGraph graph, int version) {
+        this.version = version;
+
+        List<LayoutNode> allNodes = graph.getAllNodes();
+        List<LayoutArc> allArcs = graph.getAllArcs();
+        int nodeCount = allNodes.size();
+        int arcCount = allArcs.size();
+        nodes = allNodes.toArray(new LayoutNode[nodeCount]);
+        arcs = allArcs.toArray(new LayoutArc[arcCount]);
+
+        ordinals = new HashMap<LayoutNode, Integer>();
+        for (int i = 0; i < nodeCount; i++) {
+            ordinals.put(nodes[i], Integer.valueOf(i));
+        }
+
+        Map<LayoutArcType, Integer> typeIndices = new HashMap<LayoutArcType, Integer>();
+        List<LayoutArcType> allArcTypes = graph.getArcTypes();
+        for (int i = 0; i < allArcTypes.size(); i++) {
+            typeIndices.put(allArcTypes.get(i), Integer.valueOf(i));
+        }
+
+        arcSources = new int[arcCount];
+        arcTargets = new int[arcCount];
+        arcTypes = new int[arcCount];
+        directedArcs = new int[(arcCount + 31) >> 5];
+        arcTypeMasks = new int[nodeCount];
+        outgoingOffsets = new int[nodeCount + 1];
+        incomingOffsets = new int[nodeCount + 1];
+        for (int i = 0; i < arcCount; i++) {
+            LayoutArc arc = arcs[i];
+            arcSources[i] = getOrdinal(arc.getSourceNode());
+            arcTargets[i] = getOrdinal(arc.getTargetNode());
+            Integer typeIndex = typeIndices.get(arc.getType());
+            arcTypes[i] = typeIndex != null ? typeIndex.intValue() : -1;
+            setBit(directedArcs, i, arc.isDirected());
+            if (arcSources[i] == -1 || arcTargets[i] == -1) {
+                continue;
+            }
+
+            outgoingOffsets[arcSources[i] + 1]++;
+            incomingOffsets[arcTargets[i] + 1]++;
+            if (arcTypes[i] != -1) {
+                int typeBit = 1 << Math.min(arcTypes[i], 31);
+                arcTypeMasks[arcSources[i]] |= typeBit;
+                arcTypeMasks[arcTargets[i]] |= typeBit;
+            }
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            outgoingOffsets[i + 1] += outgoingOffsets[i];
+            incomingOffsets[i + 1] += incomingOffsets[i];
+        }
+
+        outgoingArcs = new int[outgoingOffsets[nodeCount]];
+        incomingArcs = new int[incomingOffsets[nodeCount]];
+        int[] outgoingFill = new int[nodeCount];
+        int[] incomingFill = new int[nodeCount];
+        for (int i = 0; i < arcCount; i++) {
+            int source = arcSources[i];
+            int target = arcTargets[i];
+            if (source == -1 || target == -1) {
+                continue;
+            }
+            outgoingArcs[outgoingOffsets[source] + outgoingFill[source]++] = i;
+            incomingArcs[incomingOffsets[target] + incomingFill[target]++] = i;
+        }
+
+        anchoredNodes = new int[(nodeCount + 31) >> 5];
+        centreX = new double[nodeCount];
+        centreY = new double[nodeCount];
+        readNodeStates();
+    }
+
+    public LayoutArc getArc(int arc) {
+        return arcs[arc];
+    }
+
+    public int getArcCount() {
+        return arcs.length;
+    }
+
+    /**
+     * @return the ordinal of the source node of the arc, -1 if the source
+     *         node is not on the graph
+     */
+    public int getArcSource(int arc) {
+        return arcSources[arc];
+    }
+
+    /**
+     * @return the ordinal of the target node of the arc, -1 if the target
+     *         node is not on the graph
+     */
+    public int getArcTarget(int arc) {
+        return arcTargets[arc];
+    }
+
+    /**
+     * @return the index of the type of the arc in
+     *         {@link LayoutGraph#getArcTypes()}
+     */
+    public int getArcType(int arc) {
+        return arcTypes[arc];
+    }
+
+    /**
+     * @return a bit mask with bit <code>t</code> set if the node has an
+     *         incoming or outgoing arc whose type has the index <code>t</code>
+     *         (types with an index of 31 or more share the bit 31)
+     */
+    public int getArcTypeMask(int node) {
+        return arcTypeMasks[node];
+    }
+
+    /**
+     * @return the centre x coordinate of the node at the time of the last
+     *         {@link #readNodeStates()}
+     */
+    public double getCentreX(int node) {
+        return centreX[node];
+    }
+
+    /**
+     * @return the centre y coordinate of the node at the time of the last
+     *         {@link #readNodeStates()}
+     */
+    public double getCentreY(int node) {
+        return centreY[node];
+    }
+
+    /**
+     * @return the ordinal of the <code>index</code>th arc that points to the
+     *         node
+     */
+    public int getIncomingArc(int node, int index) {
+        return incomingArcs[incomingOffsets[node] + index];
+    }
+
+    public int getIncomingArcCount(int node) {
+        return incomingOffsets[node + 1] - incomingOffsets[node];
+    }
+
+    public LayoutNode getNode(int node) {
+        return nodes[node];
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the ordinal of the node, -1 if the node is not on the graph
+     */
+    public int getOrdinal(LayoutNode node) {
+        Integer ordinal = ordinals.get(node);
+        return ordinal != null ? ordinal.intValue() : -1;
+    }
+
+    /**
+     * @return the ordinal of the <code>index</code>th arc that starts at the
+     *         node
+     */
+    public int getOutgoingArc(int node, int index) {
+        return outgoingArcs[outgoingOffsets[node] + index];
+    }
+
+    public int getOutgoingArcCount(int node) {
+        return outgoingOffsets[node + 1] - outgoingOffsets[node];
+    }
+
+    /**
+     * @return the content version of the graph this snapshot was taken of
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the anchoring of the node at the time of the last
+     *         {@link #readNodeStates()}
+     */
+    public boolean isAnchored(int node) {
+        return isBitSet(anchoredNodes, node);
+    }
+
+    public boolean isDirected(int arc) {
+        return isBitSet(directedArcs, arc);
+    }
+
+    /**
+     * Reads the current positions and anchoring of the nodes.
+     */
+    public void readNodeStates() {
+        for (int i = 0; i < nodes.length; i++) {
+            LayoutNode node = nodes[i];
+            SizeDouble size = node.getSize();
+            centreX[i] = node.getX() + size.getWidth() / 2;
+            centreY[i] = node.getY() + size.getHeight() / 2;
+            setBit(anchoredNodes, i, node.isAnchored());
+        }
+    }
+
+}
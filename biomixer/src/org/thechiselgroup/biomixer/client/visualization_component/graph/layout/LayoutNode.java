@@ -17,6 +17,7 @@ package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
 
 import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
 import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
+import org.thechiselgroup.biomixer.client.core.util.animation.Movable;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightList;
 
 /**
@@ -26,7 +27,13 @@ import org.thechiselgroup.biomixer.client.core.util.collections.LightweightList;
  * 
  * @author Lars Grammel
  */
-public interface LayoutNode {
+public interface LayoutNode extends Movable {
+
+    /**
+     * Adds a listener that is notified after the position of the node has
+     * changed.
+     */
+    void addMovedListener(LayoutNodeMovedListener listener);
 
     /**
      * @return the node's centre point
@@ -122,6 +129,8 @@ public interface LayoutNode {
      */
     boolean isConnectedTo(LayoutNode otherNode);
 
+    void removeMovedListener(LayoutNodeMovedListener listener);
+
     /**
      * 
      * @param anchored
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
+
+/**
+ * Uniform grid over the bounds of layout nodes. A node is stored in every cell
+ * its bounds overlap, so point and area queries only look at the nodes in the
+ * cells they cover instead of at all nodes. The index follows the nodes it
+ * contains: it is registered as a {@link LayoutNodeMovedListener} on them and
+ * moves a node to its new cells when it has moved.
+ * 
+ * The outer bounds of the nodes are cached and only recomputed when a node
+ * that was on the border moves inwards or is removed.
+ * 
+ * Nodes without a position (<code>NaN</code> coordinates) are kept in the
+ * index but are not found by any query.
+ */
+public class SpatialNodeIndex implements LayoutNodeMovedListener {
+
+    private static class Entry {
+
+        private double leftX;
+
+        private double topY;
+
+        private double rightX;
+
+        private double bottomY;
+
+        private boolean placed = false;
+
+        private int minColumn;
+
+        private int minRow;
+
+        private int maxColumn;
+
+        private int maxRow;
+
+        /*
+         * Number of the last query that reported the node, so that nodes in
+         * several cells are only reported once.
+         */
+        private int queryNumber = 0;
+
+    }
+
+    /**
+     * Default width and height of a grid cell, which is in the range of the
+     * size of a rendered node.
+     */
+    public static final double DEFAULT_CELL_SIZE = 100;
+
+    private static int getCellKey(int column, int row) {
+        return column * 65521 + row;
+    }
+
+    private final double cellSize;
+
+    private final Map<LayoutNode, Entry> entries = new HashMap<LayoutNode, Entry>();
+
+    /*
+     * Cells are hashed by their column and row. Different cells can share a
+     * key, which only adds candidates that are filtered out by the bounds
+     * check of the queries.
+     */
+    private final Map<Integer, List<LayoutNode>> cells = new HashMap<Integer, List<LayoutNode>>();
+
+    private int queryNumber = 0;
+
+    private boolean boundsValid = true;
+
+    private double minX = Double.POSITIVE_INFINITY;
+
+    private double minY = Double.POSITIVE_INFINITY;
+
+    private double maxX = Double.NEGATIVE_INFINITY;
+
+    private double maxY = Double.NEGATIVE_INFINITY;
+
+    public SpatialNodeIndex() {
+        this(DEFAULT_CELL_SIZE);
+    }
+
+    public SpatialNodeIndex(double cellSize) {
+        assert cellSize > 0;
+        this.cellSize = cellSize;
+    }
+
+    /**
+     * Adds the node to the index and starts following its movements.
+     */
+    public void add(LayoutNode node) {
+        assert !entries.containsKey(node);
+
+        Entry entry = new Entry();
+        entries.put(node, entry);
+        place(node, entry);
+        node.addMovedListener(this);
+    }
+
+    private void addToCells(LayoutNode node, Entry entry) {
+        int maxColumn = entry.maxColumn;
+        int maxRow = entry.maxRow;
+        for (int column = entry.minColumn; column <= maxColumn; column++) {
+            for (int row = entry.minRow; row <= maxRow; row++) {
+                Integer key = getCellKey(column, row);
+                List<LayoutNode> cell = cells.get(key);
+                if (cell == null) {
+                    cell = new ArrayList<LayoutNode>(2);
+                    cells.put(key, cell);
+                }
+                cell.add(node);
+            }
+        }
+    }
+
+    public boolean contains(LayoutNode node) {
+        return entries.containsKey(node);
+    }
+
+    private void extendBounds(Entry entry) {
+        minX = Math.min(minX, entry.leftX);
+        minY = Math.min(minY, entry.topY);
+        maxX = Math.max(maxX, entry.rightX);
+        maxY = Math.max(maxY, entry.bottomY);
+    }
+
+    /**
+     * @return the largest bottom y value of the nodes, or
+     *         <code>Double.NEGATIVE_INFINITY</code> if no node has a position
+     */
+    public double getBottomY() {
+        validateBounds();
+        return maxY;
+    }
+
+    private int getCell(double coordinate) {
+        return (int) Math.floor(coordinate / cellSize);
+    }
+
+    /**
+     * @return the smallest left x value of the nodes, or
+     *         <code>Double.POSITIVE_INFINITY</code> if no node has a position
+     */
+    public double getLeftX() {
+        validateBounds();
+        return minX;
+    }
+
+    public int getNodeCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return the nodes whose bounds contain the point
+     */
+    public List<LayoutNode> getNodesAt(double x, double y) {
+        return getNodesIntersecting(x, y, 0, 0);
+    }
+
+    /**
+     * @return the nodes whose bounds intersect the rectangle (touching counts
+     *         as intersecting)
+     */
+    public List<LayoutNode> getNodesIntersecting(double leftX, double topY,
+            double width, double height) {
+
+        List<LayoutNode> result = new ArrayList<LayoutNode>();
+        double rightX = leftX + width;
+        double bottomY = topY + height;
+        queryNumber++;
+
+        int maxColumn = getCell(rightX);
+        int maxRow = getCell(bottomY);
+        for (int column = getCell(leftX); column <= maxColumn; column++) {
+            for (int row = getCell(topY); row <= maxRow; row++) {
+                List<LayoutNode> cell = cells.get(getCellKey(column, row));
+                if (cell == null) {
+                    continue;
+                }
+                for (LayoutNode node : cell) {
+                    Entry entry = entries.get(node);
+                    if (entry.queryNumber != queryNumber
+                            && entry.leftX <= rightX && entry.rightX >= leftX
+                            && entry.topY <= bottomY && entry.bottomY >= topY) {
+                        entry.queryNumber = queryNumber;
+                        result.add(node);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the largest right x value of the nodes, or
+     *         <code>Double.NEGATIVE_INFINITY</code> if no node has a position
+     */
+    public double getRightX() {
+        validateBounds();
+        return maxX;
+    }
+
+    /**
+     * @return the smallest top y value of the nodes, or
+     *         <code>Double.POSITIVE_INFINITY</code> if no node has a position
+     */
+    public double getTopY() {
+        validateBounds();
+        return minY;
+    }
+
+    private boolean isOnBorder(Entry entry) {
+        return entry.leftX == minX || entry.topY == minY
+                || entry.rightX == maxX || entry.bottomY == maxY;
+    }
+
+    @Override
+    public void onNodeMoved(LayoutNode node) {
+        Entry entry = entries.get(node);
+        if (entry == null) {
+            return;
+        }
+
+        if (entry.placed && boundsValid && isOnBorder(entry)) {
+            boundsValid = false;
+        }
+
+        int minColumn = entry.minColumn;
+        int minRow = entry.minRow;
+        int maxColumn = entry.maxColumn;
+        int maxRow = entry.maxRow;
+        boolean wasPlaced = entry.placed;
+        readBounds(node, entry);
+        if (wasPlaced && entry.placed && minColumn == entry.minColumn
+                && minRow == entry.minRow && maxColumn == entry.maxColumn
+                && maxRow == entry.maxRow) {
+            if (boundsValid) {
+                extendBounds(entry);
+            }
+            return;
+        }
+
+        if (wasPlaced) {
+            removeFromCells(node, minColumn, minRow, maxColumn, maxRow);
+        }
+        if (entry.placed) {
+            addToCells(node, entry);
+            if (boundsValid) {
+                extendBounds(entry);
+            }
+        }
+    }
+
+    private void place(LayoutNode node, Entry entry) {
+        readBounds(node, entry);
+        if (entry.placed) {
+            addToCells(node, entry);
+            if (boundsValid) {
+                extendBounds(entry);
+            }
+        }
+    }
+
+    private void readBounds(LayoutNode node, Entry entry) {
+        SizeDouble size = node.getSize();
+        entry.leftX = node.getX();
+        entry.topY = node.getY();
+        entry.rightX = entry.leftX + size.getWidth();
+        entry.bottomY = entry.topY + size.getHeight();
+        entry.placed = !Double.isNaN(entry.leftX) && !Double.isNaN(entry.topY);
+        if (entry.placed) {
+            entry.minColumn = getCell(entry.leftX);
+            entry.minRow = getCell(entry.topY);
+            entry.maxColumn = getCell(entry.rightX);
+            entry.maxRow = getCell(entry.bottomY);
+        }
+    }
+
+    /**
+     * Removes the node from the index and stops following its movements.
+     */
+    public void remove(LayoutNode node) {
+        Entry entry = entries.remove(node);
+        if (entry == null) {
+            return;
+        }
+
+        node.removeMovedListener(this);
+        if (entry.placed) {
+            removeFromCells(node, entry.minColumn, entry.minRow,
+                    entry.maxColumn, entry.maxRow);
+            if (boundsValid && isOnBorder(entry)) {
+                boundsValid = false;
+            }
+        }
+    }
+
+    private void removeFromCells(LayoutNode node, int minColumn, int minRow,
+            int maxColumn, int maxRow) {
+        for (int column = minColumn; column <= maxColumn; column++) {
+            for (int row = minRow; row <= maxRow; row++) {
+                Integer key = getCellKey(column, row);
+                List<LayoutNode> cell = cells.get(key);
+                cell.remove(node);
+                if (cell.isEmpty()) {
+                    cells.remove(key);
+                }
+            }
+        }
+    }
+
+    private void validateBounds() {
+        if (boundsValid) {
+            return;
+        }
+
+        minX = Double.POSITIVE_INFINITY;
+        minY = Double.POSITIVE_INFINITY;
+        maxX = Double.NEGATIVE_INFINITY;
+        maxY = Double.NEGATIVE_INFINITY;
+        for (Entry entry : entries.values()) {
+            if (entry.placed) {
+                extendBounds(entry);
+            }
+        }
+        boundsValid = true;
+    }
+
+}
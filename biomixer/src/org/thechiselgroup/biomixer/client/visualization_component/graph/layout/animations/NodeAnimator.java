@@ -20,12 +20,15 @@ import java.util.Map;
 
 import org.thechiselgroup.biomixer.client.core.geometry.Point;
 import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
+import org.thechiselgroup.biomixer.client.core.util.animation.BatchedAnimationRunner;
 import org.thechiselgroup.biomixer.client.core.util.animation.NodeAnimation;
 import org.thechiselgroup.biomixer.client.core.util.animation.NodeAnimationFactory;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
 
 /**
- * Manages the animations of {@link LayoutNode}s.
+ * Manages the animations of {@link LayoutNode}s. Either creates a separate
+ * {@link NodeAnimation} for each movement, or delegates all movements to a
+ * {@link BatchedAnimationRunner} that moves the nodes from a single clock.
  * 
  * @author drusk
  * 
@@ -34,17 +37,37 @@ public class NodeAnimator {
 
     private NodeAnimationFactory nodeAnimationFactory;
 
+    private BatchedAnimationRunner batchedAnimationRunner;
+
     private Map<LayoutNode, NodeAnimation> currentAnimations = new HashMap<LayoutNode, NodeAnimation>();
 
+    public NodeAnimator(BatchedAnimationRunner batchedAnimationRunner) {
+        assert batchedAnimationRunner != null;
+        this.batchedAnimationRunner = batchedAnimationRunner;
+    }
+
     public NodeAnimator(NodeAnimationFactory nodeAnimationFactory) {
         this.nodeAnimationFactory = nodeAnimationFactory;
     }
 
     private void animateNodeTo(final LayoutNode node, double x, double y,
             int duration) {
+        if (batchedAnimationRunner != null) {
+            /*
+             * Retargets the running movement of the node, if there is one.
+             */
+            batchedAnimationRunner.animateTo(node, x, y, duration);
+            return;
+        }
+
         // 1. If the node has an animation running, cancel it.
         if (currentAnimations.containsKey(node)) {
-            currentAnimations.get(node).cancel();
+            currentAnimations.remove(node).cancel();
+        }
+
+        if (duration <= 0) {
+            node.setPosition(x, y);
+            return;
         }
 
         // 2. Create the new requested animation
@@ -67,7 +90,8 @@ public class NodeAnimator {
      *            the position to which the animation should bring the node
      * @param duration
      *            how long it should take for the node to reach the end location
-     *            (in milliseconds)
+     *            (in milliseconds). The node is moved right away if the
+     *            duration is 0.
      */
     public void animateNodeTo(LayoutNode node, Point location, int duration) {
         animateNodeTo(node, location.getX(), location.getY(), duration);
@@ -82,7 +106,8 @@ public class NodeAnimator {
      *            the position to which the animation should bring the node
      * @param duration
      *            how long it should take for the node to reach the end location
-     *            (in milliseconds)
+     *            (in milliseconds). The node is moved right away if the
+     *            duration is 0.
      */
     public void animateNodeTo(LayoutNode node, PointDouble location,
             int duration) {
@@ -25,6 +25,8 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.L
 
 public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm {
 
+    private int frameBudget = 0;
+
     @Override
     public LayoutComputation computeLayout(LayoutGraph graph) {
         return computeLayout(graph,
@@ -35,6 +37,7 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm {
     public LayoutComputation computeLayout(LayoutGraph graph,
             List<LayoutComputationFinishedHandler> handlers) {
         AbstractLayoutComputation computation = getLayoutComputation(graph);
+        computation.setFrameBudget(frameBudget);
         for (LayoutComputationFinishedHandler handler : handlers) {
             computation.addEventHandler(handler);
         }
@@ -45,4 +48,15 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm {
     protected abstract AbstractLayoutComputation getLayoutComputation(
             LayoutGraph graph);
 
+    /**
+     * Sets the frame budget (in milliseconds) of the computations created by
+     * this algorithm.
+     * 
+     * @see AbstractLayoutComputation#setFrameBudget(int)
+     */
+    public void setFrameBudget(int frameBudget) {
+        assert frameBudget >= 0;
+        this.frameBudget = frameBudget;
+    }
+
 }
@@ -24,6 +24,8 @@ import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputation;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputationFinishedEvent;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputationFinishedHandler;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputationProgressEvent;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutComputationProgressHandler;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
@@ -38,6 +40,15 @@ import com.google.web.bindery.event.shared.HandlerRegistration;
  * <p>
  * Subclasses just need to implement {@link #computeIteration()}.
  * </p>
+ * <p>
+ * By default, a single iteration is computed per executor callback (frame).
+ * If a frame budget is set (see {@link #setFrameBudget(int)}), iterations are
+ * computed until the budget is used up, and the computation resumes in the
+ * next frame. Subclasses with expensive iterations can check
+ * {@link #isFrameBudgetExhausted()} to split an iteration across frames.
+ * Nodes are not animated if a frame budget is set (see
+ * {@link #animateTo(LayoutNode, PointDouble, int)}).
+ * </p>
  * 
  * @author Lars Grammel
  */
@@ -46,6 +57,8 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
 
     private final List<LayoutComputationFinishedHandler> eventHandlers = new ArrayList<LayoutComputationFinishedHandler>();
 
+    private final List<LayoutComputationProgressHandler> progressHandlers = new ArrayList<LayoutComputationProgressHandler>();
+
     protected final LayoutGraph graph;
 
     private boolean running = true;
@@ -61,6 +74,16 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
 
     private NodeAnimator nodeAnimator;
 
+    /**
+     * Maximum time in milliseconds that is spent computing iterations in a
+     * single frame. 0 means that exactly one iteration is computed per frame.
+     */
+    private int frameBudget = 0;
+
+    private long frameDeadline;
+
+    private int totalIterations = 0;
+
     public AbstractLayoutComputation(LayoutGraph graph, Executor executor,
             ErrorHandler errorHandler, NodeAnimator nodeAnimator) {
 
@@ -90,8 +113,33 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
         };
     }
 
+    @Override
+    public HandlerRegistration addProgressHandler(
+            final LayoutComputationProgressHandler handler) {
+
+        assert handler != null;
+
+        progressHandlers.add(handler);
+
+        return new HandlerRegistration() {
+            @Override
+            public void removeHandler() {
+                progressHandlers.remove(handler);
+            }
+        };
+    }
+
+    /**
+     * Moves a node to <code>location</code> over <code>duration</code>
+     * milliseconds. If a frame budget is set, the node is moved right away
+     * instead: an animation would only start moving the node in the next
+     * frame, so the following iterations of the current frame would compute
+     * their forces from outdated positions. The movement between the frames
+     * then animates the layout.
+     */
     protected void animateTo(LayoutNode node, PointDouble location, int duration) {
-        nodeAnimator.animateNodeTo(node, location, duration);
+        nodeAnimator.animateNodeTo(node, location, frameBudget > 0 ? 0
+                : duration);
     }
 
     /**
@@ -101,7 +149,8 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
      * Splitting the algorithm into iterations helps maintaining a responsive UI
      * in single-threaded environments (e.g. JavaScript). The next iteration
      * will only be started if the computation has not been aborted in the
-     * meantime.
+     * meantime. If a frame budget is set, several iterations can be computed
+     * in the same frame.
      * 
      * @return true, if the algorithm will need more iterations to complete,
      *         false otherwise.
@@ -120,6 +169,54 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
         }
     }
 
+    private void fireProgressEvent(int iterationsInFrame,
+            long frameDurationInMillis) {
+        if (progressHandlers.isEmpty()) {
+            return;
+        }
+
+        LayoutComputationProgressEvent event = new LayoutComputationProgressEvent(
+                this, iterationsInFrame, totalIterations,
+                frameDurationInMillis);
+
+        for (LayoutComputationProgressHandler handler : progressHandlers) {
+            handler.onLayoutComputationProgress(event);
+        }
+    }
+
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    public int getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * @return number of iterations completed since the computation was started
+     */
+    public int getTotalIterations() {
+        return totalIterations;
+    }
+
+    /**
+     * @return <code>true</code> if a frame budget is set and the time for the
+     *         current frame is used up. Subclasses that split their iterations
+     *         into slices can use this to decide when to yield.
+     */
+    protected boolean isFrameBudgetExhausted() {
+        return frameBudget > 0 && getCurrentTimeMillis() >= frameDeadline;
+    }
+
+    /**
+     * @return <code>true</code> if the last call to {@link #computeIteration()}
+     *         yielded before the iteration was complete. Such calls are not
+     *         counted as iterations.
+     */
+    protected boolean isIterationInProgress() {
+        return false;
+    }
+
     @Override
     public boolean isRunning() {
         return running;
@@ -133,14 +230,20 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
     }
 
     /**
-     * Computes an iteration and schedules another iteration if needed. Fires
-     * the finished event once done. Should only be called once to trigger the
-     * layout calculation (further calls happen automatically).
+     * Computes as many iterations as fit into the frame budget and schedules
+     * the next frame if needed. Fires the finished event once done. Should
+     * only be called once to trigger the layout calculation (further calls
+     * happen automatically).
      */
     @Override
     public void run() {
         try {
-            if (running && !shouldStop && computeIteration()) {
+            boolean needsMoreIterations = false;
+            if (running && !shouldStop) {
+                needsMoreIterations = runFrame();
+            }
+
+            if (needsMoreIterations) {
                 executor.execute(this);
             } else {
                 fireFinishedEvent(null);
@@ -153,6 +256,43 @@ public abstract class AbstractLayoutComputation implements LayoutComputation,
         }
     }
 
+    /**
+     * Computes iterations until the computation is done, stopped, or the frame
+     * budget is used up. At least one (partial) iteration is always computed.
+     * 
+     * @return true, if more iterations are needed
+     */
+    private boolean runFrame() {
+        long frameStart = getCurrentTimeMillis();
+        frameDeadline = frameStart + frameBudget;
+
+        int iterationsInFrame = 0;
+        boolean needsMoreIterations;
+        do {
+            needsMoreIterations = computeIteration();
+            if (!isIterationInProgress()) {
+                iterationsInFrame++;
+            }
+        } while (needsMoreIterations && !shouldStop && frameBudget > 0
+                && !isFrameBudgetExhausted());
+
+        totalIterations += iterationsInFrame;
+        fireProgressEvent(iterationsInFrame, getCurrentTimeMillis()
+                - frameStart);
+
+        return needsMoreIterations;
+    }
+
+    /**
+     * Sets the time in milliseconds that can be spent computing iterations
+     * before control is returned to the browser. A budget of 0 (the default)
+     * computes exactly one iteration per frame.
+     */
+    public void setFrameBudget(int frameBudget) {
+        assert frameBudget >= 0;
+        this.frameBudget = frameBudget;
+    }
+
     @Override
     public void stop() {
         shouldStop = true;
@@ -16,14 +16,18 @@
 package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation;
 
 import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Set;
 
-import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.BoundsDouble;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphContentChangedEvent;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphContentChangedListener;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.SpatialNodeIndex;
 
 /**
  * Provides functionality common to all implementations of the
@@ -36,6 +40,35 @@ public abstract class AbstractLayoutGraph implements LayoutGraph {
 
     private List<LayoutGraphContentChangedListener> contentChangedListeners = new ArrayList<LayoutGraphContentChangedListener>();
 
+    private int contentVersion = 0;
+
+    private LayoutGraphSnapshot snapshot = null;
+
+    /*
+     * Created on first use. Nodes that were added or removed since the index
+     * was last used are only synchronized on the next use.
+     */
+    private SpatialNodeIndex spatialIndex = null;
+
+    private final Set<LayoutNode> indexedNodes = new HashSet<LayoutNode>();
+
+    private boolean spatialIndexStale = false;
+
+    protected AbstractLayoutGraph() {
+        /*
+         * Registered first, so that other listeners already see the new
+         * content in getSnapshot().
+         */
+        addContentChangedListener(new LayoutGraphContentChangedListener() {
+            @Override
+            public void onContentChanged(LayoutGraphContentChangedEvent event) {
+                contentVersion++;
+                snapshot = null;
+                spatialIndexStale = true;
+            }
+        });
+    }
+
     @Override
     public void addContentChangedListener(
             LayoutGraphContentChangedListener listener) {
@@ -54,14 +87,7 @@ public abstract class AbstractLayoutGraph implements LayoutGraph {
      * @return the maximum x value used by a node on the graph.
      */
     public double getMaxNodeX() {
-        double maxNodeX = 0;
-        for (LayoutNode node : getAllNodes()) {
-            double nodeRightX = node.getX() + node.getSize().getWidth();
-            if (nodeRightX > maxNodeX) {
-                maxNodeX = nodeRightX;
-            }
-        }
-        return maxNodeX;
+        return Math.max(0, getSpatialIndex().getRightX());
     }
 
     /**
@@ -69,44 +95,39 @@ public abstract class AbstractLayoutGraph implements LayoutGraph {
      * @return the maximum x value used by a node on the graph.
      */
     public double getMaxNodeY() {
-        double maxNodeY = 0;
-        for (LayoutNode node : getAllNodes()) {
-            double nodeBottomY = node.getY() + node.getSize().getHeight();
-            if (nodeBottomY > maxNodeY) {
-                maxNodeY = nodeBottomY;
-            }
-        }
-        return maxNodeY;
+        return Math.max(0, getSpatialIndex().getBottomY());
     }
 
     @Override
     public BoundsDouble getNodeBounds() {
-        double minX = Double.MAX_VALUE;
-        double maxX = 0;
-        double minY = Double.MAX_VALUE;
-        double maxY = 0;
-        for (LayoutNode layoutNode : getAllNodes()) {
-            SizeDouble size = layoutNode.getSize();
-            double nodeLeftX = layoutNode.getX();
-            if (nodeLeftX < minX) {
-                minX = nodeLeftX;
-            }
-            double nodeRightX = layoutNode.getX() + size.getWidth();
-            if (nodeRightX > maxX) {
-                maxX = nodeRightX;
-            }
-            double nodeTopY = layoutNode.getY();
-            if (nodeTopY < minY) {
-                minY = nodeTopY;
-            }
-            double nodeBottomY = layoutNode.getY() + size.getHeight();
-            if (nodeBottomY > maxY) {
-                maxY = nodeBottomY;
-            }
-        }
+        SpatialNodeIndex index = getSpatialIndex();
+        double minX = Math.min(Double.MAX_VALUE, index.getLeftX());
+        double minY = Math.min(Double.MAX_VALUE, index.getTopY());
+        double maxX = Math.max(0, index.getRightX());
+        double maxY = Math.max(0, index.getBottomY());
         return new DefaultBoundsDouble(minX, minY, maxX - minX, maxY - minY);
     }
 
+    @Override
+    public LayoutGraphSnapshot getSnapshot() {
+        if (snapshot == null) {
+            snapshot = new LayoutGraphSnapshot(this, contentVersion);
+        }
+        return snapshot;
+    }
+
+    @Override
+    public SpatialNodeIndex getSpatialIndex() {
+        if (spatialIndex == null) {
+            spatialIndex = new SpatialNodeIndex();
+            spatialIndexStale = true;
+        }
+        if (spatialIndexStale) {
+            synchronizeSpatialIndex();
+        }
+        return spatialIndex;
+    }
+
     @Override
     public List<LayoutNode> getUnanchoredNodes() {
         List<LayoutNode> unanchoredNodes = new ArrayList<LayoutNode>();
@@ -118,6 +139,24 @@ public abstract class AbstractLayoutGraph implements LayoutGraph {
         return unanchoredNodes;
     }
 
+    private void synchronizeSpatialIndex() {
+        List<LayoutNode> nodes = getAllNodes();
+        Set<LayoutNode> currentNodes = new HashSet<LayoutNode>(nodes);
+        for (Iterator<LayoutNode> it = indexedNodes.iterator(); it.hasNext();) {
+            LayoutNode node = it.next();
+            if (!currentNodes.contains(node)) {
+                spatialIndex.remove(node);
+                it.remove();
+            }
+        }
+        for (LayoutNode node : nodes) {
+            if (indexedNodes.add(node)) {
+                spatialIndex.add(node);
+            }
+        }
+        spatialIndexStale = false;
+    }
+
     public void shiftContentsHorizontally(int deltaX) {
         for (LayoutNode layoutNode : getAllNodes()) {
             layoutNode.setPosition(layoutNode.getX() + deltaX,
@@ -15,12 +15,16 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
 import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
 import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
 import org.thechiselgroup.biomixer.client.core.util.collections.LightweightList;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNodeMovedListener;
 
 public abstract class AbstractLayoutNode implements LayoutNode {
 
@@ -33,10 +37,32 @@ public abstract class AbstractLayoutNode implements LayoutNode {
     protected LightweightList<LayoutArc> connectedArcs = CollectionFactory
             .createLightweightList();
 
+    /*
+     * Created when the first listener is added.
+     */
+    private List<LayoutNodeMovedListener> movedListeners = null;
+
     public void addConnectedArc(LayoutArc arc) {
         connectedArcs.add(arc);
     }
 
+    @Override
+    public void addMovedListener(LayoutNodeMovedListener listener) {
+        if (movedListeners == null) {
+            movedListeners = new ArrayList<LayoutNodeMovedListener>();
+        }
+        movedListeners.add(listener);
+    }
+
+    protected void fireNodeMoved() {
+        if (movedListeners == null) {
+            return;
+        }
+        for (LayoutNodeMovedListener listener : movedListeners) {
+            listener.onNodeMoved(this);
+        }
+    }
+
     @Override
     public PointDouble getCentre() {
         return new PointDouble(getX() + getSize().getWidth() / 2, getY()
@@ -100,6 +126,13 @@ public abstract class AbstractLayoutNode implements LayoutNode {
         return !isAnchored && (this.x != x || this.y != y);
     }
 
+    @Override
+    public void removeMovedListener(LayoutNodeMovedListener listener) {
+        if (movedListeners != null) {
+            movedListeners.remove(listener);
+        }
+    }
+
     @Override
     public void setAnchored(boolean anchored) {
         this.isAnchored = anchored;
@@ -110,6 +143,7 @@ public abstract class AbstractLayoutNode implements LayoutNode {
         if (isRealChange(x, y)) {
             this.x = x;
             this.y = y;
+            fireNodeMoved();
         }
     }
 
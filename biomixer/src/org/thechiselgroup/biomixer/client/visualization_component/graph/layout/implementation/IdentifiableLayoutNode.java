@@ -38,7 +38,6 @@ public class IdentifiableLayoutNode extends AbstractLayoutNode implements
         this.renderedNode = svgComponent;
         this.nodeType = nodeType;
 
-        // XXX assumption: size does not change
         size = renderedNode.getSize();
         // XXX assumption: x,y managed through this class
         super.setPosition(renderedNode.getLeftX(), renderedNode.getTopY());
@@ -115,4 +114,18 @@ public class IdentifiableLayoutNode extends AbstractLayoutNode implements
         }
     }
 
+    /**
+     * Reads the size of the rendered node again. Needs to be called when the
+     * rendered node changes its size, e.g. when its level of detail changes.
+     */
+    public void updateSize() {
+        SizeDouble newSize = renderedNode.getSize();
+        if (newSize.getWidth() == size.getWidth()
+                && newSize.getHeight() == size.getHeight()) {
+            return;
+        }
+        size = newSize;
+        fireNodeMoved();
+    }
+
 }
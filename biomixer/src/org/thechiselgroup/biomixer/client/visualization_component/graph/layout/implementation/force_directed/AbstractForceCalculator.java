@@ -76,4 +76,9 @@ public abstract class AbstractForceCalculator implements ForceCalculator {
                 targetCentre.getY() - sourceCentre.getY());
     }
 
+    @Override
+    public void prepare(ForceSimulationState state) {
+        // nothing to calculate up front by default
+    }
+
 }
@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+/**
+ * Calculates the net forces of a whole iteration in one go by preparing the
+ * calculator and then processing all nodes as a single slice. Regions are
+ * processed node by node.
+ */
+public abstract class AbstractNetForceCalculator implements NetForceCalculator {
+
+    @Override
+    public void calculateNetForces(ForceSimulationState state) {
+        prepare(state);
+        calculateNetForces(state, 0, state.getNodeCount());
+    }
+
+    @Override
+    public void calculateNetForces(ForceSimulationState state,
+            LocalLayoutRegion region) {
+        prepare(state);
+        for (int i = 0; i < region.getNodeCount(); i++) {
+            int node = region.getNode(i);
+            calculateNetForces(state, node, node + 1);
+        }
+    }
+
+}
@@ -0,0 +1,146 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+/**
+ * Calculates the net force on a node using the Barnes-Hut approximation for
+ * the repulsion forces. Attraction forces only exist between connected nodes,
+ * so they are calculated exactly along the arcs of the node. Repulsion forces
+ * are approximated using a {@link BarnesHutQuadTree} that is rebuilt at the
+ * start of each iteration. This reduces the cost of an iteration from O(n^2)
+ * to O(n log n + e).
+ * 
+ * @see PairwiseNetForceCalculator
+ * 
+ */
+public class BarnesHutNetForceCalculator extends AbstractNetForceCalculator {
+
+    /**
+     * Commonly used trade-off between speed and accuracy.
+     */
+    public static final double DEFAULT_THETA = 0.5;
+
+    private final ForceCalculator attractionCalculator;
+
+    private final RepulsionForceCalculator repulsionCalculator;
+
+    private final double theta;
+
+    /*
+     * Built in prepare(ForceSimulationState) for the current iteration.
+     */
+    private BarnesHutQuadTree quadTree;
+
+    /*
+     * Tree over the nodes outside of fixedNodesRegion, kept for as long as
+     * the same region is being laid out.
+     */
+    private BarnesHutQuadTree fixedNodesTree;
+
+    private LocalLayoutRegion fixedNodesRegion;
+
+    /**
+     * 
+     * @param attractionCalculator
+     *            calculates the forces between connected nodes. Must not
+     *            produce a force between nodes that are not connected.
+     * @param repulsionCalculator
+     *            calculates the forces between all pairs of nodes
+     * @param theta
+     *            opening criterion of the quadtree (ratio of cell size to
+     *            distance). 0 produces the exact result, common values are
+     *            between 0.5 and 1.0.
+     */
+    public BarnesHutNetForceCalculator(ForceCalculator attractionCalculator,
+            RepulsionForceCalculator repulsionCalculator, double theta) {
+
+        assert theta >= 0;
+
+        this.attractionCalculator = attractionCalculator;
+        this.repulsionCalculator = repulsionCalculator;
+        this.theta = theta;
+    }
+
+    private void addAttractionForces(ForceSimulationState state,
+            int currentNode) {
+        int neighbourCount = state.getNeighbourCount(currentNode);
+        for (int i = 0; i < neighbourCount; i++) {
+            attractionCalculator.addForce(state, currentNode,
+                    state.getNeighbour(currentNode, i));
+        }
+    }
+
+    /**
+     * The repulsion of the fixed nodes is approximated with a tree that is only
+     * built once per region. The nodes inside the region move, so the
+     * repulsion between them is calculated pairwise. This is O(k log n + k^2)
+     * for a region of k nodes.
+     */
+    @Override
+    public void calculateNetForces(ForceSimulationState state,
+            LocalLayoutRegion region) {
+
+        attractionCalculator.prepare(state);
+        repulsionCalculator.prepare(state);
+        if (region != fixedNodesRegion) {
+            fixedNodesTree = new BarnesHutQuadTree(state, region);
+            fixedNodesRegion = region;
+        }
+
+        int regionSize = region.getNodeCount();
+        for (int i = 0; i < regionSize; i++) {
+            int currentNode = region.getNode(i);
+            if (state.isAnchored(currentNode)) {
+                continue;
+            }
+            fixedNodesTree.addRepulsionForce(currentNode, repulsionCalculator,
+                    theta);
+            for (int j = 0; j < regionSize; j++) {
+                if (j != i) {
+                    repulsionCalculator.addForce(state, currentNode,
+                            region.getNode(j));
+                }
+            }
+            addAttractionForces(state, currentNode);
+        }
+    }
+
+    @Override
+    public void calculateNetForces(ForceSimulationState state, int firstNode,
+            int endNode) {
+        assert quadTree != null;
+
+        for (int currentNode = firstNode; currentNode < endNode; currentNode++) {
+            if (state.isAnchored(currentNode)) {
+                continue;
+            }
+            quadTree.addRepulsionForce(currentNode, repulsionCalculator, theta);
+            addAttractionForces(state, currentNode);
+        }
+    }
+
+    public double getTheta() {
+        return theta;
+    }
+
+    @Override
+    public void prepare(ForceSimulationState state) {
+        attractionCalculator.prepare(state);
+        repulsionCalculator.prepare(state);
+        quadTree = new BarnesHutQuadTree(state);
+    }
+
+}
@@ -0,0 +1,246 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+/**
+ * Quadtree over the node centres of a {@link ForceSimulationState} that is
+ * used for the Barnes-Hut approximation of repulsion forces. Each cell keeps
+ * track of the number of nodes it contains and their centre of mass. When a
+ * cell is far enough away from the node the force is being calculated for, the
+ * whole cell is treated as a single body, which reduces the cost of
+ * calculating the repulsion on one node from O(n) to O(log n).
+ * 
+ * The tree is a snapshot of the node positions at the time it was built, so it
+ * should be rebuilt whenever nodes have moved (i.e. once per iteration).
+ * 
+ */
+public class BarnesHutQuadTree {
+
+    private static class Cell {
+
+        private final double minX;
+
+        private final double minY;
+
+        private final double size;
+
+        private int mass = 0;
+
+        private double sumX = 0;
+
+        private double sumY = 0;
+
+        /*
+         * Ordinal of the first node in a leaf cell, -1 if there is none.
+         */
+        private int firstNode = -1;
+
+        private Cell[] children;
+
+        private Cell(double minX, double minY, double size) {
+            this.minX = minX;
+            this.minY = minY;
+            this.size = size;
+        }
+
+        private boolean contains(double x, double y) {
+            return x >= minX && x <= minX + size && y >= minY
+                    && y <= minY + size;
+        }
+
+    }
+
+    /*
+     * Limits the depth of the tree so that nodes sharing (almost) the same
+     * position do not cause endless subdivision.
+     */
+    private static final int MAX_DEPTH = 24;
+
+    private final ForceSimulationState state;
+
+    /*
+     * Nodes that end up in the same leaf cell at the maximum depth (e.g. nodes
+     * at the same position) are chained together: nextNode[i] is the ordinal
+     * of the node after node i, or -1.
+     */
+    private final int[] nextNode;
+
+    private final Cell root;
+
+    public BarnesHutQuadTree(ForceSimulationState state) {
+        this(state, null);
+    }
+
+    /**
+     * Builds a tree that contains all nodes of the state except the nodes in
+     * <code>excludedRegion</code>.
+     * 
+     * @param excludedRegion
+     *            nodes that are left out, or <code>null</code> to build a tree
+     *            over all nodes
+     */
+    public BarnesHutQuadTree(ForceSimulationState state,
+            LocalLayoutRegion excludedRegion) {
+        this.state = state;
+
+        int nodeCount = state.getNodeCount();
+        nextNode = new int[nodeCount];
+        double minX = Double.MAX_VALUE;
+        double minY = Double.MAX_VALUE;
+        double maxX = -Double.MAX_VALUE;
+        double maxY = -Double.MAX_VALUE;
+        for (int i = 0; i < nodeCount; i++) {
+            nextNode[i] = -1;
+            if (excludedRegion != null && excludedRegion.contains(i)) {
+                continue;
+            }
+            minX = Math.min(minX, state.getCentreX(i));
+            minY = Math.min(minY, state.getCentreY(i));
+            maxX = Math.max(maxX, state.getCentreX(i));
+            maxY = Math.max(maxY, state.getCentreY(i));
+        }
+
+        /*
+         * Cells are square so that the cell size is a meaningful measure for
+         * the opening criterion in both dimensions.
+         */
+        double size = Math.max(Math.max(maxX - minX, maxY - minY), 1);
+        root = new Cell(minX, minY, size);
+        for (int i = 0; i < nodeCount; i++) {
+            if (excludedRegion == null || !excludedRegion.contains(i)) {
+                insert(root, i, 0);
+            }
+        }
+    }
+
+    private void accumulateForce(Cell cell, int node, double x, double y,
+            RepulsionForceCalculator repulsionCalculator, double thetaSquared) {
+
+        if (cell.children == null) {
+            for (int other = cell.firstNode; other != -1; other = nextNode[other]) {
+                if (other != node) {
+                    addForce(node, x - state.getCentreX(other),
+                            y - state.getCentreY(other), 1,
+                            repulsionCalculator);
+                }
+            }
+            return;
+        }
+
+        double dx = x - cell.sumX / cell.mass;
+        double dy = y - cell.sumY / cell.mass;
+
+        /*
+         * A cell that contains the node itself always has to be opened,
+         * otherwise the node would repel itself.
+         */
+        if (!cell.contains(x, y)
+                && cell.size * cell.size < thetaSquared * (dx * dx + dy * dy)) {
+            addForce(node, dx, dy, cell.mass, repulsionCalculator);
+            return;
+        }
+
+        for (Cell child : cell.children) {
+            if (child != null) {
+                accumulateForce(child, node, x, y, repulsionCalculator,
+                        thetaSquared);
+            }
+        }
+    }
+
+    /**
+     * Adds the force exerted by <code>mass</code> nodes at a distance vector
+     * of (dx, dy) away from the node to its net force.
+     */
+    private void addForce(int node, double dx, double dy, int mass,
+            RepulsionForceCalculator repulsionCalculator) {
+
+        double distance = Math.sqrt(dx * dx + dy * dy);
+        state.addForceAlong(node,
+                mass * repulsionCalculator.getForceMagnitude(distance), dx, dy);
+    }
+
+    /**
+     * Adds the approximated net repulsion force that all other nodes in this
+     * tree exert on <code>node</code> to its net force in the state.
+     * 
+     * @param node
+     *            ordinal of the node the force is applied to
+     * @param repulsionCalculator
+     *            calculates the force between two bodies
+     * @param theta
+     *            the ratio of cell size to distance below which a cell is
+     *            treated as a single body. 0 calculates the exact force,
+     *            larger values are faster but less accurate.
+     */
+    public void addRepulsionForce(int node,
+            RepulsionForceCalculator repulsionCalculator, double theta) {
+
+        if (root.mass == 0) {
+            return;
+        }
+        accumulateForce(root, node, state.getCentreX(node),
+                state.getCentreY(node), repulsionCalculator, theta * theta);
+    }
+
+    private void insert(Cell cell, int node, int depth) {
+        cell.mass++;
+        cell.sumX += state.getCentreX(node);
+        cell.sumY += state.getCentreY(node);
+
+        if (cell.children != null) {
+            insertIntoChild(cell, node, depth);
+            return;
+        }
+
+        if (cell.firstNode == -1) {
+            cell.firstNode = node;
+            return;
+        }
+
+        if (depth == MAX_DEPTH) {
+            nextNode[node] = cell.firstNode;
+            cell.firstNode = node;
+            return;
+        }
+
+        /*
+         * Split leaf: move the existing node down a level together with the
+         * new one.
+         */
+        int existingNode = cell.firstNode;
+        cell.firstNode = -1;
+        cell.children = new Cell[4];
+        insertIntoChild(cell, existingNode, depth);
+        insertIntoChild(cell, node, depth);
+    }
+
+    private void insertIntoChild(Cell cell, int node, int depth) {
+        double halfSize = cell.size / 2;
+        boolean right = state.getCentreX(node) >= cell.minX + halfSize;
+        boolean bottom = state.getCentreY(node) >= cell.minY + halfSize;
+        int index = (right ? 1 : 0) + (bottom ? 2 : 0);
+
+        Cell child = cell.children[index];
+        if (child == null) {
+            child = new Cell(right ? cell.minX + halfSize : cell.minX,
+                    bottom ? cell.minY + halfSize : cell.minY, halfSize);
+            cell.children[index] = child;
+        }
+        insert(child, node, depth + 1);
+    }
+
+}
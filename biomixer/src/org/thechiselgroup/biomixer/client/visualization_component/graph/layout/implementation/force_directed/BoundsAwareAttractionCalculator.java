@@ -35,6 +35,20 @@ public class BoundsAwareAttractionCalculator extends BoundsAwareForceCalculator
         super(graph);
     }
 
+    @Override
+    public void addForce(ForceSimulationState state, int currentNode,
+            int otherNode) {
+        if (!state.areConnected(currentNode, otherNode)) {
+            return;
+        }
+        double dx = state.getCentreX(otherNode) - state.getCentreX(currentNode);
+        double dy = state.getCentreY(otherNode) - state.getCentreY(currentNode);
+        double magnitude = (dx * dx + dy * dy)
+                / (preparedNumberOfArcsOverNumberOfNodes
+                        * preparedOptimalEdgeLength);
+        state.addForceAlong(currentNode, magnitude, dx, dy);
+    }
+
     @Override
     public Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode) {
         if (!currentNode.isConnectedTo(otherNode)) {
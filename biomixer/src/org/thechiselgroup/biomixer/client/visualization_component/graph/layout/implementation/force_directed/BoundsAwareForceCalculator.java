@@ -27,6 +27,13 @@ public abstract class BoundsAwareForceCalculator extends
 
     private DirectedAcyclicGraphBuilder graphBuilder = new DirectedAcyclicGraphBuilder();
 
+    /*
+     * Graph-wide values calculated once per iteration in prepare().
+     */
+    protected double preparedNumberOfArcsOverNumberOfNodes;
+
+    protected double preparedOptimalEdgeLength;
+
     public BoundsAwareForceCalculator(LayoutGraph graph) {
         this.graph = graph;
     }
@@ -74,4 +81,10 @@ public abstract class BoundsAwareForceCalculator extends
                 / graph.getAllNodes().size());
     }
 
+    @Override
+    public void prepare(ForceSimulationState state) {
+        preparedNumberOfArcsOverNumberOfNodes = getNumberOfArcsOverNumberOfNodes();
+        preparedOptimalEdgeLength = getOptimalEdgeLength();
+    }
+
 }
@@ -29,12 +29,26 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.L
  * @author drusk
  * 
  */
-public class BoundsAwareRepulsionCalculator extends BoundsAwareForceCalculator {
+public class BoundsAwareRepulsionCalculator extends BoundsAwareForceCalculator
+        implements RepulsionForceCalculator {
 
     public BoundsAwareRepulsionCalculator(LayoutGraph graph) {
         super(graph);
     }
 
+    @Override
+    public void addForce(ForceSimulationState state, int currentNode,
+            int otherNode) {
+        /*
+         * Note the force is directed towards the current node since it is a
+         * repulsion force on the current node.
+         */
+        double dx = state.getCentreX(currentNode) - state.getCentreX(otherNode);
+        double dy = state.getCentreY(currentNode) - state.getCentreY(otherNode);
+        state.addForceAlong(currentNode,
+                getForceMagnitude(Math.sqrt(dx * dx + dy * dy)), dx, dy);
+    }
+
     @Override
     public Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode) {
         /*
@@ -42,16 +56,29 @@ public class BoundsAwareRepulsionCalculator extends BoundsAwareForceCalculator {
          * repulsion force on the current node.
          */
         return Vector2DFactory.createVectorFromPolarCoordinates(
-                getForceMagnitude(currentNode, otherNode),
+                getForceMagnitude(getDistanceBetween(currentNode, otherNode),
+                        getNumberOfArcsOverNumberOfNodes(),
+                        getOptimalEdgeLength()),
                 getAngleBetween(otherNode, currentNode));
     }
 
-    private double getForceMagnitude(LayoutNode currentNode,
-            LayoutNode otherNode) {
+    @Override
+    public double getForceMagnitude(double interNodeDistance) {
+        return getForceMagnitude(interNodeDistance,
+                preparedNumberOfArcsOverNumberOfNodes,
+                preparedOptimalEdgeLength);
+    }
 
-        double interNodeDistance = getBufferedDistanceBetween(currentNode,
-                otherNode);
-        double coefficient = getNumberOfArcsOverNumberOfNodes();
+    private double getForceMagnitude(double interNodeDistance,
+            double numberOfArcsOverNumberOfNodes, double optimalEdgeLength) {
+        /*
+         * If distance is too close to 0 then division will produce an almost
+         * infinite force. Therefore limit the distance to a min value of 1.
+         */
+        if (interNodeDistance < 1) {
+            interNodeDistance = 1;
+        }
+        double coefficient = numberOfArcsOverNumberOfNodes;
         if (coefficient == 0) {
             /*
              * Make sure there is some minimal force for the case where all
@@ -59,7 +86,7 @@ public class BoundsAwareRepulsionCalculator extends BoundsAwareForceCalculator {
              */
             coefficient = 0.25;
         }
-        return Math.pow(coefficient * getOptimalEdgeLength(), 2)
+        return Math.pow(coefficient * optimalEdgeLength, 2)
                 / interNodeDistance;
     }
 
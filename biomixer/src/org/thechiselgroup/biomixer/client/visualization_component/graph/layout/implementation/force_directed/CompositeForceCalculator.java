@@ -32,6 +32,14 @@ public class CompositeForceCalculator implements ForceCalculator {
         this.forceCalculators = forceCalculators;
     }
 
+    @Override
+    public void addForce(ForceSimulationState state, int currentNode,
+            int otherNode) {
+        for (int i = 0; i < forceCalculators.length; i++) {
+            forceCalculators[i].addForce(state, currentNode, otherNode);
+        }
+    }
+
     @Override
     public Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode) {
         Vector2D compositeForce = new Vector2D(0, 0);
@@ -42,4 +50,11 @@ public class CompositeForceCalculator implements ForceCalculator {
         return compositeForce;
     }
 
+    @Override
+    public void prepare(ForceSimulationState state) {
+        for (ForceCalculator forceCalculator : forceCalculators) {
+            forceCalculator.prepare(state);
+        }
+    }
+
 }
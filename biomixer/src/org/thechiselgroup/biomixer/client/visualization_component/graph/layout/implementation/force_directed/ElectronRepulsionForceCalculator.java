@@ -25,7 +25,8 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.L
  * 
  */
 // XXX not currently in use.
-public class ElectronRepulsionForceCalculator extends AbstractForceCalculator {
+public class ElectronRepulsionForceCalculator extends AbstractForceCalculator
+        implements RepulsionForceCalculator {
 
     private final double chargeConstant;
 
@@ -34,17 +35,30 @@ public class ElectronRepulsionForceCalculator extends AbstractForceCalculator {
     }
 
     @Override
-    public Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode) {
-        double distanceBetween = getDistanceBetween(currentNode, otherNode);
-        if (distanceBetween < 1) {
-            distanceBetween = 1;
-        }
+    public void addForce(ForceSimulationState state, int currentNode,
+            int otherNode) {
+        double dx = state.getCentreX(currentNode) - state.getCentreX(otherNode);
+        double dy = state.getCentreY(currentNode) - state.getCentreY(otherNode);
+        state.addForceAlong(currentNode,
+                getForceMagnitude(Math.sqrt(dx * dx + dy * dy)), dx, dy);
+    }
 
+    @Override
+    public Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode) {
         /*
          * Repulsive force pushes from other node to current node
          */
-        return Vector2DFactory.createVectorFromPolarCoordinates(chargeConstant
-                / distanceBetween, getAngleBetween(otherNode, currentNode));
+        return Vector2DFactory.createVectorFromPolarCoordinates(
+                getForceMagnitude(getDistanceBetween(currentNode, otherNode)),
+                getAngleBetween(otherNode, currentNode));
+    }
+
+    @Override
+    public double getForceMagnitude(double interNodeDistance) {
+        if (interNodeDistance < 1) {
+            interNodeDistance = 1;
+        }
+        return chargeConstant / interNodeDistance;
     }
 
 }
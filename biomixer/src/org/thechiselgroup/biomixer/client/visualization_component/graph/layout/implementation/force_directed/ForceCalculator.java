@@ -26,10 +26,32 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.L
  */
 public interface ForceCalculator {
 
+    /**
+     * Adds the force applied to node <code>currentNode</code> by node
+     * <code>otherNode</code> to the net force of <code>currentNode</code> in
+     * <code>state</code>. This is the variant used in the inner loop of the
+     * layout, so implementations must not allocate any objects. Only valid
+     * after {@link #prepare(ForceSimulationState)} has been called for the
+     * current iteration.
+     * 
+     * @param currentNode
+     *            ordinal of the node the force is applied to
+     * @param otherNode
+     *            ordinal of the node exerting the force
+     */
+    void addForce(ForceSimulationState state, int currentNode, int otherNode);
+
     /**
      * Calculates the force applied to <code>currentNode</code> by
      * <code>otherNode</code>.
      */
     Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode);
 
+    /**
+     * Called once per iteration before any forces are added to
+     * <code>state</code>. Values that are the same for all pairs of nodes
+     * during an iteration should be calculated here.
+     */
+    void prepare(ForceSimulationState state);
+
 }
@@ -26,6 +26,12 @@ public class ForceDirectedLayoutAlgorithm extends AbstractLayoutAlgorithm {
 
     protected static final int DELAY_BETWEEN_ITERATIONS = 1;
 
+    /**
+     * Frame budget (in milliseconds) that leaves enough time for rendering
+     * and event handling at 60 frames per second.
+     */
+    public static final int DEFAULT_FRAME_BUDGET = 10;
+
     private ErrorHandler errorHandler;
 
     private DelayedExecutor executor;
@@ -34,6 +40,15 @@ public class ForceDirectedLayoutAlgorithm extends AbstractLayoutAlgorithm {
 
     private ForceCalculator forceCalculator;
 
+    /*
+     * Only set when the Barnes-Hut approximation is used.
+     */
+    private RepulsionForceCalculator repulsionCalculator;
+
+    private double theta;
+
+    private boolean incremental = false;
+
     private NodeAnimator nodeAnimator;
 
     /**
@@ -57,11 +72,53 @@ public class ForceDirectedLayoutAlgorithm extends AbstractLayoutAlgorithm {
         this.nodeAnimator = nodeAnimator;
     }
 
+    /**
+     * Creates a force-directed layout that approximates the repulsion forces
+     * using the Barnes-Hut algorithm, which makes iterations O(n log n)
+     * instead of O(n^2).
+     * 
+     * @param attractionCalculator
+     *            determines the forces between connected nodes
+     * @param repulsionCalculator
+     *            determines the forces between all pairs of nodes
+     * @param theta
+     *            accuracy of the approximation (0 is exact, see
+     *            {@link BarnesHutNetForceCalculator#DEFAULT_THETA})
+     * @param damping
+     *            coefficient between 0 and 1
+     */
+    public ForceDirectedLayoutAlgorithm(ForceCalculator attractionCalculator,
+            RepulsionForceCalculator repulsionCalculator, double theta,
+            double damping, NodeAnimator nodeAnimator,
+            DelayedExecutor executor, ErrorHandler errorHandler) {
+        this(attractionCalculator, damping, nodeAnimator, executor,
+                errorHandler);
+        this.repulsionCalculator = repulsionCalculator;
+        this.theta = theta;
+    }
+
     @Override
     protected AbstractLayoutComputation getLayoutComputation(LayoutGraph graph) {
-        return new ForceDirectedLayoutComputation(forceCalculator, damping,
-                graph, executor, errorHandler, nodeAnimator,
-                DELAY_BETWEEN_ITERATIONS);
+        ForceDirectedLayoutComputation computation = new ForceDirectedLayoutComputation(
+                getNetForceCalculator(), damping, graph, executor,
+                errorHandler, nodeAnimator, DELAY_BETWEEN_ITERATIONS);
+        computation.setIncremental(incremental);
+        return computation;
+    }
+
+    private NetForceCalculator getNetForceCalculator() {
+        if (repulsionCalculator != null) {
+            return new BarnesHutNetForceCalculator(forceCalculator,
+                    repulsionCalculator, theta);
+        }
+        return new PairwiseNetForceCalculator(forceCalculator);
+    }
+
+    /**
+     * @see ForceDirectedLayoutComputation#setIncremental(boolean)
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
     }
 
 }
@@ -15,15 +15,14 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
 
 import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
 import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
 import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.BoundsDouble;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
@@ -40,6 +39,19 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.i
  */
 public class ForceDirectedLayoutComputation extends AbstractLayoutComputation {
 
+    /**
+     * Number of nodes whose net force is calculated between two checks of the
+     * frame budget.
+     */
+    private static final int NODES_PER_SLICE = 32;
+
+    /**
+     * Angle (in radians) between consecutive nodes that are seeded around
+     * their neighbours. Using the golden angle spreads any number of nodes
+     * evenly without having to know their count in advance.
+     */
+    private static final double SEED_ANGLE = Math.PI * (3 - Math.sqrt(5));
+
     private double averageNodeDisplacementThreshold = 2.0;
 
     /*
@@ -47,47 +59,121 @@ public class ForceDirectedLayoutComputation extends AbstractLayoutComputation {
      */
     private final double dampingConstant;
 
-    private ForceCalculator forceCalculator;
+    private NetForceCalculator netForceCalculator;
 
     private int animationDuration;
 
     private LayoutNodeBoundsEnforcer boundsEnforcer;
 
     /*
-     * The dampening factors for nodes are maintained individually.
+     * Node positions, net forces and the individually maintained dampening
+     * factors of the nodes.
+     */
+    private final ForceSimulationState state;
+
+    /*
+     * Ordinal of the next node whose net force needs to be calculated if the
+     * current iteration was interrupted because the frame budget was used up,
+     * 0 otherwise.
+     */
+    private int nextNode = 0;
+
+    /*
+     * In incremental mode, nodes that are added after the layout has
+     * converged are laid out in a local region while the rest of the graph
+     * stays where it is.
+     */
+    private boolean incremental = false;
+
+    private boolean converged = false;
+
+    private final Set<LayoutNode> hotNodes = new HashSet<LayoutNode>();
+
+    private LocalLayoutRegion region;
+
+    private int regionStructureVersion;
+
+    /*
+     * Added nodes that have not been placed near their neighbours yet,
+     * because they were not connected to any other node when they were
+     * added.
      */
-    private Map<LayoutNode, Double> nodeDampeningFactors = new HashMap<LayoutNode, Double>();
+    private final Set<LayoutNode> unseededNodes = new HashSet<LayoutNode>();
+
+    private int seededNodeCount = 0;
 
     public ForceDirectedLayoutComputation(ForceCalculator forceCalculator,
             double dampingConstant, LayoutGraph graph, Executor executor,
             ErrorHandler errorHandler, NodeAnimator nodeAnimator,
             int animationDuration) {
+        this(new PairwiseNetForceCalculator(forceCalculator), dampingConstant,
+                graph, executor, errorHandler, nodeAnimator, animationDuration);
+    }
+
+    public ForceDirectedLayoutComputation(
+            NetForceCalculator netForceCalculator, double dampingConstant,
+            LayoutGraph graph, Executor executor, ErrorHandler errorHandler,
+            NodeAnimator nodeAnimator, int animationDuration) {
         super(graph, executor, errorHandler, nodeAnimator);
-        this.forceCalculator = forceCalculator;
+        this.netForceCalculator = netForceCalculator;
         this.dampingConstant = dampingConstant;
         this.boundsEnforcer = new LayoutNodeBoundsEnforcer(graph);
-        initializeNodeDampening();
+        this.state = new ForceSimulationState(graph);
+        /*
+         * Start all nodes on the graph off with no damping.
+         */
+        this.state.update();
         this.animationDuration = animationDuration;
     }
 
     @Override
     protected boolean computeIteration() throws RuntimeException {
+        if (nextNode == 0) {
+            state.update();
+            if (incremental) {
+                seedAddedNodes();
+            }
+            updateRegion();
+            if (region != null) {
+                return computeRegionIteration();
+            }
+            netForceCalculator.prepare(state);
+        }
+
+        /*
+         * The net forces are calculated in slices so that large graphs can
+         * yield to the browser in the middle of an iteration. The positions
+         * are only updated once all net forces are known.
+         */
+        int nodeCount = state.getNodeCount();
+        while (nextNode < nodeCount) {
+            int endNode = Math.min(nextNode + NODES_PER_SLICE, nodeCount);
+            netForceCalculator.calculateNetForces(state, nextNode, endNode);
+            nextNode = endNode;
+            if (nextNode < nodeCount && isFrameBudgetExhausted()) {
+                return true;
+            }
+        }
+        nextNode = 0;
+
+        double optimalEdgeLength = getOptimalEdgeLength();
         double totalDisplacement = 0;
-        List<LayoutNode> mobileNodes = graph.getUnanchoredNodes();
-        for (LayoutNode currentNode : mobileNodes) {
-            Vector2D netForce = new Vector2D(0, 0);
-            for (LayoutNode otherNode : getAllNodesExcept(currentNode)) {
-                netForce.add(forceCalculator.getForce(currentNode, otherNode));
+        int numberOfMobileNodes = 0;
+        for (int i = 0; i < state.getNodeCount(); i++) {
+            if (state.isAnchored(i)) {
+                continue;
             }
-            Vector2D positionDelta = getPositionDelta(netForce, currentNode);
+            LayoutNode currentNode = state.getNode(i);
+            Vector2D positionDelta = getPositionDelta(i, optimalEdgeLength);
             updatePosition(positionDelta, currentNode);
             totalDisplacement += positionDelta.getMagnitude();
+            numberOfMobileNodes++;
         }
 
         /*
          * Effect of dampening should increase with each iteration.
          */
-        increaseDampeningForAllNodes();
+        state.increaseDampening(dampingConstant);
 
         /*
          * Continue computing iterations until the average movement per node on
@@ -96,36 +182,52 @@ public class ForceDirectedLayoutComputation extends AbstractLayoutComputation {
          * the threshold longer than a graph with only few nodes moving the same
          * amount.
          */
-        return totalDisplacement / mobileNodes.size() > averageNodeDisplacementThreshold;
+        if (totalDisplacement / numberOfMobileNodes > averageNodeDisplacementThreshold) {
+            return true;
+        }
+        converged = true;
+        unseededNodes.clear();
+        return false;
     }
 
     /**
-     * 
-     * @param exceptNode
-     *            the node to be excluded
-     * @return a list of all nodes except for the specified one.
+     * Computes an iteration in which only the nodes of the local region move.
+     * Continues until the average movement of the region nodes is below the
+     * threshold.
      */
-    private List<LayoutNode> getAllNodesExcept(LayoutNode node) {
-        List<LayoutNode> nodes = new ArrayList<LayoutNode>();
-        nodes.addAll(graph.getAllNodes());
-        nodes.remove(node);
-        return nodes;
-    }
+    private boolean computeRegionIteration() {
+        netForceCalculator.calculateNetForces(state, region);
 
-    /**
-     * Retrieves the dampening factor for a node. If the node has just recently
-     * been added and has no existing dampening factor, it will be created
-     * lazily here.
-     * 
-     * @param layoutNode
-     *            the node to retrieve the dampening factor for
-     * @return dampening factor
-     */
-    private double getDampening(LayoutNode layoutNode) {
-        if (!nodeDampeningFactors.containsKey(layoutNode)) {
-            nodeDampeningFactors.put(layoutNode, Double.valueOf(1.0));
+        double optimalEdgeLength = getOptimalEdgeLength();
+        double totalDisplacement = 0;
+        int numberOfMobileNodes = 0;
+        for (int i = 0; i < region.getNodeCount(); i++) {
+            int node = region.getNode(i);
+            if (state.isAnchored(node)) {
+                continue;
+            }
+            Vector2D positionDelta = getPositionDelta(node, optimalEdgeLength);
+            updatePosition(positionDelta, state.getNode(node));
+            totalDisplacement += positionDelta.getMagnitude();
+            numberOfMobileNodes++;
+
+            /*
+             * Settled neighbours keep their (low) dampening, hot nodes start
+             * at 1.0 and cool down like in a full layout.
+             */
+            state.setDampening(node, state.getDampening(node)
+                    * dampingConstant);
+        }
+
+        if (numberOfMobileNodes > 0
+                && totalDisplacement / numberOfMobileNodes > averageNodeDisplacementThreshold) {
+            return true;
         }
-        return nodeDampeningFactors.get(layoutNode);
+
+        region = null;
+        hotNodes.clear();
+        unseededNodes.clear();
+        return false;
     }
 
     // XXX this should be moved elsewhere, duplicated from
@@ -136,17 +238,18 @@ public class ForceDirectedLayoutComputation extends AbstractLayoutComputation {
     }
 
     /**
-     * Calculates the change in position for a node due to a net force. Takes
-     * into account the effects of dampening, and also makes sure that the node
-     * doesn't go outside the graph's visible area.
+     * Calculates the change in position for a node due to the net force in
+     * the simulation state. Takes into account the effects of dampening, and
+     * also makes sure that the node doesn't go outside the graph's visible
+     * area.
      * 
-     * @param netForce
-     *            a force on a node which should cause a displacement
      * @param node
-     *            the node the netForce has been applied to
+     *            ordinal of the node the net force has been applied to
+     * @param optimalEdgeLength
+     *            the maximum displacement along each axis
      * @return the change in position for the node
      */
-    private Vector2D getPositionDelta(Vector2D netForce, LayoutNode node) {
+    private Vector2D getPositionDelta(int node, double optimalEdgeLength) {
         /*
          * If nodes are very close together or very far apart the forces exerted
          * on them can be way too large. Currently to compensate for this, I
@@ -155,38 +258,109 @@ public class ForceDirectedLayoutComputation extends AbstractLayoutComputation {
          * BoundsAwareForceCalculator}). This is kind of arbitrary, and perhaps
          * more appropriate values could be found.
          */
-        VectorUtils.limitVectorComponents(netForce, getOptimalEdgeLength());
+        Vector2D netForce = new Vector2D(state.getForceX(node),
+                state.getForceY(node));
+        VectorUtils.limitVectorComponents(netForce, optimalEdgeLength);
 
         /*
          * Damping provides simulated annealing
          */
-        Vector2D dampedDelta = netForce.scaleBy(getDampening(node));
+        Vector2D dampedDelta = netForce.scaleBy(state.getDampening(node));
         /*
          * Need to make sure the next calculated position doesn't cause all or
          * part of the node to go outside the visible graph area
          */
-        return boundsEnforcer.getRestrictedDelta(node, dampedDelta);
+        return boundsEnforcer.getRestrictedDelta(state.getNode(node),
+                dampedDelta);
+    }
+
+    @Override
+    protected boolean isIterationInProgress() {
+        return nextNode != 0;
     }
 
     /**
-     * Increases the dampening of all the nodes on the graph by a factor of
-     * <code>dampingConstant</code>. Note that increasing the dampening means
-     * decreasing the numerical value of the dampening factor coefficient.
+     * Discards the net forces of an iteration that was interrupted when the
+     * computation was stopped, because the graph may have changed since. The
+     * restarted computation begins a new iteration from a refreshed state.
      */
-    private void increaseDampeningForAllNodes() {
-        for (Entry<LayoutNode, Double> entry : nodeDampeningFactors.entrySet()) {
-            nodeDampeningFactors.put(entry.getKey(), entry.getValue()
-                    * dampingConstant);
+    @Override
+    public void restart() {
+        nextNode = 0;
+        super.restart();
+    }
+
+    /**
+     * Moves added nodes close to the nodes they are connected to (e.g. the
+     * node whose neighbourhood was expanded), instead of leaving them at their
+     * default position. Only used in incremental mode. Nodes that are not
+     * connected to a settled node yet are retried in the following iterations,
+     * because arcs are often added after their nodes.
+     */
+    private void seedAddedNodes() {
+        for (int i = 0; i < state.getAddedNodeCount(); i++) {
+            unseededNodes.add(state.getNode(state.getAddedNode(i)));
+        }
+        if (unseededNodes.isEmpty()) {
+            return;
+        }
+
+        double radius = getOptimalEdgeLength() / 2;
+        for (Iterator<LayoutNode> it = unseededNodes.iterator(); it.hasNext();) {
+            int node = state.getOrdinal(it.next());
+            if (node == -1 || state.isAnchored(node)
+                    || seedNearSettledNeighbours(node, radius)) {
+                it.remove();
+            }
         }
     }
 
     /**
-     * Start all nodes on the graph off with no damping.
+     * Places a node at <code>radius</code> from the centre of its settled
+     * neighbours.
+     * 
+     * @return false, if the node has no settled neighbours
      */
-    private void initializeNodeDampening() {
-        for (LayoutNode layoutNode : graph.getAllNodes()) {
-            nodeDampeningFactors.put(layoutNode, Double.valueOf(1.0));
+    private boolean seedNearSettledNeighbours(int node, double radius) {
+        double sumX = 0;
+        double sumY = 0;
+        int settledNeighbourCount = 0;
+        for (int i = 0; i < state.getNeighbourCount(node); i++) {
+            int neighbour = state.getNeighbour(node, i);
+            if (!unseededNodes.contains(state.getNode(neighbour))) {
+                sumX += state.getCentreX(neighbour);
+                sumY += state.getCentreY(neighbour);
+                settledNeighbourCount++;
+            }
+        }
+        if (settledNeighbourCount == 0) {
+            return false;
         }
+
+        double angle = SEED_ANGLE * seededNodeCount++;
+        LayoutNode layoutNode = state.getNode(node);
+        BoundsDouble bounds = state.getBounds();
+        double halfWidth = layoutNode.getSize().getWidth() / 2;
+        double halfHeight = layoutNode.getSize().getHeight() / 2;
+        double x = Math.max(bounds.getLeftX() + halfWidth, Math.min(
+                bounds.getRightX() - halfWidth, sumX / settledNeighbourCount
+                        + radius * Math.cos(angle)));
+        double y = Math.max(bounds.getTopY() + halfHeight, Math.min(
+                bounds.getBottomY() - halfHeight, sumY
+                        / settledNeighbourCount + radius * Math.sin(angle)));
+
+        layoutNode.setPosition(layoutNode.getTopLeftForCentreAt(x, y));
+        state.setCentre(node, x, y);
+        return true;
+    }
+
+    /**
+     * Enables the incremental mode: once the layout has converged, nodes that
+     * are added to the graph are laid out together with their neighbours
+     * while all other nodes keep their positions.
+     */
+    public void setIncremental(boolean incremental) {
+        this.incremental = incremental;
     }
 
     /**
@@ -203,4 +377,29 @@ public class ForceDirectedLayoutComputation extends AbstractLayoutComputation {
                         node.getY() + positionDelta.getYComponent()),
                 animationDuration);
     }
+
+    /**
+     * Adds the nodes that were added after the layout had converged to the
+     * hot nodes, and recreates the local region if the structure of the graph
+     * has changed.
+     */
+    private void updateRegion() {
+        if (!incremental || !converged) {
+            return;
+        }
+
+        for (int i = 0; i < state.getAddedNodeCount(); i++) {
+            hotNodes.add(state.getNode(state.getAddedNode(i)));
+        }
+        if (hotNodes.isEmpty()) {
+            region = null;
+            return;
+        }
+
+        if (region == null
+                || regionStructureVersion != state.getStructureVersion()) {
+            region = new LocalLayoutRegion(state, hotNodes);
+            regionStructureVersion = state.getStructureVersion();
+        }
+    }
 }
@@ -0,0 +1,362 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.BoundsDouble;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+
+/**
+ * <p>
+ * State of a force-directed layout held in parallel primitive arrays that are
+ * indexed by node ordinal. Node centres, net forces and dampening factors are
+ * stored as <code>double</code>s and forces are accumulated in Cartesian form,
+ * so that the inner loop of the force calculation does not need to allocate
+ * any objects (see {@link ForceCalculator#addForce}).
+ * </p>
+ * <p>
+ * The state is synchronized with the {@link LayoutGraph} at the start of each
+ * iteration via {@link #update()}. The node ordinals are those of the
+ * {@link LayoutGraphSnapshot} of the graph. The adjacency index is only
+ * rebuilt if the snapshot has changed, and the dampening factors of nodes
+ * that are still on the graph are carried over.
+ * </p>
+ * 
+ */
+public class ForceSimulationState {
+
+    private static final int[] NO_NODES = new int[0];
+
+    private final LayoutGraph graph;
+
+    private LayoutGraphSnapshot snapshot = null;
+
+    private int nodeCount = 0;
+
+    private double[] centreX = new double[0];
+
+    private double[] centreY = new double[0];
+
+    private double[] forceX = new double[0];
+
+    private double[] forceY = new double[0];
+
+    private double[] dampening = new double[0];
+
+    private boolean[] anchored = new boolean[0];
+
+    /*
+     * Adjacency in compressed sparse row format: the distinct neighbours of
+     * node i are neighbours[neighbourOffsets[i]] to
+     * neighbours[neighbourOffsets[i + 1] - 1].
+     */
+    private int[] neighbourOffsets = new int[] { 0 };
+
+    private int[] neighbours = new int[0];
+
+    /*
+     * connectionMarks[j] == markedNode iff j is a neighbour of markedNode.
+     */
+    private int[] connectionMarks = new int[0];
+
+    private int markedNode = -1;
+
+    private BoundsDouble bounds;
+
+    /*
+     * Ordinals of the nodes that were not part of the state before the last
+     * update().
+     */
+    private int[] addedNodes = NO_NODES;
+
+    /*
+     * Incremented whenever the ordinals or the adjacency index are rebuilt.
+     */
+    private int structureVersion = 0;
+
+    public ForceSimulationState(LayoutGraph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Adds a force to the net force of a node.
+     */
+    public void addForce(int node, double xComponent, double yComponent) {
+        forceX[node] += xComponent;
+        forceY[node] += yComponent;
+    }
+
+    /**
+     * Adds a force with the given magnitude that points along the direction
+     * vector (directionX, directionY) to the net force of a node. If the
+     * direction vector is the zero vector, the force points along the positive
+     * x-axis (like the angle calculated by {@link Vector2D#getDirection()}).
+     */
+    public void addForceAlong(int node, double magnitude, double directionX,
+            double directionY) {
+
+        double length = Math.sqrt(directionX * directionX + directionY
+                * directionY);
+        if (length == 0) {
+            forceX[node] += magnitude;
+            return;
+        }
+        forceX[node] += magnitude * directionX / length;
+        forceY[node] += magnitude * directionY / length;
+    }
+
+    /**
+     * @return <code>true</code> if the two nodes are connected by at least one
+     *         arc.
+     */
+    public boolean areConnected(int node, int otherNode) {
+        if (markedNode != node) {
+            for (int i = neighbourOffsets[node]; i < neighbourOffsets[node + 1]; i++) {
+                connectionMarks[neighbours[i]] = node;
+            }
+            markedNode = node;
+        }
+        return connectionMarks[otherNode] == node;
+    }
+
+    private void buildAdjacency() {
+        int arcCount = snapshot.getArcCount();
+        neighbours = new int[2 * arcCount];
+
+        /*
+         * Merge the incoming and outgoing arcs and remove duplicate neighbours
+         * (several arcs between the same pair of nodes) so that attraction
+         * only applies once per pair.
+         */
+        int[] marks = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            marks[i] = -1;
+        }
+        neighbourOffsets = new int[nodeCount + 1];
+        int count = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            neighbourOffsets[i] = count;
+            marks[i] = i;
+            for (int j = 0; j < snapshot.getOutgoingArcCount(i); j++) {
+                int neighbour = snapshot.getArcTarget(snapshot
+                        .getOutgoingArc(i, j));
+                if (marks[neighbour] != i) {
+                    marks[neighbour] = i;
+                    neighbours[count++] = neighbour;
+                }
+            }
+            for (int j = 0; j < snapshot.getIncomingArcCount(i); j++) {
+                int neighbour = snapshot.getArcSource(snapshot
+                        .getIncomingArc(i, j));
+                if (marks[neighbour] != i) {
+                    marks[neighbour] = i;
+                    neighbours[count++] = neighbour;
+                }
+            }
+        }
+        neighbourOffsets[nodeCount] = count;
+
+        connectionMarks = marks;
+        for (int i = 0; i < nodeCount; i++) {
+            connectionMarks[i] = -1;
+        }
+        markedNode = -1;
+    }
+
+    /**
+     * @return the ordinal of the <code>index</code>th node that was added to
+     *         the graph since the previous {@link #update()}
+     */
+    public int getAddedNode(int index) {
+        return addedNodes[index];
+    }
+
+    /**
+     * @return number of nodes that were added to the graph since the previous
+     *         {@link #update()}
+     */
+    public int getAddedNodeCount() {
+        return addedNodes.length;
+    }
+
+    public int getArcCount() {
+        return snapshot.getArcCount();
+    }
+
+    /**
+     * @return bounds of the canvas rectangle at the time of the last
+     *         {@link #update()}
+     */
+    public BoundsDouble getBounds() {
+        return bounds;
+    }
+
+    public double getCentreX(int node) {
+        return centreX[node];
+    }
+
+    public double getCentreY(int node) {
+        return centreY[node];
+    }
+
+    public double getDampening(int node) {
+        return dampening[node];
+    }
+
+    public double getForceX(int node) {
+        return forceX[node];
+    }
+
+    public double getForceY(int node) {
+        return forceY[node];
+    }
+
+    public LayoutGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * @return the <code>index</code>th distinct node connected to
+     *         <code>node</code> by an arc.
+     */
+    public int getNeighbour(int node, int index) {
+        return neighbours[neighbourOffsets[node] + index];
+    }
+
+    public int getNeighbourCount(int node) {
+        return neighbourOffsets[node + 1] - neighbourOffsets[node];
+    }
+
+    public LayoutNode getNode(int node) {
+        return snapshot.getNode(node);
+    }
+
+    public int getNodeCount() {
+        return nodeCount;
+    }
+
+    /**
+     * @return the ordinal of <code>node</code>, or -1 if the node was not on
+     *         the graph at the time of the last {@link #update()}
+     */
+    public int getOrdinal(LayoutNode node) {
+        return snapshot.getOrdinal(node);
+    }
+
+    /**
+     * @return a number that changes whenever the node ordinals or the
+     *         adjacency index are rebuilt
+     */
+    public int getStructureVersion() {
+        return structureVersion;
+    }
+
+    /**
+     * Increases the dampening of all the nodes by a factor of
+     * <code>dampingConstant</code>. Note that increasing the dampening means
+     * decreasing the numerical value of the dampening factor coefficient.
+     */
+    public void increaseDampening(double dampingConstant) {
+        for (int i = 0; i < nodeCount; i++) {
+            dampening[i] *= dampingConstant;
+        }
+    }
+
+    public boolean isAnchored(int node) {
+        return anchored[node];
+    }
+
+    private void rebuild(LayoutGraphSnapshot newSnapshot) {
+        int newNodeCount = newSnapshot.getNodeCount();
+        double[] newDampening = new double[newNodeCount];
+        /*
+         * Nodes that have just been added start off with no damping.
+         */
+        for (int i = 0; i < newNodeCount; i++) {
+            newDampening[i] = Double.NaN;
+        }
+        for (int i = 0; i < nodeCount; i++) {
+            int ordinal = newSnapshot.getOrdinal(snapshot.getNode(i));
+            if (ordinal != -1) {
+                newDampening[ordinal] = dampening[i];
+            }
+        }
+
+        snapshot = newSnapshot;
+        nodeCount = newNodeCount;
+        centreX = new double[nodeCount];
+        centreY = new double[nodeCount];
+        forceX = new double[nodeCount];
+        forceY = new double[nodeCount];
+        dampening = newDampening;
+        anchored = new boolean[nodeCount];
+
+        int[] added = new int[nodeCount];
+        int addedCount = 0;
+        for (int i = 0; i < nodeCount; i++) {
+            if (Double.isNaN(dampening[i])) {
+                dampening[i] = 1.0;
+                added[addedCount++] = i;
+            }
+        }
+        addedNodes = new int[addedCount];
+        System.arraycopy(added, 0, addedNodes, 0, addedCount);
+
+        buildAdjacency();
+        structureVersion++;
+    }
+
+    /**
+     * Moves the centre of a node in this state. Does not move the node on the
+     * graph.
+     */
+    public void setCentre(int node, double x, double y) {
+        centreX[node] = x;
+        centreY[node] = y;
+    }
+
+    /**
+     * Sets the dampening factor of a node (1.0 means no damping).
+     */
+    public void setDampening(int node, double value) {
+        dampening[node] = value;
+    }
+
+    /**
+     * Synchronizes this state with the graph: reads the node positions and
+     * anchoring, and resets the net forces to 0. Rebuilds the adjacency index
+     * if the snapshot of the graph has changed.
+     */
+    public void update() {
+        LayoutGraphSnapshot currentSnapshot = graph.getSnapshot();
+        addedNodes = NO_NODES;
+        if (currentSnapshot != snapshot) {
+            rebuild(currentSnapshot);
+        }
+
+        snapshot.readNodeStates();
+        for (int i = 0; i < nodeCount; i++) {
+            centreX[i] = snapshot.getCentreX(i);
+            centreY[i] = snapshot.getCentreY(i);
+            anchored[i] = snapshot.isAnchored(i);
+            forceX[i] = 0;
+            forceY[i] = 0;
+        }
+        bounds = graph.getBounds();
+    }
+
+}
@@ -0,0 +1,277 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+import java.util.Random;
+
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
+
+/**
+ * One level of the hierarchy built by the
+ * {@link MultilevelForceDirectedLayoutComputation}. The finest level contains
+ * the nodes of the graph. Each coarser level is created by merging adjacent
+ * vertices of the level below, so that a vertex stands for a cluster of nodes
+ * and its weight is the number of nodes in the cluster.
+ * 
+ * Vertices that stand for an anchored node are never merged, so that they can
+ * keep the position of the node on every level.
+ */
+public class GraphLevel {
+
+    /**
+     * Creates the finest level, which contains one vertex per node of the
+     * snapshot.
+     */
+    public static GraphLevel createFinestLevel(LayoutGraphSnapshot snapshot) {
+        int nodeCount = snapshot.getNodeCount();
+        int[] weights = new int[nodeCount];
+        int[] anchoredNodes = new int[nodeCount];
+        int[] offsets = new int[nodeCount + 1];
+        int[] neighbours = new int[2 * snapshot.getArcCount()];
+
+        /* marks[u] == v iff u has already been added as a neighbour of v */
+        int[] marks = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            marks[i] = -1;
+        }
+        int count = 0;
+        for (int node = 0; node < nodeCount; node++) {
+            weights[node] = 1;
+            anchoredNodes[node] = snapshot.isAnchored(node) ? node : -1;
+            offsets[node] = count;
+            marks[node] = node;
+            for (int i = 0; i < snapshot.getOutgoingArcCount(node); i++) {
+                int neighbour = snapshot.getArcTarget(snapshot.getOutgoingArc(
+                        node, i));
+                if (neighbour != -1 && marks[neighbour] != node) {
+                    marks[neighbour] = node;
+                    neighbours[count++] = neighbour;
+                }
+            }
+            for (int i = 0; i < snapshot.getIncomingArcCount(node); i++) {
+                int neighbour = snapshot.getArcSource(snapshot.getIncomingArc(
+                        node, i));
+                if (neighbour != -1 && marks[neighbour] != node) {
+                    marks[neighbour] = node;
+                    neighbours[count++] = neighbour;
+                }
+            }
+        }
+        offsets[nodeCount] = count;
+
+        return new GraphLevel(nodeCount, weights, anchoredNodes, offsets,
+                neighbours);
+    }
+
+    private final int vertexCount;
+
+    private final int[] weights;
+
+    /*
+     * Ordinal of the anchored node a vertex stands for, -1 if the vertex is
+     * not anchored.
+     */
+    private final int[] anchoredNodes;
+
+    /*
+     * The distinct neighbours of vertex i are neighbours[offsets[i]] to
+     * neighbours[offsets[i + 1] - 1].
+     */
+    private final int[] offsets;
+
+    private final int[] neighbours;
+
+    /*
+     * The vertex of the next coarser level each vertex has been merged into,
+     * null if this is the coarsest level.
+     */
+    private int[] coarseVertices = null;
+
+    private GraphLevel(int vertexCount, int[] weights, int[] anchoredNodes,
+            int[] offsets, int[] neighbours) {
+        this.vertexCount = vertexCount;
+        this.weights = weights;
+        this.anchoredNodes = anchoredNodes;
+        this.offsets = offsets;
+        this.neighbours = neighbours;
+    }
+
+    /**
+     * Creates the next coarser level. Visits the vertices in random order and
+     * matches each with its lightest unmatched neighbour. Vertices that
+     * remain unmatched join the lightest cluster of a neighbour, which
+     * collapses stars in one step, and vertices without neighbours are merged
+     * in pairs.
+     */
+    public GraphLevel coarsen(Random random) {
+        int[] order = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            order[i] = i;
+        }
+        for (int i = vertexCount - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = order[i];
+            order[i] = order[j];
+            order[j] = swap;
+        }
+
+        int[] coarse = new int[vertexCount];
+        for (int i = 0; i < vertexCount; i++) {
+            coarse[i] = -1;
+        }
+        int[] coarseWeights = new int[vertexCount];
+        int coarseCount = 0;
+
+        for (int vertex : order) {
+            if (coarse[vertex] != -1 || isAnchored(vertex)) {
+                continue;
+            }
+            int match = -1;
+            for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                int neighbour = neighbours[i];
+                if (coarse[neighbour] == -1 && !isAnchored(neighbour)
+                        && (match == -1 || weights[neighbour] < weights[match])) {
+                    match = neighbour;
+                }
+            }
+            if (match != -1) {
+                coarse[vertex] = coarse[match] = coarseCount;
+                coarseWeights[coarseCount++] = weights[vertex]
+                        + weights[match];
+            }
+        }
+
+        int isolatedVertex = -1;
+        for (int vertex : order) {
+            if (coarse[vertex] != -1) {
+                continue;
+            }
+            int cluster = -1;
+            if (!isAnchored(vertex)) {
+                for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                    int neighbour = neighbours[i];
+                    if (coarse[neighbour] != -1
+                            && !isAnchored(neighbour)
+                            && (cluster == -1 || coarseWeights[coarse[neighbour]] < coarseWeights[cluster])) {
+                        cluster = coarse[neighbour];
+                    }
+                }
+                if (cluster == -1 && getNeighbourCount(vertex) == 0) {
+                    if (isolatedVertex != -1) {
+                        cluster = coarse[isolatedVertex];
+                        isolatedVertex = -1;
+                    } else {
+                        isolatedVertex = vertex;
+                    }
+                }
+            }
+            if (cluster == -1) {
+                cluster = coarseCount++;
+            }
+            coarse[vertex] = cluster;
+            coarseWeights[cluster] += weights[vertex];
+        }
+        coarseVertices = coarse;
+
+        /* members of coarse vertex c: members[memberOffsets[c]..] */
+        int[] memberOffsets = new int[coarseCount + 1];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            memberOffsets[coarse[vertex] + 1]++;
+        }
+        for (int c = 0; c < coarseCount; c++) {
+            memberOffsets[c + 1] += memberOffsets[c];
+        }
+        int[] members = new int[vertexCount];
+        int[] fill = new int[coarseCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int c = coarse[vertex];
+            members[memberOffsets[c] + fill[c]++] = vertex;
+        }
+
+        int[] weightsOfCoarseLevel = new int[coarseCount];
+        int[] anchoredNodesOfCoarseLevel = new int[coarseCount];
+        int[] coarseOffsets = new int[coarseCount + 1];
+        int[] coarseNeighbours = new int[neighbours.length];
+        int[] marks = new int[coarseCount];
+        for (int c = 0; c < coarseCount; c++) {
+            marks[c] = -1;
+        }
+        int count = 0;
+        for (int c = 0; c < coarseCount; c++) {
+            weightsOfCoarseLevel[c] = coarseWeights[c];
+            anchoredNodesOfCoarseLevel[c] = -1;
+            coarseOffsets[c] = count;
+            marks[c] = c;
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                int vertex = members[m];
+                if (isAnchored(vertex)) {
+                    anchoredNodesOfCoarseLevel[c] = anchoredNodes[vertex];
+                }
+                for (int i = offsets[vertex]; i < offsets[vertex + 1]; i++) {
+                    int neighbour = coarse[neighbours[i]];
+                    if (marks[neighbour] != c) {
+                        marks[neighbour] = c;
+                        coarseNeighbours[count++] = neighbour;
+                    }
+                }
+            }
+        }
+        coarseOffsets[coarseCount] = count;
+
+        return new GraphLevel(coarseCount, weightsOfCoarseLevel,
+                anchoredNodesOfCoarseLevel, coarseOffsets, coarseNeighbours);
+    }
+
+    /**
+     * @return the ordinal of the anchored node the vertex stands for, -1 if
+     *         the vertex is not anchored
+     */
+    public int getAnchoredNode(int vertex) {
+        return anchoredNodes[vertex];
+    }
+
+    /**
+     * @return the vertex of the next coarser level the vertex has been merged
+     *         into (only available after {@link #coarsen(Random)})
+     */
+    public int getCoarseVertex(int vertex) {
+        return coarseVertices[vertex];
+    }
+
+    public int getNeighbour(int vertex, int index) {
+        return neighbours[offsets[vertex] + index];
+    }
+
+    public int getNeighbourCount(int vertex) {
+        return offsets[vertex + 1] - offsets[vertex];
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    /**
+     * @return the number of nodes the vertex stands for
+     */
+    public int getWeight(int vertex) {
+        return weights[vertex];
+    }
+
+    public boolean isAnchored(int vertex) {
+        return anchoredNodes[vertex] != -1;
+    }
+
+}
@@ -0,0 +1,85 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+import java.util.Set;
+
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+
+/**
+ * The part of a graph that is iterated during an incremental layout: nodes
+ * that were recently added to the graph ("hot" nodes) and their direct
+ * neighbours. All other nodes are treated as fixed until the region has
+ * converged, so an iteration only costs time proportional to the size of the
+ * region.
+ * 
+ * A region refers to node ordinals, so it has to be recreated whenever the
+ * structure of the {@link ForceSimulationState} changes.
+ */
+public class LocalLayoutRegion {
+
+    private final boolean[] members;
+
+    private final int[] nodes;
+
+    public LocalLayoutRegion(ForceSimulationState state,
+            Set<LayoutNode> hotNodes) {
+
+        int nodeCount = state.getNodeCount();
+        members = new boolean[nodeCount];
+
+        int[] regionNodes = new int[nodeCount];
+        int regionSize = 0;
+        for (LayoutNode hotNode : hotNodes) {
+            int node = state.getOrdinal(hotNode);
+            if (node == -1) {
+                /* node has been removed from the graph */
+                continue;
+            }
+            if (!members[node]) {
+                members[node] = true;
+                regionNodes[regionSize++] = node;
+            }
+            int neighbourCount = state.getNeighbourCount(node);
+            for (int i = 0; i < neighbourCount; i++) {
+                int neighbour = state.getNeighbour(node, i);
+                if (!members[neighbour]) {
+                    members[neighbour] = true;
+                    regionNodes[regionSize++] = neighbour;
+                }
+            }
+        }
+
+        nodes = new int[regionSize];
+        System.arraycopy(regionNodes, 0, nodes, 0, regionSize);
+    }
+
+    public boolean contains(int node) {
+        return members[node];
+    }
+
+    /**
+     * @return the ordinal of the <code>index</code>th node in this region
+     */
+    public int getNode(int index) {
+        return nodes[index];
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+}
@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.executor.DelayedExecutor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutAlgorithm;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
+
+/**
+ * Force-directed layout for large graphs that lays out a coarsened version of
+ * the graph first and refines it level by level (see
+ * {@link MultilevelForceDirectedLayoutComputation}).
+ */
+public class MultilevelForceDirectedLayoutAlgorithm extends
+        AbstractLayoutAlgorithm {
+
+    private static final int ANIMATION_DURATION = 1000;
+
+    private ErrorHandler errorHandler;
+
+    private DelayedExecutor executor;
+
+    private NodeAnimator nodeAnimator;
+
+    public MultilevelForceDirectedLayoutAlgorithm(NodeAnimator nodeAnimator,
+            DelayedExecutor executor, ErrorHandler errorHandler) {
+        this.executor = executor;
+        this.executor
+                .setDelay(ForceDirectedLayoutAlgorithm.DELAY_BETWEEN_ITERATIONS);
+
+        this.errorHandler = errorHandler;
+        this.nodeAnimator = nodeAnimator;
+    }
+
+    @Override
+    protected AbstractLayoutComputation getLayoutComputation(LayoutGraph graph) {
+        return new MultilevelForceDirectedLayoutComputation(graph, executor,
+                errorHandler, nodeAnimator, ANIMATION_DURATION);
+    }
+
+}
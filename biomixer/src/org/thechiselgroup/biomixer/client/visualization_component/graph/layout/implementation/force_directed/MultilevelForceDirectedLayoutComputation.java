@@ -0,0 +1,498 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.BoundsDouble;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
+
+/**
+ * Multilevel force-directed layout (Walshaw, "A Multilevel Algorithm for
+ * Force-Directed Graph-Drawing"). The graph is coarsened by merging adjacent
+ * nodes until only a small core is left. The core is laid out first, and each
+ * finer level starts from the positions of the level above it, so that only
+ * local refinement is needed on the large levels.
+ * 
+ * Each iteration refines the current level once. Repulsion is only applied
+ * between vertices that are closer than a cut-off radius, which is found
+ * using a uniform grid, so that an iteration is linear in the size of the
+ * level. The nodes are moved once the finest level has converged.
+ */
+public class MultilevelForceDirectedLayoutComputation extends
+        AbstractLayoutComputation {
+
+    /**
+     * Coarsening stops once a level has at most this many vertices.
+     */
+    private static final int MIN_VERTEX_COUNT = 8;
+
+    /**
+     * Coarsening stops if a level has more than this fraction of the vertices
+     * of the level below, e.g. because most of the nodes are anchored.
+     */
+    private static final double MIN_COARSENING_RATIO = 0.9;
+
+    /**
+     * Ratio between the natural spring lengths of two consecutive levels.
+     */
+    private static final double NATURAL_LENGTH_RATIO = Math.sqrt(7.0 / 4.0);
+
+    private static final double REPULSION_STRENGTH = 0.2;
+
+    private static final double COOLING_FACTOR = 0.9;
+
+    /**
+     * A level has converged once no vertex moves by more than this fraction
+     * of the natural spring length.
+     */
+    private static final double CONVERGENCE_TOLERANCE = 0.01;
+
+    private static final int MAX_ITERATIONS_PER_LEVEL = 50;
+
+    /**
+     * Vertices of a level that are merged into the same coarse vertex are
+     * spread around its position by up to this fraction of the natural spring
+     * length.
+     */
+    private static final double PROLONGATION_JITTER = 0.1;
+
+    private static final long RANDOM_SEED = 0x5eedL;
+
+    /**
+     * Width of the repulsion radius in grid cells.
+     */
+    private static final int CELLS_PER_RADIUS = 2;
+
+    /**
+     * Grid cells with more vertices are treated as a single body when they
+     * are not the cell of the vertex the repulsion is calculated for.
+     */
+    private static final int MAX_EXACT_CELL_SIZE = 8;
+
+    private final int animationDuration;
+
+    private LayoutGraphSnapshot snapshot;
+
+    private final List<GraphLevel> levels = new ArrayList<GraphLevel>();
+
+    /*
+     * Index of the level that is being refined, -1 if the computation has not
+     * been started.
+     */
+    private int level = -1;
+
+    private int iterationsOnLevel;
+
+    private double[] x;
+
+    private double[] y;
+
+    private double[] displacementX;
+
+    private double[] displacementY;
+
+    private double naturalLength;
+
+    private double temperature;
+
+    private Random random;
+
+    /*
+     * Uniform grid used to find the vertices within the repulsion radius. The
+     * vertices in cell c are cellVertices[cellOffsets[c]] to
+     * cellVertices[cellOffsets[c + 1] - 1].
+     */
+    private int[] cellOffsets = new int[0];
+
+    private int[] cellVertices = new int[0];
+
+    private int[] vertexCells = new int[0];
+
+    /*
+     * Total weight of the vertices in each cell and their weighted sums of
+     * coordinates.
+     */
+    private double[] cellMasses = new double[0];
+
+    private double[] cellSumsX = new double[0];
+
+    private double[] cellSumsY = new double[0];
+
+    private int gridColumns;
+
+    private int gridRows;
+
+    public MultilevelForceDirectedLayoutComputation(LayoutGraph graph,
+            Executor executor, ErrorHandler errorHandler,
+            NodeAnimator nodeAnimator, int animationDuration) {
+        super(graph, executor, errorHandler, nodeAnimator);
+        this.animationDuration = animationDuration;
+    }
+
+    /**
+     * Adds the repulsion of a body of the given weight at offset (dx, dy)
+     * from vertex v to its displacement, if it is within the radius.
+     */
+    private void addRepulsion(int v, double dx, double dy, double weight,
+            double radius, double repulsion) {
+        double squaredDistance = dx * dx + dy * dy;
+        if (squaredDistance >= radius * radius) {
+            return;
+        }
+        if (squaredDistance == 0) {
+            /* push coincident vertices apart in any direction */
+            double angle = random.nextDouble() * 2 * Math.PI;
+            dx = Math.cos(angle) * naturalLength * PROLONGATION_JITTER;
+            dy = Math.sin(angle) * naturalLength * PROLONGATION_JITTER;
+            squaredDistance = dx * dx + dy * dy;
+        }
+        /* force w * C * k^2 / d in direction (dx, dy) / d */
+        double factor = weight * repulsion / squaredDistance;
+        displacementX[v] += dx * factor;
+        displacementY[v] += dy * factor;
+    }
+
+    /**
+     * Applies the attraction between neighbours and the repulsion between
+     * vertices that are closer than the cut-off radius to the displacements.
+     * Vertices in the same grid cell repel each other individually. Cells
+     * around the vertex that contain more than {@link #MAX_EXACT_CELL_SIZE}
+     * vertices act as a single body at their centre of mass, which keeps
+     * dense regions from making the iteration quadratic.
+     */
+    private void calculateDisplacements(GraphLevel graphLevel) {
+        int vertexCount = graphLevel.getVertexCount();
+        double radius = 2 * naturalLength * (level + 1);
+        double repulsion = REPULSION_STRENGTH * naturalLength * naturalLength;
+        updateGrid(graphLevel, radius);
+
+        for (int v = 0; v < vertexCount; v++) {
+            displacementX[v] = 0;
+            displacementY[v] = 0;
+
+            for (int i = 0; i < graphLevel.getNeighbourCount(v); i++) {
+                int u = graphLevel.getNeighbour(v, i);
+                double dx = x[u] - x[v];
+                double dy = y[u] - y[v];
+                double distance = Math.sqrt(dx * dx + dy * dy);
+                /* force d^2 / k in direction (dx, dy) / d */
+                displacementX[v] += dx * distance / naturalLength;
+                displacementY[v] += dy * distance / naturalLength;
+            }
+
+            int cell = vertexCells[v];
+            int column = cell % gridColumns;
+            int row = cell / gridColumns;
+            for (int r = Math.max(0, row - CELLS_PER_RADIUS); r <= Math.min(
+                    gridRows - 1, row + CELLS_PER_RADIUS); r++) {
+                for (int c = Math.max(0, column - CELLS_PER_RADIUS); c <= Math
+                        .min(gridColumns - 1, column + CELLS_PER_RADIUS); c++) {
+                    int neighbourCell = r * gridColumns + c;
+                    int start = cellOffsets[neighbourCell];
+                    int end = cellOffsets[neighbourCell + 1];
+                    if (neighbourCell != cell
+                            && end - start > MAX_EXACT_CELL_SIZE) {
+                        double mass = cellMasses[neighbourCell];
+                        addRepulsion(v, x[v] - cellSumsX[neighbourCell]
+                                / mass, y[v] - cellSumsY[neighbourCell]
+                                / mass, mass, radius, repulsion);
+                        continue;
+                    }
+                    for (int i = start; i < end; i++) {
+                        int u = cellVertices[i];
+                        if (u != v) {
+                            addRepulsion(v, x[v] - x[u], y[v] - y[u],
+                                    graphLevel.getWeight(u), radius,
+                                    repulsion);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the levels and places the vertices of the coarsest level at
+     * random positions within the bounds of the graph.
+     */
+    private void coarsen() {
+        random = new Random(RANDOM_SEED);
+        snapshot = graph.getSnapshot();
+        snapshot.readNodeStates();
+
+        levels.clear();
+        GraphLevel current = GraphLevel.createFinestLevel(snapshot);
+        levels.add(current);
+        while (current.getVertexCount() > MIN_VERTEX_COUNT) {
+            GraphLevel coarser = current.coarsen(random);
+            if (coarser.getVertexCount() > MIN_COARSENING_RATIO
+                    * current.getVertexCount()) {
+                break;
+            }
+            levels.add(coarser);
+            current = coarser;
+        }
+
+        level = levels.size() - 1;
+        naturalLength = getOptimalEdgeLength()
+                * Math.pow(NATURAL_LENGTH_RATIO, level);
+        temperature = 2 * naturalLength;
+        iterationsOnLevel = 0;
+
+        BoundsDouble bounds = graph.getBounds();
+        int vertexCount = current.getVertexCount();
+        resize(vertexCount);
+        for (int v = 0; v < vertexCount; v++) {
+            x[v] = bounds.getLeftX() + random.nextDouble() * bounds.getWidth();
+            y[v] = bounds.getTopY() + random.nextDouble() * bounds.getHeight();
+        }
+        placeAnchoredVertices(current);
+    }
+
+    @Override
+    protected boolean computeIteration() throws RuntimeException {
+        if (level == -1) {
+            if (graph.getAllNodes().isEmpty()) {
+                return false;
+            }
+            coarsen();
+        }
+
+        GraphLevel graphLevel = levels.get(level);
+        calculateDisplacements(graphLevel);
+        double maximumMove = moveVertices(graphLevel);
+        temperature *= COOLING_FACTOR;
+        iterationsOnLevel++;
+
+        if (maximumMove > CONVERGENCE_TOLERANCE * naturalLength
+                && iterationsOnLevel < MAX_ITERATIONS_PER_LEVEL) {
+            return true;
+        }
+        if (level > 0) {
+            prolongate();
+            return true;
+        }
+
+        moveNodes();
+        level = -1;
+        levels.clear();
+        snapshot = null;
+        return false;
+    }
+
+    private double getOptimalEdgeLength() {
+        return Math.sqrt(graph.getBounds().getArea()
+                / graph.getAllNodes().size()) / 2;
+    }
+
+    /**
+     * Animates the nodes to the positions of the finest level. The layout is
+     * scaled down and moved into the bounds of the graph if it does not fit
+     * and no node is anchored.
+     */
+    private void moveNodes() {
+        BoundsDouble bounds = graph.getBounds();
+        int nodeCount = snapshot.getNodeCount();
+
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        boolean anchored = false;
+        for (int node = 0; node < nodeCount; node++) {
+            anchored |= snapshot.isAnchored(node);
+            minX = Math.min(minX, x[node]);
+            minY = Math.min(minY, y[node]);
+            maxX = Math.max(maxX, x[node]);
+            maxY = Math.max(maxY, y[node]);
+        }
+        double scale = 1;
+        double offsetX = 0;
+        double offsetY = 0;
+        if (!anchored) {
+            double width = maxX - minX;
+            double height = maxY - minY;
+            if (width > bounds.getWidth() || height > bounds.getHeight()) {
+                scale = Math.min(width == 0 ? 1 : bounds.getWidth() / width,
+                        height == 0 ? 1 : bounds.getHeight() / height);
+            }
+            offsetX = bounds.getCentre().getX() - (minX + maxX) / 2 * scale;
+            offsetY = bounds.getCentre().getY() - (minY + maxY) / 2 * scale;
+        }
+
+        for (int node = 0; node < nodeCount; node++) {
+            if (snapshot.isAnchored(node)) {
+                continue;
+            }
+            LayoutNode layoutNode = snapshot.getNode(node);
+            double halfWidth = layoutNode.getSize().getWidth() / 2;
+            double halfHeight = layoutNode.getSize().getHeight() / 2;
+            double centreX = Math.max(bounds.getLeftX() + halfWidth, Math.min(
+                    bounds.getRightX() - halfWidth, x[node] * scale + offsetX));
+            double centreY = Math.max(bounds.getTopY() + halfHeight, Math.min(
+                    bounds.getBottomY() - halfHeight, y[node] * scale
+                            + offsetY));
+            animateTo(layoutNode,
+                    layoutNode.getTopLeftForCentreAt(centreX, centreY),
+                    animationDuration);
+        }
+    }
+
+    /**
+     * Moves each vertex along its displacement by at most the current
+     * temperature.
+     * 
+     * @return the largest distance a vertex has moved
+     */
+    private double moveVertices(GraphLevel graphLevel) {
+        double maximumMove = 0;
+        for (int v = 0; v < graphLevel.getVertexCount(); v++) {
+            if (graphLevel.isAnchored(v)) {
+                continue;
+            }
+            double length = Math.sqrt(displacementX[v] * displacementX[v]
+                    + displacementY[v] * displacementY[v]);
+            if (length == 0) {
+                continue;
+            }
+            double move = Math.min(length, temperature);
+            x[v] += displacementX[v] / length * move;
+            y[v] += displacementY[v] / length * move;
+            maximumMove = Math.max(maximumMove, move);
+        }
+        return maximumMove;
+    }
+
+    private void placeAnchoredVertices(GraphLevel graphLevel) {
+        for (int v = 0; v < graphLevel.getVertexCount(); v++) {
+            if (graphLevel.isAnchored(v)) {
+                int node = graphLevel.getAnchoredNode(v);
+                x[v] = snapshot.getCentreX(node);
+                y[v] = snapshot.getCentreY(node);
+            }
+        }
+    }
+
+    /**
+     * Places the vertices of the next finer level close to the coarse vertex
+     * they have been merged into.
+     */
+    private void prolongate() {
+        double[] coarseX = x;
+        double[] coarseY = y;
+
+        level--;
+        naturalLength /= NATURAL_LENGTH_RATIO;
+        temperature = naturalLength;
+        iterationsOnLevel = 0;
+
+        GraphLevel finer = levels.get(level);
+        int vertexCount = finer.getVertexCount();
+        resize(vertexCount);
+        double jitter = PROLONGATION_JITTER * naturalLength;
+        for (int v = 0; v < vertexCount; v++) {
+            int coarseVertex = finer.getCoarseVertex(v);
+            x[v] = coarseX[coarseVertex] + (random.nextDouble() - 0.5)
+                    * jitter;
+            y[v] = coarseY[coarseVertex] + (random.nextDouble() - 0.5)
+                    * jitter;
+        }
+        placeAnchoredVertices(finer);
+    }
+
+    private void resize(int vertexCount) {
+        x = new double[vertexCount];
+        y = new double[vertexCount];
+        if (displacementX == null || displacementX.length < vertexCount) {
+            displacementX = new double[vertexCount];
+            displacementY = new double[vertexCount];
+            vertexCells = new int[vertexCount];
+            cellVertices = new int[vertexCount];
+        }
+    }
+
+    /**
+     * Sorts the vertices into grid cells so that all vertices within the
+     * repulsion radius of a vertex are at most {@link #CELLS_PER_RADIUS} cells
+     * away from its cell.
+     */
+    private void updateGrid(GraphLevel graphLevel, double radius) {
+        int vertexCount = graphLevel.getVertexCount();
+        double minX = Double.POSITIVE_INFINITY;
+        double minY = Double.POSITIVE_INFINITY;
+        double maxX = Double.NEGATIVE_INFINITY;
+        double maxY = Double.NEGATIVE_INFINITY;
+        for (int v = 0; v < vertexCount; v++) {
+            minX = Math.min(minX, x[v]);
+            minY = Math.min(minY, y[v]);
+            maxX = Math.max(maxX, x[v]);
+            maxY = Math.max(maxY, y[v]);
+        }
+
+        /* limit the number of cells if the vertices are spread out widely */
+        double cellSize = radius / CELLS_PER_RADIUS;
+        int maxCellCount = 4 * vertexCount + 1;
+        while ((Math.floor((maxX - minX) / cellSize) + 1)
+                * (Math.floor((maxY - minY) / cellSize) + 1) > maxCellCount) {
+            cellSize *= 2;
+        }
+        gridColumns = (int) Math.floor((maxX - minX) / cellSize) + 1;
+        gridRows = (int) Math.floor((maxY - minY) / cellSize) + 1;
+
+        int cellCount = gridColumns * gridRows;
+        if (cellOffsets.length < cellCount + 1) {
+            cellOffsets = new int[cellCount + 1];
+            cellMasses = new double[cellCount];
+            cellSumsX = new double[cellCount];
+            cellSumsY = new double[cellCount];
+        }
+        for (int c = 0; c < cellCount; c++) {
+            cellOffsets[c] = 0;
+            cellMasses[c] = 0;
+            cellSumsX[c] = 0;
+            cellSumsY[c] = 0;
+        }
+        for (int v = 0; v < vertexCount; v++) {
+            int column = (int) ((x[v] - minX) / cellSize);
+            int row = (int) ((y[v] - minY) / cellSize);
+            int cell = row * gridColumns + column;
+            int weight = graphLevel.getWeight(v);
+            vertexCells[v] = cell;
+            cellOffsets[cell]++;
+            cellMasses[cell] += weight;
+            cellSumsX[cell] += weight * x[v];
+            cellSumsY[cell] += weight * y[v];
+        }
+        for (int c = 1; c < cellCount; c++) {
+            cellOffsets[c] += cellOffsets[c - 1];
+        }
+        cellOffsets[cellCount] = vertexCount;
+        /* decrementing the cell ends leaves the offsets at the cell starts */
+        for (int v = vertexCount - 1; v >= 0; v--) {
+            cellVertices[--cellOffsets[vertexCells[v]]] = v;
+        }
+    }
+
+}
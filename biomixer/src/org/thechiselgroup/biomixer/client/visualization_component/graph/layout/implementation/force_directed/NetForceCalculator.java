@@ -0,0 +1,57 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+/**
+ * Calculates the net forces that are applied to the nodes of the graph by all
+ * other nodes during an iteration of a {@link ForceDirectedLayoutComputation}.
+ * 
+ */
+public interface NetForceCalculator {
+
+    /**
+     * Calculates the net force on every unanchored node and adds it to the
+     * forces in <code>state</code>. The state has already been synchronized
+     * with the graph for the current iteration.
+     */
+    void calculateNetForces(ForceSimulationState state);
+
+    /**
+     * Calculates the net force on the unanchored nodes with ordinals from
+     * <code>firstNode</code> (inclusive) to <code>endNode</code> (exclusive).
+     * This allows splitting an iteration into slices. {@link #prepare} must
+     * have been called for the current iteration.
+     */
+    void calculateNetForces(ForceSimulationState state, int firstNode,
+            int endNode);
+
+    /**
+     * Calculates the net force on the unanchored nodes of <code>region</code>
+     * for an incremental layout iteration. The nodes outside the region do not
+     * move while the region is laid out, so implementations can reuse data
+     * about them between calls with the same region. Prepares the calculation
+     * itself.
+     */
+    void calculateNetForces(ForceSimulationState state,
+            LocalLayoutRegion region);
+
+    /**
+     * Sets up any data structures that are shared by all nodes during the
+     * current iteration.
+     */
+    void prepare(ForceSimulationState state);
+
+}
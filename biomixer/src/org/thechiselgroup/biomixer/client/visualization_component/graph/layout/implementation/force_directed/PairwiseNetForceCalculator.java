@@ -0,0 +1,55 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+/**
+ * Calculates the exact net force on a node by summing up the forces exerted by
+ * every other node on the graph. This requires O(n) force calculations per
+ * node.
+ * 
+ * @see BarnesHutNetForceCalculator
+ * 
+ */
+public class PairwiseNetForceCalculator extends AbstractNetForceCalculator {
+
+    private final ForceCalculator forceCalculator;
+
+    public PairwiseNetForceCalculator(ForceCalculator forceCalculator) {
+        this.forceCalculator = forceCalculator;
+    }
+
+    @Override
+    public void calculateNetForces(ForceSimulationState state, int firstNode,
+            int endNode) {
+        int nodeCount = state.getNodeCount();
+        for (int currentNode = firstNode; currentNode < endNode; currentNode++) {
+            if (state.isAnchored(currentNode)) {
+                continue;
+            }
+            for (int otherNode = 0; otherNode < nodeCount; otherNode++) {
+                if (otherNode != currentNode) {
+                    forceCalculator.addForce(state, currentNode, otherNode);
+                }
+            }
+        }
+    }
+
+    @Override
+    public void prepare(ForceSimulationState state) {
+        forceCalculator.prepare(state);
+    }
+
+}
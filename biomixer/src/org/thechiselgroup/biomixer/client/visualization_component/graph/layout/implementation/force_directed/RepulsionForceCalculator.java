@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed;
+
+/**
+ * A {@link ForceCalculator} for forces that only depend on the distance between
+ * two nodes and that push the current node directly away from the other node.
+ * Because of this, the force exerted by a group of distant nodes can be
+ * approximated by the force exerted by their centre of mass (see
+ * {@link BarnesHutQuadTree}).
+ * 
+ */
+public interface RepulsionForceCalculator extends ForceCalculator {
+
+    /**
+     * Calculates the magnitude of the repulsion force between two nodes. Like
+     * {@link #addForce(ForceSimulationState, int, int)}, this is only valid
+     * after {@link #prepare(ForceSimulationState)} has been called for the
+     * current iteration.
+     * 
+     * @param interNodeDistance
+     *            the distance between the centres of the two nodes. May be
+     *            less than 1 (including 0).
+     * @return the magnitude of the force
+     */
+    double getForceMagnitude(double interNodeDistance);
+
+}
@@ -33,6 +33,17 @@ public class SpringAttractionForceCalculator extends AbstractForceCalculator {
         this.springConstant = springConstant;
     }
 
+    @Override
+    public void addForce(ForceSimulationState state, int currentNode,
+            int otherNode) {
+        if (!state.areConnected(currentNode, otherNode)) {
+            return;
+        }
+        double dx = state.getCentreX(otherNode) - state.getCentreX(currentNode);
+        double dy = state.getCentreY(otherNode) - state.getCentreY(currentNode);
+        state.addForce(currentNode, springConstant * dx, springConstant * dy);
+    }
+
     @Override
     public Vector2D getForce(LayoutNode currentNode, LayoutNode otherNode) {
         if (!currentNode.isConnectedTo(otherNode)) {
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
+
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutAlgorithm;
+
+/**
+ * Keeps the {@link CycleDetector} of the graph that was laid out last, so that
+ * repeated tree layouts only search for cycles again after the nodes or arcs
+ * of the graph have changed.
+ */
+public abstract class AbstractTreeLayoutAlgorithm extends
+        AbstractLayoutAlgorithm {
+
+    private CycleDetector cycleDetector;
+
+    protected CycleDetector getCycleDetector(LayoutGraph graph) {
+        if (cycleDetector == null || cycleDetector.getGraph() != graph) {
+            cycleDetector = new CycleDetector(graph);
+        }
+        return cycleDetector;
+    }
+
+}
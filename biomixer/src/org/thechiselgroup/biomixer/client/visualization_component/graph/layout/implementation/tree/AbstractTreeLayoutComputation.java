@@ -42,6 +42,8 @@ public abstract class AbstractTreeLayoutComputation extends
 
     private final boolean reversed;
 
+    private final CycleDetector cycleDetector;
+
     /**
      * Traversing the dag normally results in a vertical tree with arrows
      * pointing up or horizontal tree with arrows pointing left. To get a
@@ -50,8 +52,10 @@ public abstract class AbstractTreeLayoutComputation extends
      */
     protected AbstractTreeLayoutComputation(LayoutGraph graph,
             Executor executor, ErrorHandler errorHandler,
-            NodeAnimator nodeAnimator, boolean reversed) {
+            NodeAnimator nodeAnimator, CycleDetector cycleDetector,
+            boolean reversed) {
         super(graph, executor, errorHandler, nodeAnimator);
+        this.cycleDetector = cycleDetector;
         this.reversed = reversed;
     }
 
@@ -60,8 +64,6 @@ public abstract class AbstractTreeLayoutComputation extends
         /*
          * XXX need to handle the case where there are cycles in the graph.
          */
-        CycleDetector cycleDetector = new CycleDetector(graph);
-
         /* Anchor the nodes in cycles */
         for (LayoutNode node : cycleDetector.getNodesInCycles()) {
             node.setAnchored(true);
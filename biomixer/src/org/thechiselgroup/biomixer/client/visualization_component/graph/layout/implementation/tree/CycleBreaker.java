@@ -0,0 +1,91 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutArc;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
+
+/**
+ * Finds arcs whose reversal makes the directed arcs between unanchored nodes
+ * acyclic. These are the arcs that lead back to a node on the current path of
+ * a depth-first search, so every cycle loses exactly the arc that closes it.
+ * The search is iterative and linear in the number of nodes and arcs.
+ */
+public class CycleBreaker {
+
+    private static final int UNVISITED = 0;
+
+    private static final int ON_PATH = 1;
+
+    private static final int FINISHED = 2;
+
+    /**
+     * @return the arcs that have to be reversed, see
+     *         {@link DirectedAcyclicGraphBuilder#getDirectedAcyclicGraphs(LayoutGraph, Set)}
+     */
+    public Set<LayoutArc> getArcsToReverse(LayoutGraph graph) {
+        LayoutGraphSnapshot snapshot = graph.getSnapshot();
+        int nodeCount = snapshot.getNodeCount();
+        boolean[] anchored = new boolean[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            anchored[i] = snapshot.getNode(i).isAnchored();
+        }
+
+        Set<LayoutArc> arcsToReverse = new HashSet<LayoutArc>();
+        int[] states = new int[nodeCount];
+        int[] nextArcs = new int[nodeCount];
+        int[] path = new int[nodeCount];
+        for (int start = 0; start < nodeCount; start++) {
+            if (states[start] != UNVISITED) {
+                continue;
+            }
+
+            int pathLength = 0;
+            path[pathLength++] = start;
+            states[start] = ON_PATH;
+            nextArcs[start] = 0;
+
+            while (pathLength > 0) {
+                int node = path[pathLength - 1];
+                if (nextArcs[node] == snapshot.getOutgoingArcCount(node)) {
+                    states[node] = FINISHED;
+                    pathLength--;
+                    continue;
+                }
+
+                int arc = snapshot.getOutgoingArc(node, nextArcs[node]++);
+                int target = snapshot.getArcTarget(arc);
+                if (!snapshot.isDirected(arc) || target == node
+                        || anchored[node] || anchored[target]) {
+                    continue;
+                }
+                if (states[target] == ON_PATH) {
+                    arcsToReverse.add(snapshot.getArc(arc));
+                } else if (states[target] == UNVISITED) {
+                    states[target] = ON_PATH;
+                    nextArcs[target] = 0;
+                    path[pathLength++] = target;
+                }
+            }
+        }
+        return arcsToReverse;
+    }
+
+}
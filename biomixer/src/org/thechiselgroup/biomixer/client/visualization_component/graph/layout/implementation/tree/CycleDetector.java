@@ -16,15 +16,12 @@
 package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.Stack;
 
-import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
 
 /**
@@ -34,76 +31,34 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.L
  * See
  * <code>http://en.wikipedia.org/wiki/Tarjan%27s_strongly_connected_components_algorithm</code>
  * 
+ * The search is iterative, so deep hierarchies do not overflow the stack. The
+ * result is cached until the snapshot of the graph changes.
+ * 
  * @author drusk
  * 
  */
 public class CycleDetector {
 
-    /**
-     * A vertex abstraction which contains data and operations specific to
-     * Tarjan's algorithm.
-     * 
-     * @author drusk
-     * 
-     */
-    private class Vertex {
-
-        private LayoutNode layoutNode;
-
-        private int index = -1;
-
-        private int lowLink = -1;
-
-        public Vertex(LayoutNode layoutNode) {
-            this.layoutNode = layoutNode;
-        }
-
-        public int getIndex() {
-            return index;
-        }
-
-        public LayoutNode getLayoutNode() {
-            return layoutNode;
-        }
-
-        /**
-         * 
-         * @return the smallest index of a vertex reachable from this vertex.
-         */
-        public int getLowLink() {
-            return lowLink;
-        }
-
-        public boolean isUnprocessed() {
-            return index == -1;
-        }
-
-        public void setIndex(int index) {
-            this.index = index;
-        }
-
-        /**
-         * Sets the smallest vertex index which is currently known to be
-         * reachable from this vertex.
-         * 
-         */
-        public void setLowLink(int lowLink) {
-            this.lowLink = lowLink;
-        }
-
+    private static void clearBit(int[] bits, int bit) {
+        bits[bit >> 5] &= ~(1 << (bit & 31));
     }
 
-    private boolean resultCached = false;
-
-    private int index = 0;
+    private static boolean isBitSet(int[] bits, int bit) {
+        return (bits[bit >> 5] & (1 << (bit & 31))) != 0;
+    }
 
-    private Stack<Vertex> visitedVertices = new Stack<Vertex>();
+    private static void setBit(int[] bits, int bit) {
+        bits[bit >> 5] |= 1 << (bit & 31);
+    }
 
-    private List<Set<LayoutNode>> stronglyConnectedComponents = new ArrayList<Set<LayoutNode>>();
+    private final LayoutGraph graph;
 
-    private Map<LayoutNode, Vertex> vertexRepresentations = new HashMap<LayoutNode, Vertex>();
+    /*
+     * The snapshot the cached result was computed for.
+     */
+    private LayoutGraphSnapshot snapshot = null;
 
-    private final LayoutGraph graph;
+    private List<Set<LayoutNode>> stronglyConnectedComponents = null;
 
     /**
      * Creates a new CycleDetector.
@@ -115,6 +70,90 @@ public class CycleDetector {
         this.graph = graph;
     }
 
+    private List<Set<LayoutNode>> computeStronglyConnectedComponents() {
+        int nodeCount = snapshot.getNodeCount();
+        int[] indices = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            indices[i] = -1;
+        }
+        int[] lowLinks = new int[nodeCount];
+        int[] nextSuccessors = new int[nodeCount];
+        /* bit set of the vertices in visitedVertices */
+        int[] onStack = new int[(nodeCount + 31) >> 5];
+
+        /* vertices of the components that are not complete yet */
+        int[] visitedVertices = new int[nodeCount];
+        int visitedCount = 0;
+        /* replaces the recursion of the original algorithm */
+        int[] searchPath = new int[nodeCount];
+        int searchPathLength = 0;
+        int index = 0;
+
+        List<Set<LayoutNode>> components = new ArrayList<Set<LayoutNode>>();
+        for (int start = 0; start < nodeCount; start++) {
+            if (indices[start] != -1) {
+                continue;
+            }
+
+            indices[start] = lowLinks[start] = index++;
+            nextSuccessors[start] = 0;
+            visitedVertices[visitedCount++] = start;
+            setBit(onStack, start);
+            searchPath[searchPathLength++] = start;
+
+            while (searchPathLength > 0) {
+                int vertex = searchPath[searchPathLength - 1];
+
+                if (nextSuccessors[vertex] < snapshot
+                        .getOutgoingArcCount(vertex)) {
+                    int successor = snapshot.getArcTarget(snapshot
+                            .getOutgoingArc(vertex, nextSuccessors[vertex]++));
+                    if (indices[successor] == -1) {
+                        /* "Successor" node has not yet been visited. */
+                        indices[successor] = lowLinks[successor] = index++;
+                        nextSuccessors[successor] = 0;
+                        visitedVertices[visitedCount++] = successor;
+                        setBit(onStack, successor);
+                        searchPath[searchPathLength++] = successor;
+                    } else if (isBitSet(onStack, successor)) {
+                        /*
+                         * "Successor" is in stack and therefore in the current
+                         * strongly connected component.
+                         */
+                        lowLinks[vertex] = Math.min(lowLinks[vertex],
+                                indices[successor]);
+                    }
+                    continue;
+                }
+
+                /* all successors of the vertex have been processed */
+                searchPathLength--;
+
+                /*
+                 * If the current vertex is a "root" node, pop the stack and
+                 * generate a strongly connected component.
+                 */
+                if (lowLinks[vertex] == indices[vertex]) {
+                    Set<LayoutNode> component = new HashSet<LayoutNode>();
+                    int poppedVertex;
+                    do {
+                        poppedVertex = visitedVertices[--visitedCount];
+                        clearBit(onStack, poppedVertex);
+                        component.add(snapshot.getNode(poppedVertex));
+                    } while (poppedVertex != vertex);
+                    components.add(component);
+                }
+
+                if (searchPathLength > 0) {
+                    int parent = searchPath[searchPathLength - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent],
+                            lowLinks[vertex]);
+                }
+            }
+        }
+        return components;
+    }
+
     /**
      * Retrieves sets of nodes which comprise cycles.
      * 
@@ -122,9 +161,8 @@ public class CycleDetector {
      *         cycle.
      */
     public List<Set<LayoutNode>> getCycles() {
-        getStronglyConnectedComponents();
         List<Set<LayoutNode>> cycles = new ArrayList<Set<LayoutNode>>();
-        for (Set<LayoutNode> stronglyConnectedComponent : stronglyConnectedComponents) {
+        for (Set<LayoutNode> stronglyConnectedComponent : getStronglyConnectedComponents()) {
             if (stronglyConnectedComponent.size() > 1) {
                 cycles.add(stronglyConnectedComponent);
             }
@@ -132,15 +170,21 @@ public class CycleDetector {
         return cycles;
     }
 
+    /**
+     * 
+     * @return the graph this detector operates on
+     */
+    public LayoutGraph getGraph() {
+        return graph;
+    }
+
     /**
      * 
      * @return a list of all nodes which are part of any cycle in the graph.
      */
     public List<LayoutNode> getNodesInCycles() {
         List<LayoutNode> nodesInCycles = new ArrayList<LayoutNode>();
-        getStronglyConnectedComponents();
-
-        for (Set<LayoutNode> stronglyConnectedComponent : stronglyConnectedComponents) {
+        for (Set<LayoutNode> stronglyConnectedComponent : getStronglyConnectedComponents()) {
             if (stronglyConnectedComponent.size() > 1) {
                 /* Nodes in this component form a cycle */
                 nodesInCycles.addAll(stronglyConnectedComponent);
@@ -155,9 +199,8 @@ public class CycleDetector {
      * @return the number of cycles in the graph.
      */
     public int getNumberOfCycles() {
-        getStronglyConnectedComponents();
         int numCycles = 0;
-        for (Set<LayoutNode> stronglyConnectedComponent : stronglyConnectedComponents) {
+        for (Set<LayoutNode> stronglyConnectedComponent : getStronglyConnectedComponents()) {
             if (stronglyConnectedComponent.size() > 1) {
                 numCycles++;
             }
@@ -171,29 +214,14 @@ public class CycleDetector {
      * acyclic graph each node will be in its own strongly connected component.
      * If there are cycles, there will be components with multiple nodes.
      * 
-     * @param graph
-     *            the graph whose nodes will be searched
      * @return a list of strongly connected components.
      */
     public List<Set<LayoutNode>> getStronglyConnectedComponents() {
-        if (resultCached) {
-            return stronglyConnectedComponents;
-        }
-
-        /* Maintaining state between calls to this method. */
-        resultCached = true;
-
-        /*
-         * Initialize the abstract vertex representations of the nodes.
-         */
-        for (LayoutNode node : graph.getAllNodes()) {
-            vertexRepresentations.put(node, new Vertex(node));
-        }
-
-        for (Vertex vertex : vertexRepresentations.values()) {
-            if (vertex.isUnprocessed()) {
-                process(vertex);
-            }
+        LayoutGraphSnapshot currentSnapshot = graph.getSnapshot();
+        if (stronglyConnectedComponents == null
+                || currentSnapshot != snapshot) {
+            snapshot = currentSnapshot;
+            stronglyConnectedComponents = computeStronglyConnectedComponents();
         }
         return stronglyConnectedComponents;
     }
@@ -209,74 +237,13 @@ public class CycleDetector {
         return getNumberOfCycles() != 0;
     }
 
-    /**
-     * Performs a recursive search for a strongly connected component.
-     * 
-     * @param vertex
-     *            the vertex to start from
-     */
-    private void process(Vertex vertex) {
-        vertex.setIndex(index);
-        vertex.setLowLink(index);
-        index++;
-        visitedVertices.push(vertex);
-
-        for (LayoutArc arc : vertex.getLayoutNode().getConnectedArcs()) {
-            Vertex sourceVertex = vertexRepresentations
-                    .get(arc.getSourceNode());
-
-            if (vertex.equals(sourceVertex)) {
-                Vertex targetVertex = vertexRepresentations.get(arc
-                        .getTargetNode());
-
-                if (targetVertex.isUnprocessed()) {
-                    /* "Successor" node has not yet been visited. Recurse on it. */
-                    process(targetVertex);
-                    vertex.setLowLink(Math.min(vertex.getLowLink(),
-                            targetVertex.getLowLink()));
-                } else if (visitedVertices.contains(targetVertex)) {
-                    /*
-                     * "Successor" is in stack and therefore in the current
-                     * strongly connected component.
-                     */
-                    vertex.setLowLink(Math.min(vertex.getLowLink(),
-                            targetVertex.getIndex()));
-                }
-            }
-        }
-
-        /*
-         * If the current vertex is a "root" node, pop the stack and generate a
-         * strongly connected component.
-         */
-        if (vertex.getLowLink() == vertex.getIndex()) {
-            /* Start a new strongly connected component */
-            Set<LayoutNode> stronglyConnectedComponent = new HashSet<LayoutNode>();
-
-            boolean shouldContinue = true;
-            while (shouldContinue) {
-                Vertex poppedVertex = visitedVertices.pop();
-                if (poppedVertex.equals(vertex)) {
-                    shouldContinue = false;
-                }
-                stronglyConnectedComponent.add(poppedVertex.getLayoutNode());
-            }
-
-            stronglyConnectedComponents.add(stronglyConnectedComponent);
-        }
-
-    }
-
     /**
      * Call this to uncache results from a previous run and make sure the
      * algorithm will run from scratch.
      */
     public void resetState() {
-        index = 0;
-        visitedVertices = new Stack<Vertex>();
-        stronglyConnectedComponents = new ArrayList<Set<LayoutNode>>();
-        vertexRepresentations = new HashMap<LayoutNode, Vertex>();
-        resultCached = false;
+        snapshot = null;
+        stronglyConnectedComponents = null;
     }
 
 }
@@ -16,12 +16,15 @@
 package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.thechiselgroup.biomixer.client.core.util.collections.LightweightList;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
 
 /**
@@ -39,11 +42,20 @@ public class DirectedAcyclicGraph {
      */
     private final List<DirectedAcyclicGraphNode> roots;
 
+    /**
+     * All nodes that can be reached from the roots, including the roots.
+     */
+    private final Set<DirectedAcyclicGraphNode> allNodes = new LinkedHashSet<DirectedAcyclicGraphNode>();
+
+    private final Set<LayoutNode> layoutNodes = new HashSet<LayoutNode>();
+
     /**
      * Provides quick lookup of nodes based on their max distance from any root
      */
     private Map<Integer, List<DirectedAcyclicGraphNode>> nodesByMaxDistanceFromARoot = new HashMap<Integer, List<DirectedAcyclicGraphNode>>();
 
+    private int numberOfNodesOnLongestPath;
+
     /**
      * 
      * @param roots
@@ -54,17 +66,12 @@ public class DirectedAcyclicGraph {
         assert !roots.isEmpty();
 
         this.roots = roots;
+        initializeNodes();
         initializeNodeDistanceMapping();
     }
 
     public boolean containsLayoutNode(LayoutNode node) {
-        Set<DirectedAcyclicGraphNode> allNodes = getAllNodes();
-        for (DirectedAcyclicGraphNode directedAcyclicGraphNode : allNodes) {
-            if (directedAcyclicGraphNode.getLayoutNode().equals(node)) {
-                return true;
-            }
-        }
-        return false;
+        return layoutNodes.contains(node);
     }
 
     /**
@@ -72,30 +79,7 @@ public class DirectedAcyclicGraph {
      * @return all nodes in the directed acycle graph
      */
     public Set<DirectedAcyclicGraphNode> getAllNodes() {
-        Set<DirectedAcyclicGraphNode> allNodes = new HashSet<DirectedAcyclicGraphNode>();
-        for (DirectedAcyclicGraphNode root : roots) {
-            allNodes.add(root);
-            allNodes.addAll(root.getDescendants());
-        }
-        return allNodes;
-    }
-
-    /**
-     * 
-     * @param dagNode
-     *            the node to find the distance for
-     * @return the maximum distance of <code>dagNode</code> from any of the
-     *         roots
-     */
-    private int getMaxDistanceFromAnyRoot(DirectedAcyclicGraphNode dagNode) {
-        int maxDepth = 0;
-        for (DirectedAcyclicGraphNode root : roots) {
-            int maxDepthFromRoot = root.getMaxDistance(dagNode);
-            if (maxDepthFromRoot > maxDepth) {
-                maxDepth = maxDepthFromRoot;
-            }
-        }
-        return maxDepth;
+        return Collections.unmodifiableSet(allNodes);
     }
 
     /**
@@ -118,7 +102,7 @@ public class DirectedAcyclicGraph {
      * @return the total number of nodes in the graph, including roots
      */
     public int getNumberOfNodes() {
-        return getAllNodes().size();
+        return allNodes.size();
     }
 
     /**
@@ -126,14 +110,7 @@ public class DirectedAcyclicGraph {
      * @return the number of nodes on the longest path from a root to leaf
      */
     public int getNumberOfNodesOnLongestPath() {
-        int longestPath = 0;
-        for (DirectedAcyclicGraphNode root : roots) {
-            int numberOfNodes = root.getMaxLengthToEndOfPath() + 1;
-            if (numberOfNodes > longestPath) {
-                longestPath = numberOfNodes;
-            }
-        }
-        return longestPath;
+        return numberOfNodesOnLongestPath;
     }
 
     /**
@@ -144,16 +121,88 @@ public class DirectedAcyclicGraph {
         return roots;
     }
 
+    /**
+     * Computes the maximum distance of every node from any of the roots in a
+     * single pass over the nodes in topological order: a node is placed once
+     * all of its parents have been placed, one level below the deepest of
+     * them.
+     */
     private void initializeNodeDistanceMapping() {
-        Set<DirectedAcyclicGraphNode> allNodes = getAllNodes();
+        Map<DirectedAcyclicGraphNode, int[]> remainingParents = new HashMap<DirectedAcyclicGraphNode, int[]>();
+        Map<DirectedAcyclicGraphNode, int[]> distances = new HashMap<DirectedAcyclicGraphNode, int[]>();
+        for (DirectedAcyclicGraphNode dagNode : allNodes) {
+            remainingParents.put(dagNode, new int[1]);
+            distances.put(dagNode, new int[1]);
+        }
+        for (DirectedAcyclicGraphNode dagNode : allNodes) {
+            LightweightList<DirectedAcyclicGraphNode> children = dagNode
+                    .getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                remainingParents.get(children.get(i))[0]++;
+            }
+        }
+
+        List<DirectedAcyclicGraphNode> placedNodes = new ArrayList<DirectedAcyclicGraphNode>(
+                allNodes.size());
         for (DirectedAcyclicGraphNode dagNode : allNodes) {
-            Integer maxDepth = Integer
-                    .valueOf(getMaxDistanceFromAnyRoot(dagNode));
-            if (!nodesByMaxDistanceFromARoot.containsKey(maxDepth)) {
-                nodesByMaxDistanceFromARoot.put(maxDepth,
+            if (remainingParents.get(dagNode)[0] == 0) {
+                placedNodes.add(dagNode);
+            }
+        }
+
+        int maxDistance = 0;
+        for (int i = 0; i < placedNodes.size(); i++) {
+            DirectedAcyclicGraphNode dagNode = placedNodes.get(i);
+            int distance = distances.get(dagNode)[0];
+            if (distance > maxDistance) {
+                maxDistance = distance;
+            }
+
+            Integer key = Integer.valueOf(distance);
+            if (!nodesByMaxDistanceFromARoot.containsKey(key)) {
+                nodesByMaxDistanceFromARoot.put(key,
                         new ArrayList<DirectedAcyclicGraphNode>());
             }
-            nodesByMaxDistanceFromARoot.get(maxDepth).add(dagNode);
+            nodesByMaxDistanceFromARoot.get(key).add(dagNode);
+
+            LightweightList<DirectedAcyclicGraphNode> children = dagNode
+                    .getChildren();
+            for (int j = 0; j < children.size(); j++) {
+                DirectedAcyclicGraphNode child = children.get(j);
+                int[] childDistance = distances.get(child);
+                if (distance + 1 > childDistance[0]) {
+                    childDistance[0] = distance + 1;
+                }
+                if (--remainingParents.get(child)[0] == 0) {
+                    placedNodes.add(child);
+                }
+            }
+        }
+        assert placedNodes.size() == allNodes.size() : "graph contains a cycle";
+
+        numberOfNodesOnLongestPath = maxDistance + 1;
+    }
+
+    /**
+     * Collects the nodes that can be reached from the roots without recursing,
+     * so that deep hierarchies do not overflow the stack.
+     */
+    private void initializeNodes() {
+        List<DirectedAcyclicGraphNode> nodesToVisit = new ArrayList<DirectedAcyclicGraphNode>(
+                roots);
+        while (!nodesToVisit.isEmpty()) {
+            DirectedAcyclicGraphNode dagNode = nodesToVisit
+                    .remove(nodesToVisit.size() - 1);
+            if (!allNodes.add(dagNode)) {
+                continue;
+            }
+            layoutNodes.add(dagNode.getLayoutNode());
+
+            LightweightList<DirectedAcyclicGraphNode> children = dagNode
+                    .getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                nodesToVisit.add(children.get(i));
+            }
         }
     }
 
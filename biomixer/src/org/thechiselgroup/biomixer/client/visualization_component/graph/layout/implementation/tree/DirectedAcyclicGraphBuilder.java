@@ -16,24 +16,53 @@
 package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
 
 import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
-import org.thechiselgroup.biomixer.client.core.util.collections.CollectionUtils;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
-import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraphSnapshot;
 
 /**
  * Takes a graph and finds all the separate {@link DirectedAcyclicGraph}s on it.
+ * The roots that share descendants are grouped with a union-find pass over the
+ * arcs, so the cost is linear in the number of nodes and arcs.
  * 
  * @author drusk
  * 
  */
 public class DirectedAcyclicGraphBuilder {
 
+    /**
+     * @return the representative of the set that contains <code>node</code>
+     */
+    private static int find(int[] parents, int node) {
+        while (parents[node] != node) {
+            /* path halving */
+            parents[node] = parents[parents[node]];
+            node = parents[node];
+        }
+        return node;
+    }
+
+    private static void union(int[] parents, int[] sizes, int node1, int node2) {
+        int root1 = find(parents, node1);
+        int root2 = find(parents, node2);
+        if (root1 == root2) {
+            return;
+        }
+        if (sizes[root1] < sizes[root2]) {
+            int swap = root1;
+            root1 = root2;
+            root2 = swap;
+        }
+        parents[root2] = root1;
+        sizes[root1] += sizes[root2];
+    }
+
     /**
      * 
      * @param graph
@@ -43,74 +72,92 @@ public class DirectedAcyclicGraphBuilder {
      *         {@link LayoutGraph}
      */
     public List<DirectedAcyclicGraph> getDirectedAcyclicGraphs(LayoutGraph graph) {
+        return getDirectedAcyclicGraphs(graph,
+                Collections.<LayoutArc> emptySet());
+    }
 
-        Map<LayoutNode, DirectedAcyclicGraphNode> directedAcyclicGraphNodes = new HashMap<LayoutNode, DirectedAcyclicGraphNode>();
-        List<DirectedAcyclicGraphNode> potentialRoots = new ArrayList<DirectedAcyclicGraphNode>();
-        for (LayoutNode node : graph.getAllNodes()) {
-            DirectedAcyclicGraphNode root = new DirectedAcyclicGraphNode(node);
-            directedAcyclicGraphNodes.put(node, root);
-            if (!node.isAnchored()) {
-                potentialRoots.add(root);
-            }
+    /**
+     * 
+     * @param graph
+     *            the graph whose nodes and arcs are to be examined for directed
+     *            acyclic graphs
+     * @param reversedArcs
+     *            arcs that are treated as if they pointed in the opposite
+     *            direction, e.g. to break cycles (see {@link CycleBreaker})
+     * @return the distinct {@link DirectedAcyclicGraphs}s on the
+     *         {@link LayoutGraph}
+     */
+    public List<DirectedAcyclicGraph> getDirectedAcyclicGraphs(
+            LayoutGraph graph, Set<LayoutArc> reversedArcs) {
+        LayoutGraphSnapshot snapshot = graph.getSnapshot();
+        int numberOfNodes = snapshot.getNodeCount();
+
+        DirectedAcyclicGraphNode[] directedAcyclicGraphNodes = new DirectedAcyclicGraphNode[numberOfNodes];
+        int[] parents = new int[numberOfNodes];
+        int[] sizes = new int[numberOfNodes];
+        for (int i = 0; i < numberOfNodes; i++) {
+            directedAcyclicGraphNodes[i] = new DirectedAcyclicGraphNode(
+                    snapshot.getNode(i));
+            parents[i] = i;
+            sizes[i] = 1;
         }
 
-        for (LayoutArc arc : graph.getAllArcs()) {
-            if (!arc.isDirected()) {
+        boolean[] hasParent = new boolean[numberOfNodes];
+        for (int arc = 0; arc < snapshot.getArcCount(); arc++) {
+            if (!snapshot.isDirected(arc)) {
                 /*
                  * This is a DIRECTED acyclic graph. For now just ignore
                  * undirected edges.
                  */
                 continue;
             }
+
             // XXX arcs point from child to parent. Therefore sourceNode is a
             // child of targetNode.
-            DirectedAcyclicGraphNode sourceNode = directedAcyclicGraphNodes
-                    .get(arc.getSourceNode());
-            DirectedAcyclicGraphNode targetNode = directedAcyclicGraphNodes
-                    .get(arc.getTargetNode());
-
-            if (sourceNode.getLayoutNode().isAnchored()
-                    || targetNode.getLayoutNode().isAnchored()) {
+            int source = snapshot.getArcSource(arc);
+            int target = snapshot.getArcTarget(arc);
+            if (source == target) {
+                continue;
+            }
+            if (snapshot.getNode(source).isAnchored()
+                    || snapshot.getNode(target).isAnchored()) {
                 continue;
             }
+            if (!reversedArcs.isEmpty()
+                    && reversedArcs.contains(snapshot.getArc(arc))) {
+                int swap = source;
+                source = target;
+                target = swap;
+            }
 
-            targetNode.addChild(sourceNode);
-            potentialRoots.remove(sourceNode);
+            directedAcyclicGraphNodes[target]
+                    .addChild(directedAcyclicGraphNodes[source]);
+            hasParent[source] = true;
+            union(parents, sizes, source, target);
         }
 
-        List<DirectedAcyclicGraph> directedAcyclicGraphs = new ArrayList<DirectedAcyclicGraph>();
-        List<List<DirectedAcyclicGraphNode>> rootLists = new ArrayList<List<DirectedAcyclicGraphNode>>();
-        List<DirectedAcyclicGraphNode> rootsAlreadyInADirectedAcyclicGraph = new ArrayList<DirectedAcyclicGraphNode>();
-
-        for (int i = 0; i < potentialRoots.size(); i++) {
-            DirectedAcyclicGraphNode root1 = potentialRoots.get(i);
-            if (rootsAlreadyInADirectedAcyclicGraph.contains(root1)) {
+        /*
+         * Roots in the same connected component share descendants (possibly
+         * via other roots) and therefore belong to the same directed acyclic
+         * graph. The graphs and their roots are kept in node order.
+         */
+        Map<Integer, List<DirectedAcyclicGraphNode>> rootsByComponent = new LinkedHashMap<Integer, List<DirectedAcyclicGraphNode>>();
+        for (int i = 0; i < numberOfNodes; i++) {
+            if (hasParent[i] || snapshot.getNode(i).isAnchored()) {
                 continue;
             }
-            List<DirectedAcyclicGraphNode> rootsInSameDirectedAcyclicGraph = new ArrayList<DirectedAcyclicGraphNode>();
-            rootsInSameDirectedAcyclicGraph.add(root1);
-            rootsAlreadyInADirectedAcyclicGraph.add(root1);
-
-            for (int j = i + 1; j < potentialRoots.size(); j++) {
-                DirectedAcyclicGraphNode root2 = potentialRoots.get(j);
-                if (rootsAlreadyInADirectedAcyclicGraph.contains(root2)) {
-                    continue;
-                }
-                Collection<DirectedAcyclicGraphNode> intersection = CollectionUtils
-                        .getIntersection(root1.getDescendants(),
-                                root2.getDescendants());
-                if (intersection.size() > 0) {
-                    // there are common descendants
-                    rootsInSameDirectedAcyclicGraph.add(root2);
-                    rootsAlreadyInADirectedAcyclicGraph.add(root2);
-                }
-
+            Integer component = Integer.valueOf(find(parents, i));
+            List<DirectedAcyclicGraphNode> roots = rootsByComponent
+                    .get(component);
+            if (roots == null) {
+                roots = new ArrayList<DirectedAcyclicGraphNode>();
+                rootsByComponent.put(component, roots);
             }
-            rootLists.add(rootsInSameDirectedAcyclicGraph);
-
+            roots.add(directedAcyclicGraphNodes[i]);
         }
 
-        for (List<DirectedAcyclicGraphNode> roots : rootLists) {
+        List<DirectedAcyclicGraph> directedAcyclicGraphs = new ArrayList<DirectedAcyclicGraph>();
+        for (List<DirectedAcyclicGraphNode> roots : rootsByComponent.values()) {
             directedAcyclicGraphs.add(new DirectedAcyclicGraph(roots));
         }
 
@@ -99,10 +99,10 @@ public class DirectedAcyclicGraphNode {
             return 0;
         }
 
-        if (children.contains(targetNode)) {
-            return 1;
-        }
-
+        /*
+         * A direct child can also be reachable via a longer path, so all
+         * children have to be searched.
+         */
         int maxDistance = -1;
         for (DirectedAcyclicGraphNode child : children) {
             int childDistance = child.getMaxDistance(targetNode);
@@ -20,10 +20,10 @@ import org.thechiselgroup.biomixer.client.core.util.executor.DirectExecutor;
 import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
-import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
 
-public class HorizontalTreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
+public class HorizontalTreeLayoutAlgorithm extends
+        AbstractTreeLayoutAlgorithm {
 
     private Executor executor = new DirectExecutor();
 
@@ -50,7 +50,8 @@ public class HorizontalTreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
     @Override
     protected AbstractLayoutComputation getLayoutComputation(LayoutGraph graph) {
         return new HorizontalTreeLayoutComputation(graph, executor,
-                errorHandler, nodeAnimator, pointingRight);
+                errorHandler, nodeAnimator, getCycleDetector(graph),
+                pointingRight);
     }
 
 }
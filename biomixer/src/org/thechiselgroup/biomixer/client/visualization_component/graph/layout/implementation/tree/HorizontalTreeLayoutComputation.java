@@ -27,8 +27,10 @@ public class HorizontalTreeLayoutComputation extends
 
     protected HorizontalTreeLayoutComputation(LayoutGraph graph,
             Executor executor, ErrorHandler errorHandler,
-            NodeAnimator nodeAnimator, boolean pointingRight) {
-        super(graph, executor, errorHandler, nodeAnimator, pointingRight);
+            NodeAnimator nodeAnimator, CycleDetector cycleDetector,
+            boolean pointingRight) {
+        super(graph, executor, errorHandler, nodeAnimator, cycleDetector,
+                pointingRight);
     }
 
     @Override
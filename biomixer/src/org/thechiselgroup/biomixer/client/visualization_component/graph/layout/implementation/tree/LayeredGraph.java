@@ -0,0 +1,550 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
+import org.thechiselgroup.biomixer.client.core.util.collections.LightweightList;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+
+/**
+ * A {@link DirectedAcyclicGraph} split into layers by the maximum distance of
+ * its nodes from a root. Arcs that span several layers are split by dummy
+ * vertices, so that their edges connect adjacent layers. Arcs that span more
+ * than {@link #MAX_SPLIT_SPAN} layers connect their ends directly instead,
+ * which keeps the number of dummies linear in the number of arcs even for
+ * very deep layerings. The vertices are numbered: the nodes of the directed
+ * acyclic graph come first, followed by the dummies.
+ * 
+ * Orders the vertices in each layer to reduce edge crossings (barycenter
+ * heuristic) and assigns them compact coordinates along the layers.
+ */
+class LayeredGraph {
+
+    static final int MAX_SPLIT_SPAN = 8;
+
+    private final LayoutNode[] nodes;
+
+    private final int vertexCount;
+
+    private final int[] layers;
+
+    /*
+     * The vertices of each layer, in their current order, and the index of
+     * each vertex within its layer.
+     */
+    private final int[][] layerVertices;
+
+    private final int[] positions;
+
+    /*
+     * Neighbours of vertex i in the layers above: upperNeighbours[upperOffsets[i]
+     * .. upperOffsets[i + 1]), the same for the layers below.
+     */
+    private int[] upperOffsets;
+
+    private int[] upperNeighbours;
+
+    private int[] lowerOffsets;
+
+    private int[] lowerNeighbours;
+
+    /*
+     * For dummy vertices, the nodes at the upper and lower end of the arc they
+     * belong to. -1 for nodes.
+     */
+    private final int[] upperEnds;
+
+    private final int[] lowerEnds;
+
+    /*
+     * Extent of the vertices along the layers and their centre coordinates.
+     */
+    private final double[] sizes;
+
+    private final double[] coordinates;
+
+    private double extent;
+
+    /**
+     * @param horizontal
+     *            if <code>true</code>, the layers are columns and the vertices
+     *            are spread vertically, otherwise the layers are rows
+     */
+    public LayeredGraph(DirectedAcyclicGraph dag, boolean horizontal) {
+        int nodeCount = dag.getNumberOfNodes();
+        int layerCount = dag.getNumberOfNodesOnLongestPath();
+
+        nodes = new LayoutNode[nodeCount];
+        int[] nodeLayers = new int[nodeCount];
+        DirectedAcyclicGraphNode[] dagNodes = new DirectedAcyclicGraphNode[nodeCount];
+        Map<DirectedAcyclicGraphNode, Integer> ordinals = new HashMap<DirectedAcyclicGraphNode, Integer>();
+        int ordinal = 0;
+        for (int layer = 0; layer < layerCount; layer++) {
+            for (DirectedAcyclicGraphNode dagNode : dag
+                    .getNodesAtDistanceFromRoot(layer)) {
+                dagNodes[ordinal] = dagNode;
+                nodes[ordinal] = dagNode.getLayoutNode();
+                nodeLayers[ordinal] = layer;
+                ordinals.put(dagNode, Integer.valueOf(ordinal));
+                ordinal++;
+            }
+        }
+
+        /*
+         * Collect the distinct parent-child edges and count the dummies.
+         */
+        int[] edgeCounts = new int[nodeCount];
+        int[][] edgeTargets = new int[nodeCount][];
+        int[] lastParents = new int[nodeCount];
+        for (int i = 0; i < nodeCount; i++) {
+            lastParents[i] = -1;
+        }
+        int dummyCount = 0;
+        int segmentCount = 0;
+        for (int parent = 0; parent < nodeCount; parent++) {
+            LightweightList<DirectedAcyclicGraphNode> children = dagNodes[parent]
+                    .getChildren();
+            edgeTargets[parent] = new int[children.size()];
+            for (int i = 0; i < children.size(); i++) {
+                int child = ordinals.get(children.get(i)).intValue();
+                if (lastParents[child] == parent) {
+                    /* several arcs between the same nodes */
+                    continue;
+                }
+                lastParents[child] = parent;
+                edgeTargets[parent][edgeCounts[parent]++] = child;
+
+                int span = nodeLayers[child] - nodeLayers[parent];
+                assert span > 0;
+                if (span <= MAX_SPLIT_SPAN) {
+                    dummyCount += span - 1;
+                    segmentCount += span;
+                } else {
+                    segmentCount++;
+                }
+            }
+        }
+
+        vertexCount = nodeCount + dummyCount;
+        layers = new int[vertexCount];
+        upperEnds = new int[vertexCount];
+        lowerEnds = new int[vertexCount];
+        System.arraycopy(nodeLayers, 0, layers, 0, nodeCount);
+        for (int i = 0; i < nodeCount; i++) {
+            upperEnds[i] = -1;
+            lowerEnds[i] = -1;
+        }
+
+        int[] segmentUppers = new int[segmentCount];
+        int[] segmentLowers = new int[segmentCount];
+        int segment = 0;
+        int dummy = nodeCount;
+        for (int parent = 0; parent < nodeCount; parent++) {
+            for (int i = 0; i < edgeCounts[parent]; i++) {
+                int child = edgeTargets[parent][i];
+                int upper = parent;
+                if (layers[child] - layers[parent] <= MAX_SPLIT_SPAN) {
+                    for (int layer = layers[parent] + 1; layer < layers[child]; layer++) {
+                        layers[dummy] = layer;
+                        upperEnds[dummy] = parent;
+                        lowerEnds[dummy] = child;
+                        segmentUppers[segment] = upper;
+                        segmentLowers[segment] = dummy;
+                        segment++;
+                        upper = dummy;
+                        dummy++;
+                    }
+                }
+                segmentUppers[segment] = upper;
+                segmentLowers[segment] = child;
+                segment++;
+            }
+        }
+
+        buildAdjacency(segmentUppers, segmentLowers);
+
+        int[] layerSizes = new int[layerCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            layerSizes[layers[vertex]]++;
+        }
+        layerVertices = new int[layerCount][];
+        for (int layer = 0; layer < layerCount; layer++) {
+            layerVertices[layer] = new int[layerSizes[layer]];
+            layerSizes[layer] = 0;
+        }
+        positions = new int[vertexCount];
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            int layer = layers[vertex];
+            positions[vertex] = layerSizes[layer];
+            layerVertices[layer][layerSizes[layer]++] = vertex;
+        }
+
+        sizes = new double[vertexCount];
+        for (int i = 0; i < nodeCount; i++) {
+            SizeDouble size = nodes[i].getSize();
+            sizes[i] = horizontal ? size.getHeight() : size.getWidth();
+        }
+        coordinates = new double[vertexCount];
+    }
+
+    /**
+     * Places the vertices as close to the mean of their neighbours as the
+     * order and spacing within the layers permits. Each layer is solved
+     * exactly as an isotonic regression, which takes linear time. The layers
+     * are processed top-down, bottom-up and top-down again.
+     * 
+     * @param nodeSpacing
+     *            the minimum gap between two vertices of a layer if at least
+     *            one of them is a node
+     * @param dummySpacing
+     *            the minimum gap between two dummy vertices
+     */
+    public void assignCoordinates(double nodeSpacing, double dummySpacing) {
+        double[] separations = new double[vertexCount];
+        for (int[] vertices : layerVertices) {
+            double coordinate = 0;
+            for (int i = 0; i < vertices.length; i++) {
+                int vertex = vertices[i];
+                if (i > 0) {
+                    int previous = vertices[i - 1];
+                    double gap = isDummy(vertex) && isDummy(previous) ? dummySpacing
+                            : nodeSpacing;
+                    separations[vertex] = (sizes[previous] + sizes[vertex])
+                            / 2 + gap;
+                    coordinate += separations[vertex];
+                } else {
+                    coordinate = sizes[vertex] / 2;
+                }
+                coordinates[vertex] = coordinate;
+            }
+        }
+
+        int layerCount = layerVertices.length;
+        double[] desired = new double[vertexCount];
+        for (int layer = 1; layer < layerCount; layer++) {
+            placeLayer(layer, upperOffsets, upperNeighbours, separations,
+                    desired);
+        }
+        for (int layer = layerCount - 2; layer >= 0; layer--) {
+            placeLayer(layer, lowerOffsets, lowerNeighbours, separations,
+                    desired);
+        }
+        for (int layer = 1; layer < layerCount; layer++) {
+            placeLayer(layer, upperOffsets, upperNeighbours, separations,
+                    desired);
+        }
+
+        double min = Double.MAX_VALUE;
+        double max = -Double.MAX_VALUE;
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            min = Math.min(min, coordinates[vertex] - sizes[vertex] / 2);
+            max = Math.max(max, coordinates[vertex] + sizes[vertex] / 2);
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            coordinates[vertex] -= min;
+        }
+        extent = max - min;
+    }
+
+    private void buildAdjacency(int[] segmentUppers, int[] segmentLowers) {
+        upperOffsets = new int[vertexCount + 1];
+        lowerOffsets = new int[vertexCount + 1];
+        for (int i = 0; i < segmentUppers.length; i++) {
+            upperOffsets[segmentLowers[i] + 1]++;
+            lowerOffsets[segmentUppers[i] + 1]++;
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            upperOffsets[vertex + 1] += upperOffsets[vertex];
+            lowerOffsets[vertex + 1] += lowerOffsets[vertex];
+        }
+
+        upperNeighbours = new int[segmentUppers.length];
+        lowerNeighbours = new int[segmentUppers.length];
+        int[] upperFill = new int[vertexCount];
+        int[] lowerFill = new int[vertexCount];
+        for (int i = 0; i < segmentUppers.length; i++) {
+            int upper = segmentUppers[i];
+            int lower = segmentLowers[i];
+            upperNeighbours[upperOffsets[lower] + upperFill[lower]++] = upper;
+            lowerNeighbours[lowerOffsets[upper] + lowerFill[upper]++] = lower;
+        }
+    }
+
+    /**
+     * @return the centre of the vertex along its layer, between 0 and
+     *         {@link #getExtent()}
+     */
+    public double getCoordinate(int vertex) {
+        return coordinates[vertex];
+    }
+
+    /**
+     * @return the extent of the widest layer after
+     *         {@link #assignCoordinates(double, double)}
+     */
+    public double getExtent() {
+        return extent;
+    }
+
+    public int getLayer(int vertex) {
+        return layers[vertex];
+    }
+
+    public int getLayerCount() {
+        return layerVertices.length;
+    }
+
+    /**
+     * @return the node at the lower end of the arc the dummy vertex belongs to
+     */
+    public int getLowerEnd(int dummy) {
+        return lowerEnds[dummy];
+    }
+
+    public LayoutNode getNode(int vertex) {
+        return nodes[vertex];
+    }
+
+    public int getNodeCount() {
+        return nodes.length;
+    }
+
+    /**
+     * @return the node at the upper end of the arc the dummy vertex belongs to
+     */
+    public int getUpperEnd(int dummy) {
+        return upperEnds[dummy];
+    }
+
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
+    public boolean isDummy(int vertex) {
+        return vertex >= nodes.length;
+    }
+
+    /**
+     * Orders the layers. Layers in which every vertex has a key keep the order
+     * of the keys. The other layers are ordered by a depth-first search from
+     * the roots, which keeps the subtrees together, and then improved by
+     * barycenter sweeps while the keyed layers stay fixed.
+     * 
+     * @param keys
+     *            the previous coordinates of the vertices, or
+     *            {@link Double#NaN} for vertices that are new
+     * @param sweeps
+     *            the number of down and up sweeps
+     */
+    public void order(double[] keys, int sweeps) {
+        int layerCount = layerVertices.length;
+        boolean[] layersToOrder = new boolean[layerCount];
+        boolean anyLayerToOrder = false;
+        for (int layer = 0; layer < layerCount; layer++) {
+            for (int vertex : layerVertices[layer]) {
+                if (Double.isNaN(keys[vertex])) {
+                    layersToOrder[layer] = true;
+                    anyLayerToOrder = true;
+                    break;
+                }
+            }
+            if (!layersToOrder[layer]) {
+                sortLayer(layer, keys);
+            }
+        }
+        if (!anyLayerToOrder) {
+            return;
+        }
+
+        double[] ranks = getDepthFirstRanks();
+        for (int layer = 0; layer < layerCount; layer++) {
+            if (layersToOrder[layer]) {
+                sortLayer(layer, ranks);
+            }
+        }
+
+        double[] barycenters = new double[vertexCount];
+        for (int sweep = 0; sweep < sweeps; sweep++) {
+            for (int layer = 1; layer < layerCount; layer++) {
+                if (layersToOrder[layer]) {
+                    orderByBarycenter(layer, upperOffsets, upperNeighbours,
+                            barycenters);
+                }
+            }
+            for (int layer = layerCount - 2; layer >= 0; layer--) {
+                if (layersToOrder[layer]) {
+                    orderByBarycenter(layer, lowerOffsets, lowerNeighbours,
+                            barycenters);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ranks the vertices in the order of a depth-first search from the roots
+     * (which are all in the first layer).
+     */
+    private double[] getDepthFirstRanks() {
+        double[] ranks = new double[vertexCount];
+        boolean[] visited = new boolean[vertexCount];
+        int[] nextNeighbours = new int[vertexCount];
+        int[] path = new int[layerVertices.length];
+        int rank = 0;
+        for (int root : layerVertices[0]) {
+            int pathLength = 0;
+            path[pathLength++] = root;
+            visited[root] = true;
+            ranks[root] = rank++;
+            nextNeighbours[root] = lowerOffsets[root];
+
+            while (pathLength > 0) {
+                int vertex = path[pathLength - 1];
+                if (nextNeighbours[vertex] == lowerOffsets[vertex + 1]) {
+                    pathLength--;
+                    continue;
+                }
+                int neighbour = lowerNeighbours[nextNeighbours[vertex]++];
+                if (!visited[neighbour]) {
+                    visited[neighbour] = true;
+                    ranks[neighbour] = rank++;
+                    nextNeighbours[neighbour] = lowerOffsets[neighbour];
+                    path[pathLength++] = neighbour;
+                }
+            }
+        }
+        return ranks;
+    }
+
+    /**
+     * Sorts a layer by the mean relative position of the neighbours of its
+     * vertices in the layers above (or below). Vertices without such
+     * neighbours keep their relative position.
+     */
+    private void orderByBarycenter(int layer, int[] offsets, int[] neighbours,
+            double[] barycenters) {
+        int[] vertices = layerVertices[layer];
+        for (int vertex : vertices) {
+            int start = offsets[vertex];
+            int end = offsets[vertex + 1];
+            if (start == end) {
+                barycenters[vertex] = getRelativePosition(vertex);
+                continue;
+            }
+            double sum = 0;
+            for (int i = start; i < end; i++) {
+                sum += getRelativePosition(neighbours[i]);
+            }
+            barycenters[vertex] = sum / (end - start);
+        }
+        sortLayer(layer, barycenters);
+    }
+
+    private double getRelativePosition(int vertex) {
+        return (positions[vertex] + 0.5)
+                / layerVertices[layers[vertex]].length;
+    }
+
+    private void placeLayer(int layer, int[] offsets, int[] neighbours,
+            double[] separations, double[] desired) {
+        int[] vertices = layerVertices[layer];
+        for (int vertex : vertices) {
+            int start = offsets[vertex];
+            int end = offsets[vertex + 1];
+            if (start == end) {
+                desired[vertex] = coordinates[vertex];
+                continue;
+            }
+            double sum = 0;
+            for (int i = start; i < end; i++) {
+                sum += coordinates[neighbours[i]];
+            }
+            desired[vertex] = sum / (end - start);
+        }
+
+        /*
+         * Minimise the squared distances to the desired coordinates subject to
+         * the separations: with offset[i] the sum of the separations up to
+         * vertex i, the coordinates minus their offsets have to be
+         * non-decreasing, which the pool adjacent violators algorithm solves.
+         */
+        int count = vertices.length;
+        double[] blockSums = new double[count];
+        int[] blockSizes = new int[count];
+        int blocks = 0;
+        double offset = 0;
+        for (int i = 0; i < count; i++) {
+            int vertex = vertices[i];
+            if (i > 0) {
+                offset += separations[vertex];
+            }
+            blockSums[blocks] = desired[vertex] - offset;
+            blockSizes[blocks] = 1;
+            blocks++;
+            while (blocks > 1
+                    && blockSums[blocks - 2] / blockSizes[blocks - 2] > blockSums[blocks - 1]
+                            / blockSizes[blocks - 1]) {
+                blockSums[blocks - 2] += blockSums[blocks - 1];
+                blockSizes[blocks - 2] += blockSizes[blocks - 1];
+                blocks--;
+            }
+        }
+
+        offset = 0;
+        int i = 0;
+        for (int block = 0; block < blocks; block++) {
+            double value = blockSums[block] / blockSizes[block];
+            for (int j = 0; j < blockSizes[block]; j++, i++) {
+                int vertex = vertices[i];
+                if (i > 0) {
+                    offset += separations[vertex];
+                }
+                coordinates[vertex] = value + offset;
+            }
+        }
+    }
+
+    /**
+     * Stable merge sort of the vertices of a layer by their keys.
+     */
+    private void sortLayer(int layer, double[] keys) {
+        int[] vertices = layerVertices[layer];
+        int[] buffer = new int[vertices.length];
+        for (int width = 1; width < vertices.length; width *= 2) {
+            for (int low = 0; low < vertices.length; low += 2 * width) {
+                int middle = Math.min(low + width, vertices.length);
+                int high = Math.min(low + 2 * width, vertices.length);
+                int left = low;
+                int right = middle;
+                for (int k = low; k < high; k++) {
+                    if (left < middle
+                            && (right >= high || keys[vertices[left]] <= keys[vertices[right]])) {
+                        buffer[k] = vertices[left++];
+                    } else {
+                        buffer[k] = vertices[right++];
+                    }
+                }
+            }
+            System.arraycopy(buffer, 0, vertices, 0, vertices.length);
+        }
+        for (int i = 0; i < vertices.length; i++) {
+            positions[vertices[i]] = i;
+        }
+    }
+
+}
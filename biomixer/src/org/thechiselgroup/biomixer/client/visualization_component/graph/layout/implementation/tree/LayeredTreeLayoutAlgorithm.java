@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
+
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.util.executor.DirectExecutor;
+import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
+
+/**
+ * Layered (Sugiyama style) layout for hierarchies. Nodes are placed in layers
+ * by their longest distance from a root, the layers are ordered to reduce arc
+ * crossings and the nodes are placed close to their parents and children.
+ * Arcs that close cycles are reversed instead of leaving the cycle out of the
+ * layout.
+ */
+public class LayeredTreeLayoutAlgorithm extends AbstractTreeLayoutAlgorithm {
+
+    private Executor executor = new DirectExecutor();
+
+    private ErrorHandler errorHandler;
+
+    private final boolean horizontal;
+
+    private final NodeAnimator nodeAnimator;
+
+    /**
+     * @param horizontal
+     *            if <code>true</code>, the roots are placed on the left,
+     *            otherwise at the top
+     */
+    public LayeredTreeLayoutAlgorithm(boolean horizontal,
+            ErrorHandler errorHandler, NodeAnimator nodeAnimator) {
+        this.errorHandler = errorHandler;
+        this.horizontal = horizontal;
+        this.nodeAnimator = nodeAnimator;
+    }
+
+    @Override
+    protected AbstractLayoutComputation getLayoutComputation(LayoutGraph graph) {
+        return new LayeredTreeLayoutComputation(graph, executor, errorHandler,
+                nodeAnimator, getCycleDetector(graph), horizontal);
+    }
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.tree;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.thechiselgroup.biomixer.client.core.error_handling.ErrorHandler;
+import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
+import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.BoundsDouble;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutArc;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
+
+/**
+ * Computation for the {@link LayeredTreeLayoutAlgorithm}. Remembers the layer
+ * and position of each node, so that when the layout is restarted after nodes
+ * have been added, the layers that did not change keep their order and only
+ * the layers with new nodes are reordered.
+ */
+public class LayeredTreeLayoutComputation extends AbstractLayoutComputation {
+
+    private static final int animationDuration = 1000;
+
+    private static final double NODE_SPACING = 20;
+
+    private static final double DUMMY_SPACING = 10;
+
+    private static final double LAYER_SPACING = 60;
+
+    private static final double DAG_SPACING = 60;
+
+    private static final double MARGIN = 20;
+
+    private static final int SWEEPS = 4;
+
+    private final CycleDetector cycleDetector;
+
+    private final boolean horizontal;
+
+    private Map<LayoutNode, Integer> previousLayers = new HashMap<LayoutNode, Integer>();
+
+    private Map<LayoutNode, Double> previousCoordinates = new HashMap<LayoutNode, Double>();
+
+    /**
+     * @param horizontal
+     *            if <code>true</code>, the roots are on the left and the layers
+     *            are columns, otherwise the roots are at the top and the layers
+     *            are rows
+     */
+    public LayeredTreeLayoutComputation(LayoutGraph graph, Executor executor,
+            ErrorHandler errorHandler, NodeAnimator nodeAnimator,
+            CycleDetector cycleDetector, boolean horizontal) {
+        super(graph, executor, errorHandler, nodeAnimator);
+        this.cycleDetector = cycleDetector;
+        this.horizontal = horizontal;
+    }
+
+    @Override
+    protected boolean computeIteration() throws RuntimeException {
+        Set<LayoutArc> reversedArcs = cycleDetector.hasCycles() ? new CycleBreaker()
+                .getArcsToReverse(graph) : Collections.<LayoutArc> emptySet();
+        List<DirectedAcyclicGraph> dags = new DirectedAcyclicGraphBuilder()
+                .getDirectedAcyclicGraphs(graph, reversedArcs);
+
+        LayeredGraph[] layeredGraphs = new LayeredGraph[dags.size()];
+        double totalExtent = DAG_SPACING * (dags.size() - 1);
+        for (int i = 0; i < dags.size(); i++) {
+            LayeredGraph layeredGraph = new LayeredGraph(dags.get(i),
+                    horizontal);
+            layeredGraph.order(getPreviousCoordinates(layeredGraph), SWEEPS);
+            layeredGraph.assignCoordinates(NODE_SPACING, DUMMY_SPACING);
+            layeredGraphs[i] = layeredGraph;
+            totalExtent += layeredGraph.getExtent();
+        }
+
+        BoundsDouble bounds = graph.getBounds();
+        double availableExtent = (horizontal ? bounds.getHeight() : bounds
+                .getWidth()) - 2 * MARGIN;
+        double offset = (horizontal ? bounds.getTopY() : bounds.getLeftX())
+                + MARGIN + Math.max(0, (availableExtent - totalExtent) / 2);
+        double layerStart = (horizontal ? bounds.getLeftX() : bounds.getTopY())
+                + MARGIN;
+
+        Map<LayoutNode, Integer> layers = new HashMap<LayoutNode, Integer>();
+        Map<LayoutNode, Double> coordinates = new HashMap<LayoutNode, Double>();
+        for (LayeredGraph layeredGraph : layeredGraphs) {
+            double[] layerCentres = getLayerCentres(layeredGraph, layerStart);
+            for (int node = 0; node < layeredGraph.getNodeCount(); node++) {
+                LayoutNode layoutNode = layeredGraph.getNode(node);
+                int layer = layeredGraph.getLayer(node);
+                double coordinate = layeredGraph.getCoordinate(node);
+                double centre = offset + coordinate;
+                animateTo(layoutNode, horizontal ? layoutNode
+                        .getTopLeftForCentreAt(layerCentres[layer], centre)
+                        : layoutNode.getTopLeftForCentreAt(centre,
+                                layerCentres[layer]), animationDuration);
+                layers.put(layoutNode, Integer.valueOf(layer));
+                coordinates.put(layoutNode, Double.valueOf(coordinate));
+            }
+            offset += layeredGraph.getExtent() + DAG_SPACING;
+        }
+        previousLayers = layers;
+        previousCoordinates = coordinates;
+
+        // this is not a continuous layout
+        return false;
+    }
+
+    private double[] getLayerCentres(LayeredGraph layeredGraph,
+            double layerStart) {
+        double[] thicknesses = new double[layeredGraph.getLayerCount()];
+        for (int node = 0; node < layeredGraph.getNodeCount(); node++) {
+            SizeDouble size = layeredGraph.getNode(node).getSize();
+            int layer = layeredGraph.getLayer(node);
+            thicknesses[layer] = Math.max(thicknesses[layer],
+                    horizontal ? size.getWidth() : size.getHeight());
+        }
+
+        double[] centres = new double[thicknesses.length];
+        double current = layerStart;
+        for (int layer = 0; layer < thicknesses.length; layer++) {
+            centres[layer] = current + thicknesses[layer] / 2;
+            current += thicknesses[layer] + LAYER_SPACING;
+        }
+        return centres;
+    }
+
+    /**
+     * @return the coordinate each node had in the previous run if it stayed
+     *         in the same layer, interpolated for the dummy vertices, and
+     *         {@link Double#NaN} otherwise
+     */
+    private double[] getPreviousCoordinates(LayeredGraph layeredGraph) {
+        int nodeCount = layeredGraph.getNodeCount();
+        double[] keys = new double[layeredGraph.getVertexCount()];
+        for (int node = 0; node < nodeCount; node++) {
+            LayoutNode layoutNode = layeredGraph.getNode(node);
+            Integer previousLayer = previousLayers.get(layoutNode);
+            if (previousLayer != null
+                    && previousLayer.intValue() == layeredGraph.getLayer(node)) {
+                keys[node] = previousCoordinates.get(layoutNode).doubleValue();
+            } else {
+                keys[node] = Double.NaN;
+            }
+        }
+
+        for (int dummy = nodeCount; dummy < keys.length; dummy++) {
+            int upper = layeredGraph.getUpperEnd(dummy);
+            int lower = layeredGraph.getLowerEnd(dummy);
+            double fraction = (double) (layeredGraph.getLayer(dummy) - layeredGraph
+                    .getLayer(upper))
+                    / (layeredGraph.getLayer(lower) - layeredGraph
+                            .getLayer(upper));
+            /* NaN if either end is new */
+            keys[dummy] = keys[upper] + (keys[lower] - keys[upper]) * fraction;
+        }
+        return keys;
+    }
+
+}
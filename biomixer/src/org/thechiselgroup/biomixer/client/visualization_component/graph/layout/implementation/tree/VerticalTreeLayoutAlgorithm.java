@@ -20,10 +20,10 @@ import org.thechiselgroup.biomixer.client.core.util.executor.DirectExecutor;
 import org.thechiselgroup.biomixer.client.core.util.executor.Executor;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.LayoutGraph;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.animations.NodeAnimator;
-import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.AbstractLayoutComputation;
 
-public class VerticalTreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
+public class VerticalTreeLayoutAlgorithm extends
+        AbstractTreeLayoutAlgorithm {
 
     private Executor executor = new DirectExecutor();
 
@@ -49,6 +49,6 @@ public class VerticalTreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
     @Override
     protected AbstractLayoutComputation getLayoutComputation(LayoutGraph graph) {
         return new VerticalTreeLayoutComputation(graph, executor, errorHandler,
-                nodeAnimator, pointingUp);
+                nodeAnimator, getCycleDetector(graph), pointingUp);
     }
 }
@@ -27,8 +27,10 @@ public class VerticalTreeLayoutComputation extends
 
     protected VerticalTreeLayoutComputation(LayoutGraph graph,
             Executor executor, ErrorHandler errorHandler,
-            NodeAnimator nodeAnimator, boolean pointingUp) {
-        super(graph, executor, errorHandler, nodeAnimator, !pointingUp);
+            NodeAnimator nodeAnimator, CycleDetector cycleDetector,
+            boolean pointingUp) {
+        super(graph, executor, errorHandler, nodeAnimator, cycleDetector,
+                !pointingUp);
     }
 
     @Override
@@ -57,6 +57,13 @@ public interface GraphRenderer {
 
     RenderedNodeExpander getRenderedNodeExpander(Node node);
 
+    /**
+     * 
+     * @return <code>true</code> if the level of detail is currently reduced
+     *         because the graph is too large to render everything in full.
+     */
+    boolean isDetailReduced();
+
     boolean isWidgetInitialized();
 
     void removeAllNodeExpanders();
@@ -78,6 +85,12 @@ public interface GraphRenderer {
 
     void setBackgroundEventListener(ChooselEventHandler handler);
 
+    /**
+     * Shows a node in full detail even while the level of detail is reduced,
+     * e.g. while the mouse is over it.
+     */
+    void setFullDetail(RenderedNode node, boolean fullDetail);
+
     void setGraphHeight(int height);
 
     void setGraphWidth(int width);
@@ -86,4 +99,16 @@ public interface GraphRenderer {
 
     void setViewWideInteractionHandler(ChooselEventHandler handler);
 
+    /**
+     * Turns viewport virtualization on or off. When it is on, only the nodes
+     * and arcs near the visible part of the graph are kept in the display.
+     * The others stay registered with the renderer and reappear when they are
+     * scrolled or moved back into view.
+     * 
+     * @param virtualized
+     *            if <code>true</code> then render only what is near the
+     *            viewport.
+     */
+    void setVirtualized(boolean virtualized);
+
 }
@@ -25,6 +25,14 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.N
  */
 public interface NodeRenderer {
 
-    RenderedNode createRenderedNode(Node node);
+    /**
+     * 
+     * @param node
+     *            the node to render
+     * @param detailed
+     *            if <code>false</code> the node starts out with the reduced
+     *            rendering (see {@link RenderedNode#setDetailed(boolean)})
+     */
+    RenderedNode createRenderedNode(Node node, boolean detailed);
 
 }
@@ -42,6 +42,11 @@ public interface RenderedArc {
 
     void setColor(String color);
 
+    /**
+     * Switches arc decorations such as arrow heads on or off.
+     */
+    void setDetailed(boolean detailed);
+
     void setEventListener(ChooselEventHandler handler);
 
     void setThickness(String thickness);
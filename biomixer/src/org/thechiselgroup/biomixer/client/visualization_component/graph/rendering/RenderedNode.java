@@ -64,6 +64,13 @@ public interface RenderedNode {
 
     String getType();
 
+    /**
+     * 
+     * @return <code>true</code> if the node shows its label and expansion
+     *         controls, <code>false</code> if it is shown as a small shape.
+     */
+    boolean isDetailed();
+
     void removeConnectedArc(RenderedArc arc);
 
     void setBackgroundColor(String color);
@@ -78,6 +85,12 @@ public interface RenderedNode {
 
     void setBorderColor(String color);
 
+    /**
+     * Switches between the full rendering and a small shape that needs no
+     * text layout. Used to reduce the level of detail for large graphs.
+     */
+    void setDetailed(boolean detailed);
+
     /**
      * 
      * @param handler
@@ -0,0 +1,34 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering;
+
+import java.util.List;
+
+/**
+ * Finds rendered nodes by area, so that renderers do not have to look at all
+ * nodes, e.g. when the viewport is scrolled.
+ */
+public interface RenderedNodeIndex {
+
+    /**
+     * @return the nodes whose bounds intersect the rectangle. For nodes that
+     *         are being animated, the bounds can be those of their target
+     *         position.
+     */
+    List<RenderedNode> getNodesIntersecting(double leftX, double topY,
+            double width, double height);
+
+}
@@ -15,8 +15,12 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -40,6 +44,10 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.N
  * Manages construction and deletion of graph visualization elements. Also
  * applies styling to nodes and arcs.
  * 
+ * Once there are more nodes than the {@link LevelOfDetailPolicy} allows, nodes
+ * are rendered without labels, arcs without decorations, and only one arc is
+ * displayed for each pair of connected nodes.
+ * 
  * @author drusk
  * 
  */
@@ -64,6 +72,23 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
 
     private Map<Node, RenderedNodeExpander> renderedNodeExpanders = new HashMap<Node, RenderedNodeExpander>();
 
+    private LevelOfDetailPolicy levelOfDetailPolicy = new LevelOfDetailPolicy();
+
+    private boolean detailReduced = false;
+
+    /*
+     * Nodes that stay detailed while the level of detail is reduced.
+     */
+    private Set<RenderedNode> fullDetailNodes = new HashSet<RenderedNode>();
+
+    /*
+     * Arcs grouped by the unordered pair of nodes they connect. While the
+     * level of detail is reduced, only the first arc of each bundle is in the
+     * graph.
+     */
+    private Map<String, List<RenderedArc>> arcBundles = CollectionFactory
+            .createStringMap();
+
     /*
      * Keep track of any node currently in the process of being removed so that
      * concurrent modifications can be detected and avoided.
@@ -83,6 +108,15 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
 
     protected abstract void addNodeToGraph(RenderedNode node);
 
+    private String getArcBundleKey(Arc arc) {
+        String sourceId = arc.getSourceNodeId();
+        String targetId = arc.getTargetNodeId();
+        if (sourceId.compareTo(targetId) <= 0) {
+            return sourceId + "\n" + targetId;
+        }
+        return targetId + "\n" + sourceId;
+    }
+
     @Override
     public SizeDouble getGraphSize() {
         return new DefaultSizeDouble(graphWidth, graphHeight);
@@ -93,6 +127,10 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         return renderedArcs.get(arc);
     }
 
+    protected Collection<RenderedArc> getRenderedArcs() {
+        return renderedArcs.values();
+    }
+
     @Override
     public RenderedNode getRenderedNode(Node node) {
         return renderedNodes.get(node);
@@ -103,6 +141,15 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         return renderedNodeExpanders.get(node);
     }
 
+    protected Collection<RenderedNode> getRenderedNodes() {
+        return renderedNodes.values();
+    }
+
+    @Override
+    public boolean isDetailReduced() {
+        return detailReduced;
+    }
+
     @Override
     public void removeAllNodeExpanders() {
         for (RenderedNodeExpander renderedNodeExpander : renderedNodeExpanders
@@ -118,7 +165,21 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         RenderedArc renderedArc = renderedArcs.get(arc);
         removeNodeConnections(renderedArc);
         renderedArcs.remove(arc);
-        removeArcFromGraph(renderedArc);
+
+        String bundleKey = getArcBundleKey(arc);
+        List<RenderedArc> bundle = arcBundles.get(bundleKey);
+        boolean wasFirstInBundle = bundle.get(0) == renderedArc;
+        bundle.remove(renderedArc);
+        if (bundle.isEmpty()) {
+            arcBundles.remove(bundleKey);
+        }
+
+        if (!detailReduced || wasFirstInBundle) {
+            removeArcFromGraph(renderedArc);
+            if (detailReduced && !bundle.isEmpty()) {
+                addArcToGraph(bundle.get(0));
+            }
+        }
     }
 
     protected abstract void removeArcFromGraph(RenderedArc arc);
@@ -141,8 +202,11 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         }
         renderedNodes.remove(node);
         renderedNodesById.remove(node.getId());
+        fullDetailNodes.remove(renderedNode);
         removeNodeFromGraph(renderedNode);
         nodeBeingRemoved = null;
+
+        updateLevelOfDetail(renderedNodes.size());
     }
 
     private void removeNodeConnections(RenderedArc arc) {
@@ -172,14 +236,30 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         RenderedArc renderedArc = arcRenderer.createRenderedArc(arc,
                 renderedSource, renderedTarget);
         renderedArcs.put(arc, renderedArc);
-        addArcToGraph(renderedArc);
+
+        String bundleKey = getArcBundleKey(arc);
+        List<RenderedArc> bundle = arcBundles.get(bundleKey);
+        if (bundle == null) {
+            bundle = new ArrayList<RenderedArc>(1);
+            arcBundles.put(bundleKey, bundle);
+        }
+        bundle.add(renderedArc);
+
+        if (detailReduced) {
+            renderedArc.setDetailed(false);
+        }
+        if (!detailReduced || bundle.size() == 1) {
+            addArcToGraph(renderedArc);
+        }
         return renderedArc;
     }
 
     @Override
     public RenderedNode renderNode(Node node) {
         assert !renderedNodes.containsKey(node) : "Cannot render the same node multiple times";
-        RenderedNode renderedNode = nodeRenderer.createRenderedNode(node);
+        updateLevelOfDetail(renderedNodes.size() + 1);
+        RenderedNode renderedNode = nodeRenderer.createRenderedNode(node,
+                !detailReduced);
         renderedNodes.put(node, renderedNode);
         renderedNodesById.put(node.getId(), renderedNode);
         addNodeToGraph(renderedNode);
@@ -217,6 +297,17 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         }
     }
 
+    @Override
+    public void setFullDetail(RenderedNode node, boolean fullDetail) {
+        assert renderedNodes.containsKey(node.getNode());
+        if (fullDetail) {
+            fullDetailNodes.add(node);
+        } else {
+            fullDetailNodes.remove(node);
+        }
+        node.setDetailed(fullDetail || !detailReduced);
+    }
+
     @Override
     public void setGraphHeight(int height) {
         this.graphHeight = height;
@@ -227,6 +318,16 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         this.graphWidth = width;
     }
 
+    /**
+     * Sets the policy and applies it to the nodes that are already rendered.
+     */
+    public void setLevelOfDetailPolicy(
+            LevelOfDetailPolicy levelOfDetailPolicy) {
+        assert levelOfDetailPolicy != null;
+        this.levelOfDetailPolicy = levelOfDetailPolicy;
+        updateLevelOfDetail(renderedNodes.size());
+    }
+
     @Override
     public void setNodeStyle(Node node, String styleProperty, String styleValue) {
         RenderedNode renderedNode = renderedNodes.get(node);
@@ -248,4 +349,32 @@ public abstract class AbstractGraphRenderer implements GraphRenderer {
         }
     }
 
+    private void updateLevelOfDetail(int nodeCount) {
+        boolean reduce = levelOfDetailPolicy.isDetailReduced(nodeCount);
+        if (reduce == detailReduced) {
+            return;
+        }
+
+        detailReduced = reduce;
+        for (RenderedNode renderedNode : renderedNodes.values()) {
+            if (!fullDetailNodes.contains(renderedNode)) {
+                renderedNode.setDetailed(!reduce);
+            }
+        }
+        for (List<RenderedArc> bundle : arcBundles.values()) {
+            for (int i = 0; i < bundle.size(); i++) {
+                RenderedArc renderedArc = bundle.get(i);
+                renderedArc.setDetailed(!reduce);
+                if (i == 0) {
+                    continue;
+                }
+                if (reduce) {
+                    removeArcFromGraph(renderedArc);
+                } else {
+                    addArcToGraph(renderedArc);
+                }
+            }
+        }
+    }
+
 }
@@ -22,6 +22,7 @@ import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
 import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeMovedListener;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.widget.Node;
 
 public abstract class AbstractRenderedNode implements RenderedNode {
@@ -38,6 +39,8 @@ public abstract class AbstractRenderedNode implements RenderedNode {
 
     private PointDouble topLeft;
 
+    private List<RenderedNodeMovedListener> movedListeners = null;
+
     protected AbstractRenderedNode(Node node) {
         this.node = node;
     }
@@ -47,6 +50,22 @@ public abstract class AbstractRenderedNode implements RenderedNode {
         connectedArcs.add(arc);
     }
 
+    public void addMovedListener(RenderedNodeMovedListener listener) {
+        if (movedListeners == null) {
+            movedListeners = new ArrayList<RenderedNodeMovedListener>();
+        }
+        movedListeners.add(listener);
+    }
+
+    private void fireNodeMoved() {
+        if (movedListeners == null) {
+            return;
+        }
+        for (RenderedNodeMovedListener listener : movedListeners) {
+            listener.onRenderedNodeMoved(this);
+        }
+    }
+
     @Override
     public PointDouble getCentre() {
         SizeDouble size = getSize(); // cache
@@ -94,6 +113,12 @@ public abstract class AbstractRenderedNode implements RenderedNode {
         connectedArcs.remove(arc);
     }
 
+    public void removeMovedListener(RenderedNodeMovedListener listener) {
+        if (movedListeners != null) {
+            movedListeners.remove(listener);
+        }
+    }
+
     /*
      * NOTE: setting x and y at the same time can significantly remove the
      * number of required updates.
@@ -104,6 +129,8 @@ public abstract class AbstractRenderedNode implements RenderedNode {
         this.topY = y;
 
         this.topLeft = null;
+
+        fireNodeMoved();
     }
 
     protected void updateConnectedArcs() {
@@ -0,0 +1,50 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation;
+
+/**
+ * Decides when a graph is too large to render every node with its label and
+ * every arc with its decorations.
+ */
+public class LevelOfDetailPolicy {
+
+    public static final int DEFAULT_MAX_DETAILED_NODE_COUNT = 500;
+
+    private final int maxDetailedNodeCount;
+
+    public LevelOfDetailPolicy() {
+        this(DEFAULT_MAX_DETAILED_NODE_COUNT);
+    }
+
+    /**
+     * 
+     * @param maxDetailedNodeCount
+     *            the largest number of nodes that is rendered in full detail
+     */
+    public LevelOfDetailPolicy(int maxDetailedNodeCount) {
+        assert maxDetailedNodeCount >= 0;
+        this.maxDetailedNodeCount = maxDetailedNodeCount;
+    }
+
+    public int getMaxDetailedNodeCount() {
+        return maxDetailedNodeCount;
+    }
+
+    public boolean isDetailReduced(int nodeCount) {
+        return nodeCount > maxDetailedNodeCount;
+    }
+
+}
@@ -15,6 +15,11 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg;
 
+import java.util.HashSet;
+import java.util.Set;
+
+import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
+import org.thechiselgroup.biomixer.client.core.geometry.SizeDouble;
 import org.thechiselgroup.biomixer.client.core.util.event.ChooselEventHandler;
 import org.thechiselgroup.biomixer.client.svg.javascript_renderer.ScrollableSvgWidget;
 import org.thechiselgroup.biomixer.client.svg.javascript_renderer.SvgWidget;
@@ -24,6 +29,8 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.renderin
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNode;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeExpander;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeIndex;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeMovedListener;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.AbstractGraphRenderer;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.arcs.AbstractSvgRenderedArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.expanders.AbstractSvgRenderedNodeExpander;
@@ -32,16 +39,40 @@ import org.thechiselgroup.biomixer.shared.svg.Svg;
 import org.thechiselgroup.biomixer.shared.svg.SvgElement;
 import org.thechiselgroup.biomixer.shared.svg.SvgElementFactory;
 
+import com.google.gwt.event.dom.client.ScrollEvent;
+import com.google.gwt.event.dom.client.ScrollHandler;
 import com.google.gwt.user.client.ui.Widget;
 
 /**
  * Manages low level details of the SVG graph rendering.
  * 
+ * When virtualized, only nodes and arcs that intersect the scrolled viewport
+ * (extended by a margin) are attached to the SVG document. The others are
+ * detached and arcs give their elements back to the arc renderer for reuse.
+ * With a {@link RenderedNodeIndex}, a viewport change only looks at the nodes
+ * the index finds around the viewport, their arcs, the long arcs and what was
+ * attached before. Without one, it looks at all nodes and arcs.
+ * 
  * @author drusk
  * 
  */
 public class SvgGraphRenderer extends AbstractGraphRenderer {
 
+    /**
+     * Distance around the viewport in which nodes and arcs are still rendered,
+     * so that short scrolls do not immediately show empty space.
+     */
+    public static final double DEFAULT_VIEWPORT_MARGIN = 200.0;
+
+    /**
+     * Arcs whose end points are at most this far apart horizontally and
+     * vertically are found through the nodes that the index finds within this
+     * distance around the extended viewport. Longer arcs are checked on every
+     * viewport change, because they can cross the viewport while both of
+     * their nodes are far away from it.
+     */
+    public static final double SHORT_ARC_EXTENT = 500.0;
+
     private SvgWidget svgWidget = null;
 
     private ScrollableSvgWidget asScrollingWidget = null;
@@ -60,6 +91,63 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
 
     private ChooselEventHandler viewWideInteractionHandler;
 
+    private boolean virtualized = false;
+
+    /*
+     * Only true once a viewport is known. Until then everything is rendered.
+     */
+    private boolean isViewportRestricted = false;
+
+    private double viewportMargin = DEFAULT_VIEWPORT_MARGIN;
+
+    /*
+     * The viewport extended by the margin.
+     */
+    private double viewportLeftX;
+
+    private double viewportTopY;
+
+    private double viewportRightX;
+
+    private double viewportBottomY;
+
+    private Set<AbstractSvgRenderedNode> attachedNodes = new HashSet<AbstractSvgRenderedNode>();
+
+    private Set<AbstractSvgRenderedArc> attachedArcs = new HashSet<AbstractSvgRenderedArc>();
+
+    private final Set<AbstractSvgRenderedNode> nodesInGraph = new HashSet<AbstractSvgRenderedNode>();
+
+    /*
+     * Arcs in the graph that are longer than the short arc extent.
+     */
+    private final Set<AbstractSvgRenderedArc> longArcs = new HashSet<AbstractSvgRenderedArc>();
+
+    private RenderedNodeIndex nodeIndex = null;
+
+    /*
+     * Arcs that have been added to the graph. Rendered arcs that are hidden
+     * in a bundle are not in here and must not be attached.
+     */
+    private final Set<AbstractSvgRenderedArc> arcsInGraph = new HashSet<AbstractSvgRenderedArc>();
+
+    private RenderedNodeMovedListener nodeMovedListener = new RenderedNodeMovedListener() {
+        @Override
+        public void onRenderedNodeMoved(RenderedNode node) {
+            for (RenderedArc arc : node.getConnectedArcs()) {
+                updateArcLength((AbstractSvgRenderedArc) arc);
+            }
+
+            if (!isViewportRestricted) {
+                return;
+            }
+
+            updateAttachment((AbstractSvgRenderedNode) node);
+            for (RenderedArc arc : node.getConnectedArcs()) {
+                updateAttachment((AbstractSvgRenderedArc) arc);
+            }
+        }
+    };
+
     public SvgGraphRenderer(int width, int height,
             SvgElementFactory svgElementFactory, NodeRenderer nodeRenderer,
             ArcRenderer arcRenderer, NodeExpanderRenderer nodeExpanderRenderer) {
@@ -74,7 +162,14 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
 
     @Override
     protected void addArcToGraph(RenderedArc arc) {
-        arcGroup.appendChild((AbstractSvgRenderedArc) arc);
+        AbstractSvgRenderedArc svgArc = (AbstractSvgRenderedArc) arc;
+        arcsInGraph.add(svgArc);
+        updateArcLength(svgArc);
+        if (isNearViewport(svgArc)) {
+            attach(svgArc);
+        } else {
+            svgArc.releaseSvgElements();
+        }
     }
 
     @Override
@@ -84,7 +179,12 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
 
     @Override
     protected void addNodeToGraph(RenderedNode node) {
-        nodeGroup.appendChild((AbstractSvgRenderedNode) node);
+        AbstractSvgRenderedNode svgNode = (AbstractSvgRenderedNode) node;
+        nodesInGraph.add(svgNode);
+        svgNode.addMovedListener(nodeMovedListener);
+        if (isNearViewport(svgNode)) {
+            attach(svgNode);
+        }
     }
 
     /**
@@ -96,14 +196,29 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
         return rootSvgComponent.asSvgElement();
     }
 
+    private void attach(AbstractSvgRenderedArc arc) {
+        attachedArcs.add(arc);
+        arcGroup.appendChild(arc);
+    }
+
+    private void attach(AbstractSvgRenderedNode node) {
+        attachedNodes.add(node);
+        nodeGroup.appendChild(node);
+    }
+
     @Override
     public void bringToForeground(RenderedNode node) {
-        nodeGroup.appendChild((AbstractSvgRenderedNode) node);
+        if (attachedNodes.contains(node)) {
+            nodeGroup.appendChild((AbstractSvgRenderedNode) node);
+        }
     }
 
     @Override
     public void checkIfScrollbarsNeeded() {
         asScrollingWidget.checkIfScrollbarsNeeded();
+        if (virtualized) {
+            updateViewportFromWidget();
+        }
     }
 
     private CompositeSvgComponent createCompositeGroupingComponent(String id) {
@@ -112,6 +227,19 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
         return new CompositeSvgComponent(groupingElement);
     }
 
+    private void detach(AbstractSvgRenderedArc arc) {
+        if (attachedArcs.remove(arc)) {
+            arcGroup.removeChild(arc);
+        }
+        arc.releaseSvgElements();
+    }
+
+    private void detach(AbstractSvgRenderedNode node) {
+        if (attachedNodes.remove(node)) {
+            nodeGroup.removeChild(node);
+        }
+    }
+
     @Override
     public Widget getGraphWidget() {
         if (!isWidgetInitialized()) {
@@ -124,6 +252,14 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
             asScrollingWidget.setTextUnselectable();
             asScrollingWidget.getElement().getStyle()
                     .setBackgroundColor("white");
+            asScrollingWidget.addScrollHandler(new ScrollHandler() {
+                @Override
+                public void onScroll(ScrollEvent event) {
+                    if (virtualized) {
+                        updateViewportFromWidget();
+                    }
+                }
+            });
         }
         return asScrollingWidget;
     }
@@ -152,14 +288,64 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
         rootSvgComponent.appendChild(popupGroup);
     }
 
+    private boolean isNearViewport(AbstractSvgRenderedArc arc) {
+        if (!isViewportRestricted) {
+            return true;
+        }
+
+        /*
+         * Uses the box spanned by the end points. This can keep a diagonal arc
+         * that passes by a corner of the viewport, which is harmless.
+         */
+        PointDouble sourceCentre = arc.getSource().getCentre();
+        PointDouble targetCentre = arc.getTarget().getCentre();
+        return overlapsViewport(
+                Math.min(sourceCentre.getX(), targetCentre.getX()),
+                Math.min(sourceCentre.getY(), targetCentre.getY()),
+                Math.max(sourceCentre.getX(), targetCentre.getX()),
+                Math.max(sourceCentre.getY(), targetCentre.getY()));
+    }
+
+    private boolean isNearViewport(AbstractSvgRenderedNode node) {
+        if (!isViewportRestricted) {
+            return true;
+        }
+
+        SizeDouble size = node.getSize();
+        double leftX = node.getLeftX();
+        double topY = node.getTopY();
+        return overlapsViewport(leftX, topY, leftX + size.getWidth(), topY
+                + size.getHeight());
+    }
+
+    public boolean isRendered(RenderedArc arc) {
+        return attachedArcs.contains(arc);
+    }
+
+    public boolean isRendered(RenderedNode node) {
+        return attachedNodes.contains(node);
+    }
+
+    public boolean isVirtualized() {
+        return virtualized;
+    }
+
     @Override
     public boolean isWidgetInitialized() {
         return svgWidget != null;
     }
 
+    private boolean overlapsViewport(double leftX, double topY,
+            double rightX, double bottomY) {
+        return rightX >= viewportLeftX && leftX <= viewportRightX
+                && bottomY >= viewportTopY && topY <= viewportBottomY;
+    }
+
     @Override
     protected void removeArcFromGraph(RenderedArc arc) {
-        arcGroup.removeChild((AbstractSvgRenderedArc) arc);
+        arcsInGraph.remove(arc);
+        longArcs.remove(arc);
+        detach((AbstractSvgRenderedArc) arc);
     }
 
     @Override
@@ -169,7 +355,10 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
 
     @Override
     protected void removeNodeFromGraph(RenderedNode node) {
-        nodeGroup.removeChild((AbstractSvgRenderedNode) node);
+        AbstractSvgRenderedNode svgNode = (AbstractSvgRenderedNode) node;
+        nodesInGraph.remove(svgNode);
+        svgNode.removeMovedListener(nodeMovedListener);
+        detach(svgNode);
     }
 
     @Override
@@ -193,10 +382,133 @@ public class SvgGraphRenderer extends AbstractGraphRenderer {
         asScrollingWidget.setScrollableContentWidth(width);
     }
 
+    /**
+     * Renders only the nodes and arcs that intersect the given area extended
+     * by the viewport margin. Virtualized renderers call this themselves when
+     * their widget is scrolled or resized.
+     */
+    public void setViewport(double leftX, double topY, double width,
+            double height) {
+        viewportLeftX = leftX - viewportMargin;
+        viewportTopY = topY - viewportMargin;
+        viewportRightX = leftX + width + viewportMargin;
+        viewportBottomY = topY + height + viewportMargin;
+        isViewportRestricted = true;
+        updateAllAttachments();
+    }
+
+    public void setViewportMargin(double viewportMargin) {
+        assert viewportMargin >= 0;
+        this.viewportMargin = viewportMargin;
+    }
+
+    /**
+     * Sets the index that is used to find the nodes around the viewport. It
+     * must contain all nodes of this renderer.
+     */
+    public void setNodeIndex(RenderedNodeIndex nodeIndex) {
+        this.nodeIndex = nodeIndex;
+    }
+
     @Override
     public void setViewWideInteractionHandler(ChooselEventHandler handler) {
         this.viewWideInteractionHandler = handler;
         rootSvgComponent.setEventListener(handler);
     }
 
+    @Override
+    public void setVirtualized(boolean virtualized) {
+        this.virtualized = virtualized;
+        if (virtualized) {
+            if (isWidgetInitialized()) {
+                updateViewportFromWidget();
+            }
+        } else if (isViewportRestricted) {
+            isViewportRestricted = false;
+            updateAllAttachments();
+        }
+    }
+
+    private void updateAllAttachments() {
+        if (!isViewportRestricted || nodeIndex == null) {
+            for (RenderedNode node : getRenderedNodes()) {
+                updateAttachment((AbstractSvgRenderedNode) node);
+            }
+            for (RenderedArc arc : getRenderedArcs()) {
+                updateAttachment((AbstractSvgRenderedArc) arc);
+            }
+            return;
+        }
+
+        /*
+         * The index can return nodes at the target of their animation. Nodes
+         * that are rendered elsewhere are attached by the moved listener once
+         * they move near the viewport.
+         */
+        Set<AbstractSvgRenderedNode> nodes = new HashSet<AbstractSvgRenderedNode>(
+                attachedNodes);
+        Set<AbstractSvgRenderedArc> arcs = new HashSet<AbstractSvgRenderedArc>(
+                attachedArcs);
+        arcs.addAll(longArcs);
+        for (RenderedNode node : nodeIndex.getNodesIntersecting(viewportLeftX
+                - SHORT_ARC_EXTENT, viewportTopY - SHORT_ARC_EXTENT,
+                viewportRightX - viewportLeftX + 2 * SHORT_ARC_EXTENT,
+                viewportBottomY - viewportTopY + 2 * SHORT_ARC_EXTENT)) {
+            nodes.add((AbstractSvgRenderedNode) node);
+            for (RenderedArc arc : node.getConnectedArcs()) {
+                arcs.add((AbstractSvgRenderedArc) arc);
+            }
+        }
+
+        for (AbstractSvgRenderedNode node : nodes) {
+            updateAttachment(node);
+        }
+        for (AbstractSvgRenderedArc arc : arcs) {
+            updateAttachment(arc);
+        }
+    }
+
+    private void updateArcLength(AbstractSvgRenderedArc arc) {
+        if (!arcsInGraph.contains(arc)) {
+            return;
+        }
+
+        PointDouble sourceCentre = arc.getSource().getCentre();
+        PointDouble targetCentre = arc.getTarget().getCentre();
+        double width = Math.abs(sourceCentre.getX() - targetCentre.getX());
+        double height = Math.abs(sourceCentre.getY() - targetCentre.getY());
+        if (width > SHORT_ARC_EXTENT || height > SHORT_ARC_EXTENT) {
+            longArcs.add(arc);
+        } else {
+            longArcs.remove(arc);
+        }
+    }
+
+    private void updateAttachment(AbstractSvgRenderedArc arc) {
+        if (arcsInGraph.contains(arc) && isNearViewport(arc)) {
+            if (!attachedArcs.contains(arc)) {
+                attach(arc);
+            }
+        } else if (attachedArcs.contains(arc)) {
+            detach(arc);
+        }
+    }
+
+    private void updateAttachment(AbstractSvgRenderedNode node) {
+        if (nodesInGraph.contains(node) && isNearViewport(node)) {
+            if (!attachedNodes.contains(node)) {
+                attach(node);
+            }
+        } else {
+            detach(node);
+        }
+    }
+
+    private void updateViewportFromWidget() {
+        setViewport(asScrollingWidget.getScrollLeft(),
+                asScrollingWidget.getScrollTop(),
+                asScrollingWidget.getDisplayableWidth(),
+                asScrollingWidget.getDisplayableHeight());
+    }
+
 }
@@ -34,4 +34,12 @@ public abstract class AbstractSvgRenderedArc extends AbstractRenderedArc
         super(arc, source, target);
     }
 
+    /**
+     * Called when the arc is taken out of the display. Implementations may
+     * hand their SVG elements to other arcs in the meantime, but must provide
+     * elements again the next time {@link #asSvgElement()} is called.
+     */
+    public void releaseSvgElements() {
+    }
+
 }
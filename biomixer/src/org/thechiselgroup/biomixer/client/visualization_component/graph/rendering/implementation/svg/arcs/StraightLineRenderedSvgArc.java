@@ -34,26 +34,83 @@ import org.thechiselgroup.biomixer.shared.svg.SvgUtils;
 public class StraightLineRenderedSvgArc extends AbstractSvgRenderedArc
         implements Identifiable {
 
-    private final SvgElement arcLine;
+    private final StraightLineSvgArcRenderer renderer;
 
-    private final SvgArrowHead arrow;
+    /*
+     * null while the arc is not displayed and its elements have been handed
+     * back to the renderer.
+     */
+    private StraightLineSvgArcElements elements;
+
+    /*
+     * The styling is remembered so that it can be applied again when the arc
+     * gets new elements.
+     */
+    private String arcHead;
+
+    private String arcStyle;
+
+    private String color;
 
-    private SvgElement baseContainer;
+    private boolean detailed = true;
 
-    public StraightLineRenderedSvgArc(Arc arc, SvgElement container,
-            SvgElement arcLine, SvgArrowHead arrow, RenderedNode source,
+    private ChooselEventHandler eventHandler;
+
+    private String thickness;
+
+    public StraightLineRenderedSvgArc(Arc arc,
+            StraightLineSvgArcElements elements,
+            StraightLineSvgArcRenderer renderer, RenderedNode source,
             RenderedNode target) {
         super(arc, source, target);
-        assert (arcLine != null);
-        assert (arrow != null);
-        this.baseContainer = container;
-        this.arcLine = arcLine;
-        this.arrow = arrow;
+        assert elements != null;
+        assert renderer != null;
+        this.elements = elements;
+        this.renderer = renderer;
+    }
+
+    private void applyArcHead() {
+        SvgElement arrowElement = elements.getArrow().asSvgElement();
+        if (arcHead.equals(ArcSettings.ARC_HEAD_TRIANGLE_FULL)) {
+            arrowElement.setAttribute(Svg.FILL_OPACITY, "1.0");
+        } else if (arcHead.equals(ArcSettings.ARC_HEAD_TRIANGLE_EMPTY)) {
+            arrowElement.setAttribute(Svg.FILL_OPACITY, "0.0");
+        } else {
+            arrowElement.setAttribute(Svg.FILL_OPACITY, "0.0");
+            arrowElement.setAttribute(Svg.STROKE_OPACITY, "0.0");
+        }
+    }
+
+    private void applyArcStyle() {
+        SvgElement arcLine = elements.getArcLine();
+        if (arcStyle.equals(ArcSettings.ARC_STYLE_SOLID)
+                && arcLine.hasAttribute(Svg.STROKE_DASHARRAY)) {
+            arcLine.removeAttribute(Svg.STROKE_DASHARRAY);
+        } else if (arcStyle.equals(ArcSettings.ARC_STYLE_DASHED)) {
+            // 10px dash, 5px gap
+            arcLine.setAttribute(Svg.STROKE_DASHARRAY, "10, 5");
+        } else if (arcStyle.equals(ArcSettings.ARC_STYLE_DOTTED)) {
+            // 10px dash, 5px gap
+            arcLine.setAttribute(Svg.STROKE_DASHARRAY, "2, 2");
+        }
+    }
+
+    private void applyColor() {
+        elements.getArcLine().setAttribute(Svg.STROKE, color);
+        // Used to skip undirected arc heads
+        SvgElement arrowElement = elements.getArrow().asSvgElement();
+        arrowElement.setAttribute(Svg.STROKE, color);
+        arrowElement.setAttribute(Svg.FILL, color);
     }
 
     @Override
     public SvgElement asSvgElement() {
-        return baseContainer;
+        if (elements == null) {
+            elements = renderer.acquireElements(getArc());
+            restoreStyle();
+            update();
+        }
+        return elements.getContainer();
     }
 
     @Override
@@ -63,8 +120,41 @@ public class StraightLineRenderedSvgArc extends AbstractSvgRenderedArc
 
     @Override
     public double getThickness() {
-        return Double.parseDouble(arcLine
-                .getAttributeAsString(Svg.STROKE_WIDTH));
+        if (elements == null) {
+            return Double.parseDouble(thickness);
+        }
+        return Double.parseDouble(elements.getArcLine().getAttributeAsString(
+                Svg.STROKE_WIDTH));
+    }
+
+    @Override
+    public void releaseSvgElements() {
+        if (elements != null) {
+            renderer.releaseElements(elements);
+            elements = null;
+        }
+    }
+
+    private void restoreStyle() {
+        if (color != null) {
+            applyColor();
+        }
+        if (arcStyle != null) {
+            applyArcStyle();
+        }
+        if (arcHead != null) {
+            applyArcHead();
+        }
+        if (thickness != null) {
+            elements.getArcLine().setAttribute(Svg.STROKE_WIDTH, thickness);
+        }
+        if (eventHandler != null) {
+            elements.getArcLine().setEventListener(eventHandler);
+        }
+        if (!detailed) {
+            elements.getContainer().removeChild(
+                    elements.getArrow().asSvgElement());
+        }
     }
 
     /**
@@ -77,15 +167,9 @@ public class StraightLineRenderedSvgArc extends AbstractSvgRenderedArc
      */
     @Override
     public void setArcStyle(String arcStyle) {
-        if (arcStyle.equals(ArcSettings.ARC_STYLE_SOLID)
-                && arcLine.hasAttribute(Svg.STROKE_DASHARRAY)) {
-            arcLine.removeAttribute(Svg.STROKE_DASHARRAY);
-        } else if (arcStyle.equals(ArcSettings.ARC_STYLE_DASHED)) {
-            // 10px dash, 5px gap
-            arcLine.setAttribute(Svg.STROKE_DASHARRAY, "10, 5");
-        } else if (arcStyle.equals(ArcSettings.ARC_STYLE_DOTTED)) {
-            // 10px dash, 5px gap
-            arcLine.setAttribute(Svg.STROKE_DASHARRAY, "2, 2");
+        this.arcStyle = arcStyle;
+        if (elements != null) {
+            applyArcStyle();
         }
     }
 
@@ -99,45 +183,77 @@ public class StraightLineRenderedSvgArc extends AbstractSvgRenderedArc
      */
     @Override
     public void setArcHead(String arcHead) {
-        if (arcHead.equals(ArcSettings.ARC_HEAD_TRIANGLE_FULL)) {
-            arrow.asSvgElement().setAttribute(Svg.FILL_OPACITY, "1.0");
-        } else if (arcHead.equals(ArcSettings.ARC_HEAD_TRIANGLE_EMPTY)) {
-            arrow.asSvgElement().setAttribute(Svg.FILL_OPACITY, "0.0");
-        } else {
-            arrow.asSvgElement().setAttribute(Svg.FILL_OPACITY, "0.0");
-            arrow.asSvgElement().setAttribute(Svg.STROKE_OPACITY, "0.0");
+        this.arcHead = arcHead;
+        if (elements != null) {
+            applyArcHead();
         }
     }
 
     @Override
     public void setColor(String color) {
-        arcLine.setAttribute(Svg.STROKE, color);
-        // Used to skip undirected arc heads
-        arrow.asSvgElement().setAttribute(Svg.STROKE, color);
-        arrow.asSvgElement().setAttribute(Svg.FILL, color);
+        this.color = color;
+        if (elements != null) {
+            applyColor();
+        }
+    }
+
+    /**
+     * Removes the arrow head while the arc is not detailed.
+     */
+    @Override
+    public void setDetailed(boolean detailed) {
+        if (this.detailed == detailed) {
+            return;
+        }
+
+        this.detailed = detailed;
+        if (elements == null) {
+            return;
+        }
+
+        SvgElement arrowElement = elements.getArrow().asSvgElement();
+        if (detailed) {
+            elements.getContainer().appendChild(arrowElement);
+            update();
+        } else {
+            elements.getContainer().removeChild(arrowElement);
+        }
     }
 
     @Override
     public void setEventListener(ChooselEventHandler handler) {
-        arcLine.setEventListener(handler);
+        this.eventHandler = handler;
+        if (elements != null) {
+            elements.getArcLine().setEventListener(handler);
+        }
     }
 
     @Override
     public void setThickness(String thickness) {
-        arcLine.setAttribute(Svg.STROKE_WIDTH, thickness);
+        this.thickness = thickness;
+        if (elements != null) {
+            elements.getArcLine().setAttribute(Svg.STROKE_WIDTH, thickness);
+        }
     }
 
     @Override
     public void update() {
+        if (elements == null) {
+            /* positions are applied when the arc gets elements again */
+            return;
+        }
+
         PointDouble sourceCentre = source.getCentre(); // cache
         PointDouble targetCentre = target.getCentre(); // cache
 
+        SvgElement arcLine = elements.getArcLine();
         SvgUtils.setX1Y1(arcLine, sourceCentre);
         SvgUtils.setX2Y2(arcLine, targetCentre);
 
         // Used to skip undirected arc heads
-        assert arrow != null;
-        arrow.alignWithPoints(sourceCentre, targetCentre);
+        if (detailed) {
+            elements.getArrow().alignWithPoints(sourceCentre, targetCentre);
+        }
     }
 
 }
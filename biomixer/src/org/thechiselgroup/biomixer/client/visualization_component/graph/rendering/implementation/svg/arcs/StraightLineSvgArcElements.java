@@ -0,0 +1,54 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.arcs;
+
+import org.thechiselgroup.biomixer.shared.svg.SvgElement;
+
+/**
+ * The SVG elements that draw a {@link StraightLineRenderedSvgArc}. They are
+ * kept together so that they can be passed from one arc to another.
+ */
+public class StraightLineSvgArcElements {
+
+    private final SvgElement container;
+
+    private final SvgElement arcLine;
+
+    private final SvgArrowHead arrow;
+
+    public StraightLineSvgArcElements(SvgElement container,
+            SvgElement arcLine, SvgArrowHead arrow) {
+        assert container != null;
+        assert arcLine != null;
+        assert arrow != null;
+        this.container = container;
+        this.arcLine = arcLine;
+        this.arrow = arrow;
+    }
+
+    public SvgElement getArcLine() {
+        return arcLine;
+    }
+
+    public SvgArrowHead getArrow() {
+        return arrow;
+    }
+
+    public SvgElement getContainer() {
+        return container;
+    }
+
+}
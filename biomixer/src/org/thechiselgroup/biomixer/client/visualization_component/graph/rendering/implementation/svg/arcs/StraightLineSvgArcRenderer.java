@@ -15,6 +15,9 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.arcs;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
 import org.thechiselgroup.biomixer.client.core.ui.Colors;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.ArcRenderer;
@@ -26,28 +29,62 @@ import org.thechiselgroup.biomixer.shared.svg.SvgElement;
 import org.thechiselgroup.biomixer.shared.svg.SvgElementFactory;
 
 /**
- * Renders an arc as a straight line using SVG.
+ * Renders an arc as a straight line using SVG. Elements released by arcs that
+ * are not displayed are pooled and handed to the next arc that needs them.
  * 
  * @author drusk
  * 
  */
 public class StraightLineSvgArcRenderer implements ArcRenderer {
 
+    /*
+     * Caps the memory held by elements nobody is using. Panning releases and
+     * acquires elements at about the same rate, so a moderate pool is enough.
+     */
+    public static final int MAX_POOLED_ELEMENTS = 512;
+
     private SvgElementFactory svgElementFactory;
 
+    private List<StraightLineSvgArcElements> pooledElements = new ArrayList<StraightLineSvgArcElements>();
+
     public StraightLineSvgArcRenderer(SvgElementFactory svgElementFactory) {
         this.svgElementFactory = svgElementFactory;
     }
 
-    @Override
-    public RenderedArc createRenderedArc(Arc arc, RenderedNode source,
-            RenderedNode target) {
+    /**
+     * Gets elements for an arc which had released its previous ones. Pooled
+     * elements are reset to the defaults of newly created ones.
+     */
+    StraightLineSvgArcElements acquireElements(Arc arc) {
+        if (pooledElements.isEmpty()) {
+            PointDouble origin = new PointDouble(0, 0);
+            return createElements(arc, origin, origin);
+        }
+
+        StraightLineSvgArcElements elements = pooledElements
+                .remove(pooledElements.size() - 1);
+        elements.getContainer().setAttribute(Svg.ID, arc.getId());
+
+        SvgElement arcLine = elements.getArcLine();
+        arcLine.removeAttribute(Svg.STROKE_DASHARRAY);
+        arcLine.removeAttribute(Svg.STROKE_WIDTH);
+        arcLine.setAttribute(Svg.STROKE, Colors.BLACK);
+
+        SvgElement arrowElement = elements.getArrow().asSvgElement();
+        elements.getContainer().appendChild(arrowElement);
+        arrowElement.removeAttribute(Svg.FILL);
+        arrowElement.removeAttribute(Svg.FILL_OPACITY);
+        arrowElement.removeAttribute(Svg.STROKE_OPACITY);
+        arrowElement.setAttribute(Svg.STROKE, Colors.BLACK);
+
+        return elements;
+    }
+
+    private StraightLineSvgArcElements createElements(Arc arc,
+            PointDouble sourceNodeLocation, PointDouble targetNodeLocation) {
         SvgElement container = svgElementFactory.createElement(Svg.G);
         container.setAttribute(Svg.ID, arc.getId());
 
-        PointDouble sourceNodeLocation = source.getCentre();
-        PointDouble targetNodeLocation = target.getCentre();
-
         SvgElement arcLine = svgElementFactory.createElement(Svg.LINE);
         arcLine.setAttribute(Svg.X1, sourceNodeLocation.getX());
         arcLine.setAttribute(Svg.Y1, sourceNodeLocation.getY());
@@ -57,12 +94,41 @@ public class StraightLineSvgArcRenderer implements ArcRenderer {
         container.appendChild(arcLine);
 
         // used to skip undirected arc heads
-        SvgArrowHead arrowHead = new SvgArrowHead(svgElementFactory, sourceNodeLocation,
-                targetNodeLocation);
+        SvgArrowHead arrowHead = new SvgArrowHead(svgElementFactory,
+                sourceNodeLocation, targetNodeLocation);
         container.appendChild(arrowHead.asSvgElement());
 
-        return new StraightLineRenderedSvgArc(arc, container, arcLine,
-                arrowHead, source, target);
+        return new StraightLineSvgArcElements(container, arcLine, arrowHead);
+    }
+
+    @Override
+    public RenderedArc createRenderedArc(Arc arc, RenderedNode source,
+            RenderedNode target) {
+        if (pooledElements.isEmpty()) {
+            StraightLineSvgArcElements elements = createElements(arc,
+                    source.getCentre(), target.getCentre());
+            return new StraightLineRenderedSvgArc(arc, elements, this, source,
+                    target);
+        }
+
+        StraightLineRenderedSvgArc renderedArc = new StraightLineRenderedSvgArc(
+                arc, acquireElements(arc), this, source, target);
+        renderedArc.update();
+        return renderedArc;
+    }
+
+    /**
+     * 
+     * @return the number of released elements waiting to be reused
+     */
+    public int getPooledElementCount() {
+        return pooledElements.size();
+    }
+
+    void releaseElements(StraightLineSvgArcElements elements) {
+        if (pooledElements.size() < MAX_POOLED_ELEMENTS) {
+            pooledElements.add(elements);
+        }
     }
 
 }
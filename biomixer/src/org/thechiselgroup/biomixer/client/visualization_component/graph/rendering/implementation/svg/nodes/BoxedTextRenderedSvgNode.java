@@ -26,7 +26,9 @@ import org.thechiselgroup.biomixer.shared.svg.Svg;
 import org.thechiselgroup.biomixer.shared.svg.SvgElement;
 
 /**
- * The classic rendering of a node as a rectangle with text inside it.
+ * The classic rendering of a node as a rectangle with text inside it. When not
+ * detailed, the node is drawn as a small rounded square instead, and the text
+ * is only laid out once the node becomes detailed.
  * 
  * @author drusk
  * 
@@ -34,20 +36,49 @@ import org.thechiselgroup.biomixer.shared.svg.SvgElement;
 public class BoxedTextRenderedSvgNode extends AbstractSvgRenderedNode implements
         Identifiable {
 
-    private final SvgRectangularExpansionTab expanderTab;
-
-    private final SvgBoxedText boxedText;
+    private final BoxedTextSvgNodeRenderer renderer;
 
     private final SvgElement baseContainer;
 
+    /*
+     * The boxed text and tab are created the first time the node is detailed,
+     * the compact shape the first time it is not. Both are kept afterwards.
+     */
+    private SvgRectangularExpansionTab expanderTab;
+
+    private SvgBoxedText boxedText;
+
+    private SvgElement compactShape;
+
+    private boolean detailed;
+
+    /*
+     * The styling is remembered so that it can be applied to representations
+     * that are created later.
+     */
+    private String backgroundColor;
+
+    private ChooselEventHandler bodyEventHandler;
+
+    private String borderColor;
+
+    private ChooselEventHandler expansionEventHandler;
+
+    private String fontColor;
+
+    private String fontWeight;
+
     public BoxedTextRenderedSvgNode(Node node, SvgElement baseContainer,
-            SvgBoxedText boxedText, SvgRectangularExpansionTab expanderTab) {
+            BoxedTextSvgNodeRenderer renderer, boolean detailed) {
         super(node);
         this.baseContainer = baseContainer;
-        baseContainer.appendChild(boxedText.asSvgElement());
-        baseContainer.appendChild(expanderTab.asSvgElement());
-        this.boxedText = boxedText;
-        this.expanderTab = expanderTab;
+        this.renderer = renderer;
+        this.detailed = detailed;
+        if (detailed) {
+            showBoxedText();
+        } else {
+            showCompactShape();
+        }
     }
 
     @Override
@@ -57,6 +88,10 @@ public class BoxedTextRenderedSvgNode extends AbstractSvgRenderedNode implements
 
     @Override
     public PointDouble getExpanderPopupLocation() {
+        if (!detailed) {
+            return getLocation().plus(
+                    new PointDouble(0, BoxedTextSvgNodeRenderer.COMPACT_SIZE));
+        }
         return getLocation().plus(expanderTab.getLocation());
     }
 
@@ -76,43 +111,100 @@ public class BoxedTextRenderedSvgNode extends AbstractSvgRenderedNode implements
 
     @Override
     public SizeDouble getSize() {
+        if (!detailed) {
+            return new DefaultSizeDouble(BoxedTextSvgNodeRenderer.COMPACT_SIZE,
+                    BoxedTextSvgNodeRenderer.COMPACT_SIZE);
+        }
         return new DefaultSizeDouble(boxedText.getTotalWidth(),
                 boxedText.getTotalHeight());
     }
 
+    @Override
+    public boolean isDetailed() {
+        return detailed;
+    }
+
     @Override
     public void setBackgroundColor(String color) {
-        boxedText.setBackgroundColor(color);
-        expanderTab.setBackgroundColor(color);
+        this.backgroundColor = color;
+        if (boxedText != null) {
+            boxedText.setBackgroundColor(color);
+            expanderTab.setBackgroundColor(color);
+        }
+        if (compactShape != null) {
+            compactShape.setAttribute(Svg.FILL, color);
+        }
     }
 
     @Override
     public void setBodyEventHandler(ChooselEventHandler handler) {
-        boxedText.setEventListener(handler);
+        this.bodyEventHandler = handler;
+        if (boxedText != null) {
+            boxedText.setEventListener(handler);
+        }
+        if (compactShape != null) {
+            compactShape.setEventListener(handler);
+        }
     }
 
     @Override
     public void setBorderColor(String color) {
-        boxedText.setBorderColor(color);
-        expanderTab.setBorderColor(color);
+        this.borderColor = color;
+        if (boxedText != null) {
+            boxedText.setBorderColor(color);
+            expanderTab.setBorderColor(color);
+        }
+        if (compactShape != null) {
+            compactShape.setAttribute(Svg.STROKE, color);
+        }
+    }
+
+    @Override
+    public void setDetailed(boolean detailed) {
+        if (this.detailed == detailed) {
+            return;
+        }
+
+        this.detailed = detailed;
+        if (detailed) {
+            baseContainer.removeChild(compactShape);
+            showBoxedText();
+        } else {
+            baseContainer.removeChild(boxedText.asSvgElement());
+            baseContainer.removeChild(expanderTab.asSvgElement());
+            showCompactShape();
+        }
+        updateConnectedArcs();
     }
 
     @Override
     public void setExpansionEventHandler(ChooselEventHandler handler) {
-        expanderTab.setEventListener(handler);
+        this.expansionEventHandler = handler;
+        if (expanderTab != null) {
+            expanderTab.setEventListener(handler);
+        }
     }
 
     @Override
     public void setFontColor(String color) {
-        boxedText.setFontColor(color);
+        this.fontColor = color;
+        if (boxedText != null) {
+            boxedText.setFontColor(color);
+        }
     }
 
     @Override
     public void setFontWeight(String styleValue) {
         if (styleValue.equals(GraphDisplay.NODE_FONT_WEIGHT_NORMAL)) {
-            boxedText.setFontWeight(Svg.NORMAL);
+            fontWeight = Svg.NORMAL;
         } else if (styleValue.equals(GraphDisplay.NODE_FONT_WEIGHT_BOLD)) {
-            boxedText.setFontWeight(Svg.BOLD);
+            fontWeight = Svg.BOLD;
+        } else {
+            return;
+        }
+
+        if (boxedText != null) {
+            boxedText.setFontWeight(fontWeight);
         }
     }
 
@@ -124,4 +216,51 @@ public class BoxedTextRenderedSvgNode extends AbstractSvgRenderedNode implements
         updateConnectedArcs();
     }
 
+    private void showBoxedText() {
+        if (boxedText == null) {
+            boxedText = renderer.createBoxedText(getNode());
+            if (fontWeight != null) {
+                boxedText.setFontWeight(fontWeight);
+            }
+            if (fontColor != null) {
+                boxedText.setFontColor(fontColor);
+            }
+            if (bodyEventHandler != null) {
+                boxedText.setEventListener(bodyEventHandler);
+            }
+
+            expanderTab = renderer.createExpanderTab(boxedText);
+            if (expansionEventHandler != null) {
+                expanderTab.setEventListener(expansionEventHandler);
+            }
+
+            if (backgroundColor != null) {
+                boxedText.setBackgroundColor(backgroundColor);
+                expanderTab.setBackgroundColor(backgroundColor);
+            }
+            if (borderColor != null) {
+                boxedText.setBorderColor(borderColor);
+                expanderTab.setBorderColor(borderColor);
+            }
+        }
+        baseContainer.appendChild(boxedText.asSvgElement());
+        baseContainer.appendChild(expanderTab.asSvgElement());
+    }
+
+    private void showCompactShape() {
+        if (compactShape == null) {
+            compactShape = renderer.createCompactShape();
+            if (backgroundColor != null) {
+                compactShape.setAttribute(Svg.FILL, backgroundColor);
+            }
+            if (borderColor != null) {
+                compactShape.setAttribute(Svg.STROKE, borderColor);
+            }
+            if (bodyEventHandler != null) {
+                compactShape.setEventListener(bodyEventHandler);
+            }
+        }
+        baseContainer.appendChild(compactShape);
+    }
+
 }
@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.nodes;
 
+import org.thechiselgroup.biomixer.client.core.ui.Colors;
 import org.thechiselgroup.biomixer.client.core.util.text.TextBoundsEstimator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.NodeRenderer;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNode;
@@ -37,6 +38,11 @@ public class BoxedTextSvgNodeRenderer implements NodeRenderer {
 
     public static final double RY_DEFAULT = 10.0;
 
+    /**
+     * Width and height of a node that is not detailed.
+     */
+    public static final double COMPACT_SIZE = 12.0;
+
     private SvgElementFactory svgElementFactory;
 
     private BoxedTextSvgExpanderTabRenderer expanderTabRenderer;
@@ -53,30 +59,49 @@ public class BoxedTextSvgNodeRenderer implements NodeRenderer {
                 svgElementFactory);
     }
 
-    @Override
-    public RenderedNode createRenderedNode(Node node) {
-        assert node != null;
-
-        SvgElement baseContainer = svgElementFactory.createElement(Svg.SVG);
-        baseContainer.setAttribute(Svg.OVERFLOW, Svg.VISIBLE);
-        baseContainer.setAttribute(Svg.ID, node.getId());
-        baseContainer.setAttribute(Svg.X, 0.0);
-        baseContainer.setAttribute(Svg.Y, 0.0);
-
+    SvgBoxedText createBoxedText(Node node) {
         SvgBoxedText boxedText = new SvgBoxedText(node.getLabel(),
                 textBoundsEstimator, svgElementFactory);
         boxedText.setCornerCurveWidth(RX_DEFAULT);
         boxedText.setCornerCurveHeight(RY_DEFAULT);
+        return boxedText;
+    }
 
+    SvgElement createCompactShape() {
+        SvgElement shape = svgElementFactory.createElement(Svg.RECT);
+        shape.setAttribute(Svg.X, 0.0);
+        shape.setAttribute(Svg.Y, 0.0);
+        shape.setAttribute(Svg.WIDTH, COMPACT_SIZE);
+        shape.setAttribute(Svg.HEIGHT, COMPACT_SIZE);
+        shape.setAttribute(Svg.RX, COMPACT_SIZE / 2);
+        shape.setAttribute(Svg.RY, COMPACT_SIZE / 2);
+        shape.setAttribute(Svg.FILL, Colors.WHITE);
+        shape.setAttribute(Svg.STROKE, Colors.BLACK);
+        return shape;
+    }
+
+    SvgRectangularExpansionTab createExpanderTab(SvgBoxedText boxedText) {
         SvgRectangularExpansionTab expanderTab = expanderTabRenderer
                 .createExpanderTabSvgElement();
         expanderTab
                 .setLocation(
                         (boxedText.getTotalWidth() - BoxedTextSvgExpanderTabRenderer.TAB_WIDTH) / 2,
                         boxedText.getTotalHeight());
+        return expanderTab;
+    }
+
+    @Override
+    public RenderedNode createRenderedNode(Node node, boolean detailed) {
+        assert node != null;
+
+        SvgElement baseContainer = svgElementFactory.createElement(Svg.SVG);
+        baseContainer.setAttribute(Svg.OVERFLOW, Svg.VISIBLE);
+        baseContainer.setAttribute(Svg.ID, node.getId());
+        baseContainer.setAttribute(Svg.X, 0.0);
+        baseContainer.setAttribute(Svg.Y, 0.0);
 
-        return new BoxedTextRenderedSvgNode(node, baseContainer, boxedText,
-                expanderTab);
+        return new BoxedTextRenderedSvgNode(node, baseContainer, this,
+                detailed);
     }
 
 }
@@ -108,15 +108,33 @@ public class SvgBoxedText implements IsSvg {
         }
     }
 
+    private void configureFont() {
+        textBoundsEstimator.configureFontStyle(fontStyle);
+        textBoundsEstimator.configureFontWeight(fontWeight);
+        textBoundsEstimator.configureFontSize(fontSize);
+        textBoundsEstimator.configureFontFamily(fontFamily);
+    }
+
     private void createBoxedText() {
         textElement = svgElementFactory.createElement(Svg.TEXT);
-        setTextContent();
-        setDefaultFontValues(textElement);
-
         boxElement = svgElementFactory.createElement(Svg.RECT);
-        setDefaultBoxValues(boxElement);
 
-        setBoxAroundText();
+        /*
+         * all measurements of the layout share one set up of the estimator,
+         * which can be expensive (e.g. attaching elements to the DOM)
+         */
+        textBoundsEstimator.setUp();
+        try {
+            configureFont();
+            setTextContent();
+            setDefaultFontValues(textElement);
+
+            setDefaultBoxValues(boxElement);
+
+            setBoxAroundText();
+        } finally {
+            textBoundsEstimator.tearDown();
+        }
 
         container.appendChild(boxElement);
         container.appendChild(textElement);
@@ -155,17 +173,12 @@ public class SvgBoxedText implements IsSvg {
         return width;
     }
 
+    /*
+     * must be called between setUp() and tearDown() of the text bounds
+     * estimator, with the font configured
+     */
     private SizeInt getTextSize(String text) {
-        try {
-            textBoundsEstimator.setUp();
-            textBoundsEstimator.configureFontStyle(fontStyle);
-            textBoundsEstimator.configureFontWeight(fontWeight);
-            textBoundsEstimator.configureFontSize(fontSize);
-            textBoundsEstimator.configureFontFamily(fontFamily);
-            return textBoundsEstimator.getSize(text);
-        } finally {
-            textBoundsEstimator.tearDown();
-        }
+        return textBoundsEstimator.getSize(text);
     }
 
     public double getTotalHeight() {
@@ -263,11 +276,18 @@ public class SvgBoxedText implements IsSvg {
     }
 
     public void setFontWeight(String fontWeight) {
-        double oldWidth = getWidthOfLongestTextLine();
-        this.fontWeight = fontWeight;
-        textElement.setAttribute(Svg.FONT_WEIGHT, fontWeight);
-        double newWidth = getWidthOfLongestTextLine();
-        updateBoxWidthAndPositionAroundText(newWidth - oldWidth);
+        textBoundsEstimator.setUp();
+        try {
+            configureFont();
+            double oldWidth = getWidthOfLongestTextLine();
+            this.fontWeight = fontWeight;
+            textElement.setAttribute(Svg.FONT_WEIGHT, fontWeight);
+            textBoundsEstimator.configureFontWeight(fontWeight);
+            double newWidth = getWidthOfLongestTextLine();
+            updateBoxWidthAndPositionAroundText(newWidth - oldWidth);
+        } finally {
+            textBoundsEstimator.tearDown();
+        }
     }
 
     private void setTextContent() {
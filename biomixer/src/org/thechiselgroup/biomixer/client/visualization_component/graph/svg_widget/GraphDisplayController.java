@@ -25,14 +25,14 @@ import org.thechiselgroup.biomixer.client.core.geometry.Point;
 import org.thechiselgroup.biomixer.client.core.geometry.PointDouble;
 import org.thechiselgroup.biomixer.client.core.ui.Colors;
 import org.thechiselgroup.biomixer.client.core.util.animation.AnimationRunner;
-import org.thechiselgroup.biomixer.client.core.util.animation.GwtNodeAnimationFactory;
-import org.thechiselgroup.biomixer.client.core.util.animation.NodeAnimationFactory;
+import org.thechiselgroup.biomixer.client.core.util.animation.GwtBatchedAnimationRunner;
 import org.thechiselgroup.biomixer.client.core.util.collections.CollectionFactory;
 import org.thechiselgroup.biomixer.client.core.util.event.ChooselEvent;
 import org.thechiselgroup.biomixer.client.core.util.event.ChooselEventHandler;
 import org.thechiselgroup.biomixer.client.core.util.executor.DelayedExecutor;
 import org.thechiselgroup.biomixer.client.core.util.executor.GwtDelayedExecutor;
 import org.thechiselgroup.biomixer.client.core.util.math.MathUtils;
+import org.thechiselgroup.biomixer.client.core.util.text.CachingTextBoundsEstimator;
 import org.thechiselgroup.biomixer.client.core.util.text.CanvasTextBoundsEstimator;
 import org.thechiselgroup.biomixer.client.core.util.text.SvgBBoxTextBoundsEstimator;
 import org.thechiselgroup.biomixer.client.core.util.text.TextBoundsEstimator;
@@ -54,14 +54,15 @@ import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.i
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.IdentifiableLayoutArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.IdentifiableLayoutGraph;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.IdentifiableLayoutNode;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BarnesHutNetForceCalculator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareAttractionCalculator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.BoundsAwareRepulsionCalculator;
-import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.CompositeForceCalculator;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.layout.implementation.force_directed.ForceDirectedLayoutAlgorithm;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.GraphRenderer;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedArc;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNode;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeExpander;
+import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.RenderedNodeIndex;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.SvgGraphRenderer;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.arcs.StraightLineSvgArcRenderer;
 import org.thechiselgroup.biomixer.client.visualization_component.graph.rendering.implementation.svg.expanders.BoxedTextSvgNodeExpanderRenderer;
@@ -140,19 +141,28 @@ public class GraphDisplayController implements GraphDisplay,
         nodeInteractionManager = new NodeInteractionManager(this);
 
         TextBoundsEstimator textBoundsEstimator = getTextBoundsEstimator();
-        this.graphRenderer = new SvgGraphRenderer(width, height,
-                svgElementFactory, new BoxedTextSvgNodeRenderer(
+        SvgGraphRenderer svgGraphRenderer = new SvgGraphRenderer(width,
+                height, svgElementFactory, new BoxedTextSvgNodeRenderer(
                         svgElementFactory, textBoundsEstimator),
                 new StraightLineSvgArcRenderer(svgElementFactory),
                 new BoxedTextSvgNodeExpanderRenderer(svgElementFactory,
                         textBoundsEstimator));
+        svgGraphRenderer.setNodeIndex(new RenderedNodeIndex() {
+            @Override
+            public List<RenderedNode> getNodesIntersecting(double leftX,
+                    double topY, double width, double height) {
+                return getRenderedNodes(layoutGraph.getSpatialIndex()
+                        .getNodesIntersecting(leftX, topY, width, height));
+            }
+        });
+        this.graphRenderer = svgGraphRenderer;
 
         initBackgroundListener();
         initViewWideInteractionHandler();
 
         this.layoutGraph = new IdentifiableLayoutGraph(width, height);
 
-        this.nodeAnimator = new NodeAnimator(getNodeAnimationFactory());
+        this.nodeAnimator = createNodeAnimator();
 
         initGraphLayoutManager(errorHandler);
     }
@@ -212,7 +222,11 @@ public class GraphDisplayController implements GraphDisplay,
                 + " is already be on the graph";
 
         nodes.put(node.getId(), node);
+        boolean wasDetailReduced = graphRenderer.isDetailReduced();
         final RenderedNode renderedNode = graphRenderer.renderNode(node);
+        if (wasDetailReduced != graphRenderer.isDetailReduced()) {
+            updateLayoutNodeSizes();
+        }
 
         setNodeEventHandlers(renderedNode);
 
@@ -336,13 +350,69 @@ public class GraphDisplayController implements GraphDisplay,
     }
 
     /**
-     * Override in tests to get a non-Javascript-based NodeAnimationFactory
+     * Finds the node below the mouse pointer, e.g. the node another node is
+     * dragged onto.
      * 
-     * @return a GwtNodeAnimationFactory which will not work in java unit tests
-     *         because it uses Javascript
+     * @return the id of a node other than <code>excludedNodeId</code> that
+     *         contains the point, or <code>null</code> if there is none
+     */
+    public String getNodeIdAt(int clientX, int clientY, String excludedNodeId) {
+        int x = clientX - getGraphAbsoluteLeft();
+        int y = clientY - getGraphAbsoluteTop();
+        for (LayoutNode layoutNode : layoutGraph.getSpatialIndex()
+                .getNodesAt(x, y)) {
+            String nodeId = ((IdentifiableLayoutNode) layoutNode).getId();
+            if (!nodeId.equals(excludedNodeId)) {
+                return nodeId;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the nodes whose bounds contain the point (in graph coordinates)
+     */
+    public List<Node> getNodesAt(double x, double y) {
+        return getNodes(layoutGraph.getSpatialIndex().getNodesAt(x, y));
+    }
+
+    private List<Node> getNodes(List<LayoutNode> layoutNodes) {
+        List<Node> result = new ArrayList<Node>(layoutNodes.size());
+        for (LayoutNode layoutNode : layoutNodes) {
+            String nodeId = ((IdentifiableLayoutNode) layoutNode).getId();
+            result.add(nodes.get(nodeId));
+        }
+        return result;
+    }
+
+    /**
+     * @return the nodes that are at least partially inside the bounds (in
+     *         graph coordinates)
      */
-    protected NodeAnimationFactory getNodeAnimationFactory() {
-        return new GwtNodeAnimationFactory();
+    public List<Node> getNodesIntersecting(BoundsDouble bounds) {
+        return getNodes(layoutGraph.getSpatialIndex().getNodesIntersecting(
+                bounds.getLeftX(), bounds.getTopY(), bounds.getWidth(),
+                bounds.getHeight()));
+    }
+
+    private List<RenderedNode> getRenderedNodes(List<LayoutNode> layoutNodes) {
+        List<RenderedNode> result = new ArrayList<RenderedNode>(
+                layoutNodes.size());
+        for (LayoutNode layoutNode : layoutNodes) {
+            result.add(((IdentifiableLayoutNode) layoutNode).getRenderedNode());
+        }
+        return result;
+    }
+
+    /**
+     * Override in tests to get a non-Javascript-based NodeAnimator
+     * 
+     * @return a NodeAnimator that moves all nodes from a single GWT timer,
+     *         which will not work in java unit tests because it uses
+     *         Javascript
+     */
+    protected NodeAnimator createNodeAnimator() {
+        return new NodeAnimator(new GwtBatchedAnimationRunner());
     }
 
     @Override
@@ -375,8 +445,8 @@ public class GraphDisplayController implements GraphDisplay,
     }
 
     protected TextBoundsEstimator getTextBoundsEstimator() {
-        return new CanvasTextBoundsEstimator(new SvgBBoxTextBoundsEstimator(
-                svgElementFactory));
+        return new CachingTextBoundsEstimator(new CanvasTextBoundsEstimator(
+                new SvgBBoxTextBoundsEstimator(svgElementFactory)));
     }
 
     /**
@@ -405,12 +475,16 @@ public class GraphDisplayController implements GraphDisplay,
     }
 
     private void initGraphLayoutManager(ErrorHandler errorHandler) {
+        ForceDirectedLayoutAlgorithm forceDirectedLayout = new ForceDirectedLayoutAlgorithm(
+                new BoundsAwareAttractionCalculator(getLayoutGraph()),
+                new BoundsAwareRepulsionCalculator(getLayoutGraph()),
+                BarnesHutNetForceCalculator.DEFAULT_THETA, 0.9, nodeAnimator,
+                getDelayedExecutor(), errorHandler);
+        forceDirectedLayout
+                .setFrameBudget(ForceDirectedLayoutAlgorithm.DEFAULT_FRAME_BUDGET);
+        forceDirectedLayout.setIncremental(true);
         this.layoutManager = new GraphLayoutExecutionManager(
-                new ForceDirectedLayoutAlgorithm(new CompositeForceCalculator(
-                        new BoundsAwareAttractionCalculator(getLayoutGraph()),
-                        new BoundsAwareRepulsionCalculator(getLayoutGraph())),
-                        0.9, nodeAnimator, getDelayedExecutor(), errorHandler),
-                getLayoutGraph());
+                forceDirectedLayout, getLayoutGraph());
     }
 
     private void initViewWideInteractionHandler() {
@@ -494,6 +568,7 @@ public class GraphDisplayController implements GraphDisplay,
         int y = mouseY - getGraphAbsoluteTop();
 
         eventBus.fireEvent(new NodeMouseOutEvent(renderedNode.getNode(), x, y));
+        setFullDetail(renderedNode, false);
     }
 
     public void onNodeMouseOver(RenderedNode renderedNode, int mouseX,
@@ -504,6 +579,7 @@ public class GraphDisplayController implements GraphDisplay,
                 - (int) getVerticalScrollDistance();
 
         eventBus.fireEvent(new NodeMouseOverEvent(renderedNode.getNode(), x, y));
+        setFullDetail(renderedNode, true);
         graphRenderer.bringToForeground(renderedNode);
     }
 
@@ -654,8 +730,12 @@ public class GraphDisplayController implements GraphDisplay,
     public void removeNode(Node node) {
         assert node != null;
         nodes.remove(node.getId());
+        boolean wasDetailReduced = graphRenderer.isDetailReduced();
         graphRenderer.removeNode(node);
         layoutGraph.removeIdentifiableLayoutNode(node.getId());
+        if (wasDetailReduced != graphRenderer.isDetailReduced()) {
+            updateLayoutNodeSizes();
+        }
     }
 
     @Override
@@ -728,6 +808,19 @@ public class GraphDisplayController implements GraphDisplay,
         }
     }
 
+    /*
+     * Hovering shows the label of a node even if the detail of the graph is
+     * reduced. The node changes its size, which the layout has to know about.
+     */
+    private void setFullDetail(RenderedNode renderedNode, boolean fullDetail) {
+        boolean wasDetailed = renderedNode.isDetailed();
+        graphRenderer.setFullDetail(renderedNode, fullDetail);
+        if (wasDetailed != renderedNode.isDetailed()) {
+            layoutGraph.getIdentifiableLayoutNode(
+                    renderedNode.getNode().getId()).updateSize();
+        }
+    }
+
     private void setLayoutGraphContentChangedListener() {
         layoutGraph
                 .addContentChangedListener(new LayoutGraphContentChangedListener() {
@@ -791,4 +884,19 @@ public class GraphDisplayController implements GraphDisplay,
         graphRenderer.setNodeStyle(node, styleProperty, styleValue);
     }
 
+    /**
+     * Only render the nodes and arcs near the visible part of the graph. This
+     * keeps scrolling and panning responsive for large graphs.
+     */
+    public void setVirtualized(boolean virtualized) {
+        graphRenderer.setVirtualized(virtualized);
+    }
+
+    private void updateLayoutNodeSizes() {
+        for (IdentifiableLayoutNode layoutNode : layoutGraph
+                .getAllIdentifiableLayoutNodes()) {
+            layoutNode.updateSize();
+        }
+    }
+
 }
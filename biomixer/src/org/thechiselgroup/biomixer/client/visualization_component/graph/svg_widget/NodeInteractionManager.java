@@ -36,12 +36,26 @@ public class NodeInteractionManager {
 
     private boolean movedSinceMouseDown = false;
 
+    /*
+     * Node below the mouse pointer while a node is dragged, other than the
+     * dragged node. Null if there is none.
+     */
+    private String dragTargetNodeId = null;
+
     private final GraphDisplayController graphDisplay;
 
     public NodeInteractionManager(GraphDisplayController graphDisplay) {
         this.graphDisplay = graphDisplay;
     }
 
+    /**
+     * @return the id of the node the mouse down node is currently dragged
+     *         onto, or <code>null</code>
+     */
+    public String getDragTargetNodeId() {
+        return dragTargetNodeId;
+    }
+
     public void onMouseDown(String nodeId, int currentX, int currentY) {
         mouseDownNodeId = nodeId;
         movedSinceMouseDown = false;
@@ -55,6 +69,8 @@ public class NodeInteractionManager {
             int deltaY = currentY - lastMouseY;
             graphDisplay.onNodeDrag(mouseDownNodeId, deltaX, deltaY);
             movedSinceMouseDown = true;
+            dragTargetNodeId = graphDisplay.getNodeIdAt(currentX, currentY,
+                    mouseDownNodeId);
         }
         lastMouseX = currentX;
         lastMouseY = currentY;
@@ -66,6 +82,7 @@ public class NodeInteractionManager {
                     lastMouseY);
         }
         mouseDownNodeId = null;
+        dragTargetNodeId = null;
     }
 
 }
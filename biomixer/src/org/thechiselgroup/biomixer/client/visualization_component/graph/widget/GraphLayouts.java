@@ -23,6 +23,8 @@ public interface GraphLayouts {
 
     String VERTICAL_TREE_LAYOUT = "Vertical Tree Layout";
 
+    String LAYERED_TREE_LAYOUT = "Layered Tree Layout";
+
     String RADIAL_LAYOUT = "Radial Layout";
 
     String SPRING_LAYOUT = "Spring Layout";
@@ -43,4 +45,6 @@ public interface GraphLayouts {
 
     String FORCE_DIRECTED_LAYOUT = "Force Directed Layout";
 
+    String MULTILEVEL_FORCE_DIRECTED_LAYOUT = "Multilevel Force Directed Layout";
+
 }
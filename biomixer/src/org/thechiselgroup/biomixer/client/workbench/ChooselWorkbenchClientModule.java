@@ -118,6 +118,7 @@ import org.thechiselgroup.biomixer.client.workbench.workspace.command.ConfigureS
 import org.thechiselgroup.biomixer.client.workbench.workspace.command.LoadWorkspaceDialogCommand;
 import org.thechiselgroup.biomixer.shared.core.util.DelayedExecutor;
 import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonParser;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonStreamingParser;
 import org.thechiselgroup.biomixer.shared.workbench.util.xml.DocumentProcessor;
 
 import com.google.gwt.event.shared.HandlerManager;
@@ -351,6 +352,8 @@ public abstract class ChooselWorkbenchClientModule extends AbstractGinModule
         bind(DocumentProcessor.class).to(SarissaDocumentProcessor.class).in(
                 Singleton.class);
         bind(JsonParser.class).to(JsJsonParser.class).in(Singleton.class);
+        bind(JsonStreamingParser.class).to(JsJsonParser.class).in(
+                Singleton.class);
         bindUrlFetchService();
 
         bindBranding();
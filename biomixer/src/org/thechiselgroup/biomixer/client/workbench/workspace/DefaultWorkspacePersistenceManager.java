@@ -33,10 +33,13 @@ import org.thechiselgroup.biomixer.client.dnd.windows.WindowContent;
 import org.thechiselgroup.biomixer.client.dnd.windows.WindowContentProducer;
 import org.thechiselgroup.biomixer.client.dnd.windows.WindowPanel;
 import org.thechiselgroup.biomixer.client.workbench.services.AsyncCallbackVoidDelegate;
+import org.thechiselgroup.biomixer.client.workbench.workspace.WorkspaceSaveTracker.SavedState;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ResourceSetDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WindowDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspacePersistenceServiceAsync;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspaceSharingServiceAsync;
 
@@ -52,6 +55,8 @@ public class DefaultWorkspacePersistenceManager implements
 
     private ResourceSetFactory resourceSetFactory;
 
+    private final WorkspaceSaveTracker saveTracker = new WorkspaceSaveTracker();
+
     private WorkspacePersistenceServiceAsync service;
 
     private WorkspaceSharingServiceAsync sharingService;
@@ -304,6 +309,9 @@ public class DefaultWorkspacePersistenceManager implements
             }
         }
 
+        saveTracker.acknowledgeSnapshot(dto.getId(),
+                saveTracker.captureState(dto), dto.getVersion());
+
         return workspace;
     }
 
@@ -351,19 +359,69 @@ public class DefaultWorkspacePersistenceManager implements
         workspace.setSavingState(WorkspaceSavingState.SAVING);
 
         WorkspaceDTO workspaceDTO = createWorkspaceDTO(workspace);
+        SavedState state = saveTracker.captureState(workspaceDTO);
 
-        service.saveWorkspace(workspaceDTO,
+        if (saveTracker.isDeltaPossible(workspace.getId())) {
+            saveWorkspaceDelta(workspace,
+                    saveTracker.createDelta(workspaceDTO, state), state,
+                    callback);
+        } else {
+            if (workspace.getId() != null) {
+                workspaceDTO.setVersion(saveTracker.getBaseVersion(workspace
+                        .getId()));
+            }
+            saveWorkspaceSnapshot(workspace, workspaceDTO, state, callback);
+        }
+    }
+
+    private void saveWorkspaceDelta(final Workspace workspace,
+            WorkspaceDeltaDTO delta, final SavedState state,
+            AsyncCallback<Void> callback) {
+
+        service.saveWorkspaceDelta(delta,
                 new AsyncCallbackVoidDelegate<Long>(callback) {
                     @Override
                     public void onFailure(Throwable caught) {
+                        /*
+                         * the server state is unknown, so the next save sends
+                         * a full snapshot. It has the same base version, so
+                         * after a version conflict it is rejected as well
+                         * instead of overwriting the other changes.
+                         */
+                        saveTracker.invalidate();
+                        workspace
+                                .setSavingState(WorkspaceSavingState.NOT_SAVED);
+                        super.onFailure(caught);
+                    }
+
+                    @Override
+                    public void onSuccess(Long version) {
+                        saveTracker.acknowledgeDelta(state, version);
+                        workspace.setSavingState(WorkspaceSavingState.SAVED);
+                        super.onSuccess(version);
+                    }
+                });
+    }
+
+    private void saveWorkspaceSnapshot(final Workspace workspace,
+            WorkspaceDTO workspaceDTO, final SavedState state,
+            AsyncCallback<Void> callback) {
+
+        service.saveWorkspace(workspaceDTO,
+                new AsyncCallbackVoidDelegate<WorkspaceVersionDTO>(callback) {
+                    @Override
+                    public void onFailure(Throwable caught) {
+                        saveTracker.invalidate();
                         workspace
                                 .setSavingState(WorkspaceSavingState.NOT_SAVED);
                         super.onFailure(caught);
                     }
 
                     @Override
-                    public void onSuccess(Long result) {
-                        workspace.setId(result);
+                    public void onSuccess(WorkspaceVersionDTO result) {
+                        workspace.setId(result.getId());
+                        saveTracker.acknowledgeSnapshot(result.getId(), state,
+                                result.getVersion());
                         workspace.setSavingState(WorkspaceSavingState.SAVED);
                         super.onSuccess(result);
                     }
@@ -0,0 +1,304 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.workbench.workspace;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.thechiselgroup.biomixer.client.core.persistence.MementoEncoding;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoOutput;
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ResourceSetDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WindowDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * Keeps track of the workspace state that was last acknowledged by the
+ * server, so that saves only need to send what changed since then.
+ * <p>
+ * Resources are compared by identity and {@link Resource#getModificationCount()
+ * modification count}, resource sets by value. Windows are compared by their
+ * encoding (see {@link MementoEncoding}), which is captured when the state is
+ * captured. A full snapshot is required for new workspaces, after a failed
+ * save and after {@link #SNAPSHOT_INTERVAL} deltas.
+ * </p>
+ * <p>
+ * Snapshots and deltas are both based on the acknowledged version, which is
+ * only advanced by successful saves and loads. The server rejects changes
+ * that are not based on its stored version, so a workspace that was saved
+ * elsewhere is not overwritten until it has been reloaded.
+ * </p>
+ */
+public class WorkspaceSaveTracker {
+
+    /**
+     * State of a workspace at the time it was sent to the server.
+     */
+    public static class SavedState {
+
+        private final Map<String, Integer> resourceModificationCounts = new HashMap<String, Integer>();
+
+        private final Map<String, Resource> resources = new HashMap<String, Resource>();
+
+        private final ResourceSetDTO[] resourceSets;
+
+        /**
+         * Encoded windows, <code>null</code> for windows that cannot be
+         * compared.
+         */
+        private final String[] windowEncodings;
+
+        private SavedState(WorkspaceDTO workspaceDTO) {
+            for (Resource resource : workspaceDTO.getResources()) {
+                resources.put(resource.getUri(), resource);
+                resourceModificationCounts.put(resource.getUri(),
+                        resource.getModificationCount());
+            }
+            this.resourceSets = workspaceDTO.getResourceSets();
+
+            WindowDTO[] windows = workspaceDTO.getWindows();
+            this.windowEncodings = new String[windows.length];
+            for (int i = 0; i < windows.length; i++) {
+                windowEncodings[i] = encode(windows[i]);
+            }
+        }
+
+    }
+
+    /**
+     * Writes the {@link MementoEncoding} into a string. Values that are
+     * written as objects make the encoding incomparable.
+     */
+    private static class StringMementoOutput implements MementoOutput {
+
+        private boolean comparable = true;
+
+        private final StringBuilder encoding = new StringBuilder();
+
+        @Override
+        public void writeBoolean(boolean value) {
+            encoding.append(value ? 'T' : 'F');
+        }
+
+        @Override
+        public void writeByte(byte value) {
+            encoding.append('b').append(value).append(';');
+        }
+
+        @Override
+        public void writeDouble(double value) {
+            encoding.append('d').append(value).append(';');
+        }
+
+        @Override
+        public void writeInt(int value) {
+            encoding.append('i').append(value).append(';');
+        }
+
+        @Override
+        public void writeLong(long value) {
+            encoding.append('l').append(value).append(';');
+        }
+
+        @Override
+        public void writeObject(Object value) {
+            comparable = false;
+        }
+
+        @Override
+        public void writeString(String value) {
+            if (value == null) {
+                encoding.append('n');
+                return;
+            }
+            encoding.append('s').append(value.length()).append(':')
+                    .append(value);
+        }
+
+    }
+
+    public static final int SNAPSHOT_INTERVAL = 20;
+
+    /**
+     * @return the encoded window, or <code>null</code> if its view state
+     *         contains values that can only be compared by identity
+     */
+    private static String encode(WindowDTO window) {
+        StringMementoOutput out = new StringMementoOutput();
+        out.writeString(window.getContentType());
+        out.writeString(window.getTitle());
+        out.writeInt(window.getX());
+        out.writeInt(window.getY());
+        out.writeInt(window.getWidth());
+        out.writeInt(window.getHeight());
+        out.writeBoolean(window.getViewState() != null);
+        if (window.getViewState() != null) {
+            try {
+                MementoEncoding.write(window.getViewState(), out);
+            } catch (SerializationException e) {
+                return null;
+            }
+        }
+        return out.comparable ? out.encoding.toString() : null;
+    }
+
+    private SavedState acknowledgedState;
+
+    private long acknowledgedVersion;
+
+    private int deltaCount;
+
+    private Long workspaceId;
+
+    public void acknowledgeDelta(SavedState state, long version) {
+        assert state != null;
+
+        this.acknowledgedState = state;
+        this.acknowledgedVersion = version;
+        this.deltaCount++;
+    }
+
+    public void acknowledgeSnapshot(Long workspaceId, SavedState state,
+            long version) {
+
+        assert state != null;
+
+        this.workspaceId = workspaceId;
+        this.acknowledgedState = state;
+        this.acknowledgedVersion = version;
+        this.deltaCount = 0;
+    }
+
+    /**
+     * Captures the state of a workspace before it is sent. Must be called
+     * when the DTO is created, because resources can change while the save
+     * is in progress.
+     */
+    public SavedState captureState(WorkspaceDTO workspaceDTO) {
+        assert workspaceDTO != null;
+        return new SavedState(workspaceDTO);
+    }
+
+    /**
+     * Creates a delta between the acknowledged state and
+     * <code>workspaceDTO</code>.
+     * 
+     * @param state
+     *            state captured from <code>workspaceDTO</code>
+     */
+    public WorkspaceDeltaDTO createDelta(WorkspaceDTO workspaceDTO,
+            SavedState state) {
+
+        assert workspaceDTO != null;
+        assert state != null;
+        assert isDeltaPossible(workspaceDTO.getId());
+
+        WorkspaceDeltaDTO delta = new WorkspaceDeltaDTO();
+        delta.setWorkspaceId(workspaceId);
+        delta.setBaseVersion(acknowledgedVersion);
+        delta.setName(workspaceDTO.getName());
+
+        WindowDTO[] windows = workspaceDTO.getWindows();
+        String[] acknowledgedWindowEncodings = acknowledgedState.windowEncodings;
+        List<WindowDTO> changedWindows = new ArrayList<WindowDTO>();
+        List<Integer> changedWindowIndices = new ArrayList<Integer>();
+        for (int i = 0; i < windows.length; i++) {
+            String encoding = state.windowEncodings[i];
+            if (encoding == null || i >= acknowledgedWindowEncodings.length
+                    || !encoding.equals(acknowledgedWindowEncodings[i])) {
+                changedWindows.add(windows[i]);
+                changedWindowIndices.add(i);
+            }
+        }
+        delta.setChangedWindows(changedWindows
+                .toArray(new WindowDTO[changedWindows.size()]));
+        int[] indices = new int[changedWindowIndices.size()];
+        for (int i = 0; i < indices.length; i++) {
+            indices[i] = changedWindowIndices.get(i);
+        }
+        delta.setChangedWindowIndices(indices);
+        delta.setWindowCount(windows.length);
+
+        Map<String, Resource> acknowledgedResources = acknowledgedState.resources;
+        Map<String, Integer> acknowledgedCounts = acknowledgedState.resourceModificationCounts;
+        List<Resource> changedResources = new ArrayList<Resource>();
+        for (Resource resource : workspaceDTO.getResources()) {
+            Integer count = acknowledgedCounts.get(resource.getUri());
+            if (count == null
+                    || acknowledgedResources.get(resource.getUri()) != resource
+                    || count.intValue() != resource.getModificationCount()) {
+                changedResources.add(resource);
+            }
+        }
+        delta.setChangedResources(changedResources
+                .toArray(new Resource[changedResources.size()]));
+
+        List<String> removedResourceUris = new ArrayList<String>();
+        for (String uri : acknowledgedCounts.keySet()) {
+            if (!state.resourceModificationCounts.containsKey(uri)) {
+                removedResourceUris.add(uri);
+            }
+        }
+        delta.setRemovedResourceUris(removedResourceUris
+                .toArray(new String[removedResourceUris.size()]));
+
+        ResourceSetDTO[] resourceSets = workspaceDTO.getResourceSets();
+        ResourceSetDTO[] acknowledgedResourceSets = acknowledgedState.resourceSets;
+        List<ResourceSetDTO> changedResourceSets = new ArrayList<ResourceSetDTO>();
+        for (int i = 0; i < resourceSets.length; i++) {
+            if (i >= acknowledgedResourceSets.length
+                    || !resourceSets[i].equals(acknowledgedResourceSets[i])) {
+                changedResourceSets.add(resourceSets[i]);
+            }
+        }
+        delta.setChangedResourceSets(changedResourceSets
+                .toArray(new ResourceSetDTO[changedResourceSets.size()]));
+        delta.setResourceSetCount(resourceSets.length);
+
+        return delta;
+    }
+
+    /**
+     * @return version of the stored workspace that a snapshot of the
+     *         workspace with the given id is based on
+     */
+    public long getBaseVersion(Long workspaceId) {
+        assert workspaceId != null;
+        assert workspaceId.equals(this.workspaceId);
+
+        return acknowledgedVersion;
+    }
+
+    /**
+     * Forces the next save to be a full snapshot. The acknowledged version is
+     * kept as the base version of that snapshot.
+     */
+    public void invalidate() {
+        acknowledgedState = null;
+    }
+
+    public boolean isDeltaPossible(Long workspaceId) {
+        return acknowledgedState != null && workspaceId != null
+                && workspaceId.equals(this.workspaceId)
+                && deltaCount < SNAPSHOT_INTERVAL;
+    }
+
+}
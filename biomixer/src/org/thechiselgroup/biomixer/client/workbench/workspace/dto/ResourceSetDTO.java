@@ -43,6 +43,8 @@ public class ResourceSetDTO implements Serializable {
         if (getClass() != obj.getClass())
             return false;
         ResourceSetDTO other = (ResourceSetDTO) obj;
+        if (delegateSetId != other.delegateSetId)
+            return false;
         if (id != other.id)
             return false;
         if (label == null) {
@@ -78,6 +80,7 @@ public class ResourceSetDTO implements Serializable {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
+        result = prime * result + delegateSetId;
         result = prime * result + id;
         result = prime * result + ((label == null) ? 0 : label.hashCode());
         result = prime * result
@@ -32,6 +32,8 @@ public class WorkspaceDTO implements Serializable {
 
     private ResourceSetDTO[] resourceSets;
 
+    private long version;
+
     private WindowDTO[] windows;
 
     public WorkspaceDTO() {
@@ -65,6 +67,8 @@ public class WorkspaceDTO implements Serializable {
             return false;
         if (!Arrays.equals(resources, other.resources))
             return false;
+        if (version != other.version)
+            return false;
         if (!Arrays.equals(windows, other.windows))
             return false;
         return true;
@@ -86,6 +90,10 @@ public class WorkspaceDTO implements Serializable {
         return resourceSets;
     }
 
+    public long getVersion() {
+        return version;
+    }
+
     public WindowDTO[] getWindows() {
         return windows;
     }
@@ -98,6 +106,7 @@ public class WorkspaceDTO implements Serializable {
         result = prime * result + ((name == null) ? 0 : name.hashCode());
         result = prime * result + Arrays.hashCode(resourceSets);
         result = prime * result + Arrays.hashCode(resources);
+        result = prime * result + (int) (version ^ (version >>> 32));
         result = prime * result + Arrays.hashCode(windows);
         return result;
     }
@@ -118,6 +127,10 @@ public class WorkspaceDTO implements Serializable {
         this.resourceSets = resourceSets;
     }
 
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void setWindows(WindowDTO[] windows) {
         this.windows = windows;
     }
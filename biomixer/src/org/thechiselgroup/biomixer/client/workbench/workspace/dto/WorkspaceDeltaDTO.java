@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.workbench.workspace.dto;
+
+import java.io.Serializable;
+
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+
+/**
+ * Changes of a workspace since the version <code>baseVersion</code>.
+ * Resources, resource sets and windows are only contained if they changed.
+ */
+public class WorkspaceDeltaDTO implements Serializable {
+
+    private static final long serialVersionUID = 4785262391763946208L;
+
+    private long baseVersion;
+
+    private Resource[] changedResources;
+
+    private ResourceSetDTO[] changedResourceSets;
+
+    private int[] changedWindowIndices;
+
+    private WindowDTO[] changedWindows;
+
+    private String name;
+
+    private String[] removedResourceUris;
+
+    private int resourceSetCount;
+
+    private int windowCount;
+
+    private Long workspaceId;
+
+    public WorkspaceDeltaDTO() {
+        // for GWT
+    }
+
+    public long getBaseVersion() {
+        return baseVersion;
+    }
+
+    /**
+     * @return resources that were added or modified
+     */
+    public Resource[] getChangedResources() {
+        return changedResources;
+    }
+
+    /**
+     * @return resource sets that were added or modified. They replace the
+     *         resource sets with the same id.
+     */
+    public ResourceSetDTO[] getChangedResourceSets() {
+        return changedResourceSets;
+    }
+
+    /**
+     * @return positions of the {@link #getChangedWindows() changed windows}
+     */
+    public int[] getChangedWindowIndices() {
+        return changedWindowIndices;
+    }
+
+    /**
+     * @return windows that were added or modified. They replace the windows
+     *         at the positions in {@link #getChangedWindowIndices()}.
+     */
+    public WindowDTO[] getChangedWindows() {
+        return changedWindows;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String[] getRemovedResourceUris() {
+        return removedResourceUris;
+    }
+
+    /**
+     * @return number of resource sets in the new version. Resource sets with
+     *         higher ids are removed.
+     */
+    public int getResourceSetCount() {
+        return resourceSetCount;
+    }
+
+    /**
+     * @return number of windows in the new version. Windows at higher
+     *         positions are removed.
+     */
+    public int getWindowCount() {
+        return windowCount;
+    }
+
+    public Long getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public void setBaseVersion(long baseVersion) {
+        this.baseVersion = baseVersion;
+    }
+
+    public void setChangedResources(Resource[] changedResources) {
+        this.changedResources = changedResources;
+    }
+
+    public void setChangedResourceSets(ResourceSetDTO[] changedResourceSets) {
+        this.changedResourceSets = changedResourceSets;
+    }
+
+    public void setChangedWindowIndices(int[] changedWindowIndices) {
+        this.changedWindowIndices = changedWindowIndices;
+    }
+
+    public void setChangedWindows(WindowDTO[] changedWindows) {
+        this.changedWindows = changedWindows;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public void setRemovedResourceUris(String[] removedResourceUris) {
+        this.removedResourceUris = removedResourceUris;
+    }
+
+    public void setResourceSetCount(int resourceSetCount) {
+        this.resourceSetCount = resourceSetCount;
+    }
+
+    public void setWindowCount(int windowCount) {
+        this.windowCount = windowCount;
+    }
+
+    public void setWorkspaceId(Long workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+}
@@ -0,0 +1,48 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.workbench.workspace.dto;
+
+import java.io.Serializable;
+
+/**
+ * Id and version of a workspace after it was saved.
+ */
+public class WorkspaceVersionDTO implements Serializable {
+
+    private static final long serialVersionUID = -2903318925306453519L;
+
+    private Long id;
+
+    private long version;
+
+    public WorkspaceVersionDTO() {
+        // for GWT
+    }
+
+    public WorkspaceVersionDTO(Long id, long version) {
+        this.id = id;
+        this.version = version;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+}
@@ -33,5 +33,11 @@ public interface ViewPersistenceService extends RemoteService {
 
     List<ViewPreviewDTO> loadViewPreviews() throws ServiceException;
 
+    /**
+     * Loads a page of the view previews of the current user.
+     */
+    List<ViewPreviewDTO> loadViewPreviews(int offset, int limit)
+            throws ServiceException;
+
     Long saveView(ViewDTO view) throws ServiceException;
 }
@@ -30,5 +30,8 @@ public interface ViewPersistenceServiceAsync {
 
     void loadViewPreviews(AsyncCallback<List<ViewPreviewDTO>> callback);
 
+    void loadViewPreviews(int offset, int limit,
+            AsyncCallback<List<ViewPreviewDTO>> callback);
+
     void saveView(ViewDTO window, AsyncCallback<Long> callback);
 }
@@ -19,7 +19,9 @@ import java.util.List;
 
 import org.thechiselgroup.biomixer.client.core.util.ServiceException;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 
 import com.google.gwt.user.client.rpc.RemoteService;
 import com.google.gwt.user.client.rpc.RemoteServiceRelativePath;
@@ -31,6 +33,32 @@ public interface WorkspacePersistenceService extends RemoteService {
 
     List<WorkspacePreviewDTO> loadWorkspacePreviews() throws ServiceException;
 
-    Long saveWorkspace(WorkspaceDTO workspace) throws ServiceException;
+    /**
+     * Loads a page of the workspace previews of the current user.
+     */
+    List<WorkspacePreviewDTO> loadWorkspacePreviews(int offset, int limit)
+            throws ServiceException;
+
+    /**
+     * Saves a complete snapshot of the workspace, replacing the stored
+     * workspace. Workspaces without id are created.
+     * 
+     * @return id and new version of the workspace
+     * @throws WorkspaceVersionConflictException
+     *             if the workspace exists and the stored workspace is not at
+     *             the version of the snapshot
+     */
+    WorkspaceVersionDTO saveWorkspace(WorkspaceDTO workspace)
+            throws ServiceException;
+
+    /**
+     * Applies the changes to the stored workspace.
+     * 
+     * @return new version of the workspace
+     * @throws WorkspaceVersionConflictException
+     *             if the stored workspace is not at the base version of the
+     *             delta
+     */
+    long saveWorkspaceDelta(WorkspaceDeltaDTO delta) throws ServiceException;
 
 }
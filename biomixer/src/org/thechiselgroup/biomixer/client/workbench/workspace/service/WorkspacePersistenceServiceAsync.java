@@ -18,7 +18,9 @@ package org.thechiselgroup.biomixer.client.workbench.workspace.service;
 import java.util.List;
 
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 
 import com.google.gwt.user.client.rpc.AsyncCallback;
 
@@ -28,6 +30,13 @@ public interface WorkspacePersistenceServiceAsync {
 
     void loadWorkspacePreviews(AsyncCallback<List<WorkspacePreviewDTO>> callback);
 
-    void saveWorkspace(WorkspaceDTO workspace, AsyncCallback<Long> callback);
+    void loadWorkspacePreviews(int offset, int limit,
+            AsyncCallback<List<WorkspacePreviewDTO>> callback);
+
+    void saveWorkspace(WorkspaceDTO workspace,
+            AsyncCallback<WorkspaceVersionDTO> callback);
+
+    void saveWorkspaceDelta(WorkspaceDeltaDTO delta,
+            AsyncCallback<Long> callback);
 
 }
\ No newline at end of file
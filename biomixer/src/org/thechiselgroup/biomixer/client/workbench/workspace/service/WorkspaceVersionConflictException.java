@@ -0,0 +1,36 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.client.workbench.workspace.service;
+
+import org.thechiselgroup.biomixer.client.core.util.ServiceException;
+
+/**
+ * Thrown if a workspace delta is based on a version that is not the current
+ * version of the workspace, i.e. the workspace was saved in between.
+ */
+public class WorkspaceVersionConflictException extends ServiceException {
+
+    private static final long serialVersionUID = 2171823940556913074L;
+
+    public WorkspaceVersionConflictException() {
+        // for GWT serialization
+    }
+
+    public WorkspaceVersionConflictException(String message) {
+        super(message);
+    }
+
+}
@@ -16,8 +16,10 @@
 package org.thechiselgroup.biomixer.server.workbench.server;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import javax.servlet.ServletConfig;
@@ -32,8 +34,11 @@ import javax.xml.xpath.XPathFactory;
 
 import org.thechiselgroup.biomixer.client.core.resources.Resource;
 import org.thechiselgroup.biomixer.client.core.util.ServiceException;
-import org.thechiselgroup.biomixer.server.workbench.urlfetch.DefaultDocumentFetchService;
+import org.thechiselgroup.biomixer.server.workbench.urlfetch.CachingDocumentFetchService;
 import org.thechiselgroup.biomixer.server.workbench.urlfetch.DocumentFetchService;
+import org.thechiselgroup.biomixer.server.workbench.urlfetch.JdoPersistentDocumentCache;
+import org.thechiselgroup.biomixer.server.workbench.util.xml.StreamingRecordExtractor;
+import org.thechiselgroup.biomixer.server.workbench.util.xml.StreamingRecordExtractor.RecordHandler;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -42,14 +47,70 @@ import org.xml.sax.SAXException;
 import com.google.appengine.api.urlfetch.URLFetchServiceFactory;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 
+/**
+ * Base class for servlets that turn XML responses of remote services into
+ * {@link Resource}s.
+ * <p>
+ * Subclasses that call
+ * {@link #setupStreamingExtraction(RecordAnalyzer, String, String...)} get
+ * their records passed to the given {@link RecordAnalyzer}, read with a StAX
+ * reader directly from the response content. Otherwise the response is parsed
+ * into a DOM, and each node matched by the set expression is passed to
+ * {@link #analyzeNode(Node, String)}.
+ * </p>
+ * <p>
+ * Compiled XPath expressions are not thread-safe, so they are compiled once
+ * per request thread.
+ * </p>
+ */
 public abstract class XMLCallServlet extends RemoteServiceServlet {
 
+    /**
+     * Creates resources from the fields of streamed records.
+     */
+    public static interface RecordAnalyzer {
+
+        /**
+         * @param fields
+         *            field values by field path, missing fields are not
+         *            contained
+         */
+        Resource analyzeRecord(Map<String, String> fields, String label)
+                throws Exception;
+
+    }
+
+    private static final int DOCUMENT_CACHE_CAPACITY = 200;
+
+    private static final long DOCUMENT_TIME_TO_LIVE = 60 * 60 * 1000;
+
+    /**
+     * Compiled expressions of the current thread, by expression source.
+     */
+    private final ThreadLocal<Map<String, XPathExpression>> compiledExpressions = new ThreadLocal<Map<String, XPathExpression>>() {
+        @Override
+        protected Map<String, XPathExpression> initialValue() {
+            return new HashMap<String, XPathExpression>();
+        }
+    };
+
     protected DocumentFetchService documentFetchService;
 
-    private HashMap<String, XPathExpression> expressions = new HashMap<String, XPathExpression>();
+    /**
+     * Expression sources by key. Only modified during initialization.
+     */
+    private final Map<String, String> expressions = new HashMap<String, String>();
+
+    private RecordAnalyzer recordAnalyzer;
+
+    private StreamingRecordExtractor recordExtractor;
 
-    private XPathExpression setExpression;
+    private String setExpression;
 
+    /**
+     * Only used to validate expressions during initialization, because
+     * {@link XPath} is not thread-safe.
+     */
     protected XPath xpath;
 
     protected abstract Resource analyzeNode(Node node, String label)
@@ -59,6 +120,10 @@ public abstract class XMLCallServlet extends RemoteServiceServlet {
             throws ServiceException {
 
         try {
+            if (recordExtractor != null) {
+                return analyzeXMLStream(url, label);
+            }
+
             Set<Resource> resources = new HashSet<Resource>();
 
             NodeList nodes = getSetExpressionNodes(url);
@@ -74,25 +139,67 @@ public abstract class XMLCallServlet extends RemoteServiceServlet {
 
     }
 
+    private Set<Resource> analyzeXMLStream(String url, final String label)
+            throws Exception {
+
+        final Set<Resource> resources = new HashSet<Resource>();
+
+        InputStream in = documentFetchService.fetchStream(url);
+        try {
+            recordExtractor.extract(in, new RecordHandler() {
+                @Override
+                public void onRecord(Map<String, String> fields)
+                        throws Exception {
+                    resources.add(recordAnalyzer.analyzeRecord(fields, label));
+                }
+            });
+        } finally {
+            in.close();
+        }
+
+        return resources;
+    }
+
+    private XPath createXPath() {
+        // FIXME: workaround for app engine issue 1255
+        // http://code.google.com/p/googleappengine/issues/detail?id=1255
+        // XPathFactory factory = XPathFactory.newInstance();
+        XPathFactory factory = new org.apache.xpath.jaxp.XPathFactoryImpl();
+
+        return factory.newXPath();
+    }
+
     public Number evaluateNumber(String expressionKey, Node node)
             throws XPathExpressionException {
 
-        return (Number) expressions.get(expressionKey).evaluate(node,
-                XPathConstants.NUMBER);
+        return (Number) getExpression(expressions.get(expressionKey))
+                .evaluate(node, XPathConstants.NUMBER);
     }
 
     public String evaluateString(String expressionKey, Node node)
             throws XPathExpressionException {
 
-        return (String) expressions.get(expressionKey).evaluate(node,
-                XPathConstants.STRING);
+        return (String) getExpression(expressions.get(expressionKey))
+                .evaluate(node, XPathConstants.STRING);
+    }
+
+    private XPathExpression getExpression(String expression)
+            throws XPathExpressionException {
+
+        Map<String, XPathExpression> compiled = compiledExpressions.get();
+        XPathExpression compiledExpression = compiled.get(expression);
+        if (compiledExpression == null) {
+            compiledExpression = createXPath().compile(expression);
+            compiled.put(expression, compiledExpression);
+        }
+        return compiledExpression;
     }
 
     protected NodeList getSetExpressionNodes(String url) throws SAXException,
             IOException, XPathExpressionException, ParserConfigurationException {
 
         Document document = documentFetchService.fetchXML(url);
-        return (NodeList) setExpression.evaluate(document,
+        return (NodeList) getExpression(setExpression).evaluate(document,
                 XPathConstants.NODESET);
     }
 
@@ -100,30 +207,24 @@ public abstract class XMLCallServlet extends RemoteServiceServlet {
     public void init(ServletConfig config) throws ServletException {
         super.init(config);
 
-        // FIXME: workaround for app engine issue 1255
-        // http://code.google.com/p/googleappengine/issues/detail?id=1255
-        // XPathFactory factory = XPathFactory.newInstance();
-        XPathFactory factory = new org.apache.xpath.jaxp.XPathFactoryImpl();
-
-        xpath = factory.newXPath();
+        xpath = createXPath();
 
         DocumentBuilderFactory domBuilderFactory = DocumentBuilderFactory
                 .newInstance();
         domBuilderFactory.setNamespaceAware(true);
 
-        // TODO use regular fetch service for production
-        documentFetchService = new DefaultDocumentFetchService(
-                URLFetchServiceFactory.getURLFetchService(), domBuilderFactory);
-        // documentFetchService = new CachedDocumentFetchService(
-        // URLFetchServiceFactory.getURLFetchService(), PMF.get(),
-        // domBuilderFactory);
+        documentFetchService = new CachingDocumentFetchService(
+                URLFetchServiceFactory.getURLFetchService(),
+                new JdoPersistentDocumentCache(PMF.get()), domBuilderFactory,
+                DOCUMENT_CACHE_CAPACITY, DOCUMENT_TIME_TO_LIVE);
     }
 
     public void registerExpression(String key, String expression)
             throws ServletException {
 
         try {
-            expressions.put(key, xpath.compile(expression));
+            xpath.compile(expression);
+            expressions.put(key, expression);
         } catch (XPathExpressionException e) {
             throw new ServletException(e);
         }
@@ -132,10 +233,28 @@ public abstract class XMLCallServlet extends RemoteServiceServlet {
     protected void setupSetExpression(String setExpression)
             throws ServletException {
         try {
-            this.setExpression = xpath.compile(setExpression);
+            xpath.compile(setExpression);
+            this.setExpression = setExpression;
         } catch (XPathExpressionException e) {
             throw new ServletException(e);
         }
     }
 
+    /**
+     * Switches this servlet to streaming extraction. Each element matching
+     * <code>recordPath</code> is read into a record with the given fields and
+     * passed to <code>recordAnalyzer</code>.
+     * 
+     * @see StreamingRecordExtractor
+     */
+    protected void setupStreamingExtraction(RecordAnalyzer recordAnalyzer,
+            String recordPath, String... fieldPaths) {
+
+        assert recordAnalyzer != null;
+
+        this.recordAnalyzer = recordAnalyzer;
+        this.recordExtractor = new StreamingRecordExtractor(recordPath,
+                fieldPaths);
+    }
+
 }
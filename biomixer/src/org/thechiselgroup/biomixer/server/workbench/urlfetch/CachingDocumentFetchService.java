@@ -0,0 +1,403 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.urlfetch;
+
+import static com.google.appengine.api.urlfetch.FetchOptions.Builder.withDeadline;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URL;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+
+import org.w3c.dom.Document;
+import org.xml.sax.SAXException;
+
+import com.google.appengine.api.urlfetch.HTTPHeader;
+import com.google.appengine.api.urlfetch.HTTPMethod;
+import com.google.appengine.api.urlfetch.HTTPRequest;
+import com.google.appengine.api.urlfetch.HTTPResponse;
+import com.google.appengine.api.urlfetch.URLFetchService;
+
+/**
+ * Two level caching proxy for remote XML documents.
+ * <p>
+ * Parsed documents are kept in a bounded in-memory LRU cache, backed by a
+ * {@link PersistentDocumentCache}. Entries expire after a time-to-live that
+ * can be configured per URL prefix. Expired entries are revalidated using
+ * their ETag / Last-Modified validators, and are still served if the remote
+ * service cannot be reached. Concurrent misses for the same URL share a single
+ * remote fetch.
+ * </p>
+ * <p>
+ * DOM documents are not thread-safe, so callers always receive their own copy
+ * of the cached document. Documents are only parsed when a DOM is requested,
+ * streaming callers read the cached content directly.
+ * </p>
+ * <p>
+ * The persistent cache is best effort: if storing an entry fails, the fetched
+ * document is still returned and only kept in memory.
+ * </p>
+ */
+public class CachingDocumentFetchService implements DocumentFetchService {
+
+    private class CachedDocument {
+
+        /* parsed on first DOM request, guarded by this */
+        private Document document;
+
+        private final HttpCacheEntry entry;
+
+        public CachedDocument(HttpCacheEntry entry, Document document) {
+            this.entry = entry;
+            this.document = document;
+        }
+
+        /**
+         * Returns a deep copy of the parsed document. Sharing the cached
+         * instance is not possible: callers may modify it, and DOM
+         * implementations are not thread-safe even for reads (e.g. Xerces
+         * expands deferred nodes and caches node lists on access). Cloning
+         * the parsed tree is several times faster than parsing the content
+         * again for each request.
+         */
+        public synchronized Document copyDocument() throws SAXException,
+                IOException, ParserConfigurationException {
+
+            if (document == null) {
+                document = parseDocument(entry.getContent());
+            }
+            return (Document) document.cloneNode(true);
+        }
+
+        public synchronized Document getParsedDocument() {
+            return document;
+        }
+
+    }
+
+    private static final String HEADER_ETAG = "ETag";
+
+    private static final String HEADER_IF_MODIFIED_SINCE = "If-Modified-Since";
+
+    private static final String HEADER_IF_NONE_MATCH = "If-None-Match";
+
+    private static final String HEADER_LAST_MODIFIED = "Last-Modified";
+
+    private static final int HTTP_NOT_MODIFIED = 304;
+
+    private static final int HTTP_OK = 200;
+
+    private static final Logger LOG = Logger
+            .getLogger(CachingDocumentFetchService.class.getName());
+
+    private static final double TEN_SECONDS = 10d;
+
+    private final long defaultTimeToLive;
+
+    private final DocumentBuilderFactory domBuilderFactory;
+
+    private final URLFetchService fetchService;
+
+    private final ConcurrentMap<String, FutureTask<CachedDocument>> inFlightFetches = new ConcurrentHashMap<String, FutureTask<CachedDocument>>();
+
+    private final Map<String, CachedDocument> memoryCache;
+
+    private final PersistentDocumentCache persistentCache;
+
+    private final Map<String, Long> timeToLiveByUrlPrefix = new LinkedHashMap<String, Long>();
+
+    /**
+     * @param memoryCapacity
+     *            maximum number of parsed documents kept in memory
+     * @param defaultTimeToLive
+     *            time in milliseconds after which fetched documents are
+     *            revalidated, unless a prefix specific time-to-live applies
+     */
+    public CachingDocumentFetchService(URLFetchService fetchService,
+            PersistentDocumentCache persistentCache,
+            DocumentBuilderFactory domBuilderFactory, final int memoryCapacity,
+            long defaultTimeToLive) {
+
+        assert fetchService != null;
+        assert persistentCache != null;
+        assert domBuilderFactory != null;
+        assert memoryCapacity > 0;
+        assert defaultTimeToLive >= 0;
+
+        this.fetchService = fetchService;
+        this.persistentCache = persistentCache;
+        this.domBuilderFactory = domBuilderFactory;
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.memoryCache = new LinkedHashMap<String, CachedDocument>(16,
+                0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, CachedDocument> eldest) {
+                return size() > memoryCapacity;
+            }
+        };
+    }
+
+    private CachedDocument awaitFetch(FutureTask<CachedDocument> fetch)
+            throws IOException {
+
+        try {
+            return fetch.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException(e.getMessage());
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private HttpCacheEntry fetch(String url, HttpCacheEntry staleEntry)
+            throws IOException {
+
+        HTTPRequest request = new HTTPRequest(new URL(url), HTTPMethod.GET,
+                withDeadline(TEN_SECONDS).followRedirects().disallowTruncate());
+
+        if (staleEntry != null && staleEntry.getEtag() != null) {
+            request.addHeader(new HTTPHeader(HEADER_IF_NONE_MATCH, staleEntry
+                    .getEtag()));
+        }
+        if (staleEntry != null && staleEntry.getLastModified() != null) {
+            request.addHeader(new HTTPHeader(HEADER_IF_MODIFIED_SINCE,
+                    staleEntry.getLastModified()));
+        }
+
+        HTTPResponse response = fetchService.fetch(request);
+        long expiryTime = getCurrentTimeMillis() + getTimeToLive(url);
+
+        if (response.getResponseCode() == HTTP_NOT_MODIFIED
+                && staleEntry != null) {
+            return staleEntry.revalidate(getHeader(response, HEADER_ETAG),
+                    getHeader(response, HEADER_LAST_MODIFIED), expiryTime);
+        }
+
+        if (response.getResponseCode() != HTTP_OK) {
+            throw new IOException("fetching " + url + " failed with status "
+                    + response.getResponseCode());
+        }
+
+        return new HttpCacheEntry(url, response.getContent(), getHeader(
+                response, HEADER_ETAG), getHeader(response,
+                HEADER_LAST_MODIFIED), expiryTime);
+    }
+
+    @Override
+    public InputStream fetchStream(String urlAsString) throws IOException {
+        assert urlAsString != null;
+
+        return new ByteArrayInputStream(getDocument(urlAsString).entry
+                .getContent());
+    }
+
+    @Override
+    public Document fetchXML(String urlAsString) throws IOException,
+            SAXException, ParserConfigurationException {
+
+        assert urlAsString != null;
+
+        return getDocument(urlAsString).copyDocument();
+    }
+
+    protected long getCurrentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    private CachedDocument getDocument(final String url) throws IOException {
+        final CachedDocument cached = getFromMemory(url);
+        if (cached != null && !cached.entry.isExpired(getCurrentTimeMillis())) {
+            return cached;
+        }
+
+        FutureTask<CachedDocument> fetch = new FutureTask<CachedDocument>(
+                new Callable<CachedDocument>() {
+                    @Override
+                    public CachedDocument call() throws Exception {
+                        return load(url, cached);
+                    }
+                });
+
+        FutureTask<CachedDocument> runningFetch = inFlightFetches.putIfAbsent(
+                url, fetch);
+
+        if (runningFetch == null) {
+            try {
+                fetch.run();
+            } finally {
+                inFlightFetches.remove(url, fetch);
+            }
+            runningFetch = fetch;
+        }
+
+        return awaitFetch(runningFetch);
+    }
+
+    private CachedDocument getFromMemory(String url) {
+        synchronized (memoryCache) {
+            return memoryCache.get(url);
+        }
+    }
+
+    private String getHeader(HTTPResponse response, String name) {
+        for (HTTPHeader header : response.getHeaders()) {
+            if (name.equalsIgnoreCase(header.getName())) {
+                return header.getValue();
+            }
+        }
+        return null;
+    }
+
+    public int getMemoryCacheSize() {
+        synchronized (memoryCache) {
+            return memoryCache.size();
+        }
+    }
+
+    /**
+     * @return time-to-live of the longest matching URL prefix, or the default
+     *         time-to-live if no prefix matches
+     */
+    public long getTimeToLive(String url) {
+        synchronized (timeToLiveByUrlPrefix) {
+            long timeToLive = defaultTimeToLive;
+            int matchLength = -1;
+            for (Map.Entry<String, Long> entry : timeToLiveByUrlPrefix
+                    .entrySet()) {
+                String prefix = entry.getKey();
+                if (url.startsWith(prefix) && prefix.length() > matchLength) {
+                    timeToLive = entry.getValue();
+                    matchLength = prefix.length();
+                }
+            }
+            return timeToLive;
+        }
+    }
+
+    private CachedDocument load(String url, CachedDocument memoryDocument)
+            throws IOException {
+
+        HttpCacheEntry staleEntry;
+        if (memoryDocument != null) {
+            staleEntry = memoryDocument.entry;
+        } else {
+            staleEntry = persistentCache.load(url);
+
+            if (staleEntry != null
+                    && !staleEntry.isExpired(getCurrentTimeMillis())) {
+                return putInMemory(new CachedDocument(staleEntry, null));
+            }
+        }
+
+        HttpCacheEntry entry;
+        try {
+            entry = fetch(url, staleEntry);
+        } catch (IOException e) {
+            if (staleEntry == null) {
+                throw e;
+            }
+
+            /* remote service unavailable, serve stale content */
+            if (memoryDocument != null) {
+                return memoryDocument;
+            }
+            return putInMemory(new CachedDocument(staleEntry, null));
+        }
+
+        boolean revalidated = staleEntry != null
+                && entry.getContent() == staleEntry.getContent();
+
+        storePersistently(entry, revalidated);
+
+        Document document = null;
+        if (memoryDocument != null && revalidated) {
+            /* the parsed document is still current */
+            document = memoryDocument.getParsedDocument();
+        }
+
+        return putInMemory(new CachedDocument(entry, document));
+    }
+
+    private Document parseDocument(byte[] bytes) throws SAXException,
+            IOException, ParserConfigurationException {
+
+        ByteArrayInputStream stream = new ByteArrayInputStream(bytes);
+        return domBuilderFactory.newDocumentBuilder().parse(stream);
+    }
+
+    private CachedDocument putInMemory(CachedDocument document) {
+        synchronized (memoryCache) {
+            memoryCache.put(document.entry.getUrl(), document);
+        }
+        return document;
+    }
+
+    /**
+     * Sets the time-to-live in milliseconds for all URLs starting with
+     * <code>urlPrefix</code>. The longest matching prefix wins.
+     */
+    public void setTimeToLive(String urlPrefix, long timeToLive) {
+        assert urlPrefix != null;
+        assert timeToLive >= 0;
+
+        synchronized (timeToLiveByUrlPrefix) {
+            timeToLiveByUrlPrefix.put(urlPrefix, timeToLive);
+        }
+    }
+
+    /**
+     * Failures are logged and ignored, because the document has already been
+     * fetched successfully.
+     */
+    private void storePersistently(HttpCacheEntry entry, boolean revalidated) {
+        try {
+            if (revalidated) {
+                persistentCache.updateExpiry(entry);
+            } else {
+                persistentCache.store(entry);
+            }
+        } catch (RuntimeException e) {
+            LOG.log(Level.WARNING, "could not store " + entry.getUrl()
+                    + " in the persistent cache", e);
+        }
+    }
+
+}
@@ -19,6 +19,7 @@ import static com.google.appengine.api.urlfetch.FetchOptions.Builder.withDeadlin
 
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URL;
 
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -51,9 +52,7 @@ public class DefaultDocumentFetchService implements DocumentFetchService {
     }
 
     @Override
-    public Document fetchXML(String urlAsString) throws IOException,
-            SAXException, ParserConfigurationException {
-
+    public InputStream fetchStream(String urlAsString) throws IOException {
         assert urlAsString != null;
 
         HTTPRequest request = new HTTPRequest(new URL(urlAsString),
@@ -62,10 +61,15 @@ public class DefaultDocumentFetchService implements DocumentFetchService {
 
         HTTPResponse response = fetchService.fetch(request);
 
-        ByteArrayInputStream stream = new ByteArrayInputStream(
-                response.getContent());
+        return new ByteArrayInputStream(response.getContent());
+    }
+
+    @Override
+    public Document fetchXML(String urlAsString) throws IOException,
+            SAXException, ParserConfigurationException {
 
-        return domBuilderFactory.newDocumentBuilder().parse(stream);
+        return domBuilderFactory.newDocumentBuilder().parse(
+                fetchStream(urlAsString));
     }
 
 }
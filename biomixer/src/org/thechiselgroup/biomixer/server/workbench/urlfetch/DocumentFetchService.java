@@ -16,6 +16,7 @@
 package org.thechiselgroup.biomixer.server.workbench.urlfetch;
 
 import java.io.IOException;
+import java.io.InputStream;
 
 import javax.xml.parsers.ParserConfigurationException;
 
@@ -24,6 +25,12 @@ import org.xml.sax.SAXException;
 
 public interface DocumentFetchService {
 
+    /**
+     * Returns the raw content of the document, e.g. for streaming parsers,
+     * without building a DOM.
+     */
+    InputStream fetchStream(String urlAsString) throws IOException;
+
     Document fetchXML(String urlAsString) throws IOException, SAXException,
             ParserConfigurationException;
 
@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.urlfetch;
+
+/**
+ * Raw HTTP response body together with the validators and expiry time that
+ * are needed to decide whether it can be served from a cache.
+ */
+public class HttpCacheEntry {
+
+    private final byte[] content;
+
+    private final String etag;
+
+    private final long expiryTime;
+
+    private final String lastModified;
+
+    private final String url;
+
+    public HttpCacheEntry(String url, byte[] content, String etag,
+            String lastModified, long expiryTime) {
+
+        assert url != null;
+        assert content != null;
+
+        this.url = url;
+        this.content = content;
+        this.etag = etag;
+        this.lastModified = lastModified;
+        this.expiryTime = expiryTime;
+    }
+
+    public byte[] getContent() {
+        return content;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public long getExpiryTime() {
+        return expiryTime;
+    }
+
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    public boolean hasValidators() {
+        return etag != null || lastModified != null;
+    }
+
+    public boolean isExpired(long currentTime) {
+        return currentTime >= expiryTime;
+    }
+
+    /**
+     * @return copy of this entry that keeps the content but expires at
+     *         <code>expiryTime</code> (used after a 304 revalidation).
+     *         Validators that are <code>null</code> are kept from this entry.
+     */
+    public HttpCacheEntry revalidate(String etag, String lastModified,
+            long expiryTime) {
+
+        return new HttpCacheEntry(url, content, etag == null ? this.etag
+                : etag, lastModified == null ? this.lastModified
+                : lastModified, expiryTime);
+    }
+
+}
@@ -0,0 +1,158 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.urlfetch;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.logging.Logger;
+
+import javax.jdo.PersistenceManager;
+import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Query;
+
+import com.google.appengine.api.datastore.Blob;
+
+/**
+ * Stores {@link HttpCacheEntry}s as {@link PersistentHttpResult}s in the
+ * datastore. Results without an expiry date (written by earlier versions) are
+ * treated as expired, so they get revalidated on their next use.
+ * <p>
+ * Datastore entities are limited to 1 MB, so content larger than
+ * {@link #MAX_CONTENT_LENGTH} is not stored. A previously stored entry for
+ * the same URL is removed in that case, because it is outdated.
+ * </p>
+ */
+public class JdoPersistentDocumentCache implements PersistentDocumentCache {
+
+    private static final Logger LOG = Logger
+            .getLogger(JdoPersistentDocumentCache.class.getName());
+
+    /**
+     * Leaves room for the URL, the validators and the entity overhead.
+     */
+    public static final int MAX_CONTENT_LENGTH = 1000 * 1000;
+
+    private final PersistenceManagerFactory pmf;
+
+    public JdoPersistentDocumentCache(PersistenceManagerFactory pmf) {
+        assert pmf != null;
+        this.pmf = pmf;
+    }
+
+    @SuppressWarnings("unchecked")
+    private PersistentHttpResult findResult(PersistenceManager manager,
+            String url) {
+
+        Query query = manager.newQuery(PersistentHttpResult.class,
+                "url == urlParam");
+        query.declareParameters("String urlParam");
+
+        Collection<PersistentHttpResult> results = (Collection<PersistentHttpResult>) query
+                .execute(url);
+
+        if (results.isEmpty()) {
+            return null;
+        }
+
+        return results.iterator().next();
+    }
+
+    @Override
+    public HttpCacheEntry load(String url) {
+        assert url != null;
+
+        PersistenceManager manager = pmf.getPersistenceManager();
+        try {
+            PersistentHttpResult result = findResult(manager, url);
+
+            if (result == null || result.getResult() == null) {
+                return null;
+            }
+
+            long expiryTime = result.getExpiryDate() == null ? 0l : result
+                    .getExpiryDate().getTime();
+
+            return new HttpCacheEntry(url, result.getResult().getBytes(),
+                    result.getEtag(), result.getLastModified(), expiryTime);
+        } finally {
+            manager.close();
+        }
+    }
+
+    private void setValidators(PersistentHttpResult result,
+            HttpCacheEntry entry) {
+
+        result.setExpiryDate(new Date(entry.getExpiryTime()));
+        result.setEtag(entry.getEtag());
+        result.setLastModified(entry.getLastModified());
+    }
+
+    @Override
+    public void store(HttpCacheEntry entry) {
+        assert entry != null;
+
+        PersistenceManager manager = pmf.getPersistenceManager();
+        try {
+            PersistentHttpResult result = findResult(manager, entry.getUrl());
+
+            if (entry.getContent().length > MAX_CONTENT_LENGTH) {
+                LOG.info("not storing " + entry.getUrl() + ", its content ("
+                        + entry.getContent().length
+                        + " bytes) exceeds the datastore limit");
+                if (result != null) {
+                    manager.deletePersistent(result);
+                }
+                return;
+            }
+
+            if (result == null) {
+                result = new PersistentHttpResult();
+                result.setUrl(entry.getUrl());
+            }
+
+            result.setFetchDate(new Date());
+            setValidators(result, entry);
+            result.setResult(new Blob(entry.getContent()));
+
+            manager.makePersistent(result);
+        } finally {
+            manager.close();
+        }
+    }
+
+    /**
+     * Only the expiry date and the validators of the persistent result are
+     * changed, its content blob is left untouched.
+     */
+    @Override
+    public void updateExpiry(HttpCacheEntry entry) {
+        assert entry != null;
+
+        PersistenceManager manager = pmf.getPersistenceManager();
+        try {
+            PersistentHttpResult result = findResult(manager, entry.getUrl());
+
+            if (result == null) {
+                return;
+            }
+
+            setValidators(result, entry);
+        } finally {
+            manager.close();
+        }
+    }
+
+}
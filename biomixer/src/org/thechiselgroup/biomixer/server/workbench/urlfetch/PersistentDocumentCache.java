@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright 2009, 2010 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.urlfetch;
+
+/**
+ * Second level cache behind the in-memory cache of
+ * {@link CachingDocumentFetchService}. Implementations must be thread-safe.
+ */
+public interface PersistentDocumentCache {
+
+    /**
+     * @return stored entry for <code>url</code> (possibly expired), or
+     *         <code>null</code> if there is none.
+     */
+    HttpCacheEntry load(String url);
+
+    /**
+     * Stores <code>entry</code>, replacing any entry for the same URL.
+     */
+    void store(HttpCacheEntry entry);
+
+    /**
+     * Updates expiry time and validators of the stored entry for the URL of
+     * <code>entry</code> after a revalidation showed that its content did not
+     * change. The stored content is not rewritten. Does nothing if there is
+     * no stored entry.
+     */
+    void updateExpiry(HttpCacheEntry entry);
+
+}
@@ -28,9 +28,18 @@ import com.google.appengine.api.datastore.Blob;
 @PersistenceCapable(identityType = IdentityType.APPLICATION, detachable = "true")
 public class PersistentHttpResult {
 
+    @Persistent
+    private String etag;
+
+    @Persistent
+    private Date expiryDate;
+
     @Persistent
     private Date fetchDate;
 
+    @Persistent
+    private String lastModified;
+
     @Persistent
     private Blob result;
 
@@ -41,10 +50,22 @@ public class PersistentHttpResult {
     @Persistent
     private String url;
 
+    public String getEtag() {
+        return etag;
+    }
+
+    public Date getExpiryDate() {
+        return expiryDate;
+    }
+
     public Date getFetchDate() {
         return fetchDate;
     }
 
+    public String getLastModified() {
+        return lastModified;
+    }
+
     public Blob getResult() {
         return result;
     }
@@ -57,10 +78,22 @@ public class PersistentHttpResult {
         return url;
     }
 
+    public void setEtag(String etag) {
+        this.etag = etag;
+    }
+
+    public void setExpiryDate(Date expiryDate) {
+        this.expiryDate = expiryDate;
+    }
+
     public void setFetchDate(Date fetchDate) {
         this.fetchDate = fetchDate;
     }
 
+    public void setLastModified(String lastModified) {
+        this.lastModified = lastModified;
+    }
+
     public void setResult(Blob result) {
         this.result = result;
     }
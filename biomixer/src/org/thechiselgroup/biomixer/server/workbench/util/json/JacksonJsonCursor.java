@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.util.json;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonCursor;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonPath;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * {@link JsonCursor} that reads the document with a Jackson streaming parser.
+ * Values that are not on the path are skipped without being materialized,
+ * and only the selected values are read into trees.
+ */
+public class JacksonJsonCursor implements JsonCursor {
+
+    /*
+     * an object or array on the path that is currently being read
+     */
+    private static class Container {
+
+        private int nextIndex = 0;
+
+        private final int segment;
+
+        public Container(int segment) {
+            this.segment = segment;
+        }
+
+    }
+
+    private final List<Container> containers = new ArrayList<Container>();
+
+    private Object current;
+
+    private final ObjectMapper objectMapper;
+
+    private final JsonParser parser;
+
+    private final JsonPath path;
+
+    private boolean started = false;
+
+    public JacksonJsonCursor(JsonParser parser, ObjectMapper objectMapper,
+            JsonPath path) {
+
+        assert parser != null;
+        assert objectMapper != null;
+        assert path != null;
+
+        this.parser = parser;
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public Object current() {
+        return current;
+    }
+
+    /**
+     * Handles the value at the current token that was selected by the
+     * segments before <code>segment</code>.
+     * 
+     * @return <code>true</code> if the value is selected by the whole path
+     */
+    private boolean enterValue(int segment) throws IOException {
+        if (segment == path.getSegmentCount()) {
+            current = objectMapper.readTree(parser);
+            return true;
+        }
+
+        JsonToken token = parser.getCurrentToken();
+        boolean propertySegment = path.isPropertySegment(segment);
+        if ((propertySegment && token == JsonToken.START_OBJECT)
+                || (!propertySegment && token == JsonToken.START_ARRAY)) {
+            containers.add(new Container(segment));
+        } else {
+            parser.skipChildren();
+        }
+        return false;
+    }
+
+    @Override
+    public boolean next() {
+        try {
+            current = null;
+
+            if (!started) {
+                started = true;
+                if (parser.nextToken() != null && enterValue(0)) {
+                    return true;
+                }
+            }
+
+            while (!containers.isEmpty()) {
+                Container container = containers.get(containers.size() - 1);
+                JsonToken token = parser.nextToken();
+
+                if (token == JsonToken.END_OBJECT
+                        || token == JsonToken.END_ARRAY) {
+                    containers.remove(containers.size() - 1);
+                    continue;
+                }
+
+                boolean matches;
+                if (token == JsonToken.FIELD_NAME) {
+                    matches = path.matchesProperty(container.segment,
+                            parser.getCurrentName());
+                    parser.nextToken();
+                } else {
+                    matches = path.matchesIndex(container.segment,
+                            container.nextIndex++);
+                }
+
+                if (!matches) {
+                    parser.skipChildren();
+                } else if (enterValue(container.segment + 1)) {
+                    return true;
+                }
+            }
+
+            parser.close();
+            return false;
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+}
@@ -15,12 +15,20 @@
  *******************************************************************************/
 package org.thechiselgroup.biomixer.server.workbench.util.json;
 
-import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonParser;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonCursor;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonPath;
+import org.thechiselgroup.biomixer.shared.workbench.util.json.JsonStreamingParser;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-public class JacksonJsonParser implements JsonParser {
+public class JacksonJsonParser implements JsonStreamingParser {
+
+    /**
+     * Shared because creating a mapper is expensive. Mappers (and their
+     * factories) are thread-safe once configured.
+     */
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
 
     @Override
     public int asInt(Object jsonNode) {
@@ -66,7 +74,17 @@ public class JacksonJsonParser implements JsonParser {
     @Override
     public Object parse(String json) {
         try {
-            return new ObjectMapper().readTree(json);
+            return OBJECT_MAPPER.readTree(json);
+        } catch (Exception e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    @Override
+    public JsonCursor select(String json, JsonPath path) {
+        try {
+            return new JacksonJsonCursor(OBJECT_MAPPER.getJsonFactory()
+                    .createJsonParser(json), OBJECT_MAPPER, path);
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
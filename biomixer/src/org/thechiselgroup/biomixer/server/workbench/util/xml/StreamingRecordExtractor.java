@@ -0,0 +1,269 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.util.xml;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamReader;
+
+/**
+ * Extracts flat records from an XML stream with a StAX reader, without
+ * building a DOM. Only the fields of the current record are kept in memory.
+ * <p>
+ * Paths are sequences of element local names separated by '/'. A record
+ * starts at each element whose ancestor path ends with the record path (like
+ * the XPath <code>//a/b</code>). Records nested inside records are not
+ * reported. Field paths are relative to the record element and may end with
+ * an attribute (<code>a/@b</code>). The value of a field is the text content
+ * of its first matching element, or <code>null</code> if there is none.
+ * </p>
+ * <p>
+ * Instances are immutable and can be shared between threads.
+ * </p>
+ */
+public class StreamingRecordExtractor {
+
+    public static interface RecordHandler {
+
+        void onRecord(Map<String, String> fields) throws Exception;
+
+    }
+
+    /*
+     * a single field value that is being collected from the text of an open
+     * element
+     */
+    private static class Capture {
+
+        private final int depth;
+
+        private final String fieldPath;
+
+        private final StringBuilder text = new StringBuilder();
+
+        public Capture(String fieldPath, int depth) {
+            this.fieldPath = fieldPath;
+            this.depth = depth;
+        }
+
+    }
+
+    private static final String ATTRIBUTE_PREFIX = "@";
+
+    private static final String SEPARATOR = "/";
+
+    private static final ThreadLocal<XMLInputFactory> INPUT_FACTORY = new ThreadLocal<XMLInputFactory>() {
+        @Override
+        protected XMLInputFactory initialValue() {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            return factory;
+        }
+    };
+
+    /**
+     * Maps element paths (relative to the record) to the attribute fields
+     * that are read from them. The key of the record element itself is "".
+     */
+    private final Map<String, List<String>> attributeFields = new HashMap<String, List<String>>();
+
+    /**
+     * Maps element paths (relative to the record) to the text fields that are
+     * read from them.
+     */
+    private final Map<String, String> elementFields = new HashMap<String, String>();
+
+    private final String[] recordPath;
+
+    public StreamingRecordExtractor(String recordPath, String... fieldPaths) {
+        assert recordPath != null;
+        assert fieldPaths != null;
+
+        this.recordPath = split(recordPath);
+
+        assert this.recordPath.length > 0 : "empty record path";
+
+        for (String fieldPath : fieldPaths) {
+            int attributeStart = fieldPath.lastIndexOf(ATTRIBUTE_PREFIX);
+            if (attributeStart == -1) {
+                elementFields.put(join(split(fieldPath)), fieldPath);
+                continue;
+            }
+
+            String elementPath = join(split(fieldPath.substring(0,
+                    attributeStart)));
+            List<String> fields = attributeFields.get(elementPath);
+            if (fields == null) {
+                fields = new ArrayList<String>();
+                attributeFields.put(elementPath, fields);
+            }
+            fields.add(fieldPath);
+        }
+    }
+
+    /**
+     * Reads all records from <code>in</code> and passes each of them to the
+     * <code>handler</code>. The stream is not closed.
+     */
+    public void extract(InputStream in, RecordHandler handler)
+            throws Exception {
+
+        assert in != null;
+        assert handler != null;
+
+        XMLStreamReader reader = INPUT_FACTORY.get().createXMLStreamReader(in);
+        try {
+            extract(reader, handler);
+        } finally {
+            reader.close();
+        }
+    }
+
+    private void extract(XMLStreamReader reader, RecordHandler handler)
+            throws Exception {
+
+        List<String> elementPath = new ArrayList<String>();
+        List<String> relativePath = new ArrayList<String>();
+        List<Capture> captures = new ArrayList<Capture>();
+        Map<String, String> fields = null;
+
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+            case XMLStreamConstants.START_ELEMENT: {
+                elementPath.add(reader.getLocalName());
+                if (fields == null) {
+                    if (!isRecordStart(elementPath)) {
+                        break;
+                    }
+                    fields = new HashMap<String, String>();
+                } else {
+                    relativePath.add(reader.getLocalName());
+                }
+
+                String path = join(relativePath);
+                readAttributes(reader, path, fields);
+                String fieldPath = elementFields.get(path);
+                if (fieldPath != null && !fields.containsKey(fieldPath)) {
+                    captures.add(new Capture(fieldPath, relativePath.size()));
+                }
+                break;
+            }
+            case XMLStreamConstants.CHARACTERS:
+            case XMLStreamConstants.CDATA:
+            case XMLStreamConstants.SPACE:
+                for (Capture capture : captures) {
+                    capture.text.append(reader.getTextCharacters(),
+                            reader.getTextStart(), reader.getTextLength());
+                }
+                break;
+            case XMLStreamConstants.END_ELEMENT: {
+                elementPath.remove(elementPath.size() - 1);
+                if (fields == null) {
+                    break;
+                }
+
+                int depth = relativePath.size();
+                for (int i = captures.size() - 1; i >= 0; i--) {
+                    Capture capture = captures.get(i);
+                    if (capture.depth == depth) {
+                        captures.remove(i);
+                        if (!fields.containsKey(capture.fieldPath)) {
+                            fields.put(capture.fieldPath,
+                                    capture.text.toString());
+                        }
+                    }
+                }
+
+                if (depth == 0) {
+                    handler.onRecord(fields);
+                    fields = null;
+                } else {
+                    relativePath.remove(depth - 1);
+                }
+                break;
+            }
+            }
+        }
+    }
+
+    private boolean isRecordStart(List<String> elementPath) {
+        int offset = elementPath.size() - recordPath.length;
+        if (offset < 0) {
+            return false;
+        }
+        for (int i = 0; i < recordPath.length; i++) {
+            if (!recordPath[i].equals(elementPath.get(offset + i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String join(List<String> path) {
+        StringBuilder sb = new StringBuilder();
+        for (String name : path) {
+            if (sb.length() > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(name);
+        }
+        return sb.toString();
+    }
+
+    private String join(String[] path) {
+        return join(Arrays.asList(path));
+    }
+
+    private void readAttributes(XMLStreamReader reader, String path,
+            Map<String, String> fields) {
+
+        List<String> fieldPaths = attributeFields.get(path);
+        if (fieldPaths == null) {
+            return;
+        }
+
+        for (String fieldPath : fieldPaths) {
+            if (fields.containsKey(fieldPath)) {
+                continue;
+            }
+            String name = fieldPath.substring(fieldPath
+                    .lastIndexOf(ATTRIBUTE_PREFIX) + 1);
+            String value = reader.getAttributeValue(null, name);
+            if (value != null) {
+                fields.put(fieldPath, value);
+            }
+        }
+    }
+
+    private String[] split(String path) {
+        List<String> names = new ArrayList<String>();
+        for (String name : path.split(SEPARATOR)) {
+            if (name.length() > 0) {
+                names.add(name);
+            }
+        }
+        return names.toArray(new String[names.size()]);
+    }
+
+}
@@ -0,0 +1,292 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.workspace;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.thechiselgroup.biomixer.client.core.persistence.Memento;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoEncoding;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoInput;
+import org.thechiselgroup.biomixer.client.core.persistence.MementoOutput;
+
+import com.google.gwt.user.client.rpc.SerializationException;
+
+/**
+ * Binary form of the {@link MementoEncoding} for storing view states in the
+ * datastore. A two byte header marks the format and whether the encoded tree
+ * is deflated. Java serialized mementos (the format used before) are still
+ * read.
+ */
+public final class MementoSerialization {
+
+    private static class BinaryInput implements MementoInput {
+
+        private final DataInputStream in;
+
+        public BinaryInput(DataInputStream in) {
+            this.in = in;
+        }
+
+        @Override
+        public boolean readBoolean() throws SerializationException {
+            try {
+                return in.readBoolean();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public byte readByte() throws SerializationException {
+            try {
+                return in.readByte();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public double readDouble() throws SerializationException {
+            try {
+                return in.readDouble();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public int readInt() throws SerializationException {
+            try {
+                return in.readInt();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public long readLong() throws SerializationException {
+            try {
+                return in.readLong();
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public Object readObject() throws SerializationException {
+            byte[] bytes = new byte[readInt()];
+            try {
+                in.readFully(bytes);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+            return readJavaSerialized(bytes);
+        }
+
+        @Override
+        public String readString() throws SerializationException {
+            byte[] bytes = new byte[readInt()];
+            try {
+                in.readFully(bytes);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+            return new String(bytes, UTF_8);
+        }
+
+    }
+
+    private static class BinaryOutput implements MementoOutput {
+
+        private final DataOutputStream out;
+
+        public BinaryOutput(DataOutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void writeBoolean(boolean value) throws SerializationException {
+            try {
+                out.writeBoolean(value);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public void writeByte(byte value) throws SerializationException {
+            try {
+                out.writeByte(value);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public void writeDouble(double value) throws SerializationException {
+            try {
+                out.writeDouble(value);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public void writeInt(int value) throws SerializationException {
+            try {
+                out.writeInt(value);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public void writeLong(long value) throws SerializationException {
+            try {
+                out.writeLong(value);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        @Override
+        public void writeObject(Object value) throws SerializationException {
+            writeBytes(writeJavaSerialized(value));
+        }
+
+        private void writeBytes(byte[] bytes) throws SerializationException {
+            writeInt(bytes.length);
+            try {
+                out.write(bytes);
+            } catch (IOException e) {
+                throw new SerializationException(e);
+            }
+        }
+
+        /*
+         * not using writeUTF because it is limited to 64k (e.g. comments)
+         */
+        @Override
+        public void writeString(String value) throws SerializationException {
+            writeBytes(value.getBytes(UTF_8));
+        }
+
+    }
+
+    private static final byte FORMAT_MARKER = 'M';
+
+    private static final byte FLAG_DEFLATED = 1;
+
+    /**
+     * First byte of java serialization streams (ObjectStreamConstants).
+     */
+    private static final byte JAVA_SERIALIZATION_MARKER = (byte) 0xAC;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    public static Memento fromBytes(byte[] bytes)
+            throws SerializationException {
+        assert bytes != null;
+
+        if (bytes.length > 0 && bytes[0] == JAVA_SERIALIZATION_MARKER) {
+            return (Memento) readJavaSerialized(bytes);
+        }
+
+        if (bytes.length < 2 || bytes[0] != FORMAT_MARKER) {
+            throw new SerializationException("Unknown memento format");
+        }
+
+        InputStream in = new ByteArrayInputStream(bytes, 2, bytes.length - 2);
+        if ((bytes[1] & FLAG_DEFLATED) != 0) {
+            in = new InflaterInputStream(in);
+        }
+
+        return MementoEncoding.read(new BinaryInput(new DataInputStream(in)));
+    }
+
+    private static Object readJavaSerialized(byte[] bytes)
+            throws SerializationException {
+
+        try {
+            ObjectInputStream in = new ObjectInputStream(
+                    new ByteArrayInputStream(bytes));
+            try {
+                return in.readObject();
+            } finally {
+                in.close();
+            }
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        } catch (ClassNotFoundException e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    /**
+     * @param deflate
+     *            compress the encoded tree. Pays off for large view states,
+     *            e.g. graphs with many nodes.
+     */
+    public static byte[] toBytes(Memento memento, boolean deflate)
+            throws SerializationException {
+
+        assert memento != null;
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(FORMAT_MARKER);
+        bytes.write(deflate ? FLAG_DEFLATED : 0);
+
+        OutputStream out = deflate ? new DeflaterOutputStream(bytes) : bytes;
+        DataOutputStream dataOut = new DataOutputStream(out);
+        MementoEncoding.write(memento, new BinaryOutput(dataOut));
+        try {
+            dataOut.close();
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+
+        return bytes.toByteArray();
+    }
+
+    private static byte[] writeJavaSerialized(Object value)
+            throws SerializationException {
+
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            ObjectOutputStream out = new ObjectOutputStream(bytes);
+            out.writeObject(value);
+            out.close();
+            return bytes.toByteArray();
+        } catch (IOException e) {
+            throw new SerializationException(e);
+        }
+    }
+
+    private MementoSerialization() {
+    }
+
+}
@@ -41,6 +41,13 @@ public class PersistentView {
     @Persistent(serialized = "true")
     private String contentType;
 
+    /**
+     * <code>null</code> for views that were saved before the content was
+     * separated. Those views store it in the legacy fields below.
+     */
+    @Persistent(defaultFetchGroup = "false", dependent = "true")
+    private PersistentViewContent content;
+
     @Persistent(serialized = "true")
     private Resource[] resources;
 
@@ -65,6 +72,10 @@ public class PersistentView {
     @Persistent
     private String userName;
 
+    public PersistentViewContent getContent() {
+        return content;
+    }
+
     public String getContentType() {
         return contentType;
     }
@@ -109,6 +120,10 @@ public class PersistentView {
         return windows;
     }
 
+    public void setContent(PersistentViewContent content) {
+        this.content = content;
+    }
+
     public void setContentType(String contentType) {
         this.contentType = contentType;
     }
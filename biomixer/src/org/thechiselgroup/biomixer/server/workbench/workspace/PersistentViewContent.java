@@ -0,0 +1,86 @@
+/*******************************************************************************
+ * Copyright (C) 2011 Lars Grammel 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.server.workbench.workspace;
+
+import javax.jdo.annotations.IdGeneratorStrategy;
+import javax.jdo.annotations.IdentityType;
+import javax.jdo.annotations.PersistenceCapable;
+import javax.jdo.annotations.Persistent;
+import javax.jdo.annotations.PrimaryKey;
+
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ResourceSetDTO;
+
+import com.google.appengine.api.datastore.Blob;
+import com.google.appengine.api.datastore.Key;
+
+/**
+ * Serialized content of a {@link PersistentView}. Stored as a separate child
+ * entity, so that listing view previews does not load it.
+ */
+@PersistenceCapable(identityType = IdentityType.APPLICATION, detachable = "true")
+public class PersistentViewContent {
+
+    @PrimaryKey
+    @Persistent(valueStrategy = IdGeneratorStrategy.IDENTITY)
+    private Key key;
+
+    @Persistent(serialized = "true")
+    private Resource[] resources;
+
+    @Persistent(serialized = "true")
+    private ResourceSetDTO[] resourceSets;
+
+    /**
+     * View state in the format of {@link MementoSerialization}. Contents that
+     * were stored as serialized {@code Memento} before can still be read.
+     */
+    @Persistent
+    private Blob viewState;
+
+    public Key getKey() {
+        return key;
+    }
+
+    public Resource[] getResources() {
+        return resources;
+    }
+
+    public ResourceSetDTO[] getResourceSets() {
+        return resourceSets;
+    }
+
+    public Blob getViewState() {
+        return viewState;
+    }
+
+    public void setKey(Key key) {
+        this.key = key;
+    }
+
+    public void setResources(Resource[] resources) {
+        this.resources = resources;
+    }
+
+    public void setResourceSets(ResourceSetDTO[] resourceSets) {
+        this.resourceSets = resourceSets;
+    }
+
+    public void setViewState(Blob viewState) {
+        this.viewState = viewState;
+    }
+
+}
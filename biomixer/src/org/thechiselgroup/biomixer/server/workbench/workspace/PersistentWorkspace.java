@@ -52,6 +52,13 @@ public class PersistentWorkspace {
     @Persistent(serialized = "true")
     private ResourceSetDTO[] resourceSets;
 
+    /**
+     * Incremented on each save. <code>null</code> for workspaces that were
+     * stored before versioning was introduced.
+     */
+    @Persistent
+    private Long version;
+
     @Persistent(serialized = "true")
     private WindowDTO[] windows;
 
@@ -79,6 +86,10 @@ public class PersistentWorkspace {
         return resourceSets;
     }
 
+    public long getVersion() {
+        return version == null ? 0 : version;
+    }
+
     public WindowDTO[] getWindows() {
         return windows;
     }
@@ -107,6 +118,10 @@ public class PersistentWorkspace {
         this.resourceSets = resourceSets;
     }
 
+    public void setVersion(long version) {
+        this.version = version;
+    }
+
     public void setWindows(WindowDTO[] windows) {
         this.windows = windows;
     }
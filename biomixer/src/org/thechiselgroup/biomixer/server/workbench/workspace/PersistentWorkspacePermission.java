@@ -42,6 +42,20 @@ public class PersistentWorkspacePermission {
     @Persistent
     private PersistentWorkspace workspace;
 
+    /**
+     * Denormalized from the workspace, so that workspace previews can be
+     * listed without loading the workspaces. <code>null</code> for permissions
+     * that were created before it was introduced.
+     */
+    @Persistent
+    private Long workspaceId;
+
+    /**
+     * Denormalized from the workspace, updated when the workspace is renamed.
+     */
+    @Persistent
+    private String workspaceName;
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj)
@@ -79,6 +93,14 @@ public class PersistentWorkspacePermission {
         return workspace;
     }
 
+    public Long getWorkspaceId() {
+        return workspaceId;
+    }
+
+    public String getWorkspaceName() {
+        return workspaceName;
+    }
+
     @Override
     public int hashCode() {
         final int prime = 31;
@@ -107,4 +129,12 @@ public class PersistentWorkspacePermission {
         this.workspace = workspace;
     }
 
+    public void setWorkspaceId(Long workspaceId) {
+        this.workspaceId = workspaceId;
+    }
+
+    public void setWorkspaceName(String workspaceName) {
+        this.workspaceName = workspaceName;
+    }
+
 }
\ No newline at end of file
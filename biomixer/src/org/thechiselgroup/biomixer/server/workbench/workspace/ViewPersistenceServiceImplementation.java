@@ -24,6 +24,7 @@ import javax.jdo.PersistenceManager;
 import javax.jdo.PersistenceManagerFactory;
 import javax.jdo.Query;
 
+import org.thechiselgroup.biomixer.client.core.persistence.Memento;
 import org.thechiselgroup.biomixer.client.core.util.ServiceException;
 import org.thechiselgroup.biomixer.client.workbench.authentication.AuthenticationException;
 import org.thechiselgroup.biomixer.client.workbench.authentication.AuthorizationException;
@@ -31,8 +32,10 @@ import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ViewDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ViewPreviewDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.ViewPersistenceService;
 
+import com.google.appengine.api.datastore.Blob;
 import com.google.appengine.api.users.User;
 import com.google.appengine.api.users.UserService;
+import com.google.gwt.user.client.rpc.SerializationException;
 import com.google.inject.Inject;
 
 /**
@@ -40,6 +43,10 @@ import com.google.inject.Inject;
  * serialized and not mapped to persistable objects (reason: better performance
  * & better development performance)
  * 
+ * The serialized view content is stored in a child entity that is only
+ * loaded by {@link #loadView(Long)}, so that listing previews stays cheap. The
+ * view state is stored in the compact {@link MementoSerialization} format.
+ * 
  * For more information on App Engine persistence, see
  * 
  * {@linkplain http://code.google.com/appengine/docs/java/datastore/}
@@ -130,15 +137,11 @@ public class ViewPersistenceServiceImplementation implements
         return pView;
     }
 
-    private Collection<PersistentView> getPersistentViewsForUser(
-            PersistenceManager manager, User user) {
-
+    private Query createUserIdQuery(PersistenceManager manager) {
         Query userIdQuery = manager.newQuery(PersistentView.class,
                 "userId == userIdParam");
         userIdQuery.declareParameters("String userIdParam");
-        //
-        return (Collection<PersistentView>) userIdQuery.execute(user
-                .getUserId());
+        return userIdQuery;
     }
 
     @Override
@@ -153,7 +156,7 @@ public class ViewPersistenceServiceImplementation implements
     }
 
     private ViewDTO loadView(Long viewId, PersistenceManager pm)
-            throws AuthorizationException {
+            throws ServiceException {
         return toViewDTO(getPersistentView(viewId, pm));
     }
 
@@ -165,26 +168,38 @@ public class ViewPersistenceServiceImplementation implements
         try {
             User user = getCurrentUser();
 
-            return loadViewPreviews(manager, user);
+            Query userIdQuery = createUserIdQuery(manager);
+
+            return toViewPreviewDTOs((Collection<PersistentView>) userIdQuery
+                    .execute(user.getUserId()));
         } finally {
             manager.close();
         }
     }
 
-    private List<ViewPreviewDTO> loadViewPreviews(PersistenceManager manager,
-            User user) {
-        Collection<PersistentView> views = getPersistentViewsForUser(manager,
-                user);
-        List<ViewPreviewDTO> result = new ArrayList<ViewPreviewDTO>();
-        for (PersistentView view : views) {
-            result.add(toViewPreviewDTO(view));
+    @Override
+    public List<ViewPreviewDTO> loadViewPreviews(int offset, int limit)
+            throws AuthenticationException {
+
+        assert offset >= 0;
+        assert limit >= 0;
+
+        PersistenceManager manager = createPersistanceManager();
+        try {
+            User user = getCurrentUser();
+
+            Query userIdQuery = createUserIdQuery(manager);
+            userIdQuery.setRange(offset, offset + limit);
+
+            return toViewPreviewDTOs((Collection<PersistentView>) userIdQuery
+                    .execute(user.getUserId()));
+        } finally {
+            manager.close();
         }
-        return result;
     }
 
     @Override
-    public Long saveView(ViewDTO dto) throws AuthenticationException,
-            AuthorizationException {
+    public Long saveView(ViewDTO dto) throws ServiceException {
 
         PersistenceManager pm = createPersistanceManager();
 
@@ -200,16 +215,36 @@ public class ViewPersistenceServiceImplementation implements
         }
     }
 
-    private ViewDTO toViewDTO(PersistentView pView) {
+    private Blob toBlob(Memento viewState) throws ServiceException {
+        if (viewState == null) {
+            return null;
+        }
+
+        try {
+            return new Blob(MementoSerialization.toBytes(viewState, true));
+        } catch (SerializationException e) {
+            throw new ServiceException("Could not store view state", e);
+        }
+    }
+
+    private ViewDTO toViewDTO(PersistentView pView) throws ServiceException {
         ViewDTO dto = new ViewDTO();
 
         dto.setId(pView.getId());
         dto.setTitle(pView.getTitle());
-        dto.setResources(pView.getResources());
-        dto.setResourceSets(pView.getResourceSets());
         dto.setContentType(pView.getContentType());
         dto.setTitle(pView.getTitle());
-        dto.setViewState(pView.getViewState());
+
+        PersistentViewContent content = pView.getContent();
+        if (content != null) {
+            dto.setResources(content.getResources());
+            dto.setResourceSets(content.getResourceSets());
+            dto.setViewState(toViewState(content.getViewState()));
+        } else {
+            dto.setResources(pView.getResources());
+            dto.setResourceSets(pView.getResourceSets());
+            dto.setViewState(pView.getViewState());
+        }
 
         return dto;
     }
@@ -219,11 +254,37 @@ public class ViewPersistenceServiceImplementation implements
                 view.getContentType(), view.getSharedDate());
     }
 
-    private void updateViewWithDTO(PersistentView view, ViewDTO dto, User user) {
+    private List<ViewPreviewDTO> toViewPreviewDTOs(
+            Collection<PersistentView> views) {
+        List<ViewPreviewDTO> result = new ArrayList<ViewPreviewDTO>();
+        for (PersistentView view : views) {
+            result.add(toViewPreviewDTO(view));
+        }
+        return result;
+    }
+
+    private Memento toViewState(Blob blob) throws ServiceException {
+        if (blob == null) {
+            return null;
+        }
+
+        try {
+            return MementoSerialization.fromBytes(blob.getBytes());
+        } catch (SerializationException e) {
+            throw new ServiceException("Could not read view state", e);
+        }
+    }
+
+    private void updateViewWithDTO(PersistentView view, ViewDTO dto, User user)
+            throws ServiceException {
+
+        PersistentViewContent content = new PersistentViewContent();
+        content.setViewState(toBlob(dto.getViewState()));
+        content.setResources(dto.getResources());
+        content.setResourceSets(dto.getResourceSets());
+
         view.setTitle(dto.getTitle());
-        view.setViewState(dto.getViewState());
-        view.setResources(dto.getResources());
-        view.setResourceSets(dto.getResourceSets());
+        view.setContent(content);
         view.setContentType(dto.getContentType());
 
         view.setUserName(user.getNickname());
@@ -71,6 +71,17 @@ public class ViewPersistenceServiceServlet extends ChooselServiceServlet
         });
     }
 
+    @Override
+    public List<ViewPreviewDTO> loadViewPreviews(final int offset,
+            final int limit) throws ServiceException {
+        return execute(new Task<List<ViewPreviewDTO>>() {
+            @Override
+            public List<ViewPreviewDTO> execute() throws ServiceException {
+                return getServiceDelegate().loadViewPreviews(offset, limit);
+            }
+        });
+    }
+
     @Override
     public Long saveView(final ViewDTO view) throws ServiceException {
         return execute(new Task<Long>() {
@@ -17,16 +17,25 @@ package org.thechiselgroup.biomixer.server.workbench.workspace;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.jdo.PersistenceManager;
 import javax.jdo.PersistenceManagerFactory;
+import javax.jdo.Transaction;
 
+import org.thechiselgroup.biomixer.client.core.resources.Resource;
 import org.thechiselgroup.biomixer.client.workbench.authentication.AuthenticationException;
 import org.thechiselgroup.biomixer.client.workbench.authentication.AuthorizationException;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.ResourceSetDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WindowDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspacePersistenceService;
+import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspaceVersionConflictException;
 
 import com.google.inject.Inject;
 
@@ -41,6 +50,13 @@ import com.google.inject.Inject;
  * 
  * {@linkplain http
  * ://code.google.com/events/io/2009/sessions/SofterSideofSchemas.html}
+ * 
+ * Workspace previews are read from the denormalized workspace ids and names
+ * of the permissions, so listing them does not load any workspace.
+ * 
+ * Workspaces are versioned. Snapshots of existing workspaces and deltas are
+ * only stored if they are based on the stored version (optimistic
+ * concurrency).
  */
 public class WorkspacePersistenceServiceImplementation implements
         WorkspacePersistenceService {
@@ -61,12 +77,69 @@ public class WorkspacePersistenceServiceImplementation implements
         this.persistenceManagerFactory = pmf;
     }
 
+    private void applyDelta(PersistentWorkspace workspace,
+            WorkspaceDeltaDTO delta) {
+
+        setName(workspace, delta.getName());
+
+        WindowDTO[] storedWindows = workspace.getWindows();
+        WindowDTO[] windows = new WindowDTO[delta.getWindowCount()];
+        System.arraycopy(storedWindows, 0, windows, 0,
+                Math.min(storedWindows.length, windows.length));
+        WindowDTO[] changedWindows = delta.getChangedWindows();
+        int[] changedWindowIndices = delta.getChangedWindowIndices();
+        for (int i = 0; i < changedWindows.length; i++) {
+            windows[changedWindowIndices[i]] = changedWindows[i];
+        }
+        workspace.setWindows(windows);
+
+        Map<String, Resource> resources = new LinkedHashMap<String, Resource>();
+        for (Resource resource : workspace.getResources()) {
+            resources.put(resource.getUri(), resource);
+        }
+        for (String uri : delta.getRemovedResourceUris()) {
+            resources.remove(uri);
+        }
+        for (Resource resource : delta.getChangedResources()) {
+            resources.put(resource.getUri(), resource);
+        }
+        workspace.setResources(resources.values().toArray(
+                new Resource[resources.size()]));
+
+        ResourceSetDTO[] storedResourceSets = workspace.getResourceSets();
+        ResourceSetDTO[] resourceSets = new ResourceSetDTO[delta
+                .getResourceSetCount()];
+        System.arraycopy(storedResourceSets, 0, resourceSets, 0,
+                Math.min(storedResourceSets.length, resourceSets.length));
+        for (ResourceSetDTO resourceSet : delta.getChangedResourceSets()) {
+            resourceSets[resourceSet.getId()] = resourceSet;
+        }
+        workspace.setResourceSets(resourceSets);
+
+        workspace.setVersion(delta.getBaseVersion() + 1);
+    }
+
+    private void checkVersion(PersistentWorkspace workspace, long baseVersion,
+            String changeType) throws WorkspaceVersionConflictException {
+
+        if (workspace.getVersion() != baseVersion) {
+            throw new WorkspaceVersionConflictException("workspace "
+                    + workspace.getId() + " is at version "
+                    + workspace.getVersion() + ", " + changeType
+                    + " is based on " + baseVersion);
+        }
+    }
+
     private PersistenceManager createPersistanceManager() {
         return persistenceManagerFactory.getPersistenceManager();
     }
 
-    private PersistentWorkspace createPersistentWorkspace(PersistenceManager pm) {
+    private PersistentWorkspace createPersistentWorkspace(String name,
+            PersistenceManager pm) {
+
         PersistentWorkspace workspace = new PersistentWorkspace();
+        // set before the permission is created, which denormalizes the name
+        workspace.setName(name);
         workspace = pm.makePersistent(workspace);
 
         permissionManager
@@ -91,19 +164,6 @@ public class WorkspacePersistenceServiceImplementation implements
         return getPersistentWorkspace(dto.getId(), manager);
     }
 
-    private Collection<PersistentWorkspace> getPersistentWorkspacesForUser(
-            PersistenceManager manager) {
-
-        Collection<PersistentWorkspacePermission> result = permissionManager
-                .getWorkspacePermissionsForCurrentUser(manager);
-        Collection<PersistentWorkspace> workspaces = new ArrayList<PersistentWorkspace>();
-        for (PersistentWorkspacePermission permission : result) {
-            workspaces.add(permission.getWorkspace());
-        }
-
-        return workspaces;
-    }
-
     @Override
     public WorkspaceDTO loadWorkspace(Long id) throws AuthenticationException,
             AuthorizationException {
@@ -132,44 +192,140 @@ public class WorkspacePersistenceServiceImplementation implements
 
         PersistenceManager manager = createPersistanceManager();
         try {
-            return loadWorkspacePreviews(manager);
+            return toWorkspacePreviewDTOs(permissionManager
+                    .getWorkspacePermissionsForCurrentUser(manager));
         } finally {
             manager.close();
         }
     }
 
-    private List<WorkspacePreviewDTO> loadWorkspacePreviews(
-            PersistenceManager manager) {
+    @Override
+    public List<WorkspacePreviewDTO> loadWorkspacePreviews(int offset,
+            int limit) throws AuthenticationException {
 
-        Collection<PersistentWorkspace> workspaces = getPersistentWorkspacesForUser(manager);
-        List<WorkspacePreviewDTO> result = new ArrayList<WorkspacePreviewDTO>();
-        for (PersistentWorkspace workspace : workspaces) {
-            result.add(toWorkspaceSDTO(workspace));
+        permissionManager.checkAuthenticated();
+
+        PersistenceManager manager = createPersistanceManager();
+        try {
+            return toWorkspacePreviewDTOs(permissionManager
+                    .getWorkspacePermissionsForCurrentUser(manager, offset,
+                            limit));
+        } finally {
+            manager.close();
         }
-        return result;
     }
 
-    // TODO should be done in a transaction?
     @Override
-    public Long saveWorkspace(WorkspaceDTO dto) throws AuthenticationException,
-            AuthorizationException {
+    public WorkspaceVersionDTO saveWorkspace(WorkspaceDTO dto)
+            throws AuthenticationException, AuthorizationException,
+            WorkspaceVersionConflictException {
 
         permissionManager.checkAuthenticated();
 
         PersistenceManager pm = createPersistanceManager();
 
         try {
-            PersistentWorkspace workspace = workspaceExists(dto) ? getPersistentWorkspace(
-                    dto, pm) : createPersistentWorkspace(pm);
+            if (!workspaceExists(dto)) {
+                PersistentWorkspace workspace = createPersistentWorkspace(
+                        dto.getName(), pm);
+
+                updateWorkspaceWithDTO(workspace, dto);
+
+                return new WorkspaceVersionDTO(workspace.getId(),
+                        workspace.getVersion());
+            }
+
+            /*
+             * authorization is checked outside of the transaction, as in
+             * saveWorkspaceDelta
+             */
+            getPersistentWorkspace(dto, pm);
+
+            Transaction transaction = pm.currentTransaction();
+            try {
+                transaction.begin();
+
+                PersistentWorkspace workspace = pm.getObjectById(
+                        PersistentWorkspace.class, dto.getId());
+
+                checkVersion(workspace, dto.getVersion(), "snapshot");
+                updateWorkspaceWithDTO(workspace, dto);
 
-            updateWorkspaceWithDTO(workspace, dto);
+                transaction.commit();
 
-            return workspace.getId();
+                return new WorkspaceVersionDTO(workspace.getId(),
+                        workspace.getVersion());
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            }
         } finally {
             pm.close();
         }
     }
 
+    @Override
+    public long saveWorkspaceDelta(WorkspaceDeltaDTO delta)
+            throws AuthenticationException, AuthorizationException,
+            WorkspaceVersionConflictException {
+
+        permissionManager.checkAuthenticated();
+
+        PersistenceManager pm = createPersistanceManager();
+        try {
+            /*
+             * authorization is checked outside of the transaction, because it
+             * queries permissions that are not in the entity group of the
+             * workspace
+             */
+            getPersistentWorkspace(delta.getWorkspaceId(), pm);
+
+            Transaction transaction = pm.currentTransaction();
+            try {
+                transaction.begin();
+
+                PersistentWorkspace workspace = pm.getObjectById(
+                        PersistentWorkspace.class, delta.getWorkspaceId());
+
+                checkVersion(workspace, delta.getBaseVersion(), "delta");
+                applyDelta(workspace, delta);
+
+                transaction.commit();
+
+                return workspace.getVersion();
+            } finally {
+                if (transaction.isActive()) {
+                    transaction.rollback();
+                }
+            }
+        } finally {
+            pm.close();
+        }
+    }
+
+    /**
+     * Sets the name of the workspace and updates the names that are
+     * denormalized in its permissions.
+     */
+    private void setName(PersistentWorkspace workspace, String name) {
+        if (name == null ? workspace.getName() == null : name
+                .equals(workspace.getName())) {
+            return;
+        }
+
+        workspace.setName(name);
+
+        if (workspace.getPermissions() == null) {
+            return;
+        }
+
+        for (PersistentWorkspacePermission permission : workspace
+                .getPermissions()) {
+            permission.setWorkspaceName(name);
+        }
+    }
+
     private WorkspaceDTO toWorkspaceDTO(PersistentWorkspace pWorkspace) {
         WorkspaceDTO dto = new WorkspaceDTO();
 
@@ -178,21 +334,40 @@ public class WorkspacePersistenceServiceImplementation implements
         dto.setResources(pWorkspace.getResources());
         dto.setResourceSets(pWorkspace.getResourceSets());
         dto.setWindows(pWorkspace.getWindows());
+        dto.setVersion(pWorkspace.getVersion());
 
         return dto;
     }
 
-    private WorkspacePreviewDTO toWorkspaceSDTO(PersistentWorkspace workspace) {
-        return new WorkspacePreviewDTO(workspace.getId(), workspace.getName());
+    private List<WorkspacePreviewDTO> toWorkspacePreviewDTOs(
+            Collection<PersistentWorkspacePermission> permissions) {
+
+        List<WorkspacePreviewDTO> result = new ArrayList<WorkspacePreviewDTO>();
+        for (PersistentWorkspacePermission permission : permissions) {
+            if (permission.getWorkspaceId() == null) {
+                /*
+                 * permission was created before workspace ids and names were
+                 * denormalized: load the workspace once and store them
+                 */
+                PersistentWorkspace workspace = permission.getWorkspace();
+                permission.setWorkspaceId(workspace.getId());
+                permission.setWorkspaceName(workspace.getName());
+            }
+
+            result.add(new WorkspacePreviewDTO(permission.getWorkspaceId(),
+                    permission.getWorkspaceName()));
+        }
+        return result;
     }
 
     private void updateWorkspaceWithDTO(PersistentWorkspace workspace,
             WorkspaceDTO dto) {
 
-        workspace.setName(dto.getName());
+        setName(workspace, dto.getName());
         workspace.setResources(dto.getResources());
         workspace.setResourceSets(dto.getResourceSets());
         workspace.setWindows(dto.getWindows());
+        workspace.setVersion(workspace.getVersion() + 1);
     }
 
     private boolean workspaceExists(WorkspaceDTO dto) {
@@ -20,7 +20,9 @@ import java.util.List;
 import org.thechiselgroup.biomixer.client.core.util.ServiceException;
 import org.thechiselgroup.biomixer.client.core.util.task.Task;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceDeltaDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspacePreviewDTO;
+import org.thechiselgroup.biomixer.client.workbench.workspace.dto.WorkspaceVersionDTO;
 import org.thechiselgroup.biomixer.client.workbench.workspace.service.WorkspacePersistenceService;
 import org.thechiselgroup.biomixer.server.workbench.server.ChooselServiceServlet;
 import org.thechiselgroup.biomixer.server.workbench.server.PMF;
@@ -65,13 +67,37 @@ public class WorkspacePersistenceServiceServlet extends ChooselServiceServlet
     }
 
     @Override
-    public Long saveWorkspace(final WorkspaceDTO workspace)
+    public List<WorkspacePreviewDTO> loadWorkspacePreviews(final int offset,
+            final int limit) throws ServiceException {
+        return execute(new Task<List<WorkspacePreviewDTO>>() {
+            @Override
+            public List<WorkspacePreviewDTO> execute() throws ServiceException {
+                return getServiceDelegate().loadWorkspacePreviews(offset,
+                        limit);
+            }
+        });
+    }
+
+    @Override
+    public WorkspaceVersionDTO saveWorkspace(final WorkspaceDTO workspace)
+            throws ServiceException {
+
+        return execute(new Task<WorkspaceVersionDTO>() {
+            @Override
+            public WorkspaceVersionDTO execute() throws ServiceException {
+                return getServiceDelegate().saveWorkspace(workspace);
+            }
+        });
+    }
+
+    @Override
+    public long saveWorkspaceDelta(final WorkspaceDeltaDTO delta)
             throws ServiceException {
 
         return execute(new Task<Long>() {
             @Override
             public Long execute() throws ServiceException {
-                return getServiceDelegate().saveWorkspace(workspace);
+                return getServiceDelegate().saveWorkspaceDelta(delta);
             }
         });
     }
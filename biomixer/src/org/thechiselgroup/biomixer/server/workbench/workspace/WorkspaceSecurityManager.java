@@ -64,6 +64,8 @@ public class WorkspaceSecurityManager {
 
         PersistentWorkspacePermission permission = new PersistentWorkspacePermission();
         permission.setWorkspace(workspace);
+        permission.setWorkspaceId(workspace.getId());
+        permission.setWorkspaceName(workspace.getName());
         permission.setUserId(userId);
         permission.setUserEmail(userEmail);
         permission.setUserName(userName);
@@ -82,12 +84,31 @@ public class WorkspaceSecurityManager {
         return userService.getCurrentUser();
     }
 
-    public Collection<PersistentWorkspacePermission> getWorkspacePermissionsForCurrentUser(
-            PersistenceManager manager) {
-
+    private Query createUserIdQuery(PersistenceManager manager) {
         Query userIdQuery = manager.newQuery(
                 PersistentWorkspacePermission.class, "userId == userIdParam");
         userIdQuery.declareParameters("String userIdParam");
+        return userIdQuery;
+    }
+
+    public Collection<PersistentWorkspacePermission> getWorkspacePermissionsForCurrentUser(
+            PersistenceManager manager) {
+
+        return (Collection<PersistentWorkspacePermission>) createUserIdQuery(
+                manager).execute(getCurrentUser().getUserId());
+    }
+
+    /**
+     * Returns a page of the permissions of the current user, ordered by key.
+     */
+    public Collection<PersistentWorkspacePermission> getWorkspacePermissionsForCurrentUser(
+            PersistenceManager manager, int offset, int limit) {
+
+        assert offset >= 0;
+        assert limit >= 0;
+
+        Query userIdQuery = createUserIdQuery(manager);
+        userIdQuery.setRange(offset, offset + limit);
 
         return (Collection<PersistentWorkspacePermission>) userIdQuery
                 .execute(getCurrentUser().getUserId());
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.shared.workbench.util.json;
+
+/**
+ * Pull-based access to the values selected by a {@link JsonPath}. The
+ * current value can be read with the accessors of the {@link JsonParser}
+ * that created the cursor.
+ */
+public interface JsonCursor {
+
+    /**
+     * @return current value. Only valid after {@link #next()} returned
+     *         <code>true</code>.
+     */
+    Object current();
+
+    /**
+     * Advances to the next selected value.
+     * 
+     * @return <code>false</code> if there are no more values
+     */
+    boolean next();
+
+}
@@ -0,0 +1,154 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.shared.workbench.util.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Precompiled path into a JSON document, e.g.
+ * <code>success.data[0].page.contents.mappings.mapping[*]</code>.
+ * <p>
+ * A path is a sequence of segments. Property segments select the value of an
+ * object property, index segments (<code>[0]</code>) select an array element
+ * and wildcard segments (<code>[*]</code>) select all elements of an array.
+ * Segments that do not match the structure of the document (e.g. an index
+ * segment applied to an object) select nothing.
+ * </p>
+ */
+public final class JsonPath {
+
+    private static final int WILDCARD = -1;
+
+    private static final int PROPERTY = -2;
+
+    /**
+     * Parses <code>path</code>. Paths are immutable and should be compiled
+     * once and stored in constants.
+     * 
+     * @throws IllegalArgumentException
+     *             if <code>path</code> is malformed
+     */
+    public static JsonPath compile(String path)
+            throws IllegalArgumentException {
+
+        assert path != null;
+
+        List<String> properties = new ArrayList<String>();
+        List<Integer> indices = new ArrayList<Integer>();
+
+        int position = 0;
+        while (position < path.length()) {
+            char c = path.charAt(position);
+            if (c == '[') {
+                int end = path.indexOf(']', position);
+                if (end == -1) {
+                    throw new IllegalArgumentException("unclosed '[' in "
+                            + path);
+                }
+                properties.add(null);
+                indices.add(parseIndex(path,
+                        path.substring(position + 1, end)));
+                position = end + 1;
+            } else {
+                if (c == '.') {
+                    if (position == 0) {
+                        throw new IllegalArgumentException(
+                                "path must not start with '.': " + path);
+                    }
+                    position++;
+                }
+                int end = position;
+                while (end < path.length() && path.charAt(end) != '.'
+                        && path.charAt(end) != '[') {
+                    end++;
+                }
+                if (end == position) {
+                    throw new IllegalArgumentException(
+                            "empty property name in " + path);
+                }
+                properties.add(path.substring(position, end));
+                indices.add(PROPERTY);
+                position = end;
+            }
+        }
+
+        return new JsonPath(path, properties, indices);
+    }
+
+    private static int parseIndex(String path, String index) {
+        if ("*".equals(index)) {
+            return WILDCARD;
+        }
+        try {
+            int result = Integer.parseInt(index);
+            if (result >= 0) {
+                return result;
+            }
+        } catch (NumberFormatException e) {
+            // handled below
+        }
+        throw new IllegalArgumentException("invalid index '" + index
+                + "' in " + path);
+    }
+
+    private final int[] indices;
+
+    private final String path;
+
+    private final String[] properties;
+
+    private JsonPath(String path, List<String> properties,
+            List<Integer> indices) {
+        this.path = path;
+        this.properties = properties.toArray(new String[properties.size()]);
+        this.indices = new int[indices.size()];
+        for (int i = 0; i < this.indices.length; i++) {
+            this.indices[i] = indices.get(i);
+        }
+    }
+
+    /**
+     * @return property name of a property segment, <code>null</code> for
+     *         index and wildcard segments
+     */
+    public String getProperty(int segment) {
+        return properties[segment];
+    }
+
+    public int getSegmentCount() {
+        return indices.length;
+    }
+
+    public boolean isPropertySegment(int segment) {
+        return indices[segment] == PROPERTY;
+    }
+
+    public boolean matchesIndex(int segment, int index) {
+        return indices[segment] == WILDCARD || indices[segment] == index;
+    }
+
+    public boolean matchesProperty(int segment, String property) {
+        return isPropertySegment(segment)
+                && properties[segment].equals(property);
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+
+}
@@ -0,0 +1,27 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.shared.workbench.util.json;
+
+/**
+ * {@link JsonParser} that can select values from a JSON document without
+ * materializing the whole document. Implementations that are backed by a
+ * streaming parser only hold the current value in memory.
+ */
+public interface JsonStreamingParser extends JsonParser {
+
+    JsonCursor select(String json, JsonPath path);
+
+}
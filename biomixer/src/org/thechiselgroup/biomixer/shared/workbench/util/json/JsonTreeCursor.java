@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright 2012 David Rusk 
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License"); 
+ * you may not use this file except in compliance with the License. 
+ * You may obtain a copy of the License at 
+ *
+ *    http://www.apache.org/licenses/LICENSE-2.0 
+ *     
+ * Unless required by applicable law or agreed to in writing, software 
+ * distributed under the License is distributed on an "AS IS" BASIS, 
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. 
+ * See the License for the specific language governing permissions and 
+ * limitations under the License.  
+ *******************************************************************************/
+package org.thechiselgroup.biomixer.shared.workbench.util.json;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * {@link JsonCursor} over an already parsed document. Used by
+ * {@link JsonStreamingParser}s that cannot stream.
+ */
+public class JsonTreeCursor implements JsonCursor {
+
+    private Object current;
+
+    private int nextIndex = 0;
+
+    private final List<Object> values = new ArrayList<Object>();
+
+    public JsonTreeCursor(JsonParser jsonParser, Object root, JsonPath path) {
+        assert jsonParser != null;
+        assert path != null;
+
+        collect(jsonParser, root, path, 0);
+    }
+
+    private void collect(JsonParser jsonParser, Object value, JsonPath path,
+            int segment) {
+
+        if (value == null) {
+            return;
+        }
+
+        if (segment == path.getSegmentCount()) {
+            values.add(value);
+            return;
+        }
+
+        if (path.isPropertySegment(segment)) {
+            collect(jsonParser,
+                    jsonParser.get(value, path.getProperty(segment)), path,
+                    segment + 1);
+            return;
+        }
+
+        if (!jsonParser.isArray(value)) {
+            return;
+        }
+
+        int length = jsonParser.length(value);
+        for (int i = 0; i < length; i++) {
+            if (path.matchesIndex(segment, i)) {
+                collect(jsonParser, jsonParser.get(value, i), path,
+                        segment + 1);
+            }
+        }
+    }
+
+    @Override
+    public Object current() {
+        return current;
+    }
+
+    @Override
+    public boolean next() {
+        if (nextIndex >= values.size()) {
+            current = null;
+            return false;
+        }
+
+        current = values.get(nextIndex);
+        values.set(nextIndex++, null);
+        return true;
+    }
+
+}